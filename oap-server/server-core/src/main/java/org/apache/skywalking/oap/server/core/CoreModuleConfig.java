@@ -30,4 +30,40 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter @Getter private String restContextPath;
     @Setter @Getter private String gRPCHost;
     @Setter @Getter private int gRPCPort;
+    /**
+     * The last persisted indicators are cached until their time bucket is older than the horizon, in minutes, 0 means
+     * no cache.
+     */
+    @Setter @Getter private int indicatorCacheHorizon = 10;
+    @Setter @Getter private int indicatorCacheMaxSize = 100000;
+    /**
+     * The number of aggregate threads of every indicator, could be overridden by indicator name, such as
+     * "endpoint_avg:4,service_resp_time:2".
+     */
+    @Setter @Getter private int indicatorAggregatePartitions = 1;
+    @Setter @Getter private String indicatorAggregatePartitionsOverride = "";
+    /**
+     * The virtual nodes of every OAP node on the hash ring, which routes the indicators to the nodes.
+     */
+    @Setter @Getter private int remoteVirtualNodes = 160;
+    @Setter @Getter private boolean remoteGzip = false;
+    /**
+     * The messages queued for every other OAP node, the full queue blocks, drops the oldest message or spills the
+     * messages into the files under the spill path, by the overflow policy, block, drop_oldest or spill.
+     */
+    @Setter @Getter private int remoteBufferSize = 3000;
+    @Setter @Getter private String remoteOverflowPolicy = "block";
+    @Setter @Getter private String remoteSpillPath = "../remote-buffer";
+    /**
+     * The period in seconds of flushing the persistent workers into storage.
+     */
+    @Setter @Getter private int persistentPeriod = 3;
+    /**
+     * The threads building the batches of the persistent workers.
+     */
+    @Setter @Getter private int persistentPoolSize = 4;
+    /**
+     * The sequences of the inventories leased by every node at once.
+     */
+    @Setter @Getter private int registerSequenceBlockSize = 100;
 }
@@ -95,7 +95,7 @@ public class CoreModuleProvider extends ModuleProvider {
 
         this.registerServiceImplementation(StreamDataClassGetter.class, streamDataAnnotationContainer);
 
-        this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(getManager()));
+        this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(getManager(), moduleConfig.getRemoteVirtualNodes()));
         this.registerServiceImplementation(IModelGetter.class, storageAnnotationListener);
 
         this.registerServiceImplementation(ServiceInventoryCache.class, new ServiceInventoryCache(getManager()));
@@ -118,11 +118,11 @@ public class CoreModuleProvider extends ModuleProvider {
 
         annotationScan.registerListener(storageAnnotationListener);
         annotationScan.registerListener(streamAnnotationListener);
-        annotationScan.registerListener(new IndicatorTypeListener(getManager()));
-        annotationScan.registerListener(new InventoryTypeListener(getManager()));
+        annotationScan.registerListener(new IndicatorTypeListener(getManager(), moduleConfig));
+        annotationScan.registerListener(new InventoryTypeListener(getManager(), moduleConfig));
         annotationScan.registerListener(new RecordTypeListener(getManager()));
 
-        this.remoteClientManager = new RemoteClientManager(getManager());
+        this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig);
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
     }
 
@@ -150,7 +150,7 @@ public class CoreModuleProvider extends ModuleProvider {
         RemoteInstance gRPCServerInstance = new RemoteInstance(moduleConfig.getGRPCHost(), moduleConfig.getGRPCPort(), true);
         this.getManager().find(ClusterModule.NAME).getService(ClusterRegister.class).registerRemote(gRPCServerInstance);
 
-        PersistenceTimer.INSTANCE.start(getManager());
+        PersistenceTimer.INSTANCE.start(getManager(), moduleConfig);
     }
 
     @Override
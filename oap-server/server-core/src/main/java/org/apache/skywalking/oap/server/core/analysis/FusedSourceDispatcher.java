@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.source.Source;
+
+/**
+ * The dispatcher generated from all the metrics of one scope. The source is sent to the aggregate worker of the scope
+ * once, instead of one indicator per metric, then the aggregate thread combines it into the indicators of all the
+ * metrics, evaluating the filters once.
+ *
+ * @author peng-yongsheng
+ */
+public interface FusedSourceDispatcher<S extends Source> extends SourceDispatcher<S> {
+
+    /**
+     * @return the indicator classes of the metrics, the accumulator of every metric is at the same index.
+     */
+    List<Class<? extends Indicator>> indicatorClasses();
+
+    /**
+     * Combines the source into the indicators of its entity and time bucket, the indicator is created when the source
+     * is the first one of them.
+     */
+    void combine(S source, IndicatorAccumulator[] accumulators);
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.library.util.TimeBucketUtils;
+
+/**
+ * Remembers the last persisted value of the indicators, so the persistent worker combines the new data with it
+ * instead of reading the storage again. The indicators whose time bucket is older than the horizon are evicted, and
+ * all of them are dropped when the remote clients change, because the routing moves some of the keys to another node
+ * which writes them without this node knowing.
+ *
+ * @author peng-yongsheng
+ */
+public class HotIndicatorCache {
+
+    private final int horizon;
+    private final Map<String, Indicator> cache;
+    private final RemoteClientManager remoteClientManager;
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+    private int routingVersion;
+
+    /**
+     * @param horizon in minutes
+     */
+    public HotIndicatorCache(int horizon, int maxSize, RemoteClientManager remoteClientManager) {
+        this.horizon = horizon;
+        this.cache = new LinkedHashMap<String, Indicator>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Indicator> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.remoteClientManager = remoteClientManager;
+        this.hitCount = new AtomicLong(0);
+        this.missCount = new AtomicLong(0);
+        this.routingVersion = remoteClientManager.getRoutingVersion();
+    }
+
+    /**
+     * Evict the indicators out of the horizon, or all of them when the routing changed since the last call.
+     */
+    public synchronized void refresh(long currentTime) {
+        int currentRoutingVersion = remoteClientManager.getRoutingVersion();
+        if (currentRoutingVersion != routingVersion) {
+            routingVersion = currentRoutingVersion;
+            cache.clear();
+            return;
+        }
+
+        long minuteTimeBucketBefore = TimeBucketUtils.INSTANCE.getMinuteTimeBucket(currentTime - horizon * 60 * 1000L);
+        cache.values().removeIf(indicator -> indicator.getTimeBucket() < timeBucketBefore(minuteTimeBucketBefore, indicator.getTimeBucket()));
+    }
+
+    public synchronized Indicator get(Indicator indicator) {
+        Indicator cachedIndicator = cache.get(indicator.id());
+        if (Objects.nonNull(cachedIndicator)) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return cachedIndicator;
+    }
+
+    public synchronized void put(Indicator indicator) {
+        cache.put(indicator.id(), indicator);
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Convert the minute time bucket to the same precision of the given time bucket.
+     */
+    private long timeBucketBefore(long minuteTimeBucketBefore, long timeBucket) {
+        switch (String.valueOf(timeBucket).length()) {
+            case 10:
+                return TimeBucketUtils.INSTANCE.minuteToHour(minuteTimeBucketBefore);
+            case 8:
+                return TimeBucketUtils.INSTANCE.minuteToDay(minuteTimeBucketBefore);
+            case 6:
+                return TimeBucketUtils.INSTANCE.minuteToMonth(minuteTimeBucketBefore);
+            default:
+                return minuteTimeBucketBefore;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+
+/**
+ * The indicators of one metric in aggregating, keyed by the entity id and the time bucket. The sources of one round
+ * mostly belong to the same minute, so the indicators of the latest time bucket are looked up by the entity id only,
+ * without building any key object.
+ *
+ * Not thread safe, every aggregate thread owns its accumulators.
+ *
+ * @author peng-yongsheng
+ */
+public class IndicatorAccumulator {
+
+    private long latestTimeBucket = Long.MIN_VALUE;
+    private Map<String, Indicator> latest = new HashMap<>();
+    private final Map<Long, Map<String, Indicator>> others = new HashMap<>();
+
+    /**
+     * @param entityId the entity id of the indicator, null for the metrics without entity, such as the all scope.
+     * @return the indicator in aggregating, or null if the source is the first one of the entity and time bucket.
+     */
+    public Indicator get(String entityId, long timeBucket) {
+        if (timeBucket == latestTimeBucket) {
+            return latest.get(entityId);
+        }
+        Map<String, Indicator> indicators = others.get(timeBucket);
+        return indicators == null ? null : indicators.get(entityId);
+    }
+
+    /**
+     * The time bucket of the indicator must be set before.
+     */
+    public void put(String entityId, Indicator indicator) {
+        long timeBucket = indicator.getTimeBucket();
+        if (timeBucket != latestTimeBucket) {
+            if (timeBucket < latestTimeBucket) {
+                others.computeIfAbsent(timeBucket, key -> new HashMap<>()).put(entityId, indicator);
+                return;
+            }
+            if (!latest.isEmpty()) {
+                others.put(latestTimeBucket, latest);
+            }
+            latestTimeBucket = timeBucket;
+            latest = new HashMap<>();
+        }
+        latest.put(entityId, indicator);
+    }
+
+    public boolean isEmpty() {
+        return latest.isEmpty() && others.isEmpty();
+    }
+
+    /**
+     * Hands over all the indicators, then starts over.
+     */
+    public void drain(Consumer<Indicator> consumer) {
+        others.values().forEach(indicators -> indicators.values().forEach(consumer));
+        latest.values().forEach(consumer);
+        others.clear();
+        latest.clear();
+    }
+}
@@ -27,27 +27,13 @@ import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 public class MergeDataCollection<STREAM_DATA extends StreamData> implements SWCollection<STREAM_DATA> {
 
     private Map<STREAM_DATA, STREAM_DATA> collection;
-    private volatile boolean writing;
     private volatile boolean reading;
 
     MergeDataCollection() {
         this.collection = new HashMap<>();
-        this.writing = false;
         this.reading = false;
     }
 
-    public void finishWriting() {
-        writing = false;
-    }
-
-    @Override public void writing() {
-        writing = true;
-    }
-
-    @Override public boolean isWriting() {
-        return writing;
-    }
-
     @Override public void finishReading() {
         reading = false;
     }
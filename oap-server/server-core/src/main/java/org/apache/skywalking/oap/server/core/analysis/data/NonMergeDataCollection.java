@@ -27,27 +27,13 @@ import org.apache.skywalking.oap.server.core.storage.StorageData;
 public class NonMergeDataCollection<STORAGE_DATA extends StorageData> implements SWCollection<STORAGE_DATA> {
 
     private final List<STORAGE_DATA> data;
-    private volatile boolean writing;
     private volatile boolean reading;
 
     NonMergeDataCollection() {
         this.data = new ArrayList<>();
-        this.writing = false;
         this.reading = false;
     }
 
-    public void finishWriting() {
-        writing = false;
-    }
-
-    @Override public void writing() {
-        writing = true;
-    }
-
-    @Override public boolean isWriting() {
-        return writing;
-    }
-
     @Override public void finishReading() {
         reading = false;
     }
@@ -29,18 +29,12 @@ public interface SWCollection<DATA> {
 
     boolean isReading();
 
-    void writing();
-
-    boolean isWriting();
-
     void clear();
 
     int size();
 
     void finishReading();
 
-    void finishWriting();
-
     Collection<DATA> collection();
 
     boolean containsKey(DATA key);
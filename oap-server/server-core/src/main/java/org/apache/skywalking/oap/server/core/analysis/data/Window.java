@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author peng-yongsheng
@@ -27,7 +28,8 @@ public abstract class Window<DATA> {
 
     private AtomicInteger windowSwitch = new AtomicInteger(0);
 
-    private SWCollection<DATA> pointer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile SWCollection<DATA> pointer;
 
     private SWCollection<DATA> windowDataA;
     private SWCollection<DATA> windowDataB;
@@ -48,23 +50,31 @@ public abstract class Window<DATA> {
         windowSwitch.addAndGet(-1);
     }
 
+    /**
+     * The writers hold the write lock while they are writing into the current collection, so once the pointer is
+     * switched under the lock, no writer is left in the last collection and it is ready to read.
+     */
     public void switchPointer() {
-        if (pointer == windowDataA) {
-            pointer = windowDataB;
-        } else {
-            pointer = windowDataA;
+        writeLock.lock();
+        try {
+            if (pointer == windowDataA) {
+                pointer = windowDataB;
+            } else {
+                pointer = windowDataA;
+            }
+        } finally {
+            writeLock.unlock();
         }
         getLast().reading();
     }
 
     SWCollection<DATA> getCurrentAndWriting() {
-        if (pointer == windowDataA) {
-            windowDataA.writing();
-            return windowDataA;
-        } else {
-            windowDataB.writing();
-            return windowDataB;
-        }
+        writeLock.lock();
+        return pointer;
+    }
+
+    void finishCurrentWriting() {
+        writeLock.unlock();
     }
 
     private SWCollection<DATA> getCurrent() {
@@ -16,9 +16,14 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.all;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
@@ -27,63 +32,48 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class AllDispatcher implements SourceDispatcher<All> {
-
-    @Override public void dispatch(All source) {
-        doAllP99(source);
-        doAllP95(source);
-        doAllP90(source);
-        doAllP75(source);
-        doAllP50(source);
-        doAllHeatmap(source);
-    }
-
-    private void doAllP99(All source) {
-        AllP99Indicator indicator = new AllP99Indicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
-    }
-    private void doAllP95(All source) {
-        AllP95Indicator indicator = new AllP95Indicator();
+public class AllDispatcher implements FusedSourceDispatcher<All> {
 
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        AllPercentileIndicator.class,
+        AllHeatmapIndicator.class);
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public void dispatch(All source) {
+        IndicatorProcess.INSTANCE.in(this, source);
     }
-    private void doAllP90(All source) {
-        AllP90Indicator indicator = new AllP90Indicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
     }
-    private void doAllP75(All source) {
-        AllP75Indicator indicator = new AllP75Indicator();
 
+    @Override public void combine(All source, IndicatorAccumulator[] accumulators) {
+        String entityId = null;
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+        doAllPercentile(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        doAllHeatmap(source, equalMatch, entityId, timeBucket, accumulators[1]);
     }
-    private void doAllP50(All source) {
-        AllP50Indicator indicator = new AllP50Indicator();
 
-
-        indicator.setTimeBucket(source.getTimeBucket());
+    private void doAllPercentile(All source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        AllPercentileIndicator indicator = (AllPercentileIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new AllPercentileIndicator();
+            indicator.setTimeBucket(timeBucket);
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doAllHeatmap(All source) {
-        AllHeatmapIndicator indicator = new AllHeatmapIndicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
+    private void doAllHeatmap(All source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        AllHeatmapIndicator indicator = (AllHeatmapIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new AllHeatmapIndicator();
+            indicator.setTimeBucket(timeBucket);
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getLatency(), 100, 20);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
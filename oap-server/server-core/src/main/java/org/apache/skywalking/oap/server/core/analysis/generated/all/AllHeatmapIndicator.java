@@ -18,12 +18,15 @@
 
 package org.apache.skywalking.oap.server.core.analysis.generated.all;
 
+import com.google.protobuf.ByteString;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.alarm.AlarmMeta;
 import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -76,12 +79,12 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getStep());
-        remoteBuilder.setDataIntegers(1, getNumOfSteps());
-        getDetailGroup().forEach(element -> remoteBuilder.addDataIntLongPairList(element.serialize()));
+        remoteBuilder.addDataIntegers(getStep());
+        remoteBuilder.addDataIntegers(getNumOfSteps());
+        remoteBuilder.addDataBinaries(ByteString.copyFrom(getDetailGroup().toBytes()));
 
         return remoteBuilder;
     }
@@ -94,13 +97,24 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
         setStep(remoteData.getDataIntegers(0));
         setNumOfSteps(remoteData.getDataIntegers(1));
 
-        setDetailGroup(new IntKeyLongValueArray(30));
-        remoteData.getDataIntLongPairListList().forEach(element -> {
-            getDetailGroup().add(new IntKeyLongValue(element.getKey(), element.getValue()));
-        });
+        setDetailGroup(new Histogram(remoteData.getDataBinaries(0).toByteArray()));
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getStep());
+        writer.writeInt(getNumOfSteps());
+        writer.writeBytes(getDetailGroup().toBytes());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setTimeBucket(reader.readLong());
+        setStep(reader.readInt());
+        setNumOfSteps(reader.readInt());
+        setDetailGroup(new Histogram(reader.readBytes()));
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("all_heatmap", Scope.All);
     }
@@ -111,8 +125,7 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
         indicator.setTimeBucket(toTimeBucketInHour());
         indicator.setStep(this.getStep());
         indicator.setNumOfSteps(this.getNumOfSteps());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
@@ -122,8 +135,7 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
         indicator.setTimeBucket(toTimeBucketInDay());
         indicator.setStep(this.getStep());
         indicator.setNumOfSteps(this.getNumOfSteps());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
@@ -133,8 +145,7 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
         indicator.setTimeBucket(toTimeBucketInMonth());
         indicator.setStep(this.getStep());
         indicator.setNumOfSteps(this.getNumOfSteps());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
@@ -153,7 +164,7 @@ public class AllHeatmapIndicator extends ThermodynamicIndicator implements Alarm
             AllHeatmapIndicator indicator = new AllHeatmapIndicator();
             indicator.setStep(((Number)dbMap.get("step")).intValue());
             indicator.setNumOfSteps(((Number)dbMap.get("num_of_steps")).intValue());
-            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.IntKeyLongValueArray((String)dbMap.get("detail_group")));
+            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.Histogram((String)dbMap.get("detail_group")));
             indicator.setTimeBucket(((Number)dbMap.get("time_bucket")).longValue());
             return indicator;
         }
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.generated.all;
+
+import com.google.protobuf.ByteString;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.alarm.AlarmMeta;
+import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
+import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.source.Scope;
+
+/**
+ * This class is auto generated. Please don't change this class manually.
+ *
+ * @author Observability Analysis Language code generator
+ */
+@IndicatorType
+@StreamData
+@StorageEntity(name = "all_percentile", builder = AllPercentileIndicator.Builder.class)
+public class AllPercentileIndicator extends PercentileIndicator implements AlarmSupported {
+
+
+    @Override public String id() {
+        String splitJointId = String.valueOf(getTimeBucket());
+        return splitJointId;
+    }
+
+    @Override public int hashCode() {
+        int result = 17;
+        result = 31 * result + (int)getTimeBucket();
+        return result;
+    }
+
+
+    @Override public int remoteHashCode() {
+        int result = 17;
+        return result;
+    }
+
+    @Override public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+
+        AllPercentileIndicator indicator = (AllPercentileIndicator)obj;
+
+        if (getTimeBucket() != indicator.getTimeBucket())
+            return false;
+
+        return true;
+    }
+
+    @Override public RemoteData.Builder serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+
+        remoteBuilder.addDataIntegers(getP50());
+        remoteBuilder.addDataIntegers(getP75());
+        remoteBuilder.addDataIntegers(getP90());
+        remoteBuilder.addDataIntegers(getP95());
+        remoteBuilder.addDataIntegers(getP99());
+        remoteBuilder.addDataIntegers(getPrecision());
+        remoteBuilder.addDataBinaries(ByteString.copyFrom(getDetailGroup().toBytes()));
+
+        return remoteBuilder;
+    }
+
+    @Override public void deserialize(RemoteData remoteData) {
+
+        setTimeBucket(remoteData.getDataLongs(0));
+
+
+        setP50(remoteData.getDataIntegers(0));
+        setP75(remoteData.getDataIntegers(1));
+        setP90(remoteData.getDataIntegers(2));
+        setP95(remoteData.getDataIntegers(3));
+        setP99(remoteData.getDataIntegers(4));
+        setPrecision(remoteData.getDataIntegers(5));
+
+        setDetailGroup(new Histogram(remoteData.getDataBinaries(0).toByteArray()));
+
+    }
+
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getP50());
+        writer.writeInt(getP75());
+        writer.writeInt(getP90());
+        writer.writeInt(getP95());
+        writer.writeInt(getP99());
+        writer.writeInt(getPrecision());
+        writer.writeBytes(getDetailGroup().toBytes());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setTimeBucket(reader.readLong());
+        setP50(reader.readInt());
+        setP75(reader.readInt());
+        setP90(reader.readInt());
+        setP95(reader.readInt());
+        setP99(reader.readInt());
+        setPrecision(reader.readInt());
+        setDetailGroup(new Histogram(reader.readBytes()));
+    }
+
+    @Override public AlarmMeta getAlarmMeta() {
+        return new AlarmMeta("all_percentile", Scope.All);
+    }
+
+    @Override
+    public Indicator toHour() {
+        AllPercentileIndicator indicator = new AllPercentileIndicator();
+        indicator.setTimeBucket(toTimeBucketInHour());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
+        indicator.setPrecision(this.getPrecision());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
+        return indicator;
+    }
+
+    @Override
+    public Indicator toDay() {
+        AllPercentileIndicator indicator = new AllPercentileIndicator();
+        indicator.setTimeBucket(toTimeBucketInDay());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
+        indicator.setPrecision(this.getPrecision());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
+        return indicator;
+    }
+
+    @Override
+    public Indicator toMonth() {
+        AllPercentileIndicator indicator = new AllPercentileIndicator();
+        indicator.setTimeBucket(toTimeBucketInMonth());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
+        indicator.setPrecision(this.getPrecision());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
+        return indicator;
+    }
+
+    public static class Builder implements StorageBuilder<AllPercentileIndicator> {
+
+        @Override public Map<String, Object> data2Map(AllPercentileIndicator storageData) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("p50", storageData.getP50());
+            map.put("p75", storageData.getP75());
+            map.put("p90", storageData.getP90());
+            map.put("p95", storageData.getP95());
+            map.put("p99", storageData.getP99());
+            map.put("precision", storageData.getPrecision());
+            map.put("detail_group", storageData.getDetailGroup());
+            map.put("time_bucket", storageData.getTimeBucket());
+            return map;
+        }
+
+        @Override public AllPercentileIndicator map2Data(Map<String, Object> dbMap) {
+            AllPercentileIndicator indicator = new AllPercentileIndicator();
+            indicator.setP50(((Number)dbMap.get("p50")).intValue());
+            indicator.setP75(((Number)dbMap.get("p75")).intValue());
+            indicator.setP90(((Number)dbMap.get("p90")).intValue());
+            indicator.setP95(((Number)dbMap.get("p95")).intValue());
+            indicator.setP99(((Number)dbMap.get("p99")).intValue());
+            indicator.setPrecision(((Number)dbMap.get("precision")).intValue());
+            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.Histogram((String)dbMap.get("detail_group")));
+            indicator.setTimeBucket(((Number)dbMap.get("time_bucket")).longValue());
+            return indicator;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -74,7 +76,7 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
             return false;
 
         EndpointAvgIndicator indicator = (EndpointAvgIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -85,16 +87,16 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getSummation());
-        remoteBuilder.setDataLongs(1, getValue());
-        remoteBuilder.setDataLongs(2, getTimeBucket());
+        remoteBuilder.addDataLongs(getSummation());
+        remoteBuilder.addDataLongs(getValue());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getServiceInstanceId());
-        remoteBuilder.setDataIntegers(2, getCount());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getCount());
 
         return remoteBuilder;
     }
@@ -114,6 +116,26 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getSummation());
+        writer.writeLong(getValue());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getServiceInstanceId());
+        writer.writeInt(getCount());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setSummation(reader.readLong());
+        setValue(reader.readLong());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setServiceInstanceId(reader.readInt());
+        setCount(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("endpoint_avg", Scope.Endpoint, entityId);
     }
@@ -128,7 +150,6 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -142,7 +163,6 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -156,7 +176,6 @@ public class EndpointAvgIndicator extends LongAvgIndicator implements AlarmSuppo
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -74,7 +76,7 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
             return false;
 
         EndpointCpmIndicator indicator = (EndpointCpmIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -85,15 +87,15 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getValue());
-        remoteBuilder.setDataLongs(1, getTotal());
-        remoteBuilder.setDataLongs(2, getTimeBucket());
+        remoteBuilder.addDataLongs(getValue());
+        remoteBuilder.addDataLongs(getTotal());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
 
         return remoteBuilder;
     }
@@ -112,6 +114,24 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getValue());
+        writer.writeLong(getTotal());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getServiceInstanceId());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setValue(reader.readLong());
+        setTotal(reader.readLong());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setServiceInstanceId(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("endpoint_cpm", Scope.Endpoint, entityId);
     }
@@ -125,7 +145,6 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
         indicator.setServiceInstanceId(this.getServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -138,7 +157,6 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
         indicator.setServiceInstanceId(this.getServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -151,7 +169,6 @@ public class EndpointCpmIndicator extends CPMIndicator implements AlarmSupported
         indicator.setServiceInstanceId(this.getServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
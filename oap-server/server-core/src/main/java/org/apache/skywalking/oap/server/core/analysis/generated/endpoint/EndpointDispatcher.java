@@ -16,9 +16,14 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.endpoint;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
@@ -27,113 +32,86 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class EndpointDispatcher implements SourceDispatcher<Endpoint> {
-
-    @Override public void dispatch(Endpoint source) {
-        doEndpointCpm(source);
-        doEndpointAvg(source);
-        doEndpointSla(source);
-        doEndpointP99(source);
-        doEndpointP95(source);
-        doEndpointP90(source);
-        doEndpointP75(source);
-        doEndpointP50(source);
-    }
+public class EndpointDispatcher implements FusedSourceDispatcher<Endpoint> {
 
-    private void doEndpointCpm(Endpoint source) {
-        EndpointCpmIndicator indicator = new EndpointCpmIndicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
-    }
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        EndpointCpmIndicator.class,
+        EndpointAvgIndicator.class,
+        EndpointSlaIndicator.class,
+        EndpointPercentileIndicator.class);
 
-    private void doEndpointAvg(Endpoint source) {
-        EndpointAvgIndicator indicator = new EndpointAvgIndicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(source.getLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public void dispatch(Endpoint source) {
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doEndpointSla(Endpoint source) {
-        EndpointSlaIndicator indicator = new EndpointSlaIndicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(new org.apache.skywalking.oap.server.core.analysis.indicator.expression.EqualMatch(), source.isStatus(), true);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
     }
 
-    private void doEndpointP99(Endpoint source) {
-        EndpointP99Indicator indicator = new EndpointP99Indicator();
-
+    @Override public void combine(Endpoint source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+        doEndpointCpm(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        doEndpointAvg(source, equalMatch, entityId, timeBucket, accumulators[1]);
+        doEndpointSla(source, equalMatch, entityId, timeBucket, accumulators[2]);
+        doEndpointPercentile(source, equalMatch, entityId, timeBucket, accumulators[3]);
     }
 
-    private void doEndpointP95(Endpoint source) {
-        EndpointP95Indicator indicator = new EndpointP95Indicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doEndpointCpm(Endpoint source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointCpmIndicator indicator = (EndpointCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(1);
     }
 
-    private void doEndpointP90(Endpoint source) {
-        EndpointP90Indicator indicator = new EndpointP90Indicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doEndpointAvg(Endpoint source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointAvgIndicator indicator = (EndpointAvgIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointAvgIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(source.getLatency(), 1);
     }
 
-    private void doEndpointP75(Endpoint source) {
-        EndpointP75Indicator indicator = new EndpointP75Indicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doEndpointSla(Endpoint source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointSlaIndicator indicator = (EndpointSlaIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointSlaIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(equalMatch, source.isStatus(), true);
     }
 
-    private void doEndpointP50(Endpoint source) {
-        EndpointP50Indicator indicator = new EndpointP50Indicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
+    private void doEndpointPercentile(Endpoint source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointPercentileIndicator indicator = (EndpointPercentileIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointPercentileIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-
 }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.generated.endpoint;
 
+import com.google.protobuf.ByteString;
 import java.util.*;
 import lombok.*;
 import org.apache.skywalking.oap.server.core.Const;
@@ -26,6 +27,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -38,8 +41,8 @@ import org.apache.skywalking.oap.server.core.source.Scope;
  */
 @IndicatorType
 @StreamData
-@StorageEntity(name = "endpoint_p50", builder = EndpointP50Indicator.Builder.class)
-public class EndpointP50Indicator extends P50Indicator implements AlarmSupported {
+@StorageEntity(name = "endpoint_percentile", builder = EndpointPercentileIndicator.Builder.class)
+public class EndpointPercentileIndicator extends PercentileIndicator implements AlarmSupported {
 
     @Setter @Getter @Column(columnName = "entity_id") @IDColumn private java.lang.String entityId;
     @Setter @Getter @Column(columnName = "service_id")  private int serviceId;
@@ -73,8 +76,8 @@ public class EndpointP50Indicator extends P50Indicator implements AlarmSupported
         if (getClass() != obj.getClass())
             return false;
 
-        EndpointP50Indicator indicator = (EndpointP50Indicator)obj;
-        if (entityId != indicator.entityId)
+        EndpointPercentileIndicator indicator = (EndpointPercentileIndicator)obj;
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -85,16 +88,20 @@ public class EndpointP50Indicator extends P50Indicator implements AlarmSupported
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getServiceInstanceId());
-        remoteBuilder.setDataIntegers(2, getValue());
-        remoteBuilder.setDataIntegers(3, getPrecision());
-        getDetailGroup().forEach(element -> remoteBuilder.addDataIntLongPairList(element.serialize()));
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getP50());
+        remoteBuilder.addDataIntegers(getP75());
+        remoteBuilder.addDataIntegers(getP90());
+        remoteBuilder.addDataIntegers(getP95());
+        remoteBuilder.addDataIntegers(getP99());
+        remoteBuilder.addDataIntegers(getPrecision());
+        remoteBuilder.addDataBinaries(ByteString.copyFrom(getDetailGroup().toBytes()));
 
         return remoteBuilder;
     }
@@ -107,84 +114,130 @@ public class EndpointP50Indicator extends P50Indicator implements AlarmSupported
 
         setServiceId(remoteData.getDataIntegers(0));
         setServiceInstanceId(remoteData.getDataIntegers(1));
-        setValue(remoteData.getDataIntegers(2));
-        setPrecision(remoteData.getDataIntegers(3));
+        setP50(remoteData.getDataIntegers(2));
+        setP75(remoteData.getDataIntegers(3));
+        setP90(remoteData.getDataIntegers(4));
+        setP95(remoteData.getDataIntegers(5));
+        setP99(remoteData.getDataIntegers(6));
+        setPrecision(remoteData.getDataIntegers(7));
 
-        setDetailGroup(new IntKeyLongValueArray(30));
-        remoteData.getDataIntLongPairListList().forEach(element -> {
-            getDetailGroup().add(new IntKeyLongValue(element.getKey(), element.getValue()));
-        });
+        setDetailGroup(new Histogram(remoteData.getDataBinaries(0).toByteArray()));
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getServiceInstanceId());
+        writer.writeInt(getP50());
+        writer.writeInt(getP75());
+        writer.writeInt(getP90());
+        writer.writeInt(getP95());
+        writer.writeInt(getP99());
+        writer.writeInt(getPrecision());
+        writer.writeBytes(getDetailGroup().toBytes());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setServiceInstanceId(reader.readInt());
+        setP50(reader.readInt());
+        setP75(reader.readInt());
+        setP90(reader.readInt());
+        setP95(reader.readInt());
+        setP99(reader.readInt());
+        setPrecision(reader.readInt());
+        setDetailGroup(new Histogram(reader.readBytes()));
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
-        return new AlarmMeta("endpoint_p50", Scope.Endpoint, entityId);
+        return new AlarmMeta("endpoint_percentile", Scope.Endpoint, entityId);
     }
 
     @Override
     public Indicator toHour() {
-        EndpointP50Indicator indicator = new EndpointP50Indicator();
+        EndpointPercentileIndicator indicator = new EndpointPercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInHour());
         indicator.setEntityId(this.getEntityId());
         indicator.setServiceId(this.getServiceId());
         indicator.setServiceInstanceId(this.getServiceInstanceId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
     @Override
     public Indicator toDay() {
-        EndpointP50Indicator indicator = new EndpointP50Indicator();
+        EndpointPercentileIndicator indicator = new EndpointPercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInDay());
         indicator.setEntityId(this.getEntityId());
         indicator.setServiceId(this.getServiceId());
         indicator.setServiceInstanceId(this.getServiceInstanceId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
     @Override
     public Indicator toMonth() {
-        EndpointP50Indicator indicator = new EndpointP50Indicator();
+        EndpointPercentileIndicator indicator = new EndpointPercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInMonth());
         indicator.setEntityId(this.getEntityId());
         indicator.setServiceId(this.getServiceId());
         indicator.setServiceInstanceId(this.getServiceInstanceId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
-    public static class Builder implements StorageBuilder<EndpointP50Indicator> {
+    public static class Builder implements StorageBuilder<EndpointPercentileIndicator> {
 
-        @Override public Map<String, Object> data2Map(EndpointP50Indicator storageData) {
+        @Override public Map<String, Object> data2Map(EndpointPercentileIndicator storageData) {
             Map<String, Object> map = new HashMap<>();
             map.put("entity_id", storageData.getEntityId());
             map.put("service_id", storageData.getServiceId());
             map.put("service_instance_id", storageData.getServiceInstanceId());
-            map.put("value", storageData.getValue());
+            map.put("p50", storageData.getP50());
+            map.put("p75", storageData.getP75());
+            map.put("p90", storageData.getP90());
+            map.put("p95", storageData.getP95());
+            map.put("p99", storageData.getP99());
             map.put("precision", storageData.getPrecision());
             map.put("detail_group", storageData.getDetailGroup());
             map.put("time_bucket", storageData.getTimeBucket());
             return map;
         }
 
-        @Override public EndpointP50Indicator map2Data(Map<String, Object> dbMap) {
-            EndpointP50Indicator indicator = new EndpointP50Indicator();
+        @Override public EndpointPercentileIndicator map2Data(Map<String, Object> dbMap) {
+            EndpointPercentileIndicator indicator = new EndpointPercentileIndicator();
             indicator.setEntityId((String)dbMap.get("entity_id"));
             indicator.setServiceId(((Number)dbMap.get("service_id")).intValue());
             indicator.setServiceInstanceId(((Number)dbMap.get("service_instance_id")).intValue());
-            indicator.setValue(((Number)dbMap.get("value")).intValue());
+            indicator.setP50(((Number)dbMap.get("p50")).intValue());
+            indicator.setP75(((Number)dbMap.get("p75")).intValue());
+            indicator.setP90(((Number)dbMap.get("p90")).intValue());
+            indicator.setP95(((Number)dbMap.get("p95")).intValue());
+            indicator.setP99(((Number)dbMap.get("p99")).intValue());
             indicator.setPrecision(((Number)dbMap.get("precision")).intValue());
-            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.IntKeyLongValueArray((String)dbMap.get("detail_group")));
+            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.Histogram((String)dbMap.get("detail_group")));
             indicator.setTimeBucket(((Number)dbMap.get("time_bucket")).longValue());
             return indicator;
         }
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -74,7 +76,7 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
             return false;
 
         EndpointSlaIndicator indicator = (EndpointSlaIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -85,16 +87,16 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getTotal());
-        remoteBuilder.setDataLongs(1, getMatch());
-        remoteBuilder.setDataLongs(2, getTimeBucket());
+        remoteBuilder.addDataLongs(getTotal());
+        remoteBuilder.addDataLongs(getMatch());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getServiceInstanceId());
-        remoteBuilder.setDataIntegers(2, getPercentage());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getPercentage());
 
         return remoteBuilder;
     }
@@ -114,6 +116,26 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getTotal());
+        writer.writeLong(getMatch());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getServiceInstanceId());
+        writer.writeInt(getPercentage());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setTotal(reader.readLong());
+        setMatch(reader.readLong());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setServiceInstanceId(reader.readInt());
+        setPercentage(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("endpoint_sla", Scope.Endpoint, entityId);
     }
@@ -128,7 +150,6 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
         indicator.setTotal(this.getTotal());
         indicator.setPercentage(this.getPercentage());
         indicator.setMatch(this.getMatch());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -142,7 +163,6 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
         indicator.setTotal(this.getTotal());
         indicator.setPercentage(this.getPercentage());
         indicator.setMatch(this.getMatch());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -156,7 +176,6 @@ public class EndpointSlaIndicator extends PercentIndicator implements AlarmSuppo
         indicator.setTotal(this.getTotal());
         indicator.setPercentage(this.getPercentage());
         indicator.setMatch(this.getMatch());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
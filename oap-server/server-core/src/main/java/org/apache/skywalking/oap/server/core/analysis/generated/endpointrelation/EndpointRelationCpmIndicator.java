@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -76,7 +78,7 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
             return false;
 
         EndpointRelationCpmIndicator indicator = (EndpointRelationCpmIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -87,17 +89,17 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getValue());
-        remoteBuilder.setDataLongs(1, getTotal());
-        remoteBuilder.setDataLongs(2, getTimeBucket());
+        remoteBuilder.addDataLongs(getValue());
+        remoteBuilder.addDataLongs(getTotal());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getChildServiceId());
-        remoteBuilder.setDataIntegers(2, getServiceInstanceId());
-        remoteBuilder.setDataIntegers(3, getChildServiceInstanceId());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getChildServiceId());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getChildServiceInstanceId());
 
         return remoteBuilder;
     }
@@ -118,6 +120,28 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getValue());
+        writer.writeLong(getTotal());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getChildServiceId());
+        writer.writeInt(getServiceInstanceId());
+        writer.writeInt(getChildServiceInstanceId());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setValue(reader.readLong());
+        setTotal(reader.readLong());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setChildServiceId(reader.readInt());
+        setServiceInstanceId(reader.readInt());
+        setChildServiceInstanceId(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("endpoint_relation_cpm", Scope.EndpointRelation, entityId);
     }
@@ -133,7 +157,6 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
         indicator.setChildServiceInstanceId(this.getChildServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -148,7 +171,6 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
         indicator.setChildServiceInstanceId(this.getChildServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -163,7 +185,6 @@ public class EndpointRelationCpmIndicator extends CPMIndicator implements AlarmS
         indicator.setChildServiceInstanceId(this.getChildServiceInstanceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -16,11 +16,15 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.endpointrelation;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
-import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
+import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
 /**
@@ -28,43 +32,63 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class EndpointRelationDispatcher implements SourceDispatcher<EndpointRelation> {
+public class EndpointRelationDispatcher implements FusedSourceDispatcher<EndpointRelation> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        EndpointRelationCpmIndicator.class,
+        EndpointRelationRespTimeIndicator.class);
 
     @Override public void dispatch(EndpointRelation source) {
-        doEndpointRelationCpm(source);
-        doEndpointRelationRespTime(source);
+        IndicatorProcess.INSTANCE.in(this, source);
+    }
+
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
     }
 
-    private void doEndpointRelationCpm(EndpointRelation source) {
-        EndpointRelationCpmIndicator indicator = new EndpointRelationCpmIndicator();
+    @Override public void combine(EndpointRelation source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
+        boolean filter0 = equalMatch.setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match()) {
-            return;
+        if (filter0) {
+            doEndpointRelationCpm(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        }
+        if (filter0) {
+            doEndpointRelationRespTime(source, equalMatch, entityId, timeBucket, accumulators[1]);
         }
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setChildServiceId(source.getChildServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.setChildServiceInstanceId(source.getChildServiceInstanceId());
+    private void doEndpointRelationCpm(EndpointRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointRelationCpmIndicator indicator = (EndpointRelationCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointRelationCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setChildServiceId(source.getChildServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            indicator.setChildServiceInstanceId(source.getChildServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doEndpointRelationRespTime(EndpointRelation source) {
-        EndpointRelationRespTimeIndicator indicator = new EndpointRelationRespTimeIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match()) {
-            return;
+    private void doEndpointRelationRespTime(EndpointRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        EndpointRelationRespTimeIndicator indicator = (EndpointRelationRespTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new EndpointRelationRespTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            indicator.setChildServiceId(source.getChildServiceId());
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            indicator.setChildServiceInstanceId(source.getChildServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.setChildServiceId(source.getChildServiceId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
-        indicator.setChildServiceInstanceId(source.getChildServiceInstanceId());
         indicator.combine(source.getRpcLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
@@ -16,9 +16,14 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.service;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
@@ -27,89 +32,78 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceDispatcher implements SourceDispatcher<Service> {
-
-    @Override public void dispatch(Service source) {
-        doServiceRespTime(source);
-        doServiceSla(source);
-        doServiceCpm(source);
-        doServiceP99(source);
-        doServiceP95(source);
-        doServiceP90(source);
-        doServiceP75(source);
-        doServiceP50(source);
-    }
-
-    private void doServiceRespTime(Service source) {
-        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+public class ServiceDispatcher implements FusedSourceDispatcher<Service> {
 
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        ServiceRespTimeIndicator.class,
+        ServiceSlaIndicator.class,
+        ServiceCpmIndicator.class,
+        ServicePercentileIndicator.class);
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(source.getLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
-    }
-    private void doServiceSla(Service source) {
-        ServiceSlaIndicator indicator = new ServiceSlaIndicator();
-
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(new org.apache.skywalking.oap.server.core.analysis.indicator.expression.EqualMatch(), source.isStatus(), true);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public void dispatch(Service source) {
+        IndicatorProcess.INSTANCE.in(this, source);
     }
-    private void doServiceCpm(Service source) {
-        ServiceCpmIndicator indicator = new ServiceCpmIndicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
     }
-    private void doServiceP99(Service source) {
-        ServiceP99Indicator indicator = new ServiceP99Indicator();
 
+    @Override public void combine(Service source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+        doServiceRespTime(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        doServiceSla(source, equalMatch, entityId, timeBucket, accumulators[1]);
+        doServiceCpm(source, equalMatch, entityId, timeBucket, accumulators[2]);
+        doServicePercentile(source, equalMatch, entityId, timeBucket, accumulators[3]);
     }
-    private void doServiceP95(Service source) {
-        ServiceP95Indicator indicator = new ServiceP95Indicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doServiceRespTime(Service source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRespTimeIndicator indicator = (ServiceRespTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRespTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(source.getLatency(), 1);
     }
-    private void doServiceP90(Service source) {
-        ServiceP90Indicator indicator = new ServiceP90Indicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doServiceSla(Service source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceSlaIndicator indicator = (ServiceSlaIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceSlaIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(equalMatch, source.isStatus(), true);
     }
-    private void doServiceP75(Service source) {
-        ServiceP75Indicator indicator = new ServiceP75Indicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
+    private void doServiceCpm(Service source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceCpmIndicator indicator = (ServiceCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(1);
     }
-    private void doServiceP50(Service source) {
-        ServiceP50Indicator indicator = new ServiceP50Indicator();
-
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
+    private void doServicePercentile(Service source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServicePercentileIndicator indicator = (ServicePercentileIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServicePercentileIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getLatency(), 10);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
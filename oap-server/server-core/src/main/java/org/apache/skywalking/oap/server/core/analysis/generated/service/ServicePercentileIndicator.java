@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.generated.service;
 
+import com.google.protobuf.ByteString;
 import java.util.*;
 import lombok.*;
 import org.apache.skywalking.oap.server.core.Const;
@@ -26,6 +27,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -38,8 +41,8 @@ import org.apache.skywalking.oap.server.core.source.Scope;
  */
 @IndicatorType
 @StreamData
-@StorageEntity(name = "service_p75", builder = ServiceP75Indicator.Builder.class)
-public class ServiceP75Indicator extends P75Indicator implements AlarmSupported {
+@StorageEntity(name = "service_percentile", builder = ServicePercentileIndicator.Builder.class)
+public class ServicePercentileIndicator extends PercentileIndicator implements AlarmSupported {
 
     @Setter @Getter @Column(columnName = "entity_id") @IDColumn private java.lang.String entityId;
 
@@ -71,8 +74,8 @@ public class ServiceP75Indicator extends P75Indicator implements AlarmSupported
         if (getClass() != obj.getClass())
             return false;
 
-        ServiceP75Indicator indicator = (ServiceP75Indicator)obj;
-        if (entityId != indicator.entityId)
+        ServicePercentileIndicator indicator = (ServicePercentileIndicator)obj;
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -83,14 +86,18 @@ public class ServiceP75Indicator extends P75Indicator implements AlarmSupported
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getValue());
-        remoteBuilder.setDataIntegers(1, getPrecision());
-        getDetailGroup().forEach(element -> remoteBuilder.addDataIntLongPairList(element.serialize()));
+        remoteBuilder.addDataIntegers(getP50());
+        remoteBuilder.addDataIntegers(getP75());
+        remoteBuilder.addDataIntegers(getP90());
+        remoteBuilder.addDataIntegers(getP95());
+        remoteBuilder.addDataIntegers(getP99());
+        remoteBuilder.addDataIntegers(getPrecision());
+        remoteBuilder.addDataBinaries(ByteString.copyFrom(getDetailGroup().toBytes()));
 
         return remoteBuilder;
     }
@@ -101,74 +108,116 @@ public class ServiceP75Indicator extends P75Indicator implements AlarmSupported
         setTimeBucket(remoteData.getDataLongs(0));
 
 
-        setValue(remoteData.getDataIntegers(0));
-        setPrecision(remoteData.getDataIntegers(1));
+        setP50(remoteData.getDataIntegers(0));
+        setP75(remoteData.getDataIntegers(1));
+        setP90(remoteData.getDataIntegers(2));
+        setP95(remoteData.getDataIntegers(3));
+        setP99(remoteData.getDataIntegers(4));
+        setPrecision(remoteData.getDataIntegers(5));
 
-        setDetailGroup(new IntKeyLongValueArray(30));
-        remoteData.getDataIntLongPairListList().forEach(element -> {
-            getDetailGroup().add(new IntKeyLongValue(element.getKey(), element.getValue()));
-        });
+        setDetailGroup(new Histogram(remoteData.getDataBinaries(0).toByteArray()));
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getP50());
+        writer.writeInt(getP75());
+        writer.writeInt(getP90());
+        writer.writeInt(getP95());
+        writer.writeInt(getP99());
+        writer.writeInt(getPrecision());
+        writer.writeBytes(getDetailGroup().toBytes());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setTimeBucket(reader.readLong());
+        setP50(reader.readInt());
+        setP75(reader.readInt());
+        setP90(reader.readInt());
+        setP95(reader.readInt());
+        setP99(reader.readInt());
+        setPrecision(reader.readInt());
+        setDetailGroup(new Histogram(reader.readBytes()));
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
-        return new AlarmMeta("service_p75", Scope.Service, entityId);
+        return new AlarmMeta("service_percentile", Scope.Service, entityId);
     }
 
     @Override
     public Indicator toHour() {
-        ServiceP75Indicator indicator = new ServiceP75Indicator();
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInHour());
         indicator.setEntityId(this.getEntityId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
     @Override
     public Indicator toDay() {
-        ServiceP75Indicator indicator = new ServiceP75Indicator();
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInDay());
         indicator.setEntityId(this.getEntityId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
     @Override
     public Indicator toMonth() {
-        ServiceP75Indicator indicator = new ServiceP75Indicator();
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
         indicator.setTimeBucket(toTimeBucketInMonth());
         indicator.setEntityId(this.getEntityId());
-        indicator.setValue(this.getValue());
+        indicator.setP50(this.getP50());
+        indicator.setP75(this.getP75());
+        indicator.setP90(this.getP90());
+        indicator.setP95(this.getP95());
+        indicator.setP99(this.getP99());
         indicator.setPrecision(this.getPrecision());
-        indicator.setDetailGroup(this.getDetailGroup());
-        indicator.setTimeBucket(this.getTimeBucket());
+        indicator.setDetailGroup(this.getDetailGroup().copy());
         return indicator;
     }
 
-    public static class Builder implements StorageBuilder<ServiceP75Indicator> {
+    public static class Builder implements StorageBuilder<ServicePercentileIndicator> {
 
-        @Override public Map<String, Object> data2Map(ServiceP75Indicator storageData) {
+        @Override public Map<String, Object> data2Map(ServicePercentileIndicator storageData) {
             Map<String, Object> map = new HashMap<>();
             map.put("entity_id", storageData.getEntityId());
-            map.put("value", storageData.getValue());
+            map.put("p50", storageData.getP50());
+            map.put("p75", storageData.getP75());
+            map.put("p90", storageData.getP90());
+            map.put("p95", storageData.getP95());
+            map.put("p99", storageData.getP99());
             map.put("precision", storageData.getPrecision());
             map.put("detail_group", storageData.getDetailGroup());
             map.put("time_bucket", storageData.getTimeBucket());
             return map;
         }
 
-        @Override public ServiceP75Indicator map2Data(Map<String, Object> dbMap) {
-            ServiceP75Indicator indicator = new ServiceP75Indicator();
+        @Override public ServicePercentileIndicator map2Data(Map<String, Object> dbMap) {
+            ServicePercentileIndicator indicator = new ServicePercentileIndicator();
             indicator.setEntityId((String)dbMap.get("entity_id"));
-            indicator.setValue(((Number)dbMap.get("value")).intValue());
+            indicator.setP50(((Number)dbMap.get("p50")).intValue());
+            indicator.setP75(((Number)dbMap.get("p75")).intValue());
+            indicator.setP90(((Number)dbMap.get("p90")).intValue());
+            indicator.setP95(((Number)dbMap.get("p95")).intValue());
+            indicator.setP99(((Number)dbMap.get("p99")).intValue());
             indicator.setPrecision(((Number)dbMap.get("precision")).intValue());
-            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.IntKeyLongValueArray((String)dbMap.get("detail_group")));
+            indicator.setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.indicator.Histogram((String)dbMap.get("detail_group")));
             indicator.setTimeBucket(((Number)dbMap.get("time_bucket")).longValue());
             return indicator;
         }
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -73,7 +75,7 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
             return false;
 
         ServiceInstanceCpmIndicator indicator = (ServiceInstanceCpmIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -84,14 +86,14 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getValue());
-        remoteBuilder.setDataLongs(1, getTotal());
-        remoteBuilder.setDataLongs(2, getTimeBucket());
+        remoteBuilder.addDataLongs(getValue());
+        remoteBuilder.addDataLongs(getTotal());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
+        remoteBuilder.addDataIntegers(getServiceId());
 
         return remoteBuilder;
     }
@@ -109,6 +111,22 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getValue());
+        writer.writeLong(getTotal());
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setValue(reader.readLong());
+        setTotal(reader.readLong());
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("service_instance_cpm", Scope.ServiceInstance, entityId);
     }
@@ -121,7 +139,6 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
         indicator.setServiceId(this.getServiceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -133,7 +150,6 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
         indicator.setServiceId(this.getServiceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -145,7 +161,6 @@ public class ServiceInstanceCpmIndicator extends CPMIndicator implements AlarmSu
         indicator.setServiceId(this.getServiceId());
         indicator.setValue(this.getValue());
         indicator.setTotal(this.getTotal());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -16,9 +16,14 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.serviceinstance;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
@@ -27,31 +32,52 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceInstanceDispatcher implements SourceDispatcher<ServiceInstance> {
-    
+public class ServiceInstanceDispatcher implements FusedSourceDispatcher<ServiceInstance> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        ServiceInstanceRespTimeIndicator.class,
+        ServiceInstanceCpmIndicator.class);
+
     @Override public void dispatch(ServiceInstance source) {
-        doServiceInstanceRespTime(source);
-        doServiceInstanceCpm(source);
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doServiceInstanceRespTime(ServiceInstance source) {
-        ServiceInstanceRespTimeIndicator indicator = new ServiceInstanceRespTimeIndicator();
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
+    }
 
+    @Override public void combine(ServiceInstance source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
-        indicator.combine(source.getLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
+        doServiceInstanceRespTime(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        doServiceInstanceCpm(source, equalMatch, entityId, timeBucket, accumulators[1]);
     }
-    private void doServiceInstanceCpm(ServiceInstance source) {
-        ServiceInstanceCpmIndicator indicator = new ServiceInstanceCpmIndicator();
 
+    private void doServiceInstanceRespTime(ServiceInstance source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceInstanceRespTimeIndicator indicator = (ServiceInstanceRespTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceInstanceRespTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            accumulator.put(entityId, indicator);
+        }
+        indicator.combine(source.getLatency(), 1);
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceId(source.getServiceId());
+    private void doServiceInstanceCpm(ServiceInstance source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceInstanceCpmIndicator indicator = (ServiceInstanceCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceInstanceCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceId(source.getServiceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
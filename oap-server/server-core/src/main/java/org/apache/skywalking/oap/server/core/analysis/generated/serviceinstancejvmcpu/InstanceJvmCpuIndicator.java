@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.alarm.AlarmSupported;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -73,7 +75,7 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
             return false;
 
         InstanceJvmCpuIndicator indicator = (InstanceJvmCpuIndicator)obj;
-        if (entityId != indicator.entityId)
+        if (!entityId.equals(indicator.entityId))
             return false;
 
         if (getTimeBucket() != indicator.getTimeBucket())
@@ -84,15 +86,15 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataStrings(0, getEntityId());
+        remoteBuilder.addDataStrings(getEntityId());
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
-        remoteBuilder.setDataDoubles(0, getSummation());
-        remoteBuilder.setDataDoubles(1, getValue());
+        remoteBuilder.addDataDoubles(getSummation());
+        remoteBuilder.addDataDoubles(getValue());
 
-        remoteBuilder.setDataIntegers(0, getServiceInstanceId());
-        remoteBuilder.setDataIntegers(1, getCount());
+        remoteBuilder.addDataIntegers(getServiceInstanceId());
+        remoteBuilder.addDataIntegers(getCount());
 
         return remoteBuilder;
     }
@@ -111,6 +113,24 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
 
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeString(getEntityId());
+        writer.writeLong(getTimeBucket());
+        writer.writeDouble(getSummation());
+        writer.writeDouble(getValue());
+        writer.writeInt(getServiceInstanceId());
+        writer.writeInt(getCount());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setEntityId(reader.readString());
+        setTimeBucket(reader.readLong());
+        setSummation(reader.readDouble());
+        setValue(reader.readDouble());
+        setServiceInstanceId(reader.readInt());
+        setCount(reader.readInt());
+    }
+
     @Override public AlarmMeta getAlarmMeta() {
         return new AlarmMeta("instance_jvm_cpu", Scope.ServiceInstanceJVMCPU, entityId);
     }
@@ -124,7 +144,6 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -137,7 +156,6 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -150,7 +168,6 @@ public class InstanceJvmCpuIndicator extends DoubleAvgIndicator implements Alarm
         indicator.setSummation(this.getSummation());
         indicator.setCount(this.getCount());
         indicator.setValue(this.getValue());
-        indicator.setTimeBucket(this.getTimeBucket());
         return indicator;
     }
 
@@ -16,9 +16,14 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmcpu;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
@@ -27,20 +32,37 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceInstanceJVMCPUDispatcher implements SourceDispatcher<ServiceInstanceJVMCPU> {
-    
+public class ServiceInstanceJVMCPUDispatcher implements FusedSourceDispatcher<ServiceInstanceJVMCPU> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        InstanceJvmCpuIndicator.class);
+
     @Override public void dispatch(ServiceInstanceJVMCPU source) {
-        doInstanceJvmCpu(source);
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doInstanceJvmCpu(ServiceInstanceJVMCPU source) {
-        InstanceJvmCpuIndicator indicator = new InstanceJvmCpuIndicator();
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
+    }
+
+    @Override public void combine(ServiceInstanceJVMCPU source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
 
+        doInstanceJvmCpu(source, equalMatch, entityId, timeBucket, accumulators[0]);
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
+    private void doInstanceJvmCpu(ServiceInstanceJVMCPU source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmCpuIndicator indicator = (InstanceJvmCpuIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmCpuIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getUsePercent(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
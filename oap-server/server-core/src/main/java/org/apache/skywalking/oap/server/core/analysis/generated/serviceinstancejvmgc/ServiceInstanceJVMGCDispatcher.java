@@ -16,11 +16,15 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmgc;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
-import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
+import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
 /**
@@ -28,65 +32,92 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceInstanceJVMGCDispatcher implements SourceDispatcher<ServiceInstanceJVMGC> {
+public class ServiceInstanceJVMGCDispatcher implements FusedSourceDispatcher<ServiceInstanceJVMGC> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        InstanceJvmYoungGcTimeIndicator.class,
+        InstanceJvmOldGcTimeIndicator.class,
+        InstanceJvmYoungGcCountIndicator.class,
+        InstanceJvmOldGcCountIndicator.class);
 
     @Override public void dispatch(ServiceInstanceJVMGC source) {
-        doInstanceJvmYoungGcTime(source);
-        doInstanceJvmOldGcTime(source);
-        doInstanceJvmYoungGcCount(source);
-        doInstanceJvmOldGcCount(source);
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doInstanceJvmYoungGcTime(ServiceInstanceJVMGC source) {
-        InstanceJvmYoungGcTimeIndicator indicator = new InstanceJvmYoungGcTimeIndicator();
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
+    }
+
+    @Override public void combine(ServiceInstanceJVMGC source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
+        boolean filter0 = equalMatch.setLeft(source.getPhrase()).setRight(GCPhrase.NEW).match();
+        boolean filter1 = equalMatch.setLeft(source.getPhrase()).setRight(GCPhrase.OLD).match();
 
-        if (!new EqualMatch().setLeft(source.getPhrase()).setRight(GCPhrase.NEW).match()) {
-            return;
+        if (filter0) {
+            doInstanceJvmYoungGcTime(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        }
+        if (filter1) {
+            doInstanceJvmOldGcTime(source, equalMatch, entityId, timeBucket, accumulators[1]);
         }
+        if (filter0) {
+            doInstanceJvmYoungGcCount(source, equalMatch, entityId, timeBucket, accumulators[2]);
+        }
+        if (filter1) {
+            doInstanceJvmOldGcCount(source, equalMatch, entityId, timeBucket, accumulators[3]);
+        }
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
+    private void doInstanceJvmYoungGcTime(ServiceInstanceJVMGC source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmYoungGcTimeIndicator indicator = (InstanceJvmYoungGcTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmYoungGcTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getTime(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmOldGcTime(ServiceInstanceJVMGC source) {
-        InstanceJvmOldGcTimeIndicator indicator = new InstanceJvmOldGcTimeIndicator();
 
-        if (!new EqualMatch().setLeft(source.getPhrase()).setRight(GCPhrase.OLD).match()) {
-            return;
+    private void doInstanceJvmOldGcTime(ServiceInstanceJVMGC source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmOldGcTimeIndicator indicator = (InstanceJvmOldGcTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmOldGcTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getTime(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmYoungGcCount(ServiceInstanceJVMGC source) {
-        InstanceJvmYoungGcCountIndicator indicator = new InstanceJvmYoungGcCountIndicator();
 
-        if (!new EqualMatch().setLeft(source.getPhrase()).setRight(GCPhrase.NEW).match()) {
-            return;
+    private void doInstanceJvmYoungGcCount(ServiceInstanceJVMGC source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmYoungGcCountIndicator indicator = (InstanceJvmYoungGcCountIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmYoungGcCountIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getCount());
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmOldGcCount(ServiceInstanceJVMGC source) {
-        InstanceJvmOldGcCountIndicator indicator = new InstanceJvmOldGcCountIndicator();
 
-        if (!new EqualMatch().setLeft(source.getPhrase()).setRight(GCPhrase.OLD).match()) {
-            return;
+    private void doInstanceJvmOldGcCount(ServiceInstanceJVMGC source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmOldGcCountIndicator indicator = (InstanceJvmOldGcCountIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmOldGcCountIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getCount());
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
@@ -16,11 +16,15 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmmemory;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
-import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
+import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
 /**
@@ -28,65 +32,92 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceInstanceJVMMemoryDispatcher implements SourceDispatcher<ServiceInstanceJVMMemory> {
+public class ServiceInstanceJVMMemoryDispatcher implements FusedSourceDispatcher<ServiceInstanceJVMMemory> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        InstanceJvmMemoryHeapIndicator.class,
+        InstanceJvmMemoryNoheapIndicator.class,
+        InstanceJvmMemoryHeapMaxIndicator.class,
+        InstanceJvmMemoryNoheapMaxIndicator.class);
 
     @Override public void dispatch(ServiceInstanceJVMMemory source) {
-        doInstanceJvmMemoryHeap(source);
-        doInstanceJvmMemoryNoheap(source);
-        doInstanceJvmMemoryHeapMax(source);
-        doInstanceJvmMemoryNoheapMax(source);
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doInstanceJvmMemoryHeap(ServiceInstanceJVMMemory source) {
-        InstanceJvmMemoryHeapIndicator indicator = new InstanceJvmMemoryHeapIndicator();
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
+    }
+
+    @Override public void combine(ServiceInstanceJVMMemory source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
+        boolean filter0 = equalMatch.setLeft(source.isHeapStatus()).setRight(true).match();
+        boolean filter1 = equalMatch.setLeft(source.isHeapStatus()).setRight(false).match();
 
-        if (!new EqualMatch().setLeft(source.isHeapStatus()).setRight(true).match()) {
-            return;
+        if (filter0) {
+            doInstanceJvmMemoryHeap(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        }
+        if (filter1) {
+            doInstanceJvmMemoryNoheap(source, equalMatch, entityId, timeBucket, accumulators[1]);
         }
+        if (filter0) {
+            doInstanceJvmMemoryHeapMax(source, equalMatch, entityId, timeBucket, accumulators[2]);
+        }
+        if (filter1) {
+            doInstanceJvmMemoryNoheapMax(source, equalMatch, entityId, timeBucket, accumulators[3]);
+        }
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
+    private void doInstanceJvmMemoryHeap(ServiceInstanceJVMMemory source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmMemoryHeapIndicator indicator = (InstanceJvmMemoryHeapIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmMemoryHeapIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(source.getUsed(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmMemoryNoheap(ServiceInstanceJVMMemory source) {
-        InstanceJvmMemoryNoheapIndicator indicator = new InstanceJvmMemoryNoheapIndicator();
 
-        if (!new EqualMatch().setLeft(source.isHeapStatus()).setRight(false).match()) {
-            return;
+    private void doInstanceJvmMemoryNoheap(ServiceInstanceJVMMemory source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmMemoryNoheapIndicator indicator = (InstanceJvmMemoryNoheapIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmMemoryNoheapIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getUsed(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmMemoryHeapMax(ServiceInstanceJVMMemory source) {
-        InstanceJvmMemoryHeapMaxIndicator indicator = new InstanceJvmMemoryHeapMaxIndicator();
 
-        if (!new EqualMatch().setLeft(source.isHeapStatus()).setRight(true).match()) {
-            return;
+    private void doInstanceJvmMemoryHeapMax(ServiceInstanceJVMMemory source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmMemoryHeapMaxIndicator indicator = (InstanceJvmMemoryHeapMaxIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmMemoryHeapMaxIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getMax(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doInstanceJvmMemoryNoheapMax(ServiceInstanceJVMMemory source) {
-        InstanceJvmMemoryNoheapMaxIndicator indicator = new InstanceJvmMemoryNoheapMaxIndicator();
 
-        if (!new EqualMatch().setLeft(source.isHeapStatus()).setRight(false).match()) {
-            return;
+    private void doInstanceJvmMemoryNoheapMax(ServiceInstanceJVMMemory source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        InstanceJvmMemoryNoheapMaxIndicator indicator = (InstanceJvmMemoryNoheapMaxIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new InstanceJvmMemoryNoheapMaxIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            indicator.setServiceInstanceId(source.getServiceInstanceId());
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.setServiceInstanceId(source.getServiceInstanceId());
         indicator.combine(source.getMax(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
@@ -16,11 +16,15 @@
  *
  */
 
+
 package org.apache.skywalking.oap.server.core.analysis.generated.servicerelation;
 
-import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
-import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.expression.*;
+import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.source.*;
 
 /**
@@ -28,87 +32,120 @@ import org.apache.skywalking.oap.server.core.source.*;
  *
  * @author Observability Analysis Language code generator
  */
-public class ServiceRelationDispatcher implements SourceDispatcher<ServiceRelation> {
+public class ServiceRelationDispatcher implements FusedSourceDispatcher<ServiceRelation> {
+
+    private static final List<Class<? extends Indicator>> INDICATOR_CLASSES = Arrays.asList(
+        ServiceRelationClientCpmIndicator.class,
+        ServiceRelationServerCpmIndicator.class,
+        ServiceRelationClientCallSlaIndicator.class,
+        ServiceRelationServerCallSlaIndicator.class,
+        ServiceRelationClientRespTimeIndicator.class,
+        ServiceRelationServerRespTimeIndicator.class);
 
     @Override public void dispatch(ServiceRelation source) {
-        doServiceRelationClientCpm(source);
-        doServiceRelationServerCpm(source);
-        doServiceRelationClientCallSla(source);
-        doServiceRelationServerCallSla(source);
-        doServiceRelationClientRespTime(source);
-        doServiceRelationServerRespTime(source);
+        IndicatorProcess.INSTANCE.in(this, source);
     }
 
-    private void doServiceRelationClientCpm(ServiceRelation source) {
-        ServiceRelationClientCpmIndicator indicator = new ServiceRelationClientCpmIndicator();
+    @Override public List<Class<? extends Indicator>> indicatorClasses() {
+        return INDICATOR_CLASSES;
+    }
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.CLIENT).match()) {
-            return;
+    @Override public void combine(ServiceRelation source, IndicatorAccumulator[] accumulators) {
+        String entityId = source.getEntityId();
+        long timeBucket = source.getTimeBucket();
+        EqualMatch equalMatch = new EqualMatch();
+        boolean filter0 = equalMatch.setLeft(source.getDetectPoint()).setRight(DetectPoint.CLIENT).match();
+        boolean filter1 = equalMatch.setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match();
+
+        if (filter0) {
+            doServiceRelationClientCpm(source, equalMatch, entityId, timeBucket, accumulators[0]);
+        }
+        if (filter1) {
+            doServiceRelationServerCpm(source, equalMatch, entityId, timeBucket, accumulators[1]);
+        }
+        if (filter0) {
+            doServiceRelationClientCallSla(source, equalMatch, entityId, timeBucket, accumulators[2]);
+        }
+        if (filter1) {
+            doServiceRelationServerCallSla(source, equalMatch, entityId, timeBucket, accumulators[3]);
         }
+        if (filter0) {
+            doServiceRelationClientRespTime(source, equalMatch, entityId, timeBucket, accumulators[4]);
+        }
+        if (filter1) {
+            doServiceRelationServerRespTime(source, equalMatch, entityId, timeBucket, accumulators[5]);
+        }
+    }
 
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
+    private void doServiceRelationClientCpm(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationClientCpmIndicator indicator = (ServiceRelationClientCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationClientCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
+        }
         indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doServiceRelationServerCpm(ServiceRelation source) {
-        ServiceRelationServerCpmIndicator indicator = new ServiceRelationServerCpmIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match()) {
-            return;
+    private void doServiceRelationServerCpm(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationServerCpmIndicator indicator = (ServiceRelationServerCpmIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationServerCpmIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
         indicator.combine(1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doServiceRelationClientCallSla(ServiceRelation source) {
-        ServiceRelationClientCallSlaIndicator indicator = new ServiceRelationClientCallSlaIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.CLIENT).match()) {
-            return;
+    private void doServiceRelationClientCallSla(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationClientCallSlaIndicator indicator = (ServiceRelationClientCallSlaIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationClientCallSlaIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(new org.apache.skywalking.oap.server.core.analysis.indicator.expression.EqualMatch(), source.isStatus(), true);
-        IndicatorProcess.INSTANCE.in(indicator);
+        indicator.combine(equalMatch, source.isStatus(), true);
     }
-    private void doServiceRelationServerCallSla(ServiceRelation source) {
-        ServiceRelationServerCallSlaIndicator indicator = new ServiceRelationServerCallSlaIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match()) {
-            return;
+    private void doServiceRelationServerCallSla(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationServerCallSlaIndicator indicator = (ServiceRelationServerCallSlaIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationServerCallSlaIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
-        indicator.combine(new org.apache.skywalking.oap.server.core.analysis.indicator.expression.EqualMatch(), source.isStatus(), true);
-        IndicatorProcess.INSTANCE.in(indicator);
+        indicator.combine(equalMatch, source.isStatus(), true);
     }
-    private void doServiceRelationClientRespTime(ServiceRelation source) {
-        ServiceRelationClientRespTimeIndicator indicator = new ServiceRelationClientRespTimeIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.CLIENT).match()) {
-            return;
+    private void doServiceRelationClientRespTime(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationClientRespTimeIndicator indicator = (ServiceRelationClientRespTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationClientRespTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
         indicator.combine(source.getLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
-    private void doServiceRelationServerRespTime(ServiceRelation source) {
-        ServiceRelationServerRespTimeIndicator indicator = new ServiceRelationServerRespTimeIndicator();
 
-        if (!new EqualMatch().setLeft(source.getDetectPoint()).setRight(DetectPoint.SERVER).match()) {
-            return;
+    private void doServiceRelationServerRespTime(ServiceRelation source, EqualMatch equalMatch, String entityId, long timeBucket,
+        IndicatorAccumulator accumulator) {
+        ServiceRelationServerRespTimeIndicator indicator = (ServiceRelationServerRespTimeIndicator)accumulator.get(entityId, timeBucket);
+        if (indicator == null) {
+            indicator = new ServiceRelationServerRespTimeIndicator();
+            indicator.setTimeBucket(timeBucket);
+            indicator.setEntityId(entityId);
+            accumulator.put(entityId, indicator);
         }
-
-        indicator.setTimeBucket(source.getTimeBucket());
-        indicator.setEntityId(source.getEntityId());
         indicator.combine(source.getLatency(), 1);
-        IndicatorProcess.INSTANCE.in(indicator);
     }
 }
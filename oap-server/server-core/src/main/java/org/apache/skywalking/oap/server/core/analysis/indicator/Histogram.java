@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.indicator;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * The counts of the buckets, indexed by the bucket number, such as the latency divided by the precision.
+ *
+ * The buckets in [0, {@link #DENSE_LIMIT}) are kept in a dense array, so the counting is an array increment and the
+ * buckets are walked in order without sorting. The buckets out of the range, such as the long tail latencies, are kept
+ * in the sorted sparse arrays. A histogram of a few buckets, such as the one of a single source, keeps all of them in
+ * the sparse arrays, and moves them into the dense array once it has more than {@link #SPARSE_LIMIT} buckets.
+ *
+ * The storage data and the remote data are the zigzag varint encoded buckets, which are the bucket count, the delta of
+ * the bucket number and the count of each non-empty bucket. The storage data is base64 encoded, the old "key,value|..."
+ * format is still parsed.
+ *
+ * @author peng-yongsheng
+ */
+public class Histogram implements StorageDataType {
+
+    static final int DENSE_LIMIT = 1024;
+    static final int SPARSE_LIMIT = 8;
+
+    private static final long[] EMPTY_DENSE = new long[0];
+    private static final int INITIAL_DENSE_SIZE = 16;
+
+    private long[] dense = EMPTY_DENSE;
+    private int[] sparseKeys;
+    private long[] sparseValues;
+    private int sparseSize;
+    private long total;
+
+    public Histogram() {
+    }
+
+    public Histogram(String data) {
+        toObject(data);
+    }
+
+    public Histogram(byte[] bytes) {
+        decode(bytes);
+    }
+
+    public void increment(int key) {
+        increment(key, 1);
+    }
+
+    public void increment(int key, long count) {
+        if (key >= 0 && key < DENSE_LIMIT && dense.length == 0 && sparseSize >= SPARSE_LIMIT && get(key) == 0) {
+            toDense();
+        }
+        if (key >= 0 && key < DENSE_LIMIT && dense.length > 0) {
+            if (key >= dense.length) {
+                dense = Arrays.copyOf(dense, Math.min(DENSE_LIMIT, Math.max(key + 1, Math.max(dense.length * 2, INITIAL_DENSE_SIZE))));
+            }
+            dense[key] += count;
+        } else {
+            incrementSparse(key, count);
+        }
+        total += count;
+    }
+
+    /**
+     * Moves the sparse buckets in [0, {@link #DENSE_LIMIT}) into the dense array.
+     */
+    private void toDense() {
+        int maxKey = INITIAL_DENSE_SIZE - 1;
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparseKeys[i] >= 0 && sparseKeys[i] < DENSE_LIMIT) {
+                maxKey = Math.max(maxKey, sparseKeys[i]);
+            }
+        }
+        dense = new long[maxKey + 1];
+
+        int size = 0;
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparseKeys[i] >= 0 && sparseKeys[i] < DENSE_LIMIT) {
+                dense[sparseKeys[i]] = sparseValues[i];
+            } else {
+                sparseKeys[size] = sparseKeys[i];
+                sparseValues[size++] = sparseValues[i];
+            }
+        }
+        sparseSize = size;
+    }
+
+    private void incrementSparse(int key, long count) {
+        if (sparseKeys == null) {
+            sparseKeys = new int[4];
+            sparseValues = new long[4];
+        }
+        int index = Arrays.binarySearch(sparseKeys, 0, sparseSize, key);
+        if (index >= 0) {
+            sparseValues[index] += count;
+            return;
+        }
+
+        index = -index - 1;
+        if (sparseSize == sparseKeys.length) {
+            sparseKeys = Arrays.copyOf(sparseKeys, sparseSize * 2);
+            sparseValues = Arrays.copyOf(sparseValues, sparseSize * 2);
+        }
+        System.arraycopy(sparseKeys, index, sparseKeys, index + 1, sparseSize - index);
+        System.arraycopy(sparseValues, index, sparseValues, index + 1, sparseSize - index);
+        sparseKeys[index] = key;
+        sparseValues[index] = count;
+        sparseSize++;
+    }
+
+    /**
+     * @return the count of the bucket, 0 if the bucket is empty.
+     */
+    public long get(int key) {
+        if (key >= 0 && key < DENSE_LIMIT && dense.length > 0) {
+            return key < dense.length ? dense[key] : 0;
+        }
+        int index = sparseKeys == null ? -1 : Arrays.binarySearch(sparseKeys, 0, sparseSize, key);
+        return index >= 0 ? sparseValues[index] : 0;
+    }
+
+    /**
+     * @return the sum of the counts of all the buckets.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of the non-empty buckets.
+     */
+    public int size() {
+        int size = 0;
+        for (long value : dense) {
+            if (value != 0) {
+                size++;
+            }
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparseValues[i] != 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds the counts of the other histogram into this one, the other one isn't changed.
+     */
+    public void merge(Histogram histogram) {
+        for (int key = 0; key < histogram.dense.length; key++) {
+            if (histogram.dense[key] != 0) {
+                increment(key, histogram.dense[key]);
+            }
+        }
+        for (int i = 0; i < histogram.sparseSize; i++) {
+            increment(histogram.sparseKeys[i], histogram.sparseValues[i]);
+        }
+    }
+
+    /**
+     * Deep copy of this histogram, so that the copy could be combined without touching the original one.
+     */
+    public Histogram copy() {
+        Histogram copy = new Histogram();
+        copy.dense = dense.length == 0 ? EMPTY_DENSE : dense.clone();
+        if (sparseKeys != null) {
+            copy.sparseKeys = sparseKeys.clone();
+            copy.sparseValues = sparseValues.clone();
+        }
+        copy.sparseSize = sparseSize;
+        copy.total = total;
+        return copy;
+    }
+
+    /**
+     * Visits the non-empty buckets in the ascending order of the bucket number.
+     */
+    public void forEach(BucketConsumer consumer) {
+        int sparseIndex = 0;
+        for (; sparseIndex < sparseSize && sparseKeys[sparseIndex] < 0; sparseIndex++) {
+            if (sparseValues[sparseIndex] != 0) {
+                consumer.accept(sparseKeys[sparseIndex], sparseValues[sparseIndex]);
+            }
+        }
+        for (int key = 0; key < dense.length; key++) {
+            if (dense[key] != 0) {
+                consumer.accept(key, dense[key]);
+            }
+        }
+        for (; sparseIndex < sparseSize; sparseIndex++) {
+            if (sparseValues[sparseIndex] != 0) {
+                consumer.accept(sparseKeys[sparseIndex], sparseValues[sparseIndex]);
+            }
+        }
+    }
+
+    /**
+     * Walks the buckets once, the percentile of a rank is the first bucket which the accumulated count reaches the
+     * rank of the total count.
+     *
+     * @param ranks the percentile ranks in ascending order, such as 50, 90, 99.
+     * @return the bucket numbers of the ranks, all 0 when the histogram is empty.
+     */
+    public int[] percentiles(int... ranks) {
+        long[] roofs = new long[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            roofs[i] = Math.round(total * ranks[i] / 100d);
+        }
+
+        int[] keys = new int[ranks.length];
+        forEach(new BucketConsumer() {
+            private int rankIndex;
+            private long count;
+
+            @Override public void accept(int key, long value) {
+                count += value;
+                while (rankIndex < roofs.length && count >= roofs[rankIndex]) {
+                    keys[rankIndex++] = key;
+                }
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * @return the varint encoded buckets.
+     */
+    public byte[] toBytes() {
+        int size = size();
+        byte[] bytes = new byte[5 + size * 15];
+        int position = writeVarLong(bytes, 0, size);
+
+        long[] previousKey = {0};
+        int[] cursor = {position};
+        forEach((key, value) -> {
+            cursor[0] = writeVarLong(bytes, cursor[0], zigzag(key - previousKey[0]));
+            cursor[0] = writeVarLong(bytes, cursor[0], zigzag(value));
+            previousKey[0] = key;
+        });
+        return Arrays.copyOf(bytes, cursor[0]);
+    }
+
+    private void decode(byte[] bytes) {
+        int[] cursor = {0};
+        long size = readVarLong(bytes, cursor);
+        long key = 0;
+        for (long i = 0; i < size; i++) {
+            key += unzigzag(readVarLong(bytes, cursor));
+            increment((int)key, unzigzag(readVarLong(bytes, cursor)));
+        }
+    }
+
+    @Override public String toStorageData() {
+        return Base64.getEncoder().encodeToString(toBytes());
+    }
+
+    @Override public void toObject(String data) {
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+
+        if (data.contains(Const.KEY_VALUE_SPLIT)) {
+            for (String keyValue : data.split(Const.ARRAY_PARSER_SPLIT)) {
+                String[] pair = keyValue.split(Const.KEY_VALUE_SPLIT);
+                increment(Integer.parseInt(pair[0]), Long.parseLong(pair[1]));
+            }
+        } else {
+            decode(Base64.getDecoder().decode(data));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarLong(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte)value;
+        return position;
+    }
+
+    private static long readVarLong(byte[] bytes, int[] cursor) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[cursor[0]++];
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint of the histogram.");
+    }
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(int key, long value);
+    }
+}
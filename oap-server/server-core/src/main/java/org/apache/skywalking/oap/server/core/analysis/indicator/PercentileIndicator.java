@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.indicator;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileIndicator calculates the p50/p75/p90/p95/p99 percentiles from one histogram, which replaces the five
+ * {@link PxxIndicator}s of the same source, so the source is combined, transferred and persisted once.
+ *
+ * The percentiles of the indicator named "xxx_percentile" are queried by the names "xxx_p50" ... "xxx_p99".
+ *
+ * @author peng-yongsheng
+ */
+@IndicatorOperator
+public abstract class PercentileIndicator extends Indicator {
+    protected static final String DETAIL_GROUP = "detail_group";
+    protected static final String PRECISION = "precision";
+
+    public static final String NAME_SUFFIX = "_percentile";
+    public static final int[] RANKS = {50, 75, 90, 95, 99};
+
+    @Getter @Setter @Column(columnName = "p50") private int p50;
+    @Getter @Setter @Column(columnName = "p75") private int p75;
+    @Getter @Setter @Column(columnName = "p90") private int p90;
+    @Getter @Setter @Column(columnName = "p95") private int p95;
+    @Getter @Setter @Column(columnName = "p99") private int p99;
+    @Getter @Setter @Column(columnName = PRECISION) private int precision;
+    @Getter @Setter @Column(columnName = DETAIL_GROUP) private Histogram detailGroup;
+
+    public PercentileIndicator() {
+        detailGroup = new Histogram();
+    }
+
+    /**
+     * @return the column of the percentile rank, such as "p99".
+     */
+    public static String columnName(int rank) {
+        return "p" + rank;
+    }
+
+    /**
+     * @return the name which the percentile rank of the indicator is queried by, such as "service_p99" of the
+     * "service_percentile".
+     */
+    public static String metricName(String indName, int rank) {
+        String prefix = indName.endsWith(NAME_SUFFIX) ? indName.substring(0, indName.length() - NAME_SUFFIX.length()) : indName;
+        return prefix + "_" + columnName(rank);
+    }
+
+    @Entrance
+    public final void combine(@SourceFrom int value, @Arg int precision) {
+        this.precision = precision;
+
+        detailGroup.increment(value / precision);
+    }
+
+    @Override
+    public void combine(Indicator indicator) {
+        PercentileIndicator percentileIndicator = (PercentileIndicator)indicator;
+        detailGroup.merge(percentileIndicator.detailGroup);
+    }
+
+    /**
+     * Walks the histogram once, the ranks are reached in ascending order.
+     */
+    @Override
+    public final void calculate() {
+        if (detailGroup.getTotal() == 0) {
+            return;
+        }
+
+        int[] keys = detailGroup.percentiles(RANKS);
+        p50 = keys[0] * precision;
+        p75 = keys[1] * precision;
+        p90 = keys[2] * precision;
+        p95 = keys[3] * precision;
+        p99 = keys[4] * precision;
+    }
+
+    /**
+     * @return the value of the percentile rank, which is one of the {@link #RANKS}.
+     */
+    public int getValue(int rank) {
+        switch (rank) {
+            case 50:
+                return p50;
+            case 75:
+                return p75;
+            case 90:
+                return p90;
+            case 95:
+                return p95;
+            case 99:
+                return p99;
+            default:
+                throw new IllegalArgumentException("Unsupported percentile rank " + rank);
+        }
+    }
+}
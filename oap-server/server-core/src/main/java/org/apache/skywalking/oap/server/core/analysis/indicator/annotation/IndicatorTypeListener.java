@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.indicator.annotation;
 
 import java.lang.annotation.Annotation;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.IndicatorProcess;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationListener;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -29,9 +30,11 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 public class IndicatorTypeListener implements AnnotationListener {
 
     private final ModuleManager moduleManager;
+    private final CoreModuleConfig moduleConfig;
 
-    public IndicatorTypeListener(ModuleManager moduleManager) {
+    public IndicatorTypeListener(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.moduleConfig = moduleConfig;
     }
 
     @Override public Class<? extends Annotation> annotation() {
@@ -39,6 +42,6 @@ public class IndicatorTypeListener implements AnnotationListener {
     }
 
     @Override public void notify(Class aClass) {
-        IndicatorProcess.INSTANCE.create(moduleManager, aClass);
+        IndicatorProcess.INSTANCE.create(moduleManager, moduleConfig, aClass);
     }
 }
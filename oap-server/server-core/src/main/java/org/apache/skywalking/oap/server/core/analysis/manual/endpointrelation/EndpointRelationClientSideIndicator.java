@@ -24,6 +24,8 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
@@ -95,13 +97,25 @@ public class EndpointRelationClientSideIndicator extends Indicator {
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
 
-        remoteBuilder.setDataIntegers(1, getDestEndpointId());
-        remoteBuilder.setDataIntegers(0, getSourceEndpointId());
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataIntegers(getSourceEndpointId());
+        remoteBuilder.addDataIntegers(getDestEndpointId());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
         return remoteBuilder;
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeInt(getSourceEndpointId());
+        writer.writeInt(getDestEndpointId());
+        writer.writeLong(getTimeBucket());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setSourceEndpointId(reader.readInt());
+        setDestEndpointId(reader.readInt());
+        setTimeBucket(reader.readLong());
+    }
+
     @Override public int hashCode() {
         int result = 17;
         result = 31 * result + sourceEndpointId;
@@ -24,6 +24,8 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.*;
@@ -81,10 +83,10 @@ public class ServiceComponentIndicator extends Indicator {
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getComponentId());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getComponentId());
 
         return remoteBuilder;
     }
@@ -96,6 +98,18 @@ public class ServiceComponentIndicator extends Indicator {
         setComponentId(remoteData.getDataIntegers(1));
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getComponentId());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setComponentId(reader.readInt());
+    }
+
     @Override public void calculate() {
     }
 
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.analysis.indicator.annotation.IndicatorType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -84,10 +86,10 @@ public class ServiceMappingIndicator extends Indicator {
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
 
-        remoteBuilder.setDataLongs(0, getTimeBucket());
+        remoteBuilder.addDataLongs(getTimeBucket());
 
-        remoteBuilder.setDataIntegers(0, getServiceId());
-        remoteBuilder.setDataIntegers(1, getMappingServiceId());
+        remoteBuilder.addDataIntegers(getServiceId());
+        remoteBuilder.addDataIntegers(getMappingServiceId());
 
         return remoteBuilder;
     }
@@ -99,6 +101,18 @@ public class ServiceMappingIndicator extends Indicator {
         setMappingServiceId(remoteData.getDataIntegers(1));
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeLong(getTimeBucket());
+        writer.writeInt(getServiceId());
+        writer.writeInt(getMappingServiceId());
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setTimeBucket(reader.readLong());
+        setServiceId(reader.readInt());
+        setMappingServiceId(reader.readInt());
+    }
+
     @Override public void calculate() {
     }
 
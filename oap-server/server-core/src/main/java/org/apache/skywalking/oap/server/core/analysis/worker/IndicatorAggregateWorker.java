@@ -27,6 +27,10 @@ import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.slf4j.*;
 
 /**
+ * The indicators are routed by the remote hash code into the partitions, every partition owns its consumer thread and
+ * merge data cache, so the same indicator is always aggregated by one thread and flushed to the next worker
+ * independently.
+ *
  * @author peng-yongsheng
  */
 public class IndicatorAggregateWorker extends AbstractWorker<Indicator> {
@@ -34,68 +38,79 @@ public class IndicatorAggregateWorker extends AbstractWorker<Indicator> {
     private static final Logger logger = LoggerFactory.getLogger(IndicatorAggregateWorker.class);
 
     private AbstractWorker<Indicator> nextWorker;
-    private final DataCarrier<Indicator> dataCarrier;
-    private final MergeDataCache<Indicator> mergeDataCache;
-    private int messageNum;
+    private final AggregatePartition[] partitions;
 
     IndicatorAggregateWorker(int workerId, AbstractWorker<Indicator> nextWorker) {
+        this(workerId, nextWorker, 1);
+    }
+
+    IndicatorAggregateWorker(int workerId, AbstractWorker<Indicator> nextWorker, int partitionNum) {
         super(workerId);
         this.nextWorker = nextWorker;
-        this.mergeDataCache = new MergeDataCache<>();
-        this.dataCarrier = new DataCarrier<>(1, 10000);
-        this.dataCarrier.consume(new AggregatorConsumer(this), 1);
+        this.partitions = new AggregatePartition[Math.max(partitionNum, 1)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new AggregatePartition();
+        }
     }
 
     @Override public final void in(Indicator indicator) {
         indicator.setEndOfBatchContext(new EndOfBatchContext(false));
-        dataCarrier.produce(indicator);
+        partitions[Math.abs(indicator.remoteHashCode() % partitions.length)].dataCarrier.produce(indicator);
     }
 
-    private void onWork(Indicator indicator) {
-        messageNum++;
-        aggregate(indicator);
+    private class AggregatePartition {
 
-        if (messageNum >= 1000 || indicator.getEndOfBatchContext().isEndOfBatch()) {
-            sendToNext();
-            messageNum = 0;
+        private final DataCarrier<Indicator> dataCarrier;
+        private final MergeDataCache<Indicator> mergeDataCache;
+        private int messageNum;
+
+        private AggregatePartition() {
+            this.mergeDataCache = new MergeDataCache<>();
+            this.dataCarrier = new DataCarrier<>(1, 10000);
+            this.dataCarrier.consume(new AggregatorConsumer(this), 1);
         }
-    }
 
-    private void sendToNext() {
-        mergeDataCache.switchPointer();
-        while (mergeDataCache.getLast().isWriting()) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
+        private void onWork(Indicator indicator) {
+            messageNum++;
+            aggregate(indicator);
+
+            if (messageNum >= 1000 || indicator.getEndOfBatchContext().isEndOfBatch()) {
+                sendToNext();
+                messageNum = 0;
             }
         }
 
-        mergeDataCache.getLast().collection().forEach(data -> {
+        private void sendToNext() {
+            mergeDataCache.switchPointer();
+
+            Collection<Indicator> collection = mergeDataCache.getLast().collection();
             if (logger.isDebugEnabled()) {
-                logger.debug(data.toString());
+                collection.forEach(data -> logger.debug(data.toString()));
             }
 
-            nextWorker.in(data);
-        });
-        mergeDataCache.finishReadingLast();
-    }
+            nextWorker.in(collection);
+            mergeDataCache.finishReadingLast();
+        }
 
-    private void aggregate(Indicator indicator) {
-        mergeDataCache.writing();
-        if (mergeDataCache.containsKey(indicator)) {
-            mergeDataCache.get(indicator).combine(indicator);
-        } else {
-            mergeDataCache.put(indicator);
+        private void aggregate(Indicator indicator) {
+            mergeDataCache.writing();
+            try {
+                if (mergeDataCache.containsKey(indicator)) {
+                    mergeDataCache.get(indicator).combine(indicator);
+                } else {
+                    mergeDataCache.put(indicator);
+                }
+            } finally {
+                mergeDataCache.finishWriting();
+            }
         }
-        mergeDataCache.finishWriting();
     }
 
     private class AggregatorConsumer implements IConsumer<Indicator> {
 
-        private final IndicatorAggregateWorker aggregator;
+        private final AggregatePartition aggregator;
 
-        private AggregatorConsumer(IndicatorAggregateWorker aggregator) {
+        private AggregatorConsumer(AggregatePartition aggregator) {
             this.aggregator = aggregator;
         }
 
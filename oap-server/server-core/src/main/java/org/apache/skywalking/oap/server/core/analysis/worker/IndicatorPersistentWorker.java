@@ -19,7 +19,8 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
-import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.storage.IIndicatorDAO;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
@@ -35,18 +36,23 @@ public class IndicatorPersistentWorker extends PersistenceWorker<Indicator, Merg
 
     private static final Logger logger = LoggerFactory.getLogger(IndicatorPersistentWorker.class);
 
-    private final String modelName;
+    @Getter private final String modelName;
     private final MergeDataCache<Indicator> mergeDataCache;
     private final IIndicatorDAO indicatorDAO;
     private final AbstractWorker<Indicator> nextWorker;
+    private final AbstractWorker<Indicator> transWorker;
+    private final HotIndicatorCache hotCache;
 
     IndicatorPersistentWorker(int workerId, String modelName, int batchSize, ModuleManager moduleManager,
-        IIndicatorDAO indicatorDAO, AbstractWorker<Indicator> nextWorker) {
+        IIndicatorDAO indicatorDAO, AbstractWorker<Indicator> nextWorker, AbstractWorker<Indicator> transWorker,
+        HotIndicatorCache hotCache) {
         super(moduleManager, workerId, batchSize);
         this.modelName = modelName;
         this.mergeDataCache = new MergeDataCache<>();
         this.indicatorDAO = indicatorDAO;
         this.nextWorker = nextWorker;
+        this.transWorker = transWorker;
+        this.hotCache = hotCache;
     }
 
     @Override public MergeDataCache<Indicator> getCache() {
@@ -67,22 +73,59 @@ public class IndicatorPersistentWorker extends PersistenceWorker<Indicator, Merg
 
     @Override public List<Object> prepareBatch(MergeDataCache<Indicator> cache) {
         List<Object> batchCollection = new LinkedList<>();
-        cache.getLast().collection().forEach(data -> {
-            Indicator dbData = null;
+        Collection<Indicator> collection = cache.getLast().collection();
+
+        Map<String, Indicator> dbDataMap = new HashMap<>();
+        List<Indicator> missIndicators = new ArrayList<>(collection.size());
+        if (nonNull(hotCache)) {
+            hotCache.refresh(System.currentTimeMillis());
+            collection.forEach(data -> {
+                Indicator cachedData = hotCache.get(data);
+                if (nonNull(cachedData)) {
+                    dbDataMap.put(data.id(), cachedData);
+                } else {
+                    missIndicators.add(data);
+                }
+            });
+        } else {
+            missIndicators.addAll(collection);
+        }
+
+        if (!missIndicators.isEmpty()) {
             try {
-                dbData = indicatorDAO.get(modelName, data);
+                List<Indicator> dbDataList = indicatorDAO.multiGet(modelName, missIndicators);
+                dbDataList.forEach(dbData -> dbDataMap.put(dbData.id(), dbData));
             } catch (Throwable t) {
                 logger.error(t.getMessage(), t);
             }
+        }
+
+        collection.forEach(data -> {
             try {
+                /*
+                 * Downsampling must happen before the data combines with the persisted one, otherwise the persisted
+                 * part would be counted again in the hour, day and month time buckets.
+                 */
+                if (nonNull(transWorker)) {
+                    transWorker.in(data);
+                }
+
+                Indicator dbData = dbDataMap.get(data.id());
                 if (nonNull(dbData)) {
                     data.combine(dbData);
+                    data.calculate();
                     batchCollection.add(indicatorDAO.prepareBatchUpdate(modelName, data));
                 } else {
                     batchCollection.add(indicatorDAO.prepareBatchInsert(modelName, data));
                 }
 
-                nextWorker.in(data);
+                if (nonNull(hotCache)) {
+                    hotCache.put(data);
+                }
+
+                if (nonNull(nextWorker)) {
+                    nextWorker.in(data);
+                }
             } catch (Throwable t) {
                 logger.error(t.getMessage(), t);
             }
@@ -93,6 +136,26 @@ public class IndicatorPersistentWorker extends PersistenceWorker<Indicator, Merg
 
     @Override public void cacheData(Indicator input) {
         mergeDataCache.writing();
+        try {
+            merge(input);
+        } finally {
+            mergeDataCache.finishWriting();
+        }
+    }
+
+    /**
+     * The whole batch is merged under one write lock of the cache.
+     */
+    @Override public void cacheData(Collection<Indicator> inputs) {
+        mergeDataCache.writing();
+        try {
+            inputs.forEach(this::merge);
+        } finally {
+            mergeDataCache.finishWriting();
+        }
+    }
+
+    private void merge(Indicator input) {
         if (mergeDataCache.containsKey(input)) {
             Indicator indicator = mergeDataCache.get(input);
             indicator.combine(input);
@@ -101,7 +164,5 @@ public class IndicatorPersistentWorker extends PersistenceWorker<Indicator, Merg
             input.calculate();
             mergeDataCache.put(input);
         }
-
-        mergeDataCache.finishWriting();
     }
 }
@@ -19,9 +19,15 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import com.google.common.base.Strings;
 import lombok.Getter;
-import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.HotIndicatorCache;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.source.Source;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.annotation.StorageEntityAnnotationUtils;
 import org.apache.skywalking.oap.server.core.worker.*;
@@ -34,13 +40,48 @@ public enum IndicatorProcess {
     INSTANCE;
 
     private Map<Class<? extends Indicator>, IndicatorAggregateWorker> entryWorkers = new HashMap<>();
-    @Getter private List<IndicatorPersistentWorker> persistentWorkers = new ArrayList<>();
+    private Map<Class<? extends Indicator>, IndicatorRemoteWorker> remoteWorkers = new HashMap<>();
+    private Map<FusedSourceDispatcher, SourceAggregateWorker> sourceWorkers = new ConcurrentHashMap<>();
+    /**
+     * The persistent workers of every model, the minute one first, then the time pyramid ones, which must flush in
+     * this order.
+     */
+    @Getter private List<List<IndicatorPersistentWorker>> persistentWorkers = new ArrayList<>();
+    private CoreModuleConfig moduleConfig;
 
     public void in(Indicator indicator) {
         entryWorkers.get(indicator.getClass()).in(indicator);
     }
 
-    public void create(ModuleManager moduleManager, Class<? extends Indicator> indicatorClass) {
+    /**
+     * The source aggregate worker of the dispatcher is created by the first source, after all the indicator workers
+     * are created. It is the entry of the local sources only, so it isn't put into the worker instances.
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends Source> void in(FusedSourceDispatcher<S> dispatcher, S source) {
+        SourceAggregateWorker<S> worker = sourceWorkers.get(dispatcher);
+        if (worker == null) {
+            worker = sourceWorkers.computeIfAbsent(dispatcher, this::createSourceWorker);
+        }
+        worker.in(source);
+    }
+
+    private SourceAggregateWorker createSourceWorker(FusedSourceDispatcher<?> dispatcher) {
+        List<AbstractWorker<Indicator>> nextWorkers = new ArrayList<>();
+        int partitionNum = 1;
+        for (Class<? extends Indicator> indicatorClass : dispatcher.indicatorClasses()) {
+            nextWorkers.add(remoteWorkers.get(indicatorClass));
+            if (moduleConfig != null) {
+                partitionNum = Math.max(partitionNum, aggregatePartitions(moduleConfig, StorageEntityAnnotationUtils.getModelName(indicatorClass)));
+            }
+        }
+
+        return new SourceAggregateWorker<>(WorkerIdGenerator.INSTANCES.generate(), dispatcher, nextWorkers, partitionNum);
+    }
+
+    public void create(ModuleManager moduleManager, CoreModuleConfig moduleConfig,
+        Class<? extends Indicator> indicatorClass) {
+        this.moduleConfig = moduleConfig;
         String modelName = StorageEntityAnnotationUtils.getModelName(indicatorClass);
         Class<? extends StorageBuilder> builderClass = StorageEntityAnnotationUtils.getBuilder(indicatorClass);
 
@@ -52,20 +93,62 @@ public enum IndicatorProcess {
             throw new UnexpectedException("");
         }
 
+        IndicatorPersistentWorker hourPersistentWorker = pyramidPersistenceWorker(moduleManager, indicatorDAO, TimePyramidTableNameBuilder.build(TimePyramid.Hour, modelName));
+        IndicatorPersistentWorker dayPersistentWorker = pyramidPersistenceWorker(moduleManager, indicatorDAO, TimePyramidTableNameBuilder.build(TimePyramid.Day, modelName));
+        IndicatorPersistentWorker monthPersistentWorker = pyramidPersistenceWorker(moduleManager, indicatorDAO, TimePyramidTableNameBuilder.build(TimePyramid.Month, modelName));
+
+        IndicatorTransWorker transWorker = new IndicatorTransWorker(WorkerIdGenerator.INSTANCES.generate(), hourPersistentWorker, dayPersistentWorker, monthPersistentWorker);
+        WorkerInstances.INSTANCES.put(transWorker.getWorkerId(), transWorker);
+
         AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(WorkerIdGenerator.INSTANCES.generate(), moduleManager);
         WorkerInstances.INSTANCES.put(alarmNotifyWorker.getWorkerId(), alarmNotifyWorker);
 
+        /*
+         * Only the minute indicators are cached, their keys are written by the node which the routing chooses. The
+         * time pyramid indicators are downsampled and written by every node.
+         */
+        HotIndicatorCache hotCache = null;
+        if (moduleConfig.getIndicatorCacheHorizon() > 0) {
+            RemoteClientManager remoteClientManager = moduleManager.find(CoreModule.NAME).getService(RemoteClientManager.class);
+            hotCache = new HotIndicatorCache(moduleConfig.getIndicatorCacheHorizon(), moduleConfig.getIndicatorCacheMaxSize(), remoteClientManager);
+        }
+
         IndicatorPersistentWorker persistentWorker = new IndicatorPersistentWorker(WorkerIdGenerator.INSTANCES.generate(), modelName,
-            1000, moduleManager, indicatorDAO, alarmNotifyWorker);
+            1000, moduleManager, indicatorDAO, alarmNotifyWorker, transWorker, hotCache);
         WorkerInstances.INSTANCES.put(persistentWorker.getWorkerId(), persistentWorker);
-        persistentWorkers.add(persistentWorker);
+
+        // The time pyramid workers flush after the minute one, so the downsampled data goes into storage in the same round.
+        persistentWorkers.add(Arrays.asList(persistentWorker, hourPersistentWorker, dayPersistentWorker, monthPersistentWorker));
 
         IndicatorRemoteWorker remoteWorker = new IndicatorRemoteWorker(WorkerIdGenerator.INSTANCES.generate(), moduleManager, persistentWorker);
         WorkerInstances.INSTANCES.put(remoteWorker.getWorkerId(), remoteWorker);
+        remoteWorkers.put(indicatorClass, remoteWorker);
 
-        IndicatorAggregateWorker aggregateWorker = new IndicatorAggregateWorker(WorkerIdGenerator.INSTANCES.generate(), remoteWorker);
+        IndicatorAggregateWorker aggregateWorker = new IndicatorAggregateWorker(WorkerIdGenerator.INSTANCES.generate(), remoteWorker,
+            aggregatePartitions(moduleConfig, modelName));
         WorkerInstances.INSTANCES.put(aggregateWorker.getWorkerId(), aggregateWorker);
 
         entryWorkers.put(indicatorClass, aggregateWorker);
     }
+
+    static int aggregatePartitions(CoreModuleConfig moduleConfig, String modelName) {
+        String override = moduleConfig.getIndicatorAggregatePartitionsOverride();
+        if (!Strings.isNullOrEmpty(override)) {
+            for (String partitions : override.split(",")) {
+                String[] nameAndNum = partitions.trim().split(":");
+                if (nameAndNum.length == 2 && nameAndNum[0].trim().equals(modelName)) {
+                    return Integer.parseInt(nameAndNum[1].trim());
+                }
+            }
+        }
+        return moduleConfig.getIndicatorAggregatePartitions();
+    }
+
+    private IndicatorPersistentWorker pyramidPersistenceWorker(ModuleManager moduleManager, IIndicatorDAO indicatorDAO,
+        String modelName) {
+        IndicatorPersistentWorker persistentWorker = new IndicatorPersistentWorker(WorkerIdGenerator.INSTANCES.generate(), modelName,
+            1000, moduleManager, indicatorDAO, null, null, null);
+        WorkerInstances.INSTANCES.put(persistentWorker.getWorkerId(), persistentWorker);
+        return persistentWorker;
+    }
 }
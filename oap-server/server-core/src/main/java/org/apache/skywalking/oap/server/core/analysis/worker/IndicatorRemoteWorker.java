@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
+import java.util.Collection;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
@@ -44,7 +45,21 @@ public class IndicatorRemoteWorker extends AbstractWorker<Indicator> {
 
     @Override public final void in(Indicator indicator) {
         try {
-            remoteSender.send(nextWorker.getWorkerId(), indicator, Selector.HashCode);
+            remoteSender.send(nextWorker.getWorkerId(), indicator, Selector.ConsistentHash);
+        } catch (Throwable e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The indicators owned by this node go to the persistent worker directly, only the others are serialized.
+     */
+    @Override public final void in(Collection<Indicator> indicators) {
+        try {
+            Collection<Indicator> local = remoteSender.sendExceptLocal(nextWorker.getWorkerId(), indicators, Selector.ConsistentHash);
+            if (!local.isEmpty()) {
+                nextWorker.in(local);
+            }
         } catch (Throwable e) {
             logger.error(e.getMessage(), e);
         }
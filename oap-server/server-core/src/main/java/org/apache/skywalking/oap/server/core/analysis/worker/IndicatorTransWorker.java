@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.slf4j.*;
+
+/**
+ * Downsampling worker, transfers the minute indicator flushed by the minute persistent worker into the hour, day and
+ * month time buckets, then hands them to the persistent workers of these time pyramids to merge and persist.
+ *
+ * @author peng-yongsheng
+ */
+public class IndicatorTransWorker extends AbstractWorker<Indicator> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorTransWorker.class);
+
+    private final IndicatorPersistentWorker hourPersistenceWorker;
+    private final IndicatorPersistentWorker dayPersistenceWorker;
+    private final IndicatorPersistentWorker monthPersistenceWorker;
+
+    IndicatorTransWorker(int workerId, IndicatorPersistentWorker hourPersistenceWorker,
+        IndicatorPersistentWorker dayPersistenceWorker, IndicatorPersistentWorker monthPersistenceWorker) {
+        super(workerId);
+        this.hourPersistenceWorker = hourPersistenceWorker;
+        this.dayPersistenceWorker = dayPersistenceWorker;
+        this.monthPersistenceWorker = monthPersistenceWorker;
+    }
+
+    @Override public void in(Indicator indicator) {
+        try {
+            hourPersistenceWorker.in(indicator.toHour());
+            dayPersistenceWorker.in(indicator.toDay());
+            monthPersistenceWorker.in(indicator.toMonth());
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+    }
+}
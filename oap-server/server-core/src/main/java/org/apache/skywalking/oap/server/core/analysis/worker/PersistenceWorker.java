@@ -23,25 +23,35 @@ import org.apache.skywalking.oap.server.core.analysis.data.Window;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
-import org.slf4j.*;
 
 /**
  * @author peng-yongsheng
  */
 public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends Window<INPUT>> extends AbstractWorker<INPUT> {
 
-    private static final Logger logger = LoggerFactory.getLogger(PersistenceWorker.class);
-
     private final int batchSize;
     private final IBatchDAO batchDAO;
 
-    PersistenceWorker(ModuleManager moduleManager, int workerId, int batchSize) {
+    protected PersistenceWorker(ModuleManager moduleManager, int workerId, int batchSize) {
         super(workerId);
         this.batchSize = batchSize;
         this.batchDAO = moduleManager.find(StorageModule.NAME).getService(IBatchDAO.class);
     }
 
     @Override public final void in(INPUT input) {
+        persistIfFull();
+        cacheData(input);
+    }
+
+    /**
+     * The batch is cached at once, the cache may exceed the batch size by the batch before it is persisted.
+     */
+    @Override public final void in(Collection<INPUT> inputs) {
+        persistIfFull();
+        cacheData(inputs);
+    }
+
+    private void persistIfFull() {
         if (getCache().currentCollectionSize() >= batchSize) {
             try {
                 if (getCache().trySwitchPointer()) {
@@ -54,11 +64,19 @@ public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends
                 getCache().trySwitchPointerFinally();
             }
         }
-        cacheData(input);
     }
 
+    /**
+     * @return the model which the data of this worker is persisted into.
+     */
+    public abstract String getModelName();
+
     public abstract void cacheData(INPUT input);
 
+    public void cacheData(Collection<INPUT> inputs) {
+        inputs.forEach(this::cacheData);
+    }
+
     public abstract CACHE getCache();
 
     public boolean flushAndSwitch() {
@@ -78,14 +96,6 @@ public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends
     public final List<?> buildBatchCollection() {
         List<?> batchCollection = new LinkedList<>();
         try {
-            while (getCache().getLast().isWriting()) {
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    logger.warn("thread wake up");
-                }
-            }
-
             if (getCache().getLast().collection() != null) {
                 batchCollection = prepareBatch(getCache());
             }
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
+import lombok.Getter;
 import org.apache.skywalking.oap.server.core.analysis.data.NonMergeDataCache;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
@@ -32,7 +33,7 @@ public class RecordPersistentWorker extends PersistenceWorker<Record, NonMergeDa
 
     private static final Logger logger = LoggerFactory.getLogger(RecordPersistentWorker.class);
 
-    private final String modelName;
+    @Getter private final String modelName;
     private final NonMergeDataCache<Record> nonMergeDataCache;
     private final IRecordDAO recordDAO;
 
@@ -62,7 +63,10 @@ public class RecordPersistentWorker extends PersistenceWorker<Record, NonMergeDa
 
     @Override public void cacheData(Record input) {
         nonMergeDataCache.writing();
-        nonMergeDataCache.add(input);
-        nonMergeDataCache.finishWriting();
+        try {
+            nonMergeDataCache.add(input);
+        } finally {
+            nonMergeDataCache.finishWriting();
+        }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.*;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.analysis.FusedSourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.slf4j.*;
+
+/**
+ * Aggregates the sources of one scope into the indicators of all its metrics. The sources are routed by the entity id
+ * into the partitions, every partition owns its consumer thread and accumulators, the indicators are created once per
+ * entity and time bucket of a round, then flushed to the next worker of their metrics.
+ *
+ * @author peng-yongsheng
+ */
+public class SourceAggregateWorker<S extends Source> extends AbstractWorker<S> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceAggregateWorker.class);
+
+    private final FusedSourceDispatcher<S> dispatcher;
+    private final List<AbstractWorker<Indicator>> nextWorkers;
+    private final List<AggregatePartition> partitions;
+
+    SourceAggregateWorker(int workerId, FusedSourceDispatcher<S> dispatcher, List<AbstractWorker<Indicator>> nextWorkers,
+        int partitionNum) {
+        super(workerId);
+        this.dispatcher = dispatcher;
+        this.nextWorkers = nextWorkers;
+        this.partitions = new ArrayList<>(Math.max(partitionNum, 1));
+        for (int i = 0; i < Math.max(partitionNum, 1); i++) {
+            partitions.add(new AggregatePartition());
+        }
+    }
+
+    @Override public final void in(S source) {
+        String entityId = source.getEntityId();
+        int hashCode = entityId == null ? 0 : entityId.hashCode();
+        partitions.get(Math.abs(hashCode % partitions.size())).dataCarrier.produce(source);
+    }
+
+    private class AggregatePartition {
+
+        private final DataCarrier<S> dataCarrier;
+        private final IndicatorAccumulator[] accumulators;
+        private final List<Indicator> flushed = new ArrayList<>();
+        private int messageNum;
+
+        private AggregatePartition() {
+            this.accumulators = new IndicatorAccumulator[nextWorkers.size()];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = new IndicatorAccumulator();
+            }
+            this.dataCarrier = new DataCarrier<>(1, 10000);
+            this.dataCarrier.consume(new AggregatorConsumer(this), 1);
+        }
+
+        private void onWork(S source, boolean endOfBatch) {
+            messageNum++;
+            dispatcher.combine(source, accumulators);
+
+            if (messageNum >= 1000 || endOfBatch) {
+                sendToNext();
+                messageNum = 0;
+            }
+        }
+
+        private void sendToNext() {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].drain(flushed::add);
+                if (flushed.isEmpty()) {
+                    continue;
+                }
+                if (logger.isDebugEnabled()) {
+                    flushed.forEach(indicator -> logger.debug(indicator.toString()));
+                }
+
+                // The next worker hands over the indicators before it returns, so the list is reused.
+                nextWorkers.get(i).in(flushed);
+                flushed.clear();
+            }
+        }
+    }
+
+    private class AggregatorConsumer implements IConsumer<S> {
+
+        private final AggregatePartition aggregator;
+
+        private AggregatorConsumer(AggregatePartition aggregator) {
+            this.aggregator = aggregator;
+        }
+
+        @Override public void init() {
+
+        }
+
+        @Override public void consume(List<S> data) {
+            for (int i = 0; i < data.size(); i++) {
+                aggregator.onWork(data.get(i), i == data.size() - 1);
+            }
+        }
+
+        @Override public void onError(List<S> data, Throwable t) {
+            logger.error(t.getMessage(), t);
+        }
+
+        @Override public void onExit() {
+        }
+    }
+}
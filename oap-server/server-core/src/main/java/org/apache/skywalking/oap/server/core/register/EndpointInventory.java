@@ -23,6 +23,8 @@ import lombok.*;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.register.annotation.InventoryType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -80,14 +82,14 @@ public class EndpointInventory extends RegisterSource {
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataIntegers(0, getSequence());
-        remoteBuilder.setDataIntegers(1, serviceId);
-        remoteBuilder.setDataIntegers(2, detectPoint);
+        remoteBuilder.addDataIntegers(getSequence());
+        remoteBuilder.addDataIntegers(serviceId);
+        remoteBuilder.addDataIntegers(detectPoint);
 
-        remoteBuilder.setDataLongs(0, getRegisterTime());
-        remoteBuilder.setDataLongs(1, getHeartbeatTime());
+        remoteBuilder.addDataLongs(getRegisterTime());
+        remoteBuilder.addDataLongs(getHeartbeatTime());
 
-        remoteBuilder.setDataStrings(0, name);
+        remoteBuilder.addDataStrings(name);
         return remoteBuilder;
     }
 
@@ -102,6 +104,24 @@ public class EndpointInventory extends RegisterSource {
         setName(remoteData.getDataStrings(0));
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeInt(getSequence());
+        writer.writeInt(serviceId);
+        writer.writeInt(detectPoint);
+        writer.writeLong(getRegisterTime());
+        writer.writeLong(getHeartbeatTime());
+        writer.writeString(name);
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setSequence(reader.readInt());
+        setServiceId(reader.readInt());
+        setDetectPoint(reader.readInt());
+        setRegisterTime(reader.readLong());
+        setHeartbeatTime(reader.readLong());
+        setName(reader.readString());
+    }
+
     @Override public int remoteHashCode() {
         return 0;
     }
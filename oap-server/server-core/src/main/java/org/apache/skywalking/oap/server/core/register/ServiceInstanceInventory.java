@@ -25,6 +25,8 @@ import lombok.*;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.register.annotation.InventoryType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -109,20 +111,20 @@ public class ServiceInstanceInventory extends RegisterSource {
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataIntegers(0, getSequence());
-        remoteBuilder.setDataIntegers(1, serviceId);
-        remoteBuilder.setDataIntegers(2, language);
-        remoteBuilder.setDataIntegers(3, isAddress);
-        remoteBuilder.setDataIntegers(4, addressId);
-        remoteBuilder.setDataIntegers(5, processNo);
-
-        remoteBuilder.setDataLongs(0, getRegisterTime());
-        remoteBuilder.setDataLongs(1, getHeartbeatTime());
-
-        remoteBuilder.setDataStrings(0, name);
-        remoteBuilder.setDataStrings(1, osName);
-        remoteBuilder.setDataStrings(2, hostName);
-        remoteBuilder.setDataStrings(3, ipv4s);
+        remoteBuilder.addDataIntegers(getSequence());
+        remoteBuilder.addDataIntegers(serviceId);
+        remoteBuilder.addDataIntegers(language);
+        remoteBuilder.addDataIntegers(isAddress);
+        remoteBuilder.addDataIntegers(addressId);
+        remoteBuilder.addDataIntegers(processNo);
+
+        remoteBuilder.addDataLongs(getRegisterTime());
+        remoteBuilder.addDataLongs(getHeartbeatTime());
+
+        remoteBuilder.addDataStrings(name);
+        remoteBuilder.addDataStrings(osName);
+        remoteBuilder.addDataStrings(hostName);
+        remoteBuilder.addDataStrings(ipv4s);
         return remoteBuilder;
     }
 
@@ -143,6 +145,36 @@ public class ServiceInstanceInventory extends RegisterSource {
         setIpv4s(remoteData.getDataStrings(3));
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeInt(getSequence());
+        writer.writeInt(serviceId);
+        writer.writeInt(language);
+        writer.writeInt(isAddress);
+        writer.writeInt(addressId);
+        writer.writeInt(processNo);
+        writer.writeLong(getRegisterTime());
+        writer.writeLong(getHeartbeatTime());
+        writer.writeString(name);
+        writer.writeString(osName);
+        writer.writeString(hostName);
+        writer.writeString(ipv4s);
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setSequence(reader.readInt());
+        setServiceId(reader.readInt());
+        setLanguage(reader.readInt());
+        setIsAddress(reader.readInt());
+        setAddressId(reader.readInt());
+        setProcessNo(reader.readInt());
+        setRegisterTime(reader.readLong());
+        setHeartbeatTime(reader.readLong());
+        setName(reader.readString());
+        setOsName(reader.readString());
+        setHostName(reader.readString());
+        setIpv4s(reader.readString());
+    }
+
     @Override public int remoteHashCode() {
         return 0;
     }
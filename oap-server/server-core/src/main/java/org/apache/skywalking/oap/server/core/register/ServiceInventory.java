@@ -23,6 +23,8 @@ import lombok.*;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.register.annotation.InventoryType;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -92,14 +94,14 @@ public class ServiceInventory extends RegisterSource {
 
     @Override public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.setDataIntegers(0, getSequence());
-        remoteBuilder.setDataIntegers(1, isAddress);
-        remoteBuilder.setDataIntegers(2, addressId);
+        remoteBuilder.addDataIntegers(getSequence());
+        remoteBuilder.addDataIntegers(isAddress);
+        remoteBuilder.addDataIntegers(addressId);
 
-        remoteBuilder.setDataLongs(0, getRegisterTime());
-        remoteBuilder.setDataLongs(1, getHeartbeatTime());
+        remoteBuilder.addDataLongs(getRegisterTime());
+        remoteBuilder.addDataLongs(getHeartbeatTime());
 
-        remoteBuilder.setDataStrings(0, name);
+        remoteBuilder.addDataStrings(name);
         return remoteBuilder;
     }
 
@@ -114,6 +116,24 @@ public class ServiceInventory extends RegisterSource {
         setName(remoteData.getDataStrings(0));
     }
 
+    @Override public void serialize(StreamDataWriter writer) {
+        writer.writeInt(getSequence());
+        writer.writeInt(isAddress);
+        writer.writeInt(addressId);
+        writer.writeLong(getRegisterTime());
+        writer.writeLong(getHeartbeatTime());
+        writer.writeString(name);
+    }
+
+    @Override public void deserialize(StreamDataReader reader) {
+        setSequence(reader.readInt());
+        setIsAddress(reader.readInt());
+        setAddressId(reader.readInt());
+        setRegisterTime(reader.readLong());
+        setHeartbeatTime(reader.readLong());
+        setName(reader.readString());
+    }
+
     @Override public int remoteHashCode() {
         return 0;
     }
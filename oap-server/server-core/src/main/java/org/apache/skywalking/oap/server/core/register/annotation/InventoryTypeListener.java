@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.register.annotation;
 
 import java.lang.annotation.Annotation;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationListener;
 import org.apache.skywalking.oap.server.core.register.worker.InventoryProcess;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -29,9 +30,11 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 public class InventoryTypeListener implements AnnotationListener {
 
     private final ModuleManager moduleManager;
+    private final CoreModuleConfig moduleConfig;
 
-    public InventoryTypeListener(ModuleManager moduleManager) {
+    public InventoryTypeListener(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.moduleConfig = moduleConfig;
     }
 
     @Override public Class<? extends Annotation> annotation() {
@@ -39,6 +42,6 @@ public class InventoryTypeListener implements AnnotationListener {
     }
 
     @Override public void notify(Class aClass) {
-        InventoryProcess.INSTANCE.create(moduleManager, aClass);
+        InventoryProcess.INSTANCE.create(moduleManager, moduleConfig, aClass);
     }
 }
@@ -19,7 +19,7 @@
 package org.apache.skywalking.oap.server.core.register.worker;
 
 import java.util.*;
-import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.*;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.register.annotation.InventoryAnnotationUtils;
 import org.apache.skywalking.oap.server.core.source.Scope;
@@ -40,7 +40,8 @@ public enum InventoryProcess {
         entryWorkers.get(registerSource.getClass()).in(registerSource);
     }
 
-    public void create(ModuleManager moduleManager, Class<? extends RegisterSource> inventoryClass) {
+    public void create(ModuleManager moduleManager, CoreModuleConfig moduleConfig,
+        Class<? extends RegisterSource> inventoryClass) {
         String modelName = StorageEntityAnnotationUtils.getModelName(inventoryClass);
         Scope scope = InventoryAnnotationUtils.getScope(inventoryClass);
 
@@ -54,7 +55,8 @@ public enum InventoryProcess {
             throw new UnexpectedException("");
         }
 
-        RegisterPersistentWorker persistentWorker = new RegisterPersistentWorker(WorkerIdGenerator.INSTANCES.generate(), modelName, moduleManager, registerDAO, scope);
+        RegisterPersistentWorker persistentWorker = new RegisterPersistentWorker(WorkerIdGenerator.INSTANCES.generate(), modelName, moduleManager,
+            registerDAO, scope, moduleConfig.getRegisterSequenceBlockSize());
         WorkerInstances.INSTANCES.put(persistentWorker.getWorkerId(), persistentWorker);
 
         RegisterRemoteWorker remoteWorker = new RegisterRemoteWorker(WorkerIdGenerator.INSTANCES.generate(), moduleManager, persistentWorker);
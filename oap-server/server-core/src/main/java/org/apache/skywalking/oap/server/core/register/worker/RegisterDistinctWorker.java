@@ -61,7 +61,7 @@ public class RegisterDistinctWorker extends AbstractWorker<RegisterSource> {
         }
 
         if (messageNum >= 1000 || source.getEndOfBatchContext().isEndOfBatch()) {
-            sources.values().forEach(nextWorker::in);
+            nextWorker.in(sources.values());
             messageNum = 0;
         }
     }
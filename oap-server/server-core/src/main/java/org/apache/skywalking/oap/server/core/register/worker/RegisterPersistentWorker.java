@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.register.worker;
 
 import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.*;
@@ -27,55 +28,78 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.slf4j.*;
 
 /**
+ * The new inventories get the sequences from the block leased by this node, so the registration takes neither the
+ * register lock nor the max query. The registered sources leave the worker, the ones failed are tried again with the
+ * next batch.
+ *
  * @author peng-yongsheng
  */
 public class RegisterPersistentWorker extends AbstractWorker<RegisterSource> {
 
     private static final Logger logger = LoggerFactory.getLogger(RegisterPersistentWorker.class);
 
-    private final Scope scope;
     private final String modelName;
     private final Map<RegisterSource, RegisterSource> sources;
-    private final IRegisterLockDAO registerLockDAO;
     private final IRegisterDAO registerDAO;
+    private final SequenceLease sequenceLease;
 
     public RegisterPersistentWorker(int workerId, String modelName, ModuleManager moduleManager,
-        IRegisterDAO registerDAO, Scope scope) {
+        IRegisterDAO registerDAO, Scope scope, int sequenceBlockSize) {
         super(workerId);
         this.modelName = modelName;
         this.sources = new HashMap<>();
         this.registerDAO = registerDAO;
-        this.registerLockDAO = moduleManager.find(StorageModule.NAME).getService(IRegisterLockDAO.class);
-        this.scope = scope;
+        IRegisterLockDAO registerLockDAO = moduleManager.find(StorageModule.NAME).getService(IRegisterLockDAO.class);
+        this.sequenceLease = new SequenceLease(scope, modelName, sequenceBlockSize, registerLockDAO, registerDAO);
     }
 
-    @Override public final void in(RegisterSource registerSource) {
+    @Override public final synchronized void in(RegisterSource registerSource) {
         if (!sources.containsKey(registerSource)) {
             sources.put(registerSource, registerSource);
         }
 
         if (registerSource.getEndOfBatchContext().isEndOfBatch()) {
+            persist();
+        }
+    }
+
+    /**
+     * The sources of the batch are registered at once, if the batch contains the end of the batch.
+     */
+    @Override public final synchronized void in(Collection<RegisterSource> registerSources) {
+        boolean endOfBatch = false;
+        for (RegisterSource registerSource : registerSources) {
+            if (!sources.containsKey(registerSource)) {
+                sources.put(registerSource, registerSource);
+            }
+            endOfBatch |= registerSource.getEndOfBatchContext().isEndOfBatch();
+        }
+
+        if (endOfBatch) {
+            persist();
+        }
+    }
 
-            if (registerLockDAO.tryLock(scope)) {
-                try {
-                    sources.values().forEach(source -> {
-                        try {
-                            RegisterSource newSource = registerDAO.get(modelName, source.id());
-                            if (Objects.nonNull(newSource)) {
-                                newSource.combine(newSource);
-                                registerDAO.forceUpdate(modelName, newSource);
-                            } else {
-                                int sequence = registerDAO.max(modelName);
-                                source.setSequence(sequence + 1);
-                                registerDAO.forceInsert(modelName, source);
-                            }
-                        } catch (Throwable t) {
-                            logger.error(t.getMessage(), t);
-                        }
-                    });
-                } finally {
-                    registerLockDAO.releaseLock(scope);
+    private void persist() {
+        Iterator<RegisterSource> iterator = sources.values().iterator();
+        while (iterator.hasNext()) {
+            RegisterSource source = iterator.next();
+            try {
+                RegisterSource newSource = registerDAO.get(modelName, source.id());
+                if (Objects.nonNull(newSource)) {
+                    newSource.combine(newSource);
+                    registerDAO.forceUpdate(modelName, newSource);
+                } else {
+                    int sequence = sequenceLease.next();
+                    if (sequence == Const.NONE) {
+                        continue;
+                    }
+                    source.setSequence(sequence);
+                    registerDAO.forceInsert(modelName, source);
                 }
+                iterator.remove();
+            } catch (Throwable t) {
+                logger.error(t.getMessage(), t);
             }
         }
     }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.register.worker;
 
+import java.util.Collection;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
@@ -49,4 +50,19 @@ public class RegisterRemoteWorker extends AbstractWorker<RegisterSource> {
             logger.error(e.getMessage(), e);
         }
     }
+
+    /**
+     * The sources go to the persistent worker directly when this node is the first one, otherwise all of them are
+     * serialized to the first one.
+     */
+    @Override public final void in(Collection<RegisterSource> sources) {
+        try {
+            Collection<RegisterSource> local = remoteSender.sendExceptLocal(nextWorker.getWorkerId(), sources, Selector.ForeverFirst);
+            if (!local.isEmpty()) {
+                nextWorker.in(local);
+            }
+        } catch (Throwable e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.register.worker;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.slf4j.*;
+
+/**
+ * Hands out the sequences of one scope from the block leased by this node, the next block is leased when the block is
+ * used up. The blocks of the nodes never overlap, so the sequences are assigned without the register lock and the max
+ * query. The rest of the block is abandoned when the node stops, which only leaves a gap in the sequences.
+ *
+ * The first lease starts after the max sequence of the existing inventories, they may be registered before the
+ * leases.
+ *
+ * @author peng-yongsheng
+ */
+class SequenceLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceLease.class);
+
+    private static final int MAX_LEASE_ATTEMPTS = 10;
+
+    private final Scope scope;
+    private final String modelName;
+    private final int blockSize;
+    private final IRegisterLockDAO registerLockDAO;
+    private final IRegisterDAO registerDAO;
+    private boolean leased = false;
+    private int next;
+    private int end;
+
+    SequenceLease(Scope scope, String modelName, int blockSize, IRegisterLockDAO registerLockDAO,
+        IRegisterDAO registerDAO) {
+        this.scope = scope;
+        this.modelName = modelName;
+        this.blockSize = Math.max(blockSize, 1);
+        this.registerLockDAO = registerLockDAO;
+        this.registerDAO = registerDAO;
+    }
+
+    /**
+     * @return the next sequence of this node, or {@link Const#NONE} when no block could be leased.
+     */
+    synchronized int next() throws IOException {
+        if (next >= end && !lease()) {
+            return Const.NONE;
+        }
+        return next++;
+    }
+
+    private boolean lease() throws IOException {
+        int floor = leased ? Const.NONE : registerDAO.max(modelName);
+        for (int i = 0; i < MAX_LEASE_ATTEMPTS; i++) {
+            int first = registerLockDAO.leaseSequences(scope, floor, blockSize);
+            if (first != Const.NONE) {
+                next = first;
+                end = first + blockSize;
+                leased = true;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Leased the sequences [{}, {}) of {}.", first, end, scope);
+                }
+                return true;
+            }
+        }
+        logger.warn("Lease the sequences of {} failure after {} attempts.", scope, MAX_LEASE_ATTEMPTS);
+        return false;
+    }
+}
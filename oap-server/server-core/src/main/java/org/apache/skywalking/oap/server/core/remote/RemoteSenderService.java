@@ -18,43 +18,94 @@
 
 package org.apache.skywalking.oap.server.core.remote;
 
+import java.util.*;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.client.*;
 import org.apache.skywalking.oap.server.core.remote.selector.*;
 import org.apache.skywalking.oap.server.library.module.*;
+import org.slf4j.*;
 
 /**
+ * Send every message to exactly one remote client, which is chosen by the routing policy of the selector.
+ *
  * @author peng-yongsheng
  */
 public class RemoteSenderService implements Service {
 
+    private static final Logger logger = LoggerFactory.getLogger(RemoteSenderService.class);
+
     private final ModuleManager moduleManager;
-    private final HashCodeSelector hashCodeSelector;
-    private final ForeverFirstSelector foreverFirstSelector;
-    private final RollingSelector rollingSelector;
+    private final Map<Selector, RoutingPolicy> policies;
 
-    public RemoteSenderService(ModuleManager moduleManager) {
+    public RemoteSenderService(ModuleManager moduleManager, int virtualNodeNum) {
+        this(moduleManager, Arrays.asList(
+            new RoutingPolicy(Selector.HashCode, new HashCodeSelector()),
+            new RoutingPolicy(Selector.ConsistentHash, new ConsistentHashSelector(virtualNodeNum)),
+            new RoutingPolicy(Selector.Rolling, new RollingSelector()),
+            new RoutingPolicy(Selector.ForeverFirst, new ForeverFirstSelector())));
+    }
+
+    public RemoteSenderService(ModuleManager moduleManager, List<RoutingPolicy> policies) {
         this.moduleManager = moduleManager;
-        this.hashCodeSelector = new HashCodeSelector();
-        this.foreverFirstSelector = new ForeverFirstSelector();
-        this.rollingSelector = new RollingSelector();
+        this.policies = new EnumMap<>(Selector.class);
+        policies.forEach(policy -> this.policies.put(policy.getSelector(), policy));
     }
 
     public void send(int nextWorkId, StreamData streamData, Selector selector) {
         RemoteClientManager clientManager = moduleManager.find(CoreModule.NAME).getService(RemoteClientManager.class);
 
-        RemoteClient remoteClient;
-        switch (selector) {
-            case HashCode:
-                remoteClient = hashCodeSelector.select(clientManager.getRemoteClient(), streamData);
-                remoteClient.push(nextWorkId, streamData);
-            case Rolling:
-                remoteClient = rollingSelector.select(clientManager.getRemoteClient(), streamData);
-                remoteClient.push(nextWorkId, streamData);
-            case ForeverFirst:
-                remoteClient = foreverFirstSelector.select(clientManager.getRemoteClient(), streamData);
-                remoteClient.push(nextWorkId, streamData);
+        RoutingPolicy policy = policies.get(selector);
+        if (policy == null) {
+            throw new IllegalArgumentException("No routing policy of the selector " + selector);
         }
+
+        RemoteClient remoteClient = policy.route(clientManager.getRemoteClient(), streamData);
+        if (remoteClient == null) {
+            logger.warn("No remote client to send the {} by the selector {}.", streamData.getClass().getSimpleName(), selector);
+            return;
+        }
+        remoteClient.push(nextWorkId, streamData);
+    }
+
+    /**
+     * Routes the batch once, only the data owned by the other nodes is pushed to their remote clients. The data owned
+     * by this node is returned without the serialization, the caller hands it to the next worker as a batch.
+     *
+     * @return the data owned by this node, empty when there is no remote client yet.
+     */
+    public <T extends StreamData> Collection<T> sendExceptLocal(int nextWorkId, Collection<T> batch,
+        Selector selector) {
+        RemoteClientManager clientManager = moduleManager.find(CoreModule.NAME).getService(RemoteClientManager.class);
+
+        RoutingPolicy policy = policies.get(selector);
+        if (policy == null) {
+            throw new IllegalArgumentException("No routing policy of the selector " + selector);
+        }
+
+        Map<RemoteClient, Collection<T>> routes = policy.routeAll(clientManager.getRemoteClient(), batch);
+        if (routes.isEmpty() && !batch.isEmpty()) {
+            logger.warn("No remote client to send {} data by the selector {}.", batch.size(), selector);
+        }
+
+        Collection<T> local = Collections.emptyList();
+        for (Map.Entry<RemoteClient, Collection<T>> route : routes.entrySet()) {
+            RemoteClient remoteClient = route.getKey();
+            if (remoteClient instanceof SelfRemoteClient) {
+                local = route.getValue();
+            } else {
+                route.getValue().forEach(streamData -> remoteClient.push(nextWorkId, streamData));
+            }
+        }
+        return local;
+    }
+
+    /**
+     * @return the sent messages of every selector.
+     */
+    public Map<Selector, Long> getSendCounts() {
+        Map<Selector, Long> sendCounts = new EnumMap<>(Selector.class);
+        policies.forEach((selector, policy) -> sendCounts.put(selector, policy.getSendCount()));
+        return sendCounts;
     }
 }
@@ -18,11 +18,13 @@
 
 package org.apache.skywalking.oap.server.core.remote;
 
+import com.google.protobuf.ByteString;
 import io.grpc.stub.StreamObserver;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataClassGetter;
-import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataFactory;
+import org.apache.skywalking.oap.server.core.remote.data.*;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
 import org.apache.skywalking.oap.server.core.worker.WorkerInstances;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -44,24 +46,9 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
     }
 
     @Override public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(streamDataClassGetter)) {
-            streamDataClassGetter = moduleManager.find(CoreModule.NAME).getService(StreamDataClassGetter.class);
-        }
-
         return new StreamObserver<RemoteMessage>() {
             @Override public void onNext(RemoteMessage message) {
-                int streamDataId = message.getStreamDataId();
-                int nextWorkerId = message.getNextWorkerId();
-                RemoteData remoteData = message.getRemoteData();
-
-                Class<StreamData> streamDataClass = streamDataClassGetter.findClassById(streamDataId);
-                try {
-                    StreamData streamData = streamDataClass.newInstance();
-                    streamData.deserialize(remoteData);
-                    WorkerInstances.INSTANCES.get(nextWorkerId).in(streamData);
-                } catch (InstantiationException | IllegalAccessException e) {
-                    logger.warn(e.getMessage());
-                }
+                dispatch(message);
             }
 
             @Override public void onError(Throwable throwable) {
@@ -74,4 +61,80 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    @Override public StreamObserver<RemoteMessageBatch> batchCall(StreamObserver<Empty> responseObserver) {
+        return new StreamObserver<RemoteMessageBatch>() {
+            @Override public void onNext(RemoteMessageBatch batch) {
+                batch.getMessagesList().forEach(message -> dispatch(message));
+                if (!batch.getCompactMessages().isEmpty()) {
+                    dispatch(batch.getCompactMessages());
+                }
+                responseObserver.onNext(Empty.newBuilder().build());
+            }
+
+            @Override public void onError(Throwable throwable) {
+                logger.error(throwable.getMessage(), throwable);
+            }
+
+            @Override public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * Accepts the compact codec first, the protobuf messages are always accepted.
+     */
+    @Override public void negotiate(CodecNegotiation request, StreamObserver<CodecNegotiation> responseObserver) {
+        CodecNegotiation.Builder response = CodecNegotiation.newBuilder();
+        for (RemoteCodec codec : new RemoteCodec[] {RemoteCodec.COMPACT, RemoteCodec.PROTOBUF}) {
+            if (request.getCodecsList().contains(codec)) {
+                response.addCodecs(codec);
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    private StreamDataClassGetter getStreamDataClassGetter() {
+        if (Objects.isNull(streamDataClassGetter)) {
+            streamDataClassGetter = moduleManager.find(CoreModule.NAME).getService(StreamDataClassGetter.class);
+        }
+        return streamDataClassGetter;
+    }
+
+    /**
+     * The compact messages are not delimited, an unknown stream data drops the rest of the batch.
+     */
+    private void dispatch(ByteString compactMessages) {
+        StreamDataReader reader = new StreamDataReader(compactMessages.toByteArray());
+        while (!reader.isAtEnd()) {
+            int nextWorkerId = reader.readUInt();
+            int streamDataId = reader.readUInt();
+
+            StreamDataFactory factory = getStreamDataClassGetter().findFactoryById(streamDataId);
+            if (factory == null) {
+                logger.warn("Unknown stream data id: {}, the rest of the batch is dropped.", streamDataId);
+                return;
+            }
+            StreamData streamData = factory.newInstance();
+            streamData.deserialize(reader);
+            WorkerInstances.INSTANCES.get(nextWorkerId).in(streamData);
+        }
+    }
+
+    private void dispatch(RemoteMessage message) {
+        int streamDataId = message.getStreamDataId();
+        int nextWorkerId = message.getNextWorkerId();
+        RemoteData remoteData = message.getRemoteData();
+
+        StreamDataFactory factory = getStreamDataClassGetter().findFactoryById(streamDataId);
+        if (factory == null) {
+            logger.warn("Unknown stream data id: {}", streamDataId);
+            return;
+        }
+        StreamData streamData = factory.newInstance();
+        streamData.deserialize(remoteData);
+        WorkerInstances.INSTANCES.get(nextWorkerId).in(streamData);
+    }
 }
@@ -19,41 +19,77 @@
 package org.apache.skywalking.oap.server.core.remote.annotation;
 
 import java.util.*;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.slf4j.*;
 
 /**
+ * The ids of the stream data classes are their indexes in the class names order, the same on every OAP node. The
+ * factories are kept in an array indexed by the id, the id of a class is cached by the class itself.
+ *
  * @author peng-yongsheng
  */
 public class StreamDataAnnotationContainer implements StreamDataClassGetter {
 
     private static final Logger logger = LoggerFactory.getLogger(StreamDataAnnotationContainer.class);
 
-    private int id = 0;
-    private final Map<Class<StreamData>, Integer> classMap;
-    private final Map<Integer, Class<StreamData>> idMap;
+    private final Map<Class<?>, Integer> classMap;
+    private final ClassValue<Integer> classIds;
+    private volatile Class[] classes = new Class[0];
+    private volatile StreamDataFactory[] factories = new StreamDataFactory[0];
 
     public StreamDataAnnotationContainer() {
         this.classMap = new HashMap<>();
-        this.idMap = new HashMap<>();
+        this.classIds = new ClassValue<Integer>() {
+            @Override protected Integer computeValue(Class<?> type) {
+                synchronized (StreamDataAnnotationContainer.this) {
+                    return classMap.get(type);
+                }
+            }
+        };
     }
 
-    @SuppressWarnings(value = "unchecked")
     public synchronized void generate(List<Class> streamDataClasses) {
         streamDataClasses.sort(Comparator.comparing(Class::getName));
 
-        for (Class streamDataClass : streamDataClasses) {
-            id++;
+        Class[] classes = new Class[streamDataClasses.size() + 1];
+        StreamDataFactory[] factories = new StreamDataFactory[streamDataClasses.size() + 1];
+        for (int id = 1; id <= streamDataClasses.size(); id++) {
+            Class streamDataClass = streamDataClasses.get(id - 1);
+            StreamDataFactory factory = StreamDataFactories.get(streamDataClass);
+            if (factory == null) {
+                throw new UnexpectedException("No stream data factory of the class " + streamDataClass.getName() + ", add it into " + StreamDataFactories.class.getSimpleName());
+            }
+            classes[id] = streamDataClass;
+            factories[id] = factory;
             classMap.put(streamDataClass, id);
-            idMap.put(id, streamDataClass);
+        }
+        this.classes = classes;
+        this.factories = factories;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} stream data classes registered.", streamDataClasses.size());
         }
     }
 
     @Override public int findIdByClass(Class streamDataClass) {
-        return classMap.get(streamDataClass);
+        Integer id = classIds.get(streamDataClass);
+        if (id == null) {
+            // Don't cache the miss, the class may be looked up before the ids generated.
+            classIds.remove(streamDataClass);
+            throw new UnexpectedException("Unknown stream data class " + streamDataClass.getName());
+        }
+        return id;
     }
 
+    @SuppressWarnings(value = "unchecked")
     @Override public Class<StreamData> findClassById(int id) {
-        return idMap.get(id);
+        Class[] classes = this.classes;
+        return id > 0 && id < classes.length ? classes[id] : null;
+    }
+
+    @Override public StreamDataFactory findFactoryById(int id) {
+        StreamDataFactory[] factories = this.factories;
+        return id > 0 && id < factories.length ? factories[id] : null;
     }
 }
@@ -29,4 +29,9 @@ public interface StreamDataClassGetter extends Service {
     int findIdByClass(Class streamDataClass);
 
     Class<StreamData> findClassById(int id);
+
+    /**
+     * @return the factory of the stream data class of the id, or null if the id is unknown.
+     */
+    StreamDataFactory findFactoryById(int id);
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.annotation;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.all.AllHeatmapIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.all.AllPercentileIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpoint.EndpointAvgIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpoint.EndpointCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpoint.EndpointPercentileIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpoint.EndpointSlaIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpointrelation.EndpointRelationCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.endpointrelation.EndpointRelationRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServicePercentileIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceSlaIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstance.ServiceInstanceCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstance.ServiceInstanceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmcpu.InstanceJvmCpuIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmgc.InstanceJvmOldGcCountIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmgc.InstanceJvmOldGcTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmgc.InstanceJvmYoungGcCountIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmgc.InstanceJvmYoungGcTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmmemory.InstanceJvmMemoryHeapIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmmemory.InstanceJvmMemoryHeapMaxIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmmemory.InstanceJvmMemoryNoheapIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.serviceinstancejvmmemory.InstanceJvmMemoryNoheapMaxIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationClientCallSlaIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationClientCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationClientRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationServerCallSlaIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationServerCpmIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.ServiceRelationServerRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.endpointrelation.EndpointRelationClientSideIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.endpointrelation.EndpointRelationServerSideIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.service.ServiceComponentIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.service.ServiceMappingIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationClientSideIndicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideIndicator;
+import org.apache.skywalking.oap.server.core.register.EndpointInventory;
+import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+
+/**
+ * The factories of all the {@link StreamData} classes. The OAL generator adds the generated indicators here too, the
+ * inventories and the manual indicators are added by hand.
+ *
+ * @author peng-yongsheng
+ */
+public class StreamDataFactories {
+
+    private static final Map<Class<?>, StreamDataFactory> FACTORIES = new HashMap<>();
+
+    static {
+        FACTORIES.put(AllHeatmapIndicator.class, AllHeatmapIndicator::new);
+        FACTORIES.put(AllPercentileIndicator.class, AllPercentileIndicator::new);
+        FACTORIES.put(EndpointAvgIndicator.class, EndpointAvgIndicator::new);
+        FACTORIES.put(EndpointCpmIndicator.class, EndpointCpmIndicator::new);
+        FACTORIES.put(EndpointPercentileIndicator.class, EndpointPercentileIndicator::new);
+        FACTORIES.put(EndpointSlaIndicator.class, EndpointSlaIndicator::new);
+        FACTORIES.put(EndpointRelationCpmIndicator.class, EndpointRelationCpmIndicator::new);
+        FACTORIES.put(EndpointRelationRespTimeIndicator.class, EndpointRelationRespTimeIndicator::new);
+        FACTORIES.put(ServiceCpmIndicator.class, ServiceCpmIndicator::new);
+        FACTORIES.put(ServicePercentileIndicator.class, ServicePercentileIndicator::new);
+        FACTORIES.put(ServiceRespTimeIndicator.class, ServiceRespTimeIndicator::new);
+        FACTORIES.put(ServiceSlaIndicator.class, ServiceSlaIndicator::new);
+        FACTORIES.put(ServiceInstanceCpmIndicator.class, ServiceInstanceCpmIndicator::new);
+        FACTORIES.put(ServiceInstanceRespTimeIndicator.class, ServiceInstanceRespTimeIndicator::new);
+        FACTORIES.put(InstanceJvmCpuIndicator.class, InstanceJvmCpuIndicator::new);
+        FACTORIES.put(InstanceJvmOldGcCountIndicator.class, InstanceJvmOldGcCountIndicator::new);
+        FACTORIES.put(InstanceJvmOldGcTimeIndicator.class, InstanceJvmOldGcTimeIndicator::new);
+        FACTORIES.put(InstanceJvmYoungGcCountIndicator.class, InstanceJvmYoungGcCountIndicator::new);
+        FACTORIES.put(InstanceJvmYoungGcTimeIndicator.class, InstanceJvmYoungGcTimeIndicator::new);
+        FACTORIES.put(InstanceJvmMemoryHeapIndicator.class, InstanceJvmMemoryHeapIndicator::new);
+        FACTORIES.put(InstanceJvmMemoryHeapMaxIndicator.class, InstanceJvmMemoryHeapMaxIndicator::new);
+        FACTORIES.put(InstanceJvmMemoryNoheapIndicator.class, InstanceJvmMemoryNoheapIndicator::new);
+        FACTORIES.put(InstanceJvmMemoryNoheapMaxIndicator.class, InstanceJvmMemoryNoheapMaxIndicator::new);
+        FACTORIES.put(ServiceRelationClientCallSlaIndicator.class, ServiceRelationClientCallSlaIndicator::new);
+        FACTORIES.put(ServiceRelationClientCpmIndicator.class, ServiceRelationClientCpmIndicator::new);
+        FACTORIES.put(ServiceRelationClientRespTimeIndicator.class, ServiceRelationClientRespTimeIndicator::new);
+        FACTORIES.put(ServiceRelationServerCallSlaIndicator.class, ServiceRelationServerCallSlaIndicator::new);
+        FACTORIES.put(ServiceRelationServerCpmIndicator.class, ServiceRelationServerCpmIndicator::new);
+        FACTORIES.put(ServiceRelationServerRespTimeIndicator.class, ServiceRelationServerRespTimeIndicator::new);
+        FACTORIES.put(EndpointRelationClientSideIndicator.class, EndpointRelationClientSideIndicator::new);
+        FACTORIES.put(EndpointRelationServerSideIndicator.class, EndpointRelationServerSideIndicator::new);
+        FACTORIES.put(ServiceComponentIndicator.class, ServiceComponentIndicator::new);
+        FACTORIES.put(ServiceMappingIndicator.class, ServiceMappingIndicator::new);
+        FACTORIES.put(ServiceRelationClientSideIndicator.class, ServiceRelationClientSideIndicator::new);
+        FACTORIES.put(ServiceRelationServerSideIndicator.class, ServiceRelationServerSideIndicator::new);
+        FACTORIES.put(EndpointInventory.class, EndpointInventory::new);
+        FACTORIES.put(NetworkAddressInventory.class, NetworkAddressInventory::new);
+        FACTORIES.put(ServiceInstanceInventory.class, ServiceInstanceInventory::new);
+        FACTORIES.put(ServiceInventory.class, ServiceInventory::new);
+    }
+
+    private StreamDataFactories() {
+    }
+
+    /**
+     * @return the factory of the stream data class, or null if the class is not added.
+     */
+    public static StreamDataFactory get(Class<?> streamDataClass) {
+        return FACTORIES.get(streamDataClass);
+    }
+}
@@ -18,61 +18,220 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
-import io.grpc.stub.StreamObserver;
-import java.util.List;
+import io.grpc.*;
+import io.grpc.stub.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataClassGetter;
+import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataFactory;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataWriter;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
+import org.apache.skywalking.oap.server.library.buffer.BufferStream;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.slf4j.*;
 
 /**
+ * Send the messages to the peer through one long-lived stream. The consumer thread waits until the stream is ready,
+ * so a slow peer blocks the carrier instead of buffering in memory. A broken stream is reconnected with jittered
+ * backoff, the consumer thread keeps the batch and waits for the new stream, so the carrier fills up while the peer is
+ * down. Only the messages consumed when the client is closed are dropped.
+ *
+ * When the carrier is full, the {@link OverflowPolicy} decides whether the sending thread waits, the oldest message is
+ * overwritten, or the message is spilled into the buffer files and queued again later.
+ *
+ * The codec is negotiated with the peer before the first stream. The compact codec writes the batch into one reused
+ * buffer, the peers without the negotiation get the protobuf messages. The peers without the batch call, which is
+ * probed by an empty batch, get the messages through the call rpc of the previous version. The result is reused by the
+ * reconnections until the connection of the channel is lost, a restarted peer may run another version.
+ *
  * @author peng-yongsheng
  */
 public class GRPCRemoteClient implements RemoteClient, Comparable<GRPCRemoteClient> {
 
     private static final Logger logger = LoggerFactory.getLogger(GRPCRemoteClient.class);
 
-    private final GRPCClient client;
-    private final DataCarrier<RemoteMessage> carrier;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 10000;
+    private static final int SPILL_FILE_MAX_SIZE = 100;
+    private static final long NEGOTIATE_TIMEOUT_MILLIS = 3000;
+
+    private final String host;
+    private final int port;
+    private final ManagedChannel channel;
+    private final boolean gzip;
+    private final DataCarrier<OutgoingMessage> carrier;
     private final StreamDataClassGetter streamDataClassGetter;
+    private volatile BufferStream<RemoteMessage> spillStream;
+
+    private final ReentrantLock readyLock = new ReentrantLock();
+    private final Condition ready = readyLock.newCondition();
+    private volatile PeerStream stream;
+    private volatile long backoffMillis = 0;
+    private long nextConnectTime = 0;
+    private volatile Protocol protocol;
+    private final CountDownLatch closeSignal = new CountDownLatch(1);
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong ackCount = new AtomicLong();
+    private final AtomicLong latencyMillis = new AtomicLong();
 
     public GRPCRemoteClient(StreamDataClassGetter streamDataClassGetter, RemoteInstance remoteInstance, int channelSize,
-        int bufferSize) {
+        int bufferSize, boolean gzip, OverflowPolicy overflowPolicy, String spillPath) {
+        this(streamDataClassGetter, remoteInstance.getHost(), remoteInstance.getPort(), channel(remoteInstance), channelSize, bufferSize, gzip, overflowPolicy, spillPath);
+    }
+
+    GRPCRemoteClient(StreamDataClassGetter streamDataClassGetter, String host, int port, ManagedChannel channel,
+        int channelSize, int bufferSize, boolean gzip) {
+        this(streamDataClassGetter, host, port, channel, channelSize, bufferSize, gzip, OverflowPolicy.BLOCK, null);
+    }
+
+    GRPCRemoteClient(StreamDataClassGetter streamDataClassGetter, String host, int port, ManagedChannel channel,
+        int channelSize, int bufferSize, boolean gzip, OverflowPolicy overflowPolicy, String spillPath) {
         this.streamDataClassGetter = streamDataClassGetter;
-        this.client = new GRPCClient(remoteInstance.getHost(), remoteInstance.getPort());
+        this.host = host;
+        this.port = port;
+        this.channel = channel;
+        this.gzip = gzip;
         this.carrier = new DataCarrier<>(channelSize, bufferSize);
-        this.carrier.setBufferStrategy(BufferStrategy.BLOCKING);
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                this.carrier.setBufferStrategy(BufferStrategy.OVERRIDE);
+                break;
+            case SPILL:
+                this.carrier.setBufferStrategy(BufferStrategy.IF_POSSIBLE);
+                this.spillStream = openSpillStream(spillPath);
+                break;
+            default:
+                this.carrier.setBufferStrategy(BufferStrategy.BLOCKING);
+        }
         this.carrier.consume(new RemoteMessageConsumer(), 1);
     }
 
+    private static ManagedChannel channel(RemoteInstance remoteInstance) {
+        GRPCClient client = new GRPCClient(remoteInstance.getHost(), remoteInstance.getPort());
+        client.initialize();
+        return client.getChannel();
+    }
+
+    /**
+     * The spilled messages are queued again by the retry thread of the buffer, until the carrier accepts them.
+     */
+    private BufferStream<RemoteMessage> openSpillStream(String spillPath) {
+        BufferStream.Builder<RemoteMessage> builder = new BufferStream.Builder<>(new File(spillPath, host + "_" + port).getAbsolutePath());
+        builder.cleanWhenRestart(true);
+        builder.dataFileMaxSize(SPILL_FILE_MAX_SIZE);
+        builder.parser(RemoteMessage.parser());
+        builder.callBack(this::requeue);
+        builder.memoryMapped(true);
+
+        BufferStream<RemoteMessage> stream = builder.build();
+        try {
+            stream.initialize();
+            return stream;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Open the spill files of {}:{} failure, the overflowed messages are dropped.", host, port, e);
+            return null;
+        }
+    }
+
+    private boolean requeue(RemoteMessage message) {
+        StreamDataFactory factory = streamDataClassGetter.findFactoryById(message.getStreamDataId());
+        if (factory == null) {
+            droppedCount.incrementAndGet();
+            return true;
+        }
+        StreamData streamData = factory.newInstance();
+        streamData.deserialize(message.getRemoteData());
+        return carrier.produce(new OutgoingMessage(message.getNextWorkerId(), streamData));
+    }
+
     @Override public void push(int nextWorkerId, StreamData streamData) {
-        int streamDataId = streamDataClassGetter.findIdByClass(streamData.getClass());
-        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
-        builder.setNextWorkerId(nextWorkerId);
-        builder.setStreamDataId(streamDataId);
-        builder.setRemoteData(streamData.serialize());
+        OutgoingMessage message = new OutgoingMessage(nextWorkerId, streamData);
+        if (!carrier.produce(message)) {
+            BufferStream<RemoteMessage> spill = spillStream;
+            if (spill != null && spill.write(toRemoteMessage(message))) {
+                spilledCount.incrementAndGet();
+            } else {
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
 
-        this.carrier.produce(builder.build());
+    /**
+     * Stop sending, and close the spill files, so the client created when the peer joins again can open them.
+     */
+    @Override public void close() {
+        closeSignal.countDown();
+        carrier.shutdownConsumers();
+        PeerStream current = stream;
+        if (current != null && !current.broken) {
+            current.requestStream.cancel("The remote client is closed.", null);
+        }
+        channel.shutdown();
+        BufferStream<RemoteMessage> spill = spillStream;
+        if (spill != null) {
+            spillStream = null;
+            try {
+                spill.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private RemoteMessage toRemoteMessage(OutgoingMessage message) {
+        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
+        builder.setNextWorkerId(message.nextWorkerId);
+        builder.setStreamDataId(streamDataClassGetter.findIdByClass(message.streamData.getClass()));
+        builder.setRemoteData(message.streamData.serialize());
+        return builder.build();
     }
 
-    class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
+    class RemoteMessageConsumer implements IConsumer<OutgoingMessage> {
+
         @Override public void init() {
         }
 
-        @Override public void consume(List<RemoteMessage> remoteMessages) {
-            StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-            for (RemoteMessage remoteMessage : remoteMessages) {
-                streamObserver.onNext(remoteMessage);
+        /**
+         * A batch isn't sent when the stream broke before the peer is ready, it is sent again by the next stream.
+         */
+        @Override public void consume(List<OutgoingMessage> outgoingMessages) {
+            int from = 0;
+            while (from < outgoingMessages.size()) {
+                PeerStream current;
+                try {
+                    current = getOrConnectStream();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    current = null;
+                }
+                if (current == null) {
+                    droppedCount.addAndGet(outgoingMessages.size() - from);
+                    return;
+                }
+
+                List<OutgoingMessage> messages = outgoingMessages.subList(from, Math.min(from + MAX_BATCH_SIZE, outgoingMessages.size()));
+                if (current.send(messages)) {
+                    from += messages.size();
+                } else if (Thread.currentThread().isInterrupted()) {
+                    droppedCount.addAndGet(outgoingMessages.size() - from);
+                    return;
+                }
             }
-            streamObserver.onCompleted();
         }
 
-        @Override public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
+        @Override public void onError(List<OutgoingMessage> outgoingMessages, Throwable t) {
             logger.error(t.getMessage(), t);
         }
 
@@ -80,79 +239,361 @@ public class GRPCRemoteClient implements RemoteClient, Comparable<GRPCRemoteClie
         }
     }
 
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        RemoteServiceGrpc.RemoteServiceStub stub = RemoteServiceGrpc.newStub(client.getChannel());
-
-        StreamStatus status = new StreamStatus(false);
-        return stub.call(new StreamObserver<Empty>() {
-            @Override public void onNext(Empty empty) {
+    /**
+     * Only called by the consumer thread, waits until a stream is connected.
+     *
+     * @return null if the client is closed.
+     */
+    private PeerStream getOrConnectStream() throws InterruptedException {
+        while (closeSignal.getCount() > 0) {
+            PeerStream current = stream;
+            if (current != null && !current.broken) {
+                return current;
+            }
+            if (current != null) {
+                stream = null;
+                if (current.unimplemented) {
+                    protocol = null;
+                }
+                scheduleReconnect();
             }
 
-            @Override public void onError(Throwable throwable) {
-                logger.error(throwable.getMessage(), throwable);
+            long waitMillis = nextConnectTime - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                closeSignal.await(waitMillis, TimeUnit.MILLISECONDS);
+                continue;
             }
 
-            @Override public void onCompleted() {
-                status.finished();
+            stream = connect();
+            if (stream == null) {
+                scheduleReconnect();
             }
-        });
+        }
+        return null;
+    }
+
+    private void scheduleReconnect() {
+        long backoff = backoffMillis == 0 ? MIN_BACKOFF_MILLIS : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        backoffMillis = backoff;
+        nextConnectTime = System.currentTimeMillis() + backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * @return null if the peer can't be reached, the protocol is negotiated again next time.
+     */
+    private PeerStream connect() {
+        RemoteServiceGrpc.RemoteServiceStub stub = RemoteServiceGrpc.newStub(channel);
+        if (gzip) {
+            stub = stub.withCompression("gzip");
+        }
+
+        Protocol known = protocol;
+        if (known != null) {
+            return known.batchCall ? openBatchStream(stub, known.codec) : openCallStream(stub);
+        }
+
+        RemoteCodec codec;
+        try {
+            codec = negotiate();
+        } catch (StatusRuntimeException e) {
+            logger.warn("Negotiate the codec with {}:{} failure, status: {}", host, port, e.getStatus());
+            return null;
+        }
+        if (codec != null) {
+            remember(new Protocol(codec, true));
+            return openBatchStream(stub, codec);
+        }
+
+        BatchStream batchStream = openBatchStream(stub, RemoteCodec.PROTOBUF);
+        if (batchStream.probe()) {
+            remember(new Protocol(RemoteCodec.PROTOBUF, true));
+            return batchStream;
+        }
+        if (!batchStream.unimplemented) {
+            return null;
+        }
+
+        logger.warn("{}:{} doesn't implement the batch call, send through the call of the previous version.", host, port);
+        remember(new Protocol(RemoteCodec.PROTOBUF, false));
+        return openCallStream(stub);
+    }
+
+    private BatchStream openBatchStream(RemoteServiceGrpc.RemoteServiceStub stub, RemoteCodec codec) {
+        BatchStream batchStream = new BatchStream(codec);
+        stub.batchCall(batchStream);
+        return batchStream;
     }
 
-    class StreamStatus {
+    private CallStream openCallStream(RemoteServiceGrpc.RemoteServiceStub stub) {
+        CallStream callStream = new CallStream();
+        stub.call(callStream);
+        return callStream;
+    }
 
-        private final Logger logger = LoggerFactory.getLogger(StreamStatus.class);
+    /**
+     * Keep the protocol until the channel leaves the ready state, which means the connection to the peer is lost.
+     */
+    private void remember(Protocol negotiated) {
+        protocol = negotiated;
+        channel.notifyWhenStateChanged(ConnectivityState.READY, () -> protocol = null);
+    }
 
-        private volatile boolean status;
+    /**
+     * The peers before the compact codec don't implement the negotiation, they get the protobuf messages.
+     *
+     * @return null if the peer doesn't implement the negotiation, so it may not implement the batch call either.
+     * @throws StatusRuntimeException if the peer can't be reached.
+     */
+    private RemoteCodec negotiate() {
+        try {
+            CodecNegotiation response = RemoteServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(NEGOTIATE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .negotiate(CodecNegotiation.newBuilder().addCodecs(RemoteCodec.COMPACT).addCodecs(RemoteCodec.PROTOBUF).build());
+            if (response.getCodecsCount() > 0 && response.getCodecs(0) == RemoteCodec.COMPACT) {
+                return RemoteCodec.COMPACT;
+            }
+            return RemoteCodec.PROTOBUF;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                return null;
+            }
+            throw e;
+        }
+    }
 
-        StreamStatus(boolean status) {
-            this.status = status;
+    private void signalReady() {
+        readyLock.lock();
+        try {
+            ready.signalAll();
+        } finally {
+            readyLock.unlock();
         }
+    }
+
+    private abstract class PeerStream<REQUEST> implements ClientResponseObserver<REQUEST, Empty> {
+
+        final RemoteCodec codec;
+        ClientCallStreamObserver<REQUEST> requestStream;
+        volatile boolean broken = false;
+        volatile boolean unimplemented = false;
 
-        public boolean isFinish() {
-            return status;
+        private PeerStream(RemoteCodec codec) {
+            this.codec = codec;
         }
 
-        void finished() {
-            this.status = true;
+        @Override public void beforeStart(ClientCallStreamObserver<REQUEST> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(GRPCRemoteClient.this::signalReady);
         }
 
+        abstract boolean send(List<OutgoingMessage> messages);
+
         /**
-         * @param maxTimeout max wait time, milliseconds.
+         * @return false if the stream broke or the client is closed before the peer is ready.
          */
-        public void wait4Finish(long maxTimeout) {
-            long time = 0;
-            while (!status) {
-                if (time > maxTimeout) {
-                    break;
+        boolean awaitReady() {
+            readyLock.lock();
+            try {
+                while (!broken && !requestStream.isReady() && closeSignal.getCount() > 0) {
+                    ready.await(100, TimeUnit.MILLISECONDS);
                 }
-                try2Sleep(5);
-                time += 5;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                readyLock.unlock();
+            }
+            return !broken && closeSignal.getCount() > 0;
+        }
+
+        @Override public void onError(Throwable throwable) {
+            if (Status.fromThrowable(throwable).getCode() == Status.Code.UNIMPLEMENTED) {
+                unimplemented = true;
+            } else {
+                logger.error("Remote stream to {}:{} broken.", host, port, throwable);
             }
+            broken = true;
+            signalReady();
+        }
+
+        @Override public void onCompleted() {
+            broken = true;
+            signalReady();
+        }
+    }
+
+    /**
+     * Every batch is acknowledged by the peer in order.
+     */
+    private class BatchStream extends PeerStream<RemoteMessageBatch> {
+
+        private final StreamDataWriter writer = new StreamDataWriter();
+        private final Queue<Long> inFlightBatches = new ConcurrentLinkedQueue<>();
+        private final CountDownLatch firstResponse = new CountDownLatch(1);
+
+        private BatchStream(RemoteCodec codec) {
+            super(codec);
         }
 
         /**
-         * Try to sleep, and ignore the {@link InterruptedException}
-         *
-         * @param millis the length of time to sleep in milliseconds
+         * Sends an empty batch to the peer without the negotiation, only the peers implementing the batch call
+         * acknowledge it.
          */
-        private void try2Sleep(long millis) {
+        private boolean probe() {
+            if (!awaitReady()) {
+                return false;
+            }
+            inFlightBatches.offer(System.currentTimeMillis());
+            requestStream.onNext(RemoteMessageBatch.getDefaultInstance());
             try {
-                Thread.sleep(millis);
+                if (!firstResponse.await(NEGOTIATE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    requestStream.cancel("No acknowledgement of the probe.", null);
+                    return false;
+                }
             } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
+                Thread.currentThread().interrupt();
+                requestStream.cancel("Interrupted.", e);
+                return false;
+            }
+            return !broken;
+        }
+
+        @Override boolean send(List<OutgoingMessage> messages) {
+            RemoteMessageBatch batch = codec == RemoteCodec.COMPACT ? compactBatch(messages) : protobufBatch(messages);
+            if (!awaitReady()) {
+                return false;
+            }
+            inFlightBatches.offer(System.currentTimeMillis());
+            requestStream.onNext(batch);
+            sentCount.addAndGet(messages.size());
+            return true;
+        }
+
+        private RemoteMessageBatch protobufBatch(List<OutgoingMessage> messages) {
+            RemoteMessageBatch.Builder batch = RemoteMessageBatch.newBuilder();
+            messages.forEach(message -> batch.addMessages(toRemoteMessage(message)));
+            return batch.build();
+        }
+
+        private RemoteMessageBatch compactBatch(List<OutgoingMessage> messages) {
+            writer.reset();
+            for (OutgoingMessage message : messages) {
+                writer.writeUInt(message.nextWorkerId);
+                writer.writeUInt(streamDataClassGetter.findIdByClass(message.streamData.getClass()));
+                message.streamData.serialize(writer);
+            }
+            return RemoteMessageBatch.newBuilder().setCompactMessages(writer.toByteString()).build();
+        }
+
+        @Override public void onNext(Empty empty) {
+            Long sendTime = inFlightBatches.poll();
+            if (sendTime != null) {
+                latencyMillis.addAndGet(System.currentTimeMillis() - sendTime);
+                ackCount.incrementAndGet();
+            }
+            backoffMillis = 0;
+            firstResponse.countDown();
+        }
+
+        @Override public void onError(Throwable throwable) {
+            if (!inFlightBatches.isEmpty()) {
+                logger.warn("Remote stream to {}:{} broken, {} batches unacknowledged.", host, port, inFlightBatches.size());
+            }
+            super.onError(throwable);
+            firstResponse.countDown();
+        }
+
+        @Override public void onCompleted() {
+            super.onCompleted();
+            firstResponse.countDown();
+        }
+    }
+
+    /**
+     * Sends the protobuf messages one by one through the call rpc of the peers before the batch call, they don't
+     * acknowledge the messages.
+     */
+    private class CallStream extends PeerStream<RemoteMessage> {
+
+        private CallStream() {
+            super(RemoteCodec.PROTOBUF);
+        }
+
+        @Override boolean send(List<OutgoingMessage> messages) {
+            if (!awaitReady()) {
+                return false;
             }
+            messages.forEach(message -> requestStream.onNext(toRemoteMessage(message)));
+            sentCount.addAndGet(messages.size());
+            backoffMillis = 0;
+            return true;
+        }
+
+        @Override public void onNext(Empty empty) {
         }
     }
 
+    /**
+     * @return the codec of the current stream, or null before the first stream connected.
+     */
+    public RemoteCodec getCodec() {
+        PeerStream current = stream;
+        return current == null ? null : current.codec;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /**
+     * @return the average milliseconds between sending a batch and receiving its acknowledgement.
+     */
+    public long getAverageLatency() {
+        long acks = ackCount.get();
+        return acks == 0 ? 0 : latencyMillis.get() / acks;
+    }
+
     @Override public int compareTo(GRPCRemoteClient o) {
-        return this.client.toString().compareTo(o.client.toString());
+        return toString().compareTo(o.toString());
     }
 
     public String getHost() {
-        return client.getHost();
+        return host;
     }
 
     public int getPort() {
-        return client.getPort();
+        return port;
+    }
+
+    @Override public String toString() {
+        return host + ":" + port;
+    }
+
+    private static class Protocol {
+        private final RemoteCodec codec;
+        private final boolean batchCall;
+
+        private Protocol(RemoteCodec codec, boolean batchCall) {
+            this.codec = codec;
+            this.batchCall = batchCall;
+        }
+    }
+
+    private static class OutgoingMessage {
+        private final int nextWorkerId;
+        private final StreamData streamData;
+
+        private OutgoingMessage(int nextWorkerId, StreamData streamData) {
+            this.nextWorkerId = nextWorkerId;
+            this.streamData = streamData;
+        }
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+/**
+ * What the full queue of a remote client does with a new message.
+ *
+ * @author peng-yongsheng
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait until the queue has room, so the sending threads slow down.
+     */
+    BLOCK,
+    /**
+     * Overwrite the oldest message in the queue.
+     */
+    DROP_OLDEST,
+    /**
+     * Write the message into the buffer files, which are queued again once the queue has room.
+     */
+    SPILL;
+
+    public static OverflowPolicy parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -30,4 +30,10 @@ public interface RemoteClient {
     int getPort();
 
     void push(int nextWorkerId, StreamData streamData);
+
+    /**
+     * Called once the peer leaves the cluster, the client is not used any more.
+     */
+    default void close() {
+    }
 }
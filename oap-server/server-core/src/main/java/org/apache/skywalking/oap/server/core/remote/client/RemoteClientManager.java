@@ -20,7 +20,7 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import java.util.*;
 import java.util.concurrent.*;
-import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.*;
 import org.apache.skywalking.oap.server.core.cluster.*;
 import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataClassGetter;
 import org.apache.skywalking.oap.server.library.module.*;
@@ -39,9 +39,18 @@ public class RemoteClientManager implements Service {
     private final List<RemoteClient> clientsA;
     private final List<RemoteClient> clientsB;
     private List<RemoteClient> usingClients;
+    private volatile int routingVersion = 0;
+    private final boolean remoteGzip;
+    private final int remoteBufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final String spillPath;
 
-    public RemoteClientManager(ModuleManager moduleManager) {
+    public RemoteClientManager(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
+        this.remoteGzip = moduleConfig.isRemoteGzip();
+        this.remoteBufferSize = moduleConfig.getRemoteBufferSize();
+        this.overflowPolicy = OverflowPolicy.parse(moduleConfig.getRemoteOverflowPolicy());
+        this.spillPath = moduleConfig.getRemoteSpillPath();
         this.clientsA = new LinkedList<>();
         this.clientsB = new LinkedList<>();
         this.usingClients = clientsA;
@@ -69,6 +78,13 @@ public class RemoteClientManager implements Service {
         return usingClients;
     }
 
+    /**
+     * The version increases each time the remote clients change, which means the data may be routed to another node.
+     */
+    public int getRoutingVersion() {
+        return routingVersion;
+    }
+
     private List<RemoteClient> getFreeClients() {
         if (usingClients.equals(clientsA)) {
             return clientsB;
@@ -102,13 +118,20 @@ public class RemoteClientManager implements Service {
                 if (remoteInstance.isSelf()) {
                     client = new SelfRemoteClient(remoteInstance.getHost(), remoteInstance.getPort());
                 } else {
-                    client = new GRPCRemoteClient(streamDataClassGetter, remoteInstance, 1, 3000);
+                    client = new GRPCRemoteClient(streamDataClassGetter, remoteInstance, 1, remoteBufferSize, remoteGzip, overflowPolicy, spillPath);
                 }
             }
             getFreeClients().add(client);
         });
 
         switchCurrentClients();
+        routingVersion++;
+
+        currentClientsMap.values().removeIf(client -> getRemoteClient().contains(client));
+        currentClientsMap.values().forEach(client -> {
+            logger.info("Remote node {}:{} left, close its client.", client.getHost(), client.getPort());
+            client.close();
+        });
     }
 
     private boolean compare(List<RemoteInstance> remoteInstances) {
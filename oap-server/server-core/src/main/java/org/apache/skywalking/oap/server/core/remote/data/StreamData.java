@@ -18,8 +18,11 @@
 
 package org.apache.skywalking.oap.server.core.remote.data;
 
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.remote.*;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 
 /**
  * @author peng-yongsheng
@@ -37,4 +40,20 @@ public abstract class StreamData implements QueueData, Serializable, Deserializa
     }
 
     public abstract int remoteHashCode();
+
+    /**
+     * Writes the fields by the compact codec. The classes without their own compact codec embed the protobuf remote
+     * data.
+     */
+    public void serialize(StreamDataWriter writer) {
+        writer.writeBytes(serialize().build().toByteArray());
+    }
+
+    public void deserialize(StreamDataReader reader) {
+        try {
+            deserialize(RemoteData.parseFrom(reader.readBytes()));
+        } catch (InvalidProtocolBufferException e) {
+            throw new UnexpectedException(e.getMessage());
+        }
+    }
 }
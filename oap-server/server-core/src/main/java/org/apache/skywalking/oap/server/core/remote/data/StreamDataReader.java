@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads the stream data of a batch written by {@link StreamDataWriter}.
+ *
+ * @author peng-yongsheng
+ */
+public class StreamDataReader {
+
+    private final byte[] buffer;
+    private int position;
+    private final List<String> dictionary = new ArrayList<>();
+
+    public StreamDataReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public boolean isAtEnd() {
+        return position >= buffer.length;
+    }
+
+    public int readInt() {
+        int value = readUInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() {
+        long value = readULong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public int readUInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer[position++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at " + position);
+    }
+
+    private long readULong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer[position++];
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at " + position);
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long)(buffer[position++] & 0xFF) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int tag = readUInt();
+        if (tag == StreamDataWriter.NULL_STRING) {
+            return null;
+        } else if (tag == StreamDataWriter.NEW_STRING) {
+            int length = readUInt();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            dictionary.add(value);
+            return value;
+        }
+        return dictionary.get(tag - StreamDataWriter.DICTIONARY_OFFSET);
+    }
+
+    public byte[] readBytes() {
+        int length = readUInt();
+        byte[] value = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return value;
+    }
+}
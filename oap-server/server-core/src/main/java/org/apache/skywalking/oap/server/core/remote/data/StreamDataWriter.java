@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes the stream data of a batch by the compact codec into one reusable buffer. The integers are zigzag varints,
+ * the doubles are 8 bytes, the strings are dictionary encoded in the batch, so the repeated entity ids are written
+ * only once.
+ *
+ * A string is written as a varint tag, 0 means null, 1 means a new string followed by its length and UTF-8 bytes,
+ * which is added into the dictionary, others mean the dictionary entry of the tag minus 2.
+ *
+ * Not thread safe, one writer per sending thread.
+ *
+ * @author peng-yongsheng
+ */
+public class StreamDataWriter {
+
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int DICTIONARY_OFFSET = 2;
+
+    private byte[] buffer;
+    private int position;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    public StreamDataWriter() {
+        this(4096);
+    }
+
+    public StreamDataWriter(int initialSize) {
+        this.buffer = new byte[Math.max(initialSize, 16)];
+    }
+
+    /**
+     * Starts a new batch, the buffer is kept.
+     */
+    public void reset() {
+        position = 0;
+        dictionary.clear();
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public ByteString toByteString() {
+        return ByteString.copyFrom(buffer, 0, position);
+    }
+
+    public void writeInt(int value) {
+        writeUInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeLong(long value) {
+        writeULong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a non negative integer, such as an id or a length, without the zigzag.
+     */
+    public void writeUInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    private void writeULong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    public void writeDouble(double value) {
+        ensure(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte)(bits >>> (i * 8));
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeUInt(NULL_STRING);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeUInt(index + DICTIONARY_OFFSET);
+            return;
+        }
+        dictionary.put(value, dictionary.size());
+        writeUInt(NEW_STRING);
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writeBytes(byte[] value) {
+        writeUInt(value.length);
+        ensure(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    private void ensure(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.hash.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * Select the client on a hash ring with virtual nodes, so only about 1/N of the data moves to another node when the
+ * cluster grows or shrinks, instead of almost all of them in {@link HashCodeSelector}.
+ *
+ * @author peng-yongsheng
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    private final int virtualNodeNum;
+    private volatile Ring ring;
+
+    public ConsistentHashSelector(int virtualNodeNum) {
+        this.virtualNodeNum = Math.max(virtualNodeNum, 1);
+        this.ring = new Ring(Collections.emptyList(), virtualNodeNum);
+    }
+
+    @Override public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        Ring current = ring;
+        if (!current.isBuiltBy(clients)) {
+            current = rebuild(clients);
+        }
+        return current.select(HASH_FUNCTION.hashInt(streamData.remoteHashCode()).asInt());
+    }
+
+    private synchronized Ring rebuild(List<RemoteClient> clients) {
+        if (!ring.isBuiltBy(clients)) {
+            ring = new Ring(clients, virtualNodeNum);
+        }
+        return ring;
+    }
+
+    private static class Ring {
+
+        private final List<RemoteClient> members;
+        private final TreeMap<Integer, RemoteClient> nodes;
+
+        private Ring(List<RemoteClient> clients, int virtualNodeNum) {
+            this.members = new ArrayList<>(clients);
+            this.nodes = new TreeMap<>();
+            for (RemoteClient client : members) {
+                for (int i = 0; i < virtualNodeNum; i++) {
+                    String virtualNode = client.getHost() + ":" + client.getPort() + "#" + i;
+                    nodes.put(HASH_FUNCTION.hashString(virtualNode, StandardCharsets.UTF_8).asInt(), client);
+                }
+            }
+        }
+
+        /**
+         * The remote client manager keeps the same client instance for the same address, so comparing the instances
+         * tells whether the membership changed.
+         */
+        private boolean isBuiltBy(List<RemoteClient> clients) {
+            if (members.size() != clients.size()) {
+                return false;
+            }
+            Iterator<RemoteClient> iterator = clients.iterator();
+            for (RemoteClient member : members) {
+                if (member != iterator.next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private RemoteClient select(int hash) {
+            Map.Entry<Integer, RemoteClient> entry = nodes.ceilingEntry(hash);
+            if (entry == null) {
+                entry = nodes.firstEntry();
+            }
+            return entry.getValue();
+        }
+    }
+}
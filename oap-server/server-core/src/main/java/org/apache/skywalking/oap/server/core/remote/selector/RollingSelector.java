@@ -19,24 +19,20 @@
 package org.apache.skywalking.oap.server.core.remote.selector;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
 
 /**
+ * Select the clients in turn, the index is shared by the sending threads.
+ *
  * @author peng-yongsheng
  */
 public class RollingSelector implements RemoteClientSelector {
 
-    private int index = 0;
+    private final AtomicInteger index = new AtomicInteger();
 
     @Override public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
-        int size = clients.size();
-        index++;
-        int selectIndex = Math.abs(index) % size;
-
-        if (index == Integer.MAX_VALUE) {
-            index = 0;
-        }
-        return clients.get(selectIndex);
+        return clients.get(Math.floorMod(index.getAndIncrement(), clients.size()));
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * Routes every message to exactly one remote client by the {@link RemoteClientSelector} of a {@link Selector}, and
+ * counts the routed messages.
+ *
+ * @author peng-yongsheng
+ */
+public class RoutingPolicy {
+
+    private final Selector selector;
+    private final RemoteClientSelector clientSelector;
+    private final AtomicLong sendCount = new AtomicLong();
+
+    public RoutingPolicy(Selector selector, RemoteClientSelector clientSelector) {
+        this.selector = selector;
+        this.clientSelector = clientSelector;
+    }
+
+    /**
+     * @return the client of the message, or null when there is no remote client yet.
+     */
+    public RemoteClient route(List<RemoteClient> clients, StreamData streamData) {
+        if (clients.isEmpty()) {
+            return null;
+        }
+        RemoteClient client = clientSelector.select(clients, streamData);
+        sendCount.incrementAndGet();
+        return client;
+    }
+
+    /**
+     * Routes every data of the batch once, the data is grouped by its client in the order of the batch.
+     *
+     * @return the data of every client, empty when there is no remote client yet.
+     */
+    public <T extends StreamData> Map<RemoteClient, Collection<T>> routeAll(List<RemoteClient> clients,
+        Collection<T> batch) {
+        if (clients.isEmpty() || batch.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        sendCount.addAndGet(batch.size());
+        if (clients.size() == 1) {
+            return Collections.singletonMap(clients.get(0), batch);
+        }
+
+        Map<RemoteClient, Collection<T>> routes = new IdentityHashMap<>(clients.size());
+        for (T streamData : batch) {
+            routes.computeIfAbsent(clientSelector.select(clients, streamData), client -> new ArrayList<>()).add(streamData);
+        }
+        return routes;
+    }
+
+    public Selector getSelector() {
+        return selector;
+    }
+
+    public long getSendCount() {
+        return sendCount.get();
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 
 /**
@@ -28,9 +29,12 @@ public interface IIndicatorDAO<INSERT, UPDATE> extends DAO {
 
     Indicator get(String modelName, Indicator indicator) throws IOException;
 
+    /**
+     * @return the persisted indicators of the given ones, the ones not persisted yet are absent.
+     */
+    List<Indicator> multiGet(String modelName, List<Indicator> indicators) throws IOException;
+
     INSERT prepareBatchInsert(String modelName, Indicator indicator) throws IOException;
 
     UPDATE prepareBatchUpdate(String modelName, Indicator indicator) throws IOException;
-
-    void deleteHistory(String modelName, Long timeBucketBefore);
 }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.storage;
 
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.source.Scope;
 
 /**
@@ -27,4 +28,14 @@ public interface IRegisterLockDAO extends DAO {
     boolean tryLock(Scope scope);
 
     void releaseLock(Scope scope);
+
+    /**
+     * Leases the next block of the sequences of the scope by one versioned update of its lock row, the lock isn't
+     * taken. The leased sequence of the row only grows, so the blocks of the nodes never overlap.
+     *
+     * @param floor the sequences up to it are used already, such as the max sequence of the existing inventories.
+     * @return the first sequence of the block, which is [first, first + blockSize), or {@link Const#NONE} when another
+     * node leased at the same time.
+     */
+    int leaseSequences(Scope scope, int floor, int blockSize);
 }
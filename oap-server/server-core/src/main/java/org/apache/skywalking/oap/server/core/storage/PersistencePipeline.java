@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.analysis.worker.PersistenceWorker;
+import org.slf4j.*;
+
+/**
+ * Flushes the persistent workers in one round. The batches are built in parallel by a bounded pool, one task per
+ * group, the workers of a group are built in order, such as the minute, hour, day and month workers of an indicator.
+ * The built batches are written by one persist thread, the batches built during a write are merged into the next one,
+ * so the builds overlap the writes.
+ *
+ * The round ends after all its writes finished, because the builds of the next round read the written indicators.
+ *
+ * @author peng-yongsheng
+ */
+class PersistencePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistencePipeline.class);
+
+    private static final long POLL_MILLIS = 10;
+
+    private final IBatchDAO batchDAO;
+    private final ExecutorService buildExecutor;
+    private final ExecutorService persistExecutor;
+    private final Map<String, Long> buildDurations = new ConcurrentHashMap<>();
+    private final Map<String, Long> persistDurations = new ConcurrentHashMap<>();
+
+    PersistencePipeline(IBatchDAO batchDAO, int poolSize) {
+        this.batchDAO = batchDAO;
+        this.buildExecutor = Executors.newFixedThreadPool(Math.max(1, poolSize), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("PersistenceBuild-%s").build());
+        this.persistExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("PersistenceWrite-%s").build());
+    }
+
+    void flush(List<? extends List<? extends PersistenceWorker>> groups) throws InterruptedException {
+        CompletionService<Built> builds = new ExecutorCompletionService<>(buildExecutor);
+        groups.forEach(group -> builds.submit(() -> build(group)));
+
+        Built pending = new Built();
+        Future<?> persisting = null;
+        for (int remaining = groups.size(); remaining > 0; ) {
+            Future<Built> done = builds.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (done != null) {
+                remaining--;
+                pending.merge(result(done));
+            }
+
+            if (!pending.isEmpty() && (persisting == null || persisting.isDone())) {
+                persisting = persistExecutor.submit(persist(pending));
+                pending = new Built();
+            }
+        }
+
+        await(persisting);
+        if (!pending.isEmpty()) {
+            await(persistExecutor.submit(persist(pending)));
+        }
+    }
+
+    private Built build(List<? extends PersistenceWorker> group) {
+        Built built = new Built();
+        for (PersistenceWorker worker : group) {
+            long startTime = System.currentTimeMillis();
+            try {
+                if (worker.flushAndSwitch()) {
+                    List<?> batchCollection = worker.buildBatchCollection();
+                    if (!batchCollection.isEmpty()) {
+                        built.batchCollection.addAll(batchCollection);
+                        built.modelNames.add(worker.getModelName());
+                    }
+                }
+            } catch (Throwable t) {
+                logger.error("Build the batch of model " + worker.getModelName() + " failure.", t);
+            }
+            buildDurations.put(worker.getModelName(), System.currentTimeMillis() - startTime);
+        }
+        return built;
+    }
+
+    private Runnable persist(Built built) {
+        return () -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                batchDAO.batchPersistence(built.batchCollection);
+            } catch (Throwable t) {
+                logger.error("Persist the batch of models " + built.modelNames + " failure.", t);
+            }
+            long duration = System.currentTimeMillis() - startTime;
+            built.modelNames.forEach(modelName -> persistDurations.put(modelName, duration));
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("persist {} items of models {}, duration: {} ms", built.batchCollection.size(), built.modelNames, duration);
+            }
+        };
+    }
+
+    private Built result(Future<Built> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage(), e.getCause());
+            return new Built();
+        }
+    }
+
+    private void await(Future<?> persisting) throws InterruptedException {
+        if (persisting != null) {
+            try {
+                persisting.get();
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * @return the last build duration in milliseconds of every model.
+     */
+    Map<String, Long> getBuildDurations() {
+        return buildDurations;
+    }
+
+    /**
+     * @return the duration in milliseconds of the last write which carried the model, the models built during the same
+     * write share the next one.
+     */
+    Map<String, Long> getPersistDurations() {
+        return persistDurations;
+    }
+
+    private static class Built {
+        private final List<Object> batchCollection = new ArrayList<>();
+        private final List<String> modelNames = new ArrayList<>();
+
+        private void merge(Built built) {
+            batchCollection.addAll(built.batchCollection);
+            modelNames.addAll(built.modelNames);
+        }
+
+        private boolean isEmpty() {
+            return batchCollection.isEmpty();
+        }
+    }
+}
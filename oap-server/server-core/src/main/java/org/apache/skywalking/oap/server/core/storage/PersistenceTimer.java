@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.storage;
 import java.util.*;
 import java.util.concurrent.*;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.*;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.slf4j.*;
@@ -40,59 +41,36 @@ public enum PersistenceTimer {
         this.debug = System.getProperty("debug") != null;
     }
 
-    public void start(ModuleManager moduleManager) {
+    public void start(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         logger.info("persistence timer start");
-        //TODO timer value config
-//        final long timeInterval = EsConfig.Es.Persistence.Timer.VALUE * 1000;
-        final long timeInterval = 3;
         IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).getService(IBatchDAO.class);
 
         if (!isStarted) {
+            PersistencePipeline pipeline = new PersistencePipeline(batchDAO, moduleConfig.getPersistentPoolSize());
             Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
-                new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO),
-                    t -> logger.error("Extract data and save failure.", t)), 1, timeInterval, TimeUnit.SECONDS);
+                new RunnableWithExceptionProtection(() -> extractDataAndSave(pipeline),
+                    t -> logger.error("Extract data and save failure.", t)), 1, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS);
 
             this.isStarted = true;
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void extractDataAndSave(IBatchDAO batchDAO) {
+    private void extractDataAndSave(PersistencePipeline pipeline) {
         if (logger.isDebugEnabled()) {
             logger.debug("Extract data and save");
         }
 
         long startTime = System.currentTimeMillis();
         try {
-            List batchAllCollection = new LinkedList();
-            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
-            persistenceWorkers.addAll(IndicatorProcess.INSTANCE.getPersistentWorkers());
-            persistenceWorkers.addAll(RecordProcess.INSTANCE.getPersistentWorkers());
+            List<List<? extends PersistenceWorker>> groups = new ArrayList<>(IndicatorProcess.INSTANCE.getPersistentWorkers());
+            RecordProcess.INSTANCE.getPersistentWorkers().forEach(worker -> groups.add(Collections.singletonList(worker)));
 
-            persistenceWorkers.forEach(worker -> {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("extract {} worker data and save", worker.getClass().getName());
-                }
-
-                if (worker.flushAndSwitch()) {
-                    List<?> batchCollection = worker.buildBatchCollection();
-
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("extract {} worker data size: {}", worker.getClass().getName(), batchCollection.size());
-                    }
-                    batchAllCollection.addAll(batchCollection);
-                }
-            });
-
-            if (debug) {
-                logger.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
-            }
-            batchDAO.batchPersistence(batchAllCollection);
+            pipeline.flush(groups);
         } catch (Throwable e) {
             logger.error(e.getMessage(), e);
         } finally {
             if (logger.isDebugEnabled()) {
-                logger.debug("persistence data save finish");
+                logger.debug("persistence data save finish, build durations: {}, persist durations: {}", pipeline.getBuildDurations(), pipeline.getPersistDurations());
             }
         }
 
@@ -35,7 +35,7 @@ public class StorageModule extends ModuleDefine {
 
     @Override public Class[] services() {
         return new Class[] {
-            IBatchDAO.class, StorageDAO.class, IRegisterLockDAO.class,
+            IBatchDAO.class, StorageDAO.class, IRegisterLockDAO.class, IHistoryDeleteDAO.class,
             IServiceInventoryCacheDAO.class, IServiceInstanceInventoryCacheDAO.class,
             IEndpointInventoryCacheDAO.class, INetworkAddressInventoryCacheDAO.class,
             ITopologyQueryDAO.class, IMetricQueryDAO.class, ITraceQueryDAO.class, IMetadataQueryDAO.class, IAggregationQueryDAO.class};
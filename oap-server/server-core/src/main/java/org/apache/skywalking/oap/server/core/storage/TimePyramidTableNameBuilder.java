@@ -32,15 +32,28 @@ public class TimePyramidTableNameBuilder {
     public static String build(Step step, String tableName) {
         switch (step) {
             case MONTH:
-                tableName = tableName + Const.ID_SPLIT + TimePyramid.Month.getName();
-                break;
+                return build(TimePyramid.Month, tableName);
             case DAY:
-                tableName = tableName + Const.ID_SPLIT + TimePyramid.Day.getName();
-                break;
+                return build(TimePyramid.Day, tableName);
             case HOUR:
-                tableName = tableName + Const.ID_SPLIT + TimePyramid.Hour.getName();
-                break;
+                return build(TimePyramid.Hour, tableName);
+            default:
+                return build(TimePyramid.Minute, tableName);
+        }
+    }
+
+    /**
+     * The minute pyramid uses the model name directly, the coarser pyramids use the model name with the pyramid name as
+     * suffix, such as service_resp_time_hour.
+     */
+    public static String build(TimePyramid timePyramid, String tableName) {
+        switch (timePyramid) {
+            case Month:
+            case Day:
+            case Hour:
+                return tableName + Const.ID_SPLIT + timePyramid.getName();
+            default:
+                return tableName;
         }
-        return tableName;
     }
 }
@@ -22,7 +22,11 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
 import lombok.Getter;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationListener;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.*;
 import org.slf4j.*;
 
@@ -51,7 +55,22 @@ public class StorageAnnotationListener implements AnnotationListener, IModelGett
         List<ModelColumn> modelColumns = new LinkedList<>();
         retrieval(aClass, modelName, modelColumns);
 
-        models.add(new Model(modelName, modelColumns));
+        if (PercentileIndicator.class.isAssignableFrom(aClass)) {
+            for (int rank : PercentileIndicator.RANKS) {
+                ValueColumnIds.INSTANCE.putAlias(PercentileIndicator.metricName(modelName, rank), modelName, PercentileIndicator.columnName(rank), Function.Avg);
+            }
+        }
+
+        if (Indicator.class.isAssignableFrom(aClass)) {
+            models.add(new Model(modelName, modelColumns, true, TimePyramid.Minute));
+            models.add(new Model(TimePyramidTableNameBuilder.build(TimePyramid.Hour, modelName), modelColumns, true, TimePyramid.Hour));
+            models.add(new Model(TimePyramidTableNameBuilder.build(TimePyramid.Day, modelName), modelColumns, true, TimePyramid.Day));
+            models.add(new Model(TimePyramidTableNameBuilder.build(TimePyramid.Month, modelName), modelColumns, true, TimePyramid.Month));
+        } else if (Record.class.isAssignableFrom(aClass)) {
+            models.add(new Model(modelName, modelColumns, true, TimePyramid.Second));
+        } else {
+            models.add(new Model(modelName, modelColumns, false, null));
+        }
     }
 
     private void retrieval(Class clazz, String modelName, List<ModelColumn> modelColumns) {
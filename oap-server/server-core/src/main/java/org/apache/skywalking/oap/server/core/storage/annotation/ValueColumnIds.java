@@ -30,7 +30,23 @@ public enum ValueColumnIds {
     private Map<String, ValueColumn> mapping = new HashMap<>();
 
     public void putIfAbsent(String indName, String valueCName, Function function) {
-        mapping.putIfAbsent(indName, new ValueColumn(valueCName, function));
+        mapping.putIfAbsent(indName, new ValueColumn(indName, valueCName, function));
+    }
+
+    /**
+     * Exposes one value column of the indicator by another name, such as the percentile ranks stored in one
+     * indicator.
+     */
+    public void putAlias(String alias, String indName, String valueCName, Function function) {
+        mapping.putIfAbsent(alias, new ValueColumn(indName, valueCName, function));
+    }
+
+    /**
+     * @return the indicator which stores the value, the given name itself if it isn't an alias.
+     */
+    public String getIndName(String name) {
+        ValueColumn valueColumn = mapping.get(name);
+        return valueColumn == null ? name : valueColumn.indName;
     }
 
     public String getValueCName(String indName) {
@@ -42,10 +58,12 @@ public enum ValueColumnIds {
     }
 
     class ValueColumn {
+        private final String indName;
         private final String valueCName;
         private final Function function;
 
-        private ValueColumn(String valueCName, Function function) {
+        private ValueColumn(String indName, String valueCName, Function function) {
+            this.indName = indName;
             this.valueCName = valueCName;
             this.function = function;
         }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.storage.model;
 
 import java.util.List;
 import lombok.Getter;
+import org.apache.skywalking.oap.server.core.storage.TimePyramid;
 
 /**
  * @author peng-yongsheng
@@ -28,9 +29,13 @@ import lombok.Getter;
 public class Model {
     private final String name;
     private final List<ModelColumn> columns;
+    private final boolean deleteHistory;
+    private final TimePyramid timePyramid;
 
-    public Model(String name, List<ModelColumn> columns) {
+    public Model(String name, List<ModelColumn> columns, boolean deleteHistory, TimePyramid timePyramid) {
         this.name = name;
         this.columns = columns;
+        this.deleteHistory = deleteHistory;
+        this.timePyramid = timePyramid;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.ttl;
+
+import lombok.Getter;
+
+/**
+ * The data time to live of each time pyramid, trace in minutes, metrics in their own pyramid unit.
+ *
+ * @author peng-yongsheng
+ */
+@Getter
+public class DataTTL {
+    private final int traceDataTTL;
+    private final int minuteMetricDataTTL;
+    private final int hourMetricDataTTL;
+    private final int dayMetricDataTTL;
+    private final int monthMetricDataTTL;
+
+    public DataTTL(int traceDataTTL, int minuteMetricDataTTL, int hourMetricDataTTL, int dayMetricDataTTL,
+        int monthMetricDataTTL) {
+        this.traceDataTTL = traceDataTTL;
+        this.minuteMetricDataTTL = minuteMetricDataTTL;
+        this.hourMetricDataTTL = hourMetricDataTTL;
+        this.dayMetricDataTTL = dayMetricDataTTL;
+        this.monthMetricDataTTL = monthMetricDataTTL;
+    }
+}
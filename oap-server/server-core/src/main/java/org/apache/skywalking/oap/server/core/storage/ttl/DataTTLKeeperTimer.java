@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.ttl;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.cluster.*;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.util.TimeBucketUtils;
+import org.slf4j.*;
+
+/**
+ * Deletes the data out of the time to live, only the first node of the cluster node list does it, the others skip.
+ *
+ * @author peng-yongsheng
+ */
+public enum DataTTLKeeperTimer {
+    INSTANCE;
+
+    private static final Logger logger = LoggerFactory.getLogger(DataTTLKeeperTimer.class);
+
+    private Boolean isStarted = false;
+
+    /**
+     * @param executePeriod the period in minutes between two rounds of deleting
+     */
+    public void start(ModuleManager moduleManager, DataTTL dataTTL, int executePeriod) {
+        logger.info("data ttl keeper timer start, execute period: {} minutes", executePeriod);
+
+        if (!isStarted) {
+            Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
+                new RunnableWithExceptionProtection(() -> delete(moduleManager, dataTTL),
+                    t -> logger.error("Remove data in background failure.", t)), executePeriod, executePeriod, TimeUnit.MINUTES);
+
+            this.isStarted = true;
+        }
+    }
+
+    private void delete(ModuleManager moduleManager, DataTTL dataTTL) {
+        ClusterNodesQuery clusterNodesQuery = moduleManager.find(ClusterModule.NAME).getService(ClusterNodesQuery.class);
+        IModelGetter modelGetter = moduleManager.find(CoreModule.NAME).getService(IModelGetter.class);
+        IHistoryDeleteDAO historyDeleteDAO = moduleManager.find(StorageModule.NAME).getService(IHistoryDeleteDAO.class);
+
+        delete(clusterNodesQuery, modelGetter, historyDeleteDAO, dataTTL, System.currentTimeMillis());
+    }
+
+    void delete(ClusterNodesQuery clusterNodesQuery, IModelGetter modelGetter, IHistoryDeleteDAO historyDeleteDAO,
+        DataTTL dataTTL, long currentTime) {
+        List<RemoteInstance> remoteInstances = new ArrayList<>(clusterNodesQuery.queryRemoteNodes());
+        if (remoteInstances.isEmpty()) {
+            return;
+        }
+
+        Collections.sort(remoteInstances);
+        if (!remoteInstances.get(0).isSelf()) {
+            logger.info("The selected first address is {}, skip.", remoteInstances.get(0).toString());
+            return;
+        }
+
+        modelGetter.getModels().forEach(model -> {
+            if (model.isDeleteHistory()) {
+                long timeBucketBefore = timeBucketBefore(model.getTimePyramid(), dataTTL, currentTime);
+                try {
+                    historyDeleteDAO.deleteHistory(model.getName(), Indicator.TIME_BUCKET, timeBucketBefore);
+                } catch (IOException e) {
+                    logger.warn("History of {} delete failure, time bucket before {}", model.getName(), timeBucketBefore);
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    long timeBucketBefore(TimePyramid timePyramid, DataTTL dataTTL, long currentTime) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(currentTime);
+
+        switch (timePyramid) {
+            case Second:
+                calendar.add(Calendar.MINUTE, 0 - dataTTL.getTraceDataTTL());
+                return TimeBucketUtils.INSTANCE.getSecondTimeBucket(calendar.getTimeInMillis());
+            case Minute:
+                calendar.add(Calendar.MINUTE, 0 - dataTTL.getMinuteMetricDataTTL());
+                return TimeBucketUtils.INSTANCE.getMinuteTimeBucket(calendar.getTimeInMillis());
+            case Hour:
+                calendar.add(Calendar.HOUR_OF_DAY, 0 - dataTTL.getHourMetricDataTTL());
+                return TimeBucketUtils.INSTANCE.minuteToHour(TimeBucketUtils.INSTANCE.getMinuteTimeBucket(calendar.getTimeInMillis()));
+            case Day:
+                calendar.add(Calendar.DAY_OF_MONTH, 0 - dataTTL.getDayMetricDataTTL());
+                return TimeBucketUtils.INSTANCE.minuteToDay(TimeBucketUtils.INSTANCE.getMinuteTimeBucket(calendar.getTimeInMillis()));
+            case Month:
+                calendar.add(Calendar.MONTH, 0 - dataTTL.getMonthMetricDataTTL());
+                return TimeBucketUtils.INSTANCE.minuteToMonth(TimeBucketUtils.INSTANCE.getMinuteTimeBucket(calendar.getTimeInMillis()));
+            default:
+                throw new UnexpectedException("Unsupported time pyramid: " + timePyramid.getName());
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import java.util.Collection;
 import lombok.Getter;
 
 /**
@@ -32,4 +33,13 @@ public abstract class AbstractWorker<INPUT> {
     }
 
     public abstract void in(INPUT input);
+
+    /**
+     * A flushed batch of the previous worker, the workers which handle the batch at once override it.
+     */
+    public void in(Collection<INPUT> inputs) {
+        for (INPUT input : inputs) {
+            in(input);
+        }
+    }
 }
@@ -18,21 +18,30 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
+ * The worker ids are generated from 0 by {@link WorkerIdGenerator}, so the workers are kept in an array indexed by the
+ * id. The workers are put at the startup, the array is copied on every put, and read without lock.
+ *
  * @author peng-yongsheng
  */
 public enum WorkerInstances {
     INSTANCES;
 
-    private Map<Integer, AbstractWorker> instances = new HashMap<>();
+    private volatile AbstractWorker[] instances = new AbstractWorker[64];
 
-    public void put(int workerId, AbstractWorker instance) {
-        instances.put(workerId, instance);
+    public synchronized void put(int workerId, AbstractWorker instance) {
+        AbstractWorker[] copy = Arrays.copyOf(instances, Math.max(instances.length, Integer.highestOneBit(workerId) << 1));
+        copy[workerId] = instance;
+        instances = copy;
     }
 
+    /**
+     * @return the worker of the id, or null if not exists.
+     */
     public AbstractWorker get(int workerId) {
-        return instances.get(workerId);
+        AbstractWorker[] instances = this.instances;
+        return workerId >= 0 && workerId < instances.length ? instances[workerId] : null;
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.Calendar;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.junit.*;
+import org.mockito.Mockito;
+
+/**
+ * @author peng-yongsheng
+ */
+public class HotIndicatorCacheTestCase {
+
+    private RemoteClientManager remoteClientManager;
+    private long currentTime;
+
+    @Before
+    public void init() {
+        remoteClientManager = Mockito.mock(RemoteClientManager.class);
+        Mockito.when(remoteClientManager.getRoutingVersion()).thenReturn(1);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.OCTOBER, 17, 12, 30, 0);
+        currentTime = calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        HotIndicatorCache cache = new HotIndicatorCache(10, 100, remoteClientManager);
+
+        ServiceRespTimeIndicator indicator = respTime(201810171230L, "1");
+        Assert.assertNull(cache.get(indicator));
+        cache.put(indicator);
+        Assert.assertSame(indicator, cache.get(respTime(201810171230L, "1")));
+        Assert.assertNull(cache.get(respTime(201810171230L, "2")));
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictByHorizon() {
+        HotIndicatorCache cache = new HotIndicatorCache(10, 100, remoteClientManager);
+
+        cache.put(respTime(201810171219L, "1"));
+        cache.put(respTime(201810171220L, "1"));
+        cache.put(respTime(2018101711L, "1"));
+        cache.put(respTime(2018101712L, "1"));
+        cache.put(respTime(20181016L, "1"));
+        cache.put(respTime(20181017L, "1"));
+        cache.put(respTime(201809L, "1"));
+        cache.put(respTime(201810L, "1"));
+
+        cache.refresh(currentTime);
+
+        Assert.assertEquals(4, cache.size());
+        Assert.assertNull(cache.get(respTime(201810171219L, "1")));
+        Assert.assertNotNull(cache.get(respTime(201810171220L, "1")));
+        Assert.assertNull(cache.get(respTime(2018101711L, "1")));
+        Assert.assertNotNull(cache.get(respTime(2018101712L, "1")));
+        Assert.assertNull(cache.get(respTime(20181016L, "1")));
+        Assert.assertNotNull(cache.get(respTime(20181017L, "1")));
+        Assert.assertNull(cache.get(respTime(201809L, "1")));
+        Assert.assertNotNull(cache.get(respTime(201810L, "1")));
+    }
+
+    @Test
+    public void testEvictByMaxSize() {
+        HotIndicatorCache cache = new HotIndicatorCache(10, 2, remoteClientManager);
+
+        cache.put(respTime(201810171230L, "1"));
+        cache.put(respTime(201810171230L, "2"));
+        Assert.assertNotNull(cache.get(respTime(201810171230L, "1")));
+        cache.put(respTime(201810171230L, "3"));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.get(respTime(201810171230L, "1")));
+        Assert.assertNull(cache.get(respTime(201810171230L, "2")));
+    }
+
+    @Test
+    public void testClearWhenRoutingChanged() {
+        HotIndicatorCache cache = new HotIndicatorCache(10, 100, remoteClientManager);
+
+        cache.put(respTime(201810171230L, "1"));
+        cache.refresh(currentTime);
+        Assert.assertEquals(1, cache.size());
+
+        Mockito.when(remoteClientManager.getRoutingVersion()).thenReturn(2);
+        cache.refresh(currentTime);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private ServiceRespTimeIndicator respTime(long timeBucket, String entityId) {
+        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setEntityId(entityId);
+        return indicator;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.junit.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class WindowTestCase {
+
+    private static final int WRITER_NUM = 4;
+    private static final int RECORD_NUM_PER_WRITER = 200000;
+    private static final int ENTITY_NUM = 10;
+
+    @Test
+    public void testSwitchRollsToTheOtherCollection() {
+        NonMergeDataCache<StorageData> cache = new NonMergeDataCache<>();
+        add(cache, () -> "a");
+        add(cache, () -> "b");
+        Assert.assertEquals(2, cache.currentCollectionSize());
+        Assert.assertEquals(0, cache.getLast().size());
+
+        Assert.assertTrue(cache.trySwitchPointer());
+        cache.switchPointer();
+        Assert.assertEquals(0, cache.currentCollectionSize());
+        Assert.assertEquals(2, cache.getLast().size());
+        Assert.assertTrue(cache.getLast().isReading());
+
+        add(cache, () -> "c");
+        Assert.assertEquals(1, cache.currentCollectionSize());
+        Assert.assertEquals(2, cache.getLast().size());
+
+        cache.finishReadingLast();
+        cache.trySwitchPointerFinally();
+    }
+
+    @Test
+    public void testFinishReadingResetsLastCollection() {
+        NonMergeDataCache<StorageData> cache = new NonMergeDataCache<>();
+        add(cache, () -> "a");
+
+        Assert.assertTrue(cache.trySwitchPointer());
+        cache.switchPointer();
+        SWCollection<StorageData> read = cache.getLast();
+        cache.trySwitchPointerFinally();
+
+        Assert.assertFalse("the last collection is not switched again before it is read", cache.trySwitchPointer());
+        cache.trySwitchPointerFinally();
+
+        cache.finishReadingLast();
+        Assert.assertEquals(0, read.size());
+        Assert.assertFalse(read.isReading());
+
+        Assert.assertTrue(cache.trySwitchPointer());
+        cache.switchPointer();
+        cache.trySwitchPointerFinally();
+        add(cache, () -> "b");
+        Assert.assertEquals(1, read.size());
+        Assert.assertEquals(0, cache.getLast().size());
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentWriteAndSwitch() throws Exception {
+        NonMergeDataCache<StorageData> cache = new NonMergeDataCache<>();
+        StorageData record = () -> "record";
+
+        CountDownLatch finishLatch = runWriters(() -> add(cache, record));
+
+        long readCount = 0;
+        while (finishLatch.getCount() > 0) {
+            readCount += switchAndRead(cache).size();
+        }
+        readCount += switchAndRead(cache).size();
+
+        Assert.assertEquals(WRITER_NUM * RECORD_NUM_PER_WRITER, readCount);
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentMergeAndSwitch() throws Exception {
+        MergeDataCache<ServiceRespTimeIndicator> cache = new MergeDataCache<>();
+        ThreadLocal<Integer> sequence = ThreadLocal.withInitial(() -> 0);
+
+        CountDownLatch finishLatch = runWriters(() -> {
+            int i = sequence.get();
+            sequence.set(i + 1);
+
+            ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+            indicator.setTimeBucket(201810171200L);
+            indicator.setEntityId(String.valueOf(i % ENTITY_NUM));
+            indicator.combine(1, 1);
+
+            cache.writing();
+            try {
+                if (cache.containsKey(indicator)) {
+                    cache.get(indicator).combine(indicator);
+                } else {
+                    cache.put(indicator);
+                }
+            } finally {
+                cache.finishWriting();
+            }
+        });
+
+        Map<String, Long> counts = new HashMap<>();
+        while (finishLatch.getCount() > 0) {
+            sum(switchAndRead(cache), counts);
+        }
+        sum(switchAndRead(cache), counts);
+
+        Assert.assertEquals(ENTITY_NUM, counts.size());
+        counts.forEach((entityId, count) ->
+            Assert.assertEquals(entityId, (long)WRITER_NUM * RECORD_NUM_PER_WRITER / ENTITY_NUM, (long)count));
+    }
+
+    private void add(NonMergeDataCache<StorageData> cache, StorageData record) {
+        cache.writing();
+        try {
+            cache.add(record);
+        } finally {
+            cache.finishWriting();
+        }
+    }
+
+    private CountDownLatch runWriters(Runnable write) {
+        CountDownLatch finishLatch = new CountDownLatch(WRITER_NUM);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITER_NUM);
+        for (int i = 0; i < WRITER_NUM; i++) {
+            writers.execute(() -> {
+                try {
+                    for (int j = 0; j < RECORD_NUM_PER_WRITER; j++) {
+                        write.run();
+                    }
+                } finally {
+                    finishLatch.countDown();
+                }
+            });
+        }
+        writers.shutdown();
+        return finishLatch;
+    }
+
+    private void sum(List<ServiceRespTimeIndicator> indicators, Map<String, Long> counts) {
+        indicators.forEach(indicator -> counts.merge(indicator.getEntityId(), (long)indicator.getCount(), Long::sum));
+    }
+
+    /**
+     * Copies the last collection out before it is cleared, the same as the workers build their batches.
+     */
+    private <DATA> List<DATA> switchAndRead(Window<DATA> cache) {
+        List<DATA> read = new ArrayList<>();
+        if (cache.trySwitchPointer()) {
+            try {
+                cache.switchPointer();
+                read.addAll(cache.getLast().collection());
+                cache.finishReadingLast();
+            } finally {
+                cache.trySwitchPointerFinally();
+            }
+        } else {
+            cache.trySwitchPointerFinally();
+        }
+        return read;
+    }
+}
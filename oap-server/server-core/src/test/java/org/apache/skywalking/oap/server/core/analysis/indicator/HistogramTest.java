@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.indicator;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class HistogramTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistogramTest.class);
+
+    @Test
+    public void increment() {
+        Histogram histogram = new Histogram();
+        histogram.increment(3);
+        histogram.increment(3);
+        histogram.increment(0, 5);
+        histogram.increment(Histogram.DENSE_LIMIT + 10);
+        histogram.increment(-2);
+
+        Assert.assertEquals(2, histogram.get(3));
+        Assert.assertEquals(5, histogram.get(0));
+        Assert.assertEquals(1, histogram.get(Histogram.DENSE_LIMIT + 10));
+        Assert.assertEquals(1, histogram.get(-2));
+        Assert.assertEquals(0, histogram.get(4));
+        Assert.assertEquals(0, histogram.get(Histogram.DENSE_LIMIT * 10));
+        Assert.assertEquals(4, histogram.size());
+        Assert.assertEquals(9, histogram.getTotal());
+
+        List<Integer> keys = new ArrayList<>();
+        histogram.forEach((key, value) -> keys.add(key));
+        Assert.assertEquals(Arrays.asList(-2, 0, 3, Histogram.DENSE_LIMIT + 10), keys);
+    }
+
+    @Test
+    public void sparseToDense() {
+        Histogram histogram = new Histogram();
+        Map<Integer, Long> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            int key = random.nextInt(4) == 0 ? random.nextInt(3000) - 500 : random.nextInt(40);
+            histogram.increment(key);
+            expected.merge(key, 1L, Long::sum);
+
+            Map<Integer, Long> actual = new LinkedHashMap<>();
+            histogram.forEach(actual::put);
+            Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        }
+        expected.forEach((key, value) -> Assert.assertEquals(value.longValue(), histogram.get(key)));
+        Assert.assertEquals(expected.size(), histogram.size());
+        Assert.assertEquals(200, histogram.getTotal());
+    }
+
+    @Test
+    public void merge() {
+        Histogram histogram = new Histogram();
+        histogram.increment(1);
+        histogram.increment(5000);
+
+        Histogram other = new Histogram();
+        other.increment(1, 2);
+        other.increment(2);
+        other.increment(5000, 3);
+        other.increment(6000);
+
+        histogram.merge(other);
+        Assert.assertEquals(3, histogram.get(1));
+        Assert.assertEquals(1, histogram.get(2));
+        Assert.assertEquals(4, histogram.get(5000));
+        Assert.assertEquals(1, histogram.get(6000));
+        Assert.assertEquals(9, histogram.getTotal());
+
+        Assert.assertEquals(2, other.get(1));
+        Assert.assertEquals(7, other.getTotal());
+    }
+
+    @Test
+    public void copy() {
+        Histogram histogram = new Histogram();
+        histogram.increment(1);
+        histogram.increment(5000);
+
+        Histogram copy = histogram.copy();
+        copy.increment(1);
+        copy.increment(5000);
+
+        Assert.assertEquals(1, histogram.get(1));
+        Assert.assertEquals(1, histogram.get(5000));
+        Assert.assertEquals(2, copy.get(1));
+        Assert.assertEquals(2, copy.get(5000));
+    }
+
+    @Test
+    public void serialize() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            histogram.increment(random.nextInt(3000) - 100, random.nextInt(100) + 1);
+        }
+        histogram.increment(Integer.MIN_VALUE);
+        histogram.increment(Integer.MAX_VALUE, Long.MAX_VALUE / 2);
+
+        assertSame(histogram, new Histogram(histogram.toBytes()));
+        assertSame(histogram, new Histogram(histogram.toStorageData()));
+
+        Histogram empty = new Histogram(new Histogram().toStorageData());
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertTrue(new Histogram("").isEmpty());
+    }
+
+    @Test
+    public void legacyStorageData() {
+        Histogram histogram = new Histogram("5,3|1,2|2000,1");
+        Assert.assertEquals(2, histogram.get(1));
+        Assert.assertEquals(3, histogram.get(5));
+        Assert.assertEquals(1, histogram.get(2000));
+        Assert.assertEquals(6, histogram.getTotal());
+
+        Assert.assertFalse(histogram.toStorageData().contains(","));
+    }
+
+    @Test
+    public void percentiles() {
+        Histogram histogram = new Histogram();
+        for (int key = 1; key <= 100; key++) {
+            histogram.increment(key);
+        }
+        histogram.increment(3000);
+
+        Assert.assertArrayEquals(new int[] {51, 76, 91, 96, 100}, histogram.percentiles(50, 75, 90, 95, 99));
+        Assert.assertArrayEquals(new int[] {3000}, histogram.percentiles(100));
+        Assert.assertArrayEquals(new int[] {0, 0}, new Histogram().percentiles(50, 99));
+    }
+
+    /**
+     * Not a strict benchmark, only to compare the allocated bytes and the best time of the histogram and the replaced
+     * list of key value objects with the map index. Every source increments its own histogram, which is merged into the
+     * one of its entity, then the entities go through the storage data and get the p99.
+     */
+    @Test
+    public void compareWithKeyValueList() {
+        int entities = 100;
+        int sources = 20000;
+        int precision = 10;
+        int[] keys = new int[sources];
+        Random random = new Random(20181017);
+        for (int i = 0; i < sources; i++) {
+            keys[i] = (random.nextInt(3) == 0 ? random.nextInt(5000) : random.nextInt(300)) / precision;
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long histogramBytes = Long.MAX_VALUE;
+        long listBytes = Long.MAX_VALUE;
+        long histogramNanos = Long.MAX_VALUE;
+        long listNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 30; round++) {
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            Histogram[] histograms = new Histogram[entities];
+            for (int i = 0; i < sources; i++) {
+                Histogram source = new Histogram();
+                source.increment(keys[i]);
+                if (histograms[i % entities] == null) {
+                    histograms[i % entities] = source;
+                } else {
+                    histograms[i % entities].merge(source);
+                }
+            }
+            int[] histogramP99 = new int[entities];
+            for (int e = 0; e < entities; e++) {
+                histogramP99[e] = new Histogram(histograms[e].toStorageData()).percentiles(99)[0];
+            }
+            histogramNanos = Math.min(histogramNanos, System.nanoTime() - start);
+            histogramBytes = Math.min(histogramBytes, threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+
+            allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            KeyValueList[] lists = new KeyValueList[entities];
+            for (int i = 0; i < sources; i++) {
+                KeyValueList source = new KeyValueList();
+                source.increment(keys[i]);
+                if (lists[i % entities] == null) {
+                    lists[i % entities] = source;
+                } else {
+                    lists[i % entities].merge(source);
+                }
+            }
+            int[] listP99 = new int[entities];
+            for (int e = 0; e < entities; e++) {
+                listP99[e] = new KeyValueList(lists[e].toStorageData()).percentile(99);
+            }
+            listNanos = Math.min(listNanos, System.nanoTime() - start);
+            listBytes = Math.min(listBytes, threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+
+            Assert.assertArrayEquals(listP99, histogramP99);
+        }
+
+        logger.info("{} sources of {} entities, histogram: {} bytes/source, {} ns/source", sources, entities, histogramBytes / sources, histogramNanos / sources);
+        logger.info("{} sources of {} entities, key value list: {} bytes/source, {} ns/source", sources, entities, listBytes / sources, listNanos / sources);
+        Assert.assertTrue(histogramBytes * 2 < listBytes);
+    }
+
+    private void assertSame(Histogram expected, Histogram actual) {
+        Assert.assertEquals(expected.getTotal(), actual.getTotal());
+        Assert.assertEquals(expected.size(), actual.size());
+        expected.forEach((key, value) -> Assert.assertEquals(value, actual.get(key)));
+    }
+
+    /**
+     * The replaced histogram of the pxx indicators, a list of key value objects indexed by a map, stored as the joined
+     * "key,value|..." string and sorted to get a percentile.
+     */
+    private static class KeyValueList {
+        private final List<KeyValue> elements = new ArrayList<>(30);
+        private final Map<Integer, KeyValue> index = new HashMap<>();
+
+        private KeyValueList() {
+        }
+
+        private KeyValueList(String data) {
+            for (String element : data.split(Const.ARRAY_PARSER_SPLIT)) {
+                String[] keyValue = element.split(Const.KEY_VALUE_SPLIT);
+                add(new KeyValue(Integer.valueOf(keyValue[0]), Long.valueOf(keyValue[1])));
+            }
+        }
+
+        private void increment(int key) {
+            KeyValue element = index.get(key);
+            if (element == null) {
+                add(new KeyValue(key, 1));
+            } else {
+                element.value++;
+            }
+        }
+
+        private void merge(KeyValueList other) {
+            other.index.forEach((key, element) -> {
+                KeyValue existing = index.get(key);
+                if (existing == null) {
+                    add(new KeyValue(key, element.value));
+                } else {
+                    existing.value += element.value;
+                }
+            });
+        }
+
+        private void add(KeyValue element) {
+            elements.add(element);
+            index.put(element.key, element);
+        }
+
+        private String toStorageData() {
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < elements.size(); i++) {
+                if (i > 0) {
+                    data.append(Const.ARRAY_SPLIT);
+                }
+                data.append(elements.get(i).key + Const.KEY_VALUE_SPLIT + elements.get(i).value);
+            }
+            return data.toString();
+        }
+
+        private int percentile(int rank) {
+            elements.sort(Comparator.comparingInt(element -> element.key));
+            int total = elements.stream().mapToInt(element -> (int)element.value).sum();
+            int roof = Math.round(total * rank * 1.0f / 100);
+
+            int count = 0;
+            for (KeyValue element : elements) {
+                count += element.value;
+                if (count >= roof) {
+                    return element.key;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static class KeyValue {
+        private final int key;
+        private long value;
+
+        private KeyValue(int key, long value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.indicator;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class PercentileIndicatorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PercentileIndicatorTest.class);
+
+    private int precision = 10;//ms
+
+    @Test
+    public void percentileTest() {
+        PercentileIndicatorMocker indicatorMocker = new PercentileIndicatorMocker();
+
+        indicatorMocker.combine(110, precision);
+        indicatorMocker.combine(100, precision);
+        indicatorMocker.combine(100, precision);
+        indicatorMocker.combine(100, precision);
+        indicatorMocker.combine(50, precision);
+        indicatorMocker.combine(50, precision);
+        indicatorMocker.combine(50, precision);
+        indicatorMocker.combine(61, precision);
+        indicatorMocker.combine(61, precision);
+        indicatorMocker.combine(71, precision);
+        indicatorMocker.combine(100, precision);
+
+        indicatorMocker.calculate();
+
+        // precision = 10, 71 ~= 70
+        Assert.assertEquals(70, indicatorMocker.getP50());
+        Assert.assertEquals(100, indicatorMocker.getP75());
+        Assert.assertEquals(110, indicatorMocker.getP99());
+        Assert.assertEquals(110, indicatorMocker.getValue(99));
+    }
+
+    /**
+     * The merged indicator gets the same values as the five single rank indicators, with the sources combined
+     * directly and through the partial indicators.
+     */
+    @Test
+    public void sameAsPxxIndicators() {
+        Random random = new Random(20181017);
+        for (int round = 0; round < 100; round++) {
+            PercentileIndicatorMocker percentile = new PercentileIndicatorMocker();
+            PxxIndicatorTest.PxxIndicatorMocker[] pxxIndicators = new PxxIndicatorTest.PxxIndicatorMocker[PercentileIndicator.RANKS.length];
+            for (int i = 0; i < pxxIndicators.length; i++) {
+                pxxIndicators[i] = new PxxIndicatorTest().new PxxIndicatorMocker(PercentileIndicator.RANKS[i]);
+            }
+
+            int partials = 1 + random.nextInt(3);
+            for (int partial = 0; partial < partials; partial++) {
+                PercentileIndicatorMocker percentilePartial = new PercentileIndicatorMocker();
+                PxxIndicatorTest.PxxIndicatorMocker[] pxxPartials = new PxxIndicatorTest.PxxIndicatorMocker[pxxIndicators.length];
+                for (int i = 0; i < pxxPartials.length; i++) {
+                    pxxPartials[i] = new PxxIndicatorTest().new PxxIndicatorMocker(PercentileIndicator.RANKS[i]);
+                }
+
+                int sources = 1 + random.nextInt(200);
+                for (int source = 0; source < sources; source++) {
+                    int latency = random.nextInt(3) == 0 ? random.nextInt(5000) : random.nextInt(300);
+                    percentilePartial.combine(latency, precision);
+                    for (PxxIndicatorTest.PxxIndicatorMocker pxxPartial : pxxPartials) {
+                        pxxPartial.combine(latency, precision);
+                    }
+                }
+
+                percentile.combine(percentilePartial);
+                for (int i = 0; i < pxxIndicators.length; i++) {
+                    pxxIndicators[i].combine(pxxPartials[i]);
+                }
+            }
+
+            percentile.calculate();
+            for (int i = 0; i < pxxIndicators.length; i++) {
+                pxxIndicators[i].calculate();
+                Assert.assertEquals(pxxIndicators[i].getValue(), percentile.getValue(PercentileIndicator.RANKS[i]));
+            }
+        }
+    }
+
+    /**
+     * Not a strict benchmark, only to compare the allocated bytes and the best time of the merged indicator and the
+     * five single rank indicators. Like the dispatcher and the aggregation worker, every source builds its indicators,
+     * which are combined into the ones of its entity, then the entities are calculated.
+     */
+    @Test
+    public void compareWithPxxIndicators() {
+        int entities = 100;
+        int sources = 20000;
+        int[] latencies = new int[sources];
+        Random random = new Random(20181017);
+        for (int i = 0; i < sources; i++) {
+            latencies[i] = random.nextInt(3) == 0 ? random.nextInt(5000) : random.nextInt(300);
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long percentileBytes = Long.MAX_VALUE;
+        long pxxBytes = Long.MAX_VALUE;
+        long percentileNanos = Long.MAX_VALUE;
+        long pxxNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 30; round++) {
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            PercentileIndicatorMocker[] percentiles = new PercentileIndicatorMocker[entities];
+            for (int i = 0; i < sources; i++) {
+                PercentileIndicatorMocker source = new PercentileIndicatorMocker();
+                source.combine(latencies[i], precision);
+                if (percentiles[i % entities] == null) {
+                    percentiles[i % entities] = source;
+                } else {
+                    percentiles[i % entities].combine(source);
+                }
+            }
+            for (PercentileIndicatorMocker percentile : percentiles) {
+                percentile.calculate();
+            }
+            percentileNanos = Math.min(percentileNanos, System.nanoTime() - start);
+            percentileBytes = Math.min(percentileBytes, threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+
+            allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            PxxIndicatorTest.PxxIndicatorMocker[][] pxxIndicators = new PxxIndicatorTest.PxxIndicatorMocker[entities][];
+            for (int i = 0; i < sources; i++) {
+                PxxIndicatorTest.PxxIndicatorMocker[] source = new PxxIndicatorTest.PxxIndicatorMocker[PercentileIndicator.RANKS.length];
+                for (int r = 0; r < source.length; r++) {
+                    source[r] = new PxxIndicatorTest().new PxxIndicatorMocker(PercentileIndicator.RANKS[r]);
+                    source[r].combine(latencies[i], precision);
+                }
+                if (pxxIndicators[i % entities] == null) {
+                    pxxIndicators[i % entities] = source;
+                } else {
+                    for (int r = 0; r < source.length; r++) {
+                        pxxIndicators[i % entities][r].combine(source[r]);
+                    }
+                }
+            }
+            for (PxxIndicatorTest.PxxIndicatorMocker[] pxxIndicator : pxxIndicators) {
+                for (PxxIndicatorTest.PxxIndicatorMocker indicator : pxxIndicator) {
+                    indicator.calculate();
+                }
+            }
+            pxxNanos = Math.min(pxxNanos, System.nanoTime() - start);
+            pxxBytes = Math.min(pxxBytes, threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+
+            for (int e = 0; e < entities; e++) {
+                for (int r = 0; r < PercentileIndicator.RANKS.length; r++) {
+                    Assert.assertEquals(pxxIndicators[e][r].getValue(), percentiles[e].getValue(PercentileIndicator.RANKS[r]));
+                }
+            }
+        }
+
+        logger.info("{} sources of {} entities, percentile indicator: {} bytes/source, {} ns/source", sources, entities, percentileBytes / sources, percentileNanos / sources);
+        logger.info("{} sources of {} entities, five pxx indicators: {} bytes/source, {} ns/source", sources, entities, pxxBytes / sources, pxxNanos / sources);
+        Assert.assertTrue(percentileBytes * 3 < pxxBytes);
+    }
+
+    @Test
+    public void metricName() {
+        Assert.assertEquals("service_p99", PercentileIndicator.metricName("service_percentile", 99));
+        Assert.assertEquals("endpoint_latency_p50", PercentileIndicator.metricName("endpoint_latency", 50));
+    }
+
+    public class PercentileIndicatorMocker extends PercentileIndicator {
+
+        @Override public String id() {
+            return null;
+        }
+
+        @Override public Indicator toHour() {
+            return null;
+        }
+
+        @Override public Indicator toDay() {
+            return null;
+        }
+
+        @Override public Indicator toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -18,11 +18,9 @@
 
 package org.apache.skywalking.oap.server.core.analysis.indicator;
 
-import java.util.Map;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.junit.Assert;
 import org.junit.Test;
-import org.powermock.reflect.Whitebox;
 
 /**
  * @author wusheng
@@ -49,14 +47,14 @@ public class ThermodynamicIndicatorTest {
         indicatorMocker.combine(100, step, maxNumOfSteps);
         indicatorMocker.combine(100, step, maxNumOfSteps);
 
-        Map<Integer, IntKeyLongValue> index = Whitebox.getInternalState(indicatorMocker, "detailIndex");
-        Assert.assertEquals(5, index.size());
+        Histogram histogram = indicatorMocker.getDetailGroup();
+        Assert.assertEquals(5, histogram.size());
 
-        Assert.assertEquals(1, index.get(2).getValue());
-        Assert.assertEquals(3, index.get(5).getValue());
-        Assert.assertEquals(1, index.get(6).getValue());
-        Assert.assertEquals(6, index.get(10).getValue());
-        Assert.assertEquals(2, index.get(11).getValue());
+        Assert.assertEquals(1, histogram.get(2));
+        Assert.assertEquals(3, histogram.get(5));
+        Assert.assertEquals(1, histogram.get(6));
+        Assert.assertEquals(6, histogram.get(10));
+        Assert.assertEquals(2, histogram.get(11));
     }
 
     @Test
@@ -82,14 +80,14 @@ public class ThermodynamicIndicatorTest {
 
         indicatorMocker.combine(indicatorMocker2);
 
-        Map<Integer, IntKeyLongValue> index = Whitebox.getInternalState(indicatorMocker, "detailIndex");
-        Assert.assertEquals(5, index.size());
+        Histogram histogram = indicatorMocker.getDetailGroup();
+        Assert.assertEquals(5, histogram.size());
 
-        Assert.assertEquals(1, index.get(2).getValue());
-        Assert.assertEquals(3, index.get(5).getValue());
-        Assert.assertEquals(1, index.get(6).getValue());
-        Assert.assertEquals(6, index.get(10).getValue());
-        Assert.assertEquals(2, index.get(11).getValue());
+        Assert.assertEquals(1, histogram.get(2));
+        Assert.assertEquals(3, histogram.get(5));
+        Assert.assertEquals(1, histogram.get(6));
+        Assert.assertEquals(6, histogram.get(10));
+        Assert.assertEquals(2, histogram.get(11));
     }
 
     public class ThermodynamicIndicatorMocker extends ThermodynamicIndicator {
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class IndicatorAggregateWorkerTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorAggregateWorkerTestCase.class);
+
+    private static final int ENTITY_NUM = 100;
+    private static final int MINUTE_NUM = 5;
+    private static final int INDICATOR_NUM = 200000;
+
+    @Test(timeout = 60000)
+    public void testPartitionedEqualsSingleThreaded() throws InterruptedException {
+        Map<String, ServiceRespTimeIndicator> singleThreaded = aggregate(1);
+        Map<String, ServiceRespTimeIndicator> partitioned = aggregate(4);
+
+        Assert.assertEquals(ENTITY_NUM * MINUTE_NUM, singleThreaded.size());
+        Assert.assertEquals(singleThreaded.keySet(), partitioned.keySet());
+        singleThreaded.forEach((id, expected) -> {
+            ServiceRespTimeIndicator actual = partitioned.get(id);
+            Assert.assertEquals(expected.getSummation(), actual.getSummation());
+            Assert.assertEquals(expected.getCount(), actual.getCount());
+        });
+    }
+
+    @Test
+    public void testAggregatePartitions() {
+        CoreModuleConfig moduleConfig = new CoreModuleConfig();
+        Assert.assertEquals(1, IndicatorProcess.aggregatePartitions(moduleConfig, "endpoint_avg"));
+
+        moduleConfig.setIndicatorAggregatePartitions(2);
+        moduleConfig.setIndicatorAggregatePartitionsOverride("endpoint_avg:4, service_resp_time:3");
+        Assert.assertEquals(4, IndicatorProcess.aggregatePartitions(moduleConfig, "endpoint_avg"));
+        Assert.assertEquals(3, IndicatorProcess.aggregatePartitions(moduleConfig, "service_resp_time"));
+        Assert.assertEquals(2, IndicatorProcess.aggregatePartitions(moduleConfig, "service_cpm"));
+    }
+
+    private Map<String, ServiceRespTimeIndicator> aggregate(int partitionNum) throws InterruptedException {
+        CollectWorker collectWorker = new CollectWorker();
+        IndicatorAggregateWorker aggregateWorker = new IndicatorAggregateWorker(0, collectWorker, partitionNum);
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < INDICATOR_NUM; i++) {
+            ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+            indicator.setTimeBucket(201810171200L + (i / ENTITY_NUM) % MINUTE_NUM);
+            indicator.setEntityId(String.valueOf(i % ENTITY_NUM));
+            indicator.combine(i % 1000, 1);
+            aggregateWorker.in(indicator);
+        }
+
+        while (collectWorker.count() < INDICATOR_NUM) {
+            Thread.sleep(5);
+        }
+        long duration = Math.max(System.currentTimeMillis() - startTime, 1);
+        logger.info("partitions: {}, aggregated {} indicators in {} ms, {} per second", partitionNum, INDICATOR_NUM, duration, INDICATOR_NUM * 1000L / duration);
+
+        return collectWorker.result();
+    }
+
+    private class CollectWorker extends AbstractWorker<Indicator> {
+
+        private final Map<String, ServiceRespTimeIndicator> result = new HashMap<>();
+        private long count;
+
+        private CollectWorker() {
+            super(0);
+        }
+
+        @Override public synchronized void in(Indicator indicator) {
+            ServiceRespTimeIndicator respTime = (ServiceRespTimeIndicator)indicator;
+            count += respTime.getCount();
+
+            ServiceRespTimeIndicator exist = result.get(respTime.id());
+            if (exist == null) {
+                result.put(respTime.id(), respTime);
+            } else {
+                exist.combine(respTime);
+            }
+        }
+
+        private synchronized long count() {
+            return count;
+        }
+
+        private synchronized Map<String, ServiceRespTimeIndicator> result() {
+            return new HashMap<>(result);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.data.HotIndicatorCache;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.library.util.TimeBucketUtils;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * @author peng-yongsheng
+ */
+public class IndicatorPersistentWorkerTestCase {
+
+    private ModuleManager moduleManager;
+
+    @Before
+    public void init() throws ServiceNotProvidedException {
+        StorageModule moduleDefine = Mockito.spy(StorageModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        moduleManager = Mockito.mock(ModuleManager.class);
+
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+
+        Mockito.when(moduleManager.find(StorageModule.NAME)).thenReturn(moduleDefine);
+        Mockito.when(moduleProvider.getService(IBatchDAO.class)).thenReturn(batchCollection -> {
+        });
+    }
+
+    @Test
+    public void testPrefetchPerBatch() {
+        CountingIndicatorDAO indicatorDAO = new CountingIndicatorDAO();
+        IndicatorPersistentWorker worker = new IndicatorPersistentWorker(1, "service_resp_time", 100000, moduleManager, indicatorDAO, null, null, null);
+
+        for (int i = 0; i < 5000; i++) {
+            worker.in(respTime(201810171201L, String.valueOf(i), 100));
+        }
+        flush(worker);
+
+        Assert.assertEquals(0, indicatorDAO.getTimes);
+        Assert.assertEquals(1, indicatorDAO.multiGetTimes);
+        Assert.assertEquals(5000, indicatorDAO.inserts);
+        Assert.assertEquals(0, indicatorDAO.updates);
+
+        for (int i = 0; i < 5000; i++) {
+            worker.in(respTime(201810171201L, String.valueOf(i), 300));
+        }
+        flush(worker);
+
+        Assert.assertEquals(0, indicatorDAO.getTimes);
+        Assert.assertEquals(2, indicatorDAO.multiGetTimes);
+        Assert.assertEquals(5000, indicatorDAO.inserts);
+        Assert.assertEquals(5000, indicatorDAO.updates);
+
+        ServiceRespTimeIndicator merged = (ServiceRespTimeIndicator)indicatorDAO.storage.get("201810171201_42");
+        Assert.assertEquals(400, merged.getSummation());
+        Assert.assertEquals(2, merged.getCount());
+        Assert.assertEquals(200, merged.getValue());
+    }
+
+    @Test
+    public void testCombineWithHotCache() {
+        RemoteClientManager remoteClientManager = Mockito.mock(RemoteClientManager.class);
+        Mockito.when(remoteClientManager.getRoutingVersion()).thenReturn(1);
+        HotIndicatorCache hotCache = new HotIndicatorCache(10, 100000, remoteClientManager);
+
+        CountingIndicatorDAO indicatorDAO = new CountingIndicatorDAO();
+        IndicatorPersistentWorker worker = new IndicatorPersistentWorker(1, "service_resp_time", 100000, moduleManager, indicatorDAO, null, null, hotCache);
+
+        long timeBucket = TimeBucketUtils.INSTANCE.getMinuteTimeBucket(System.currentTimeMillis());
+        worker.in(respTime(timeBucket, "1", 100));
+        flush(worker);
+        worker.in(respTime(timeBucket, "1", 300));
+        flush(worker);
+        worker.in(respTime(timeBucket, "1", 500));
+        flush(worker);
+
+        Assert.assertEquals(1, indicatorDAO.multiGetTimes);
+        Assert.assertEquals(2, hotCache.getHitCount());
+        Assert.assertEquals(1, hotCache.getMissCount());
+
+        ServiceRespTimeIndicator merged = (ServiceRespTimeIndicator)indicatorDAO.storage.get(timeBucket + "_1");
+        Assert.assertEquals(900, merged.getSummation());
+        Assert.assertEquals(3, merged.getCount());
+        Assert.assertEquals(300, merged.getValue());
+
+        // The other node may have written the key after the routing changed, so read it from the storage again.
+        Mockito.when(remoteClientManager.getRoutingVersion()).thenReturn(2);
+        ServiceRespTimeIndicator otherNode = respTime(timeBucket, "1", 1100);
+        otherNode.combine(merged);
+        otherNode.calculate();
+        indicatorDAO.storage.put(otherNode.id(), otherNode);
+
+        worker.in(respTime(timeBucket, "1", 1000));
+        flush(worker);
+
+        Assert.assertEquals(2, indicatorDAO.multiGetTimes);
+        merged = (ServiceRespTimeIndicator)indicatorDAO.storage.get(timeBucket + "_1");
+        Assert.assertEquals(3000, merged.getSummation());
+        Assert.assertEquals(5, merged.getCount());
+        Assert.assertEquals(600, merged.getValue());
+    }
+
+    private void flush(IndicatorPersistentWorker worker) {
+        if (worker.flushAndSwitch()) {
+            worker.buildBatchCollection();
+        }
+    }
+
+    private ServiceRespTimeIndicator respTime(long timeBucket, String entityId, long latency) {
+        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setEntityId(entityId);
+        indicator.combine(latency, 1);
+        return indicator;
+    }
+
+    private class CountingIndicatorDAO implements IIndicatorDAO<Indicator, Indicator> {
+        private final Map<String, Indicator> storage = new HashMap<>();
+        private int getTimes;
+        private int multiGetTimes;
+        private int inserts;
+        private int updates;
+
+        @Override public Indicator get(String modelName, Indicator indicator) {
+            getTimes++;
+            return storage.get(indicator.id());
+        }
+
+        @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) {
+            multiGetTimes++;
+            List<Indicator> dbIndicators = new ArrayList<>();
+            indicators.forEach(indicator -> {
+                if (storage.containsKey(indicator.id())) {
+                    dbIndicators.add(storage.get(indicator.id()));
+                }
+            });
+            return dbIndicators;
+        }
+
+        @Override public Indicator prepareBatchInsert(String modelName, Indicator indicator) {
+            inserts++;
+            storage.put(indicator.id(), indicator);
+            return indicator;
+        }
+
+        @Override public Indicator prepareBatchUpdate(String modelName, Indicator indicator) {
+            updates++;
+            storage.put(indicator.id(), indicator);
+            return indicator;
+        }
+    }
+}
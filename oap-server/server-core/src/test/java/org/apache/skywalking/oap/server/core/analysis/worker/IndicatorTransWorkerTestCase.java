@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.all.AllHeatmapIndicator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * @author peng-yongsheng
+ */
+public class IndicatorTransWorkerTestCase {
+
+    private ModuleManager moduleManager;
+    private MockIndicatorDAO indicatorDAO;
+
+    @Before
+    public void init() throws ServiceNotProvidedException {
+        StorageModule moduleDefine = Mockito.spy(StorageModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        moduleManager = Mockito.mock(ModuleManager.class);
+
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+
+        Mockito.when(moduleManager.find(StorageModule.NAME)).thenReturn(moduleDefine);
+        Mockito.when(moduleProvider.getService(IBatchDAO.class)).thenReturn(batchCollection -> {
+        });
+
+        indicatorDAO = new MockIndicatorDAO();
+    }
+
+    @Test
+    public void testLongAvg() {
+        Pipeline pipeline = new Pipeline("service_resp_time");
+
+        pipeline.in(respTime(201810171201L, 100, 300));
+        pipeline.in(respTime(201810171202L, 200));
+        pipeline.flush();
+
+        ServiceRespTimeIndicator hour = (ServiceRespTimeIndicator)indicatorDAO.find("service_resp_time_hour", "2018101712_1");
+        Assert.assertEquals(600, hour.getSummation());
+        Assert.assertEquals(3, hour.getCount());
+        Assert.assertEquals(200, hour.getValue());
+
+        pipeline.in(respTime(201810171203L, 1000));
+        pipeline.flush();
+
+        hour = (ServiceRespTimeIndicator)indicatorDAO.find("service_resp_time_hour", "2018101712_1");
+        Assert.assertEquals(1600, hour.getSummation());
+        Assert.assertEquals(4, hour.getCount());
+        Assert.assertEquals(400, hour.getValue());
+
+        ServiceRespTimeIndicator day = (ServiceRespTimeIndicator)indicatorDAO.find("service_resp_time_day", "20181017_1");
+        Assert.assertEquals(400, day.getValue());
+        ServiceRespTimeIndicator month = (ServiceRespTimeIndicator)indicatorDAO.find("service_resp_time_month", "201810_1");
+        Assert.assertEquals(400, month.getValue());
+
+        ServiceRespTimeIndicator minute = (ServiceRespTimeIndicator)indicatorDAO.find("service_resp_time", "201810171201_1");
+        Assert.assertEquals(200, minute.getValue());
+    }
+
+    @Test
+    public void testCpm() {
+        Pipeline pipeline = new Pipeline("service_cpm");
+
+        pipeline.in(cpm(201810171201L, 120));
+        pipeline.in(cpm(201810171202L, 60));
+        pipeline.flush();
+        pipeline.in(cpm(201810171202L, 180));
+        pipeline.flush();
+
+        ServiceCpmIndicator minute = (ServiceCpmIndicator)indicatorDAO.find("service_cpm", "201810171202_1");
+        Assert.assertEquals(240, minute.getValue());
+
+        ServiceCpmIndicator hour = (ServiceCpmIndicator)indicatorDAO.find("service_cpm_hour", "2018101712_1");
+        Assert.assertEquals(360, hour.getTotal());
+        Assert.assertEquals(6, hour.getValue());
+
+        ServiceCpmIndicator day = (ServiceCpmIndicator)indicatorDAO.find("service_cpm_day", "20181017_1");
+        Assert.assertEquals(360, day.getTotal());
+        Assert.assertEquals(0, day.getValue());
+    }
+
+    @Test
+    public void testPercentile() {
+        Pipeline pipeline = new Pipeline("service_percentile");
+
+        for (int i = 0; i < 50; i++) {
+            pipeline.in(percentile(201810171201L, 50));
+        }
+        pipeline.flush();
+
+        for (int i = 0; i < 50; i++) {
+            pipeline.in(percentile(201810171202L, 200));
+        }
+        pipeline.flush();
+
+        Assert.assertEquals(50, ((PercentileIndicator)indicatorDAO.find("service_percentile", "201810171201_1")).getP99());
+        Assert.assertEquals(200, ((PercentileIndicator)indicatorDAO.find("service_percentile", "201810171202_1")).getP99());
+
+        Assert.assertEquals(200, ((PercentileIndicator)indicatorDAO.find("service_percentile_hour", "2018101712_1")).getP99());
+        Assert.assertEquals(50, ((PercentileIndicator)indicatorDAO.find("service_percentile_hour", "2018101712_1")).getP50());
+        Assert.assertEquals(200, ((PercentileIndicator)indicatorDAO.find("service_percentile_month", "201810_1")).getP99());
+    }
+
+    @Test
+    public void testThermodynamic() {
+        Pipeline pipeline = new Pipeline("all_heatmap");
+
+        pipeline.in(heatmap(201810171201L, 50, 50, 50));
+        pipeline.in(heatmap(201810171202L, 50, 150, 150));
+        pipeline.flush();
+
+        Map<Integer, Long> minute = detailGroup(indicatorDAO.find("all_heatmap", "201810171202"));
+        Assert.assertEquals(2, minute.size());
+        Assert.assertEquals(1L, minute.get(0).longValue());
+        Assert.assertEquals(2L, minute.get(1).longValue());
+
+        Map<Integer, Long> hour = detailGroup(indicatorDAO.find("all_heatmap_hour", "2018101712"));
+        Assert.assertEquals(2, hour.size());
+        Assert.assertEquals(4L, hour.get(0).longValue());
+        Assert.assertEquals(2L, hour.get(1).longValue());
+
+        ThermodynamicIndicator day = (ThermodynamicIndicator)indicatorDAO.find("all_heatmap_day", "20181017");
+        Assert.assertEquals(100, day.getStep());
+        Assert.assertEquals(21, day.getNumOfSteps());
+    }
+
+    private ServiceRespTimeIndicator respTime(long timeBucket, long... latencies) {
+        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setEntityId("1");
+        for (long latency : latencies) {
+            indicator.combine(latency, 1);
+        }
+        return indicator;
+    }
+
+    private ServiceCpmIndicator cpm(long timeBucket, int calls) {
+        ServiceCpmIndicator indicator = new ServiceCpmIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setEntityId("1");
+        indicator.combine(calls);
+        return indicator;
+    }
+
+    private ServicePercentileIndicator percentile(long timeBucket, int latency) {
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setEntityId("1");
+        indicator.combine(latency, 10);
+        return indicator;
+    }
+
+    private AllHeatmapIndicator heatmap(long timeBucket, int... latencies) {
+        AllHeatmapIndicator indicator = new AllHeatmapIndicator();
+        indicator.setTimeBucket(timeBucket);
+        for (int latency : latencies) {
+            indicator.combine(latency, 100, 20);
+        }
+        return indicator;
+    }
+
+    private Map<Integer, Long> detailGroup(Indicator indicator) {
+        Map<Integer, Long> detailGroup = new HashMap<>();
+        ((ThermodynamicIndicator)indicator).getDetailGroup().forEach(detailGroup::put);
+        return detailGroup;
+    }
+
+    private class Pipeline {
+        private final IndicatorPersistentWorker minuteWorker;
+        private final List<IndicatorPersistentWorker> workers = new ArrayList<>();
+
+        private Pipeline(String modelName) {
+            IndicatorPersistentWorker hourWorker = new IndicatorPersistentWorker(1, TimePyramidTableNameBuilder.build(TimePyramid.Hour, modelName), 1000, moduleManager, indicatorDAO, null, null, null);
+            IndicatorPersistentWorker dayWorker = new IndicatorPersistentWorker(2, TimePyramidTableNameBuilder.build(TimePyramid.Day, modelName), 1000, moduleManager, indicatorDAO, null, null, null);
+            IndicatorPersistentWorker monthWorker = new IndicatorPersistentWorker(3, TimePyramidTableNameBuilder.build(TimePyramid.Month, modelName), 1000, moduleManager, indicatorDAO, null, null, null);
+            IndicatorTransWorker transWorker = new IndicatorTransWorker(4, hourWorker, dayWorker, monthWorker);
+            minuteWorker = new IndicatorPersistentWorker(5, modelName, 1000, moduleManager, indicatorDAO, null, transWorker, null);
+
+            workers.add(minuteWorker);
+            workers.add(hourWorker);
+            workers.add(dayWorker);
+            workers.add(monthWorker);
+        }
+
+        private void in(Indicator indicator) {
+            minuteWorker.in(indicator);
+        }
+
+        private void flush() {
+            workers.forEach(worker -> {
+                if (worker.flushAndSwitch()) {
+                    worker.buildBatchCollection();
+                }
+            });
+        }
+    }
+
+    private class MockIndicatorDAO implements IIndicatorDAO<Indicator, Indicator> {
+        private final Map<String, Indicator> storage = new HashMap<>();
+
+        private Indicator find(String modelName, String id) {
+            return storage.get(modelName + "/" + id);
+        }
+
+        @Override public Indicator get(String modelName, Indicator indicator) {
+            return find(modelName, indicator.id());
+        }
+
+        @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) {
+            List<Indicator> dbIndicators = new ArrayList<>();
+            indicators.forEach(indicator -> {
+                Indicator dbIndicator = find(modelName, indicator.id());
+                if (dbIndicator != null) {
+                    dbIndicators.add(dbIndicator);
+                }
+            });
+            return dbIndicators;
+        }
+
+        @Override public Indicator prepareBatchInsert(String modelName, Indicator indicator) {
+            storage.put(modelName + "/" + indicator.id(), indicator);
+            return indicator;
+        }
+
+        @Override public Indicator prepareBatchUpdate(String modelName, Indicator indicator) {
+            storage.put(modelName + "/" + indicator.id(), indicator);
+            return indicator;
+        }
+    }
+}
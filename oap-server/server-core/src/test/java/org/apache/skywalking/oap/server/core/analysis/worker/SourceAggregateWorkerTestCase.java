@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.ToLongFunction;
+import org.apache.skywalking.oap.server.core.analysis.data.IndicatorAccumulator;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.servicerelation.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.indicator.expression.EqualMatch;
+import org.apache.skywalking.oap.server.core.source.*;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.annotation.StorageEntityAnnotationUtils;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class SourceAggregateWorkerTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceAggregateWorkerTestCase.class);
+
+    private static final int ENTITY_NUM = 100;
+    private static final int MINUTE_NUM = 5;
+    private static final int SOURCE_NUM = 200000;
+
+    private static final List<ToLongFunction<Indicator>> SOURCE_COUNTERS = Arrays.asList(
+        indicator -> ((ServiceRespTimeIndicator)indicator).getCount(),
+        indicator -> ((ServiceSlaIndicator)indicator).getTotal(),
+        indicator -> ((ServiceCpmIndicator)indicator).getTotal(),
+        indicator -> ((ServicePercentileIndicator)indicator).getDetailGroup().getTotal());
+
+    @Test(timeout = 60000)
+    public void testFusedEqualsIndicatorByIndicator() throws InterruptedException {
+        List<Service> sources = sources();
+
+        List<CollectWorker> fused = fused(sources, 2);
+        List<CollectWorker> indicatorByIndicator = indicatorByIndicator(sources, 2);
+
+        for (int i = 0; i < fused.size(); i++) {
+            Map<String, Indicator> expected = indicatorByIndicator.get(i).result();
+            Map<String, Indicator> actual = fused.get(i).result();
+
+            Assert.assertEquals(ENTITY_NUM * MINUTE_NUM, expected.size());
+            Assert.assertEquals(expected.keySet(), actual.keySet());
+            expected.forEach((id, indicator) -> Assert.assertEquals(storageData(indicator), storageData(actual.get(id))));
+        }
+    }
+
+    @Test
+    public void testFilters() {
+        ServiceRelationDispatcher dispatcher = new ServiceRelationDispatcher();
+        IndicatorAccumulator[] accumulators = new IndicatorAccumulator[dispatcher.indicatorClasses().size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new IndicatorAccumulator();
+        }
+
+        dispatcher.combine(relation(DetectPoint.CLIENT, 100, true), accumulators);
+        dispatcher.combine(relation(DetectPoint.CLIENT, 300, false), accumulators);
+        dispatcher.combine(relation(DetectPoint.SERVER, 200, true), accumulators);
+
+        String entityId = ServiceRelation.buildEntityId(1, 2);
+        Assert.assertEquals(2, ((ServiceRelationClientCpmIndicator)accumulators[0].get(entityId, 201810171200L)).getTotal());
+        Assert.assertEquals(1, ((ServiceRelationServerCpmIndicator)accumulators[1].get(entityId, 201810171200L)).getTotal());
+        Assert.assertEquals(1, ((ServiceRelationClientCallSlaIndicator)accumulators[2].get(entityId, 201810171200L)).getMatch());
+        Assert.assertEquals(400, ((ServiceRelationClientRespTimeIndicator)accumulators[4].get(entityId, 201810171200L)).getSummation());
+        Assert.assertEquals(200, ((ServiceRelationServerRespTimeIndicator)accumulators[5].get(entityId, 201810171200L)).getSummation());
+        Assert.assertNull(accumulators[0].get(entityId, 201810171201L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> storageData(Indicator indicator) {
+        indicator.calculate();
+        Map<String, Object> storageData = new HashMap<>();
+        try {
+            StorageBuilder builder = StorageEntityAnnotationUtils.getBuilder(indicator.getClass()).newInstance();
+            ((Map<String, Object>)builder.data2Map(indicator)).forEach((column, value) ->
+                storageData.put(column, value instanceof StorageDataType ? ((StorageDataType)value).toStorageData() : value));
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+        return storageData;
+    }
+
+    private List<CollectWorker> fused(List<Service> sources, int partitionNum) throws InterruptedException {
+        List<CollectWorker> collectWorkers = collectWorkers();
+        SourceAggregateWorker<Service> aggregateWorker = new SourceAggregateWorker<>(0, new ServiceDispatcher(), new ArrayList<>(collectWorkers), partitionNum);
+
+        GCCounter gcCounter = new GCCounter();
+        long startTime = System.currentTimeMillis();
+        sources.forEach(aggregateWorker::in);
+        await(collectWorkers);
+        report("fused", startTime, gcCounter);
+
+        return collectWorkers;
+    }
+
+    /**
+     * The way before the fused dispatcher, one indicator per metric is created and aggregated by its own worker.
+     */
+    private List<CollectWorker> indicatorByIndicator(List<Service> sources,
+        int partitionNum) throws InterruptedException {
+        List<CollectWorker> collectWorkers = collectWorkers();
+        List<IndicatorAggregateWorker> aggregateWorkers = new ArrayList<>();
+        collectWorkers.forEach(collectWorker -> aggregateWorkers.add(new IndicatorAggregateWorker(0, collectWorker, partitionNum)));
+
+        GCCounter gcCounter = new GCCounter();
+        long startTime = System.currentTimeMillis();
+        for (Service source : sources) {
+            ServiceRespTimeIndicator respTime = new ServiceRespTimeIndicator();
+            respTime.setTimeBucket(source.getTimeBucket());
+            respTime.setEntityId(source.getEntityId());
+            respTime.combine(source.getLatency(), 1);
+            aggregateWorkers.get(0).in(respTime);
+
+            ServiceSlaIndicator sla = new ServiceSlaIndicator();
+            sla.setTimeBucket(source.getTimeBucket());
+            sla.setEntityId(source.getEntityId());
+            sla.combine(new EqualMatch(), source.isStatus(), true);
+            aggregateWorkers.get(1).in(sla);
+
+            ServiceCpmIndicator cpm = new ServiceCpmIndicator();
+            cpm.setTimeBucket(source.getTimeBucket());
+            cpm.setEntityId(source.getEntityId());
+            cpm.combine(1);
+            aggregateWorkers.get(2).in(cpm);
+
+            ServicePercentileIndicator percentile = new ServicePercentileIndicator();
+            percentile.setTimeBucket(source.getTimeBucket());
+            percentile.setEntityId(source.getEntityId());
+            percentile.combine(source.getLatency(), 10);
+            aggregateWorkers.get(3).in(percentile);
+        }
+        await(collectWorkers);
+        report("indicator by indicator", startTime, gcCounter);
+
+        return collectWorkers;
+    }
+
+    private List<Service> sources() {
+        Random random = new Random(17);
+        List<Service> sources = new ArrayList<>(SOURCE_NUM);
+        for (int i = 0; i < SOURCE_NUM; i++) {
+            Service source = new Service();
+            source.setTimeBucket(201810171200L + (i / ENTITY_NUM) % MINUTE_NUM);
+            source.setId(i % ENTITY_NUM);
+            source.setLatency(random.nextInt(3000));
+            source.setStatus(random.nextInt(10) > 0);
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    private ServiceRelation relation(DetectPoint detectPoint, int latency, boolean status) {
+        ServiceRelation source = new ServiceRelation();
+        source.setTimeBucket(201810171200L);
+        source.setSourceServiceId(1);
+        source.setDestServiceId(2);
+        source.setDetectPoint(detectPoint);
+        source.setLatency(latency);
+        source.setStatus(status);
+        return source;
+    }
+
+    private List<CollectWorker> collectWorkers() {
+        List<CollectWorker> collectWorkers = new ArrayList<>();
+        SOURCE_COUNTERS.forEach(counter -> collectWorkers.add(new CollectWorker(counter)));
+        return collectWorkers;
+    }
+
+    private void await(List<CollectWorker> collectWorkers) throws InterruptedException {
+        for (CollectWorker collectWorker : collectWorkers) {
+            while (collectWorker.count() < SOURCE_NUM) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private void report(String way, long startTime, GCCounter gcCounter) {
+        long duration = Math.max(System.currentTimeMillis() - startTime, 1);
+        logger.info("{}: aggregated {} sources in {} ms, {} per second, {} collections in {} ms of gc", way, SOURCE_NUM, duration,
+            SOURCE_NUM * 1000L / duration, gcCounter.collections(), gcCounter.time());
+    }
+
+    private static class GCCounter {
+        private final long collections;
+        private final long time;
+
+        private GCCounter() {
+            this.collections = totalCollections();
+            this.time = totalTime();
+        }
+
+        private long collections() {
+            return totalCollections() - collections;
+        }
+
+        private long time() {
+            return totalTime() - time;
+        }
+
+        private static long totalCollections() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+        }
+
+        private static long totalTime() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        }
+    }
+
+    private class CollectWorker extends AbstractWorker<Indicator> {
+
+        private final ToLongFunction<Indicator> counter;
+        private final Map<String, Indicator> result = new HashMap<>();
+        private long count;
+
+        private CollectWorker(ToLongFunction<Indicator> counter) {
+            super(0);
+            this.counter = counter;
+        }
+
+        @Override public synchronized void in(Indicator indicator) {
+            count += counter.applyAsLong(indicator);
+
+            Indicator exist = result.get(indicator.id());
+            if (exist == null) {
+                result.put(indicator.id(), indicator);
+            } else {
+                exist.combine(indicator);
+            }
+        }
+
+        private synchronized long count() {
+            return count;
+        }
+
+        private synchronized Map<String, Indicator> result() {
+            return new HashMap<>(result);
+        }
+    }
+}
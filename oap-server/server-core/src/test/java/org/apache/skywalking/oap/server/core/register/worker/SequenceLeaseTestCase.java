@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.register.worker;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class SequenceLeaseTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceLeaseTestCase.class);
+
+    private static final int NODE_NUM = 4;
+    private static final int THREADS_PER_NODE = 2;
+    private static final int SEQUENCES_PER_THREAD = 50000;
+    /**
+     * Far below the leased assignment, which is millions per second, and far above the lock of every registration,
+     * which is a few per second with the storage.
+     */
+    private static final long MIN_SEQUENCES_PER_SECOND = 20000;
+
+    @Test(timeout = 60000)
+    public void testUniqueSequencesOfNodes() throws Exception {
+        InMemoryRegisterLockDAO lockDAO = new InMemoryRegisterLockDAO();
+        MaxRegisterDAO registerDAO = new MaxRegisterDAO(0);
+
+        List<SequenceLease> nodes = new ArrayList<>();
+        for (int i = 0; i < NODE_NUM; i++) {
+            nodes.add(new SequenceLease(Scope.Endpoint, "endpoint_inventory", 100, lockDAO, registerDAO));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODE_NUM * THREADS_PER_NODE);
+        List<Future<int[]>> futures = new ArrayList<>();
+        long startTime = System.nanoTime();
+        for (SequenceLease node : nodes) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                futures.add(executor.submit(() -> {
+                    int[] sequences = new int[SEQUENCES_PER_THREAD];
+                    for (int i = 0; i < sequences.length; i++) {
+                        sequences[i] = node.next();
+                    }
+                    return sequences;
+                }));
+            }
+        }
+
+        Set<Integer> assigned = new HashSet<>();
+        for (Future<int[]> future : futures) {
+            for (int sequence : future.get()) {
+                Assert.assertTrue(sequence > Const.NONE);
+                Assert.assertTrue("sequence " + sequence + " assigned twice", assigned.add(sequence));
+            }
+        }
+        long duration = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), 1);
+        executor.shutdown();
+
+        int total = NODE_NUM * THREADS_PER_NODE * SEQUENCES_PER_THREAD;
+        logger.info("{} nodes assigned {} sequences in {} ms, {} per second, {} leases, {} lease conflicts", NODE_NUM, total, duration,
+            total * 1000L / duration, lockDAO.leases.get(), lockDAO.conflicts.get());
+
+        Assert.assertEquals(total, assigned.size());
+        Assert.assertEquals(NODE_NUM, registerDAO.maxQueries.get());
+        Assert.assertEquals(0, lockDAO.locks.get());
+        Assert.assertTrue(total * 1000L / duration + " sequences per second", total * 1000L / duration >= MIN_SEQUENCES_PER_SECOND);
+        Assert.assertTrue(lockDAO.leases.get() <= total / 100 + NODE_NUM);
+        // Every node abandons at most the rest of its last block.
+        Assert.assertTrue(Collections.max(assigned) <= total + NODE_NUM * 100);
+    }
+
+    @Test
+    public void testLeaseAfterExistingInventories() throws IOException {
+        InMemoryRegisterLockDAO lockDAO = new InMemoryRegisterLockDAO();
+        SequenceLease first = new SequenceLease(Scope.Service, "service_inventory", 10, lockDAO, new MaxRegisterDAO(25));
+        SequenceLease second = new SequenceLease(Scope.Service, "service_inventory", 10, lockDAO, new MaxRegisterDAO(30));
+
+        Assert.assertEquals(26, first.next());
+        Assert.assertEquals(36, second.next());
+        for (int i = 27; i <= 35; i++) {
+            Assert.assertEquals(i, first.next());
+        }
+        Assert.assertEquals(46, first.next());
+    }
+
+    @Test
+    public void testLeaseFailure() throws IOException {
+        InMemoryRegisterLockDAO lockDAO = new InMemoryRegisterLockDAO();
+        lockDAO.alwaysConflict = true;
+        SequenceLease lease = new SequenceLease(Scope.Service, "service_inventory", 10, lockDAO, new MaxRegisterDAO(0));
+
+        Assert.assertEquals(Const.NONE, lease.next());
+        lockDAO.alwaysConflict = false;
+        Assert.assertEquals(1, lease.next());
+    }
+
+    /**
+     * A lock row per scope, updated only with the version of the read, like the version check of the storage.
+     */
+    private static class InMemoryRegisterLockDAO implements IRegisterLockDAO {
+        private final Map<Scope, long[]> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger leases = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private final AtomicInteger locks = new AtomicInteger();
+        private volatile boolean alwaysConflict = false;
+
+        @Override public boolean tryLock(Scope scope) {
+            locks.incrementAndGet();
+            return true;
+        }
+
+        @Override public void releaseLock(Scope scope) {
+        }
+
+        @Override public int leaseSequences(Scope scope, int floor, int blockSize) {
+            long[] row = rows.computeIfAbsent(scope, key -> new long[2]);
+            long version;
+            int leased;
+            synchronized (row) {
+                leased = (int)row[0];
+                version = row[1];
+            }
+
+            int first = Math.max(leased, floor) + 1;
+            synchronized (row) {
+                if (alwaysConflict || row[1] != version) {
+                    conflicts.incrementAndGet();
+                    return Const.NONE;
+                }
+                row[0] = first + blockSize - 1;
+                row[1]++;
+            }
+            leases.incrementAndGet();
+            return first;
+        }
+    }
+
+    private static class MaxRegisterDAO implements IRegisterDAO {
+        private final int max;
+        private final AtomicInteger maxQueries = new AtomicInteger();
+
+        private MaxRegisterDAO(int max) {
+            this.max = max;
+        }
+
+        @Override public int max(String modelName) {
+            maxQueries.incrementAndGet();
+            return max;
+        }
+
+        @Override public RegisterSource get(String modelName, String id) {
+            return null;
+        }
+
+        @Override public void forceInsert(String modelName, RegisterSource source) {
+        }
+
+        @Override public void forceUpdate(String modelName, RegisterSource source) {
+        }
+    }
+}
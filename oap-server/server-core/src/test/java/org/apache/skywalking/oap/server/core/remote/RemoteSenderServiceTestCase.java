@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.remote.client.*;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.selector.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RemoteSenderServiceTestCase {
+
+    private static final int MESSAGE_NUM = 9000;
+
+    private ModuleManager moduleManager;
+    private List<RemoteClient> clients;
+
+    @Before
+    public void init() throws ServiceNotProvidedException {
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        moduleManager = Mockito.mock(ModuleManager.class);
+
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+
+        clients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clients.add(new CountingRemoteClient("10.0.0." + i, 11800));
+        }
+        RemoteClientManager clientManager = Mockito.mock(RemoteClientManager.class);
+        Mockito.when(clientManager.getRemoteClient()).thenReturn(clients);
+
+        Mockito.when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+        Mockito.when(moduleProvider.getService(RemoteClientManager.class)).thenReturn(clientManager);
+    }
+
+    @Test
+    public void testEveryMessageReachesOnePeer() {
+        for (Selector selector : Selector.values()) {
+            RemoteSenderService senderService = new RemoteSenderService(moduleManager, 160);
+            clients.forEach(client -> ((CountingRemoteClient)client).received.clear());
+
+            for (int i = 0; i < MESSAGE_NUM; i++) {
+                senderService.send(i, indicator(i), selector);
+            }
+
+            int[] received = new int[MESSAGE_NUM];
+            for (RemoteClient client : clients) {
+                ((CountingRemoteClient)client).received.forEach(workerId -> received[workerId]++);
+            }
+            for (int i = 0; i < MESSAGE_NUM; i++) {
+                Assert.assertEquals(selector + " sent message " + i + " to " + received[i] + " peers", 1, received[i]);
+            }
+
+            Map<Selector, Long> sendCounts = senderService.getSendCounts();
+            for (Selector other : Selector.values()) {
+                Assert.assertEquals(other == selector ? MESSAGE_NUM : 0, sendCounts.get(other).longValue());
+            }
+        }
+    }
+
+    @Test
+    public void testRoutingOfSelectors() {
+        RemoteSenderService senderService = new RemoteSenderService(moduleManager, 160);
+
+        for (int i = 0; i < MESSAGE_NUM; i++) {
+            senderService.send(i, indicator(i), Selector.Rolling);
+        }
+        clients.forEach(client -> Assert.assertEquals(MESSAGE_NUM / clients.size(), ((CountingRemoteClient)client).received.size()));
+
+        for (int i = 0; i < MESSAGE_NUM; i++) {
+            senderService.send(i, indicator(i), Selector.ForeverFirst);
+        }
+        Assert.assertEquals(MESSAGE_NUM / clients.size() + MESSAGE_NUM, ((CountingRemoteClient)clients.get(0)).received.size());
+
+        clients.forEach(client -> ((CountingRemoteClient)client).received.clear());
+        for (int i = 0; i < 100; i++) {
+            senderService.send(i, indicator(i % 10), Selector.ConsistentHash);
+        }
+        Map<Integer, RemoteClient> routes = new HashMap<>();
+        for (RemoteClient client : clients) {
+            ((CountingRemoteClient)client).received.forEach(workerId -> {
+                RemoteClient previous = routes.put(workerId % 10, client);
+                Assert.assertTrue(previous == null || previous == client);
+            });
+        }
+        Assert.assertEquals(10, routes.size());
+    }
+
+    @Test
+    public void testNoRemoteClient() {
+        clients.clear();
+        RemoteSenderService senderService = new RemoteSenderService(moduleManager, 160);
+        senderService.send(0, indicator(0), Selector.HashCode);
+        Assert.assertEquals(0, senderService.getSendCounts().get(Selector.HashCode).longValue());
+    }
+
+    @Test
+    public void testSendExceptLocal() {
+        SelfRemoteClient self = new SelfRemoteClient("10.0.0.9", 11800);
+        clients.add(1, self);
+        RemoteSenderService senderService = new RemoteSenderService(moduleManager, 160);
+        RemoteSenderService expectedService = new RemoteSenderService(moduleManager, 160);
+
+        List<ServiceRespTimeIndicator> batch = new ArrayList<>();
+        for (int i = 0; i < MESSAGE_NUM; i++) {
+            batch.add(indicator(i));
+        }
+        Collection<ServiceRespTimeIndicator> local = senderService.sendExceptLocal(0, batch, Selector.ConsistentHash);
+
+        Map<RemoteClient, Integer> received = new HashMap<>();
+        clients.stream().filter(client -> client != self).forEach(client -> {
+            received.put(client, ((CountingRemoteClient)client).received.size());
+            ((CountingRemoteClient)client).received.clear();
+        });
+
+        int expectedLocal = 0;
+        ConsistentHashSelector selector = new ConsistentHashSelector(160);
+        for (ServiceRespTimeIndicator indicator : batch) {
+            if (selector.select(clients, indicator) == self) {
+                expectedLocal++;
+            } else {
+                expectedService.send(0, indicator, Selector.ConsistentHash);
+            }
+        }
+        Assert.assertEquals(expectedLocal, local.size());
+        Assert.assertTrue(expectedLocal > 0);
+        clients.stream().filter(client -> client != self).forEach(client ->
+            Assert.assertEquals(((CountingRemoteClient)client).received.size(), received.get(client).intValue()));
+        Assert.assertEquals(MESSAGE_NUM, senderService.getSendCounts().get(Selector.ConsistentHash).longValue());
+
+        clients.clear();
+        clients.add(self);
+        Assert.assertSame(batch, senderService.sendExceptLocal(0, batch, Selector.HashCode));
+
+        clients.clear();
+        Assert.assertTrue(senderService.sendExceptLocal(0, batch, Selector.HashCode).isEmpty());
+    }
+
+    private ServiceRespTimeIndicator indicator(int i) {
+        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+        indicator.setTimeBucket(201810171200L);
+        indicator.setEntityId(String.valueOf(i));
+        return indicator;
+    }
+
+    private static class CountingRemoteClient implements RemoteClient {
+        private final String host;
+        private final int port;
+        private final List<Integer> received = new ArrayList<>();
+
+        private CountingRemoteClient(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override public String getHost() {
+            return host;
+        }
+
+        @Override public int getPort() {
+            return port;
+        }
+
+        @Override public void push(int nextWorkerId, StreamData streamData) {
+            received.add(nextWorkerId);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote;
+
+import io.grpc.*;
+import io.grpc.inprocess.*;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.remote.annotation.*;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
+import org.apache.skywalking.oap.server.core.worker.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RemoteServiceHandlerTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteServiceHandlerTestCase.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int BATCH_NUM = 200;
+
+    private Server server;
+    private ManagedChannel channel;
+    private StreamDataAnnotationContainer container;
+
+    @Before
+    public void init() throws IOException, ServiceNotProvidedException {
+        container = new StreamDataAnnotationContainer();
+        container.generate(new ArrayList<>(Collections.singletonList(ServiceRespTimeIndicator.class)));
+
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        ModuleManager moduleManager = Mockito.mock(ModuleManager.class);
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+        Mockito.when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+        Mockito.when(moduleProvider.getService(StreamDataClassGetter.class)).thenReturn(container);
+
+        String serverName = UUID.randomUUID().toString();
+        server = InProcessServerBuilder.forName(serverName).addService(new RemoteServiceHandler(moduleManager)).build().start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @After
+    public void shutdown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test(timeout = 60000)
+    public void testThroughput() throws InterruptedException {
+        CountingWorker worker = new CountingWorker(WorkerIdGenerator.INSTANCES.generate(), BATCH_SIZE * BATCH_NUM);
+        WorkerInstances.INSTANCES.put(worker.getWorkerId(), worker);
+
+        List<RemoteMessageBatch> batches = new ArrayList<>(BATCH_NUM);
+        int streamDataId = container.findIdByClass(ServiceRespTimeIndicator.class);
+        for (int b = 0; b < BATCH_NUM; b++) {
+            RemoteMessageBatch.Builder batch = RemoteMessageBatch.newBuilder();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                RemoteData.Builder remoteData = RemoteData.newBuilder();
+                remoteData.addDataStrings(String.valueOf(i));
+                remoteData.addDataLongs(100).addDataLongs(100).addDataLongs(201810171200L);
+                remoteData.addDataIntegers(1);
+                batch.addMessages(RemoteMessage.newBuilder().setNextWorkerId(worker.getWorkerId()).setStreamDataId(streamDataId).setRemoteData(remoteData));
+            }
+            batches.add(batch.build());
+        }
+
+        long startTime = System.nanoTime();
+        StreamObserver<RemoteMessageBatch> stream = RemoteServiceGrpc.newStub(channel).batchCall(new StreamObserver<Empty>() {
+            @Override public void onNext(Empty empty) {
+            }
+
+            @Override public void onError(Throwable throwable) {
+            }
+
+            @Override public void onCompleted() {
+            }
+        });
+        batches.forEach(stream::onNext);
+        stream.onCompleted();
+
+        Assert.assertTrue(worker.received.await(50, TimeUnit.SECONDS));
+        long duration = System.nanoTime() - startTime;
+        logger.info("{} messages received through the remote service handler, {} messages/s", BATCH_SIZE * BATCH_NUM, (long)(BATCH_SIZE * BATCH_NUM / (duration / 1e9)));
+
+        Assert.assertEquals(100, worker.last.getSummation());
+        Assert.assertEquals(201810171200L, worker.last.getTimeBucket());
+    }
+
+    @Test(timeout = 20000)
+    public void testUnknownStreamData() throws InterruptedException {
+        CountingWorker worker = new CountingWorker(WorkerIdGenerator.INSTANCES.generate(), 1);
+        WorkerInstances.INSTANCES.put(worker.getWorkerId(), worker);
+
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<RemoteMessageBatch> stream = RemoteServiceGrpc.newStub(channel).batchCall(new StreamObserver<Empty>() {
+            @Override public void onNext(Empty empty) {
+            }
+
+            @Override public void onError(Throwable throwable) {
+            }
+
+            @Override public void onCompleted() {
+                completed.countDown();
+            }
+        });
+        RemoteData remoteData = RemoteData.newBuilder().addDataStrings("1").addDataLongs(1).addDataLongs(1).addDataLongs(201810171200L).addDataIntegers(1).build();
+        stream.onNext(RemoteMessageBatch.newBuilder()
+            .addMessages(RemoteMessage.newBuilder().setNextWorkerId(worker.getWorkerId()).setStreamDataId(99).setRemoteData(remoteData))
+            .addMessages(RemoteMessage.newBuilder().setNextWorkerId(worker.getWorkerId()).setStreamDataId(1).setRemoteData(remoteData)).build());
+        stream.onCompleted();
+
+        Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, worker.received.getCount());
+        Assert.assertEquals(1, worker.last.getSummation());
+    }
+
+    private static class CountingWorker extends AbstractWorker<StreamData> {
+        private final CountDownLatch received;
+        private volatile ServiceRespTimeIndicator last;
+
+        private CountingWorker(int workerId, int expected) {
+            super(workerId);
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override public void in(StreamData streamData) {
+            last = (ServiceRespTimeIndicator)streamData;
+            received.countDown();
+        }
+    }
+}
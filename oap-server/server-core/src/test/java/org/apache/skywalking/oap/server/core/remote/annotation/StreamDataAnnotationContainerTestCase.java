@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.annotation;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.junit.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class StreamDataAnnotationContainerTestCase {
+
+    @Test
+    public void testEveryStreamDataRegistered() throws IOException {
+        StreamAnnotationListener listener = new StreamAnnotationListener();
+        AnnotationScan annotationScan = new AnnotationScan();
+        annotationScan.registerListener(listener);
+        annotationScan.scan(() -> {
+        });
+
+        List<Class> streamClasses = new ArrayList<>(listener.getStreamClasses());
+        Assert.assertFalse(streamClasses.isEmpty());
+
+        StreamDataAnnotationContainer container = new StreamDataAnnotationContainer();
+        container.generate(streamClasses);
+
+        Set<Integer> ids = new HashSet<>();
+        for (Class streamClass : streamClasses) {
+            Assert.assertNotNull(streamClass.getName() + " has no factory", StreamDataFactories.get(streamClass));
+
+            int id = container.findIdByClass(streamClass);
+            Assert.assertTrue(ids.add(id));
+            Assert.assertSame(streamClass, container.findClassById(id));
+            Assert.assertSame(streamClass, container.findFactoryById(id).newInstance().getClass());
+        }
+        Assert.assertNull(container.findFactoryById(0));
+        Assert.assertNull(container.findFactoryById(streamClasses.size() + 1));
+    }
+}
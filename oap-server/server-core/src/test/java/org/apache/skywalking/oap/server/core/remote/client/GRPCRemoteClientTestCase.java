@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import io.grpc.*;
+import io.grpc.inprocess.*;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.remote.annotation.StreamDataClassGetter;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataReader;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/**
+ * @author peng-yongsheng
+ */
+public class GRPCRemoteClientTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String serverName;
+    private Server server;
+    private ManagedChannel channel;
+    private MockRemoteService remoteService;
+    private StreamDataClassGetter streamDataClassGetter;
+
+    @Before
+    public void init() throws IOException {
+        serverName = UUID.randomUUID().toString();
+        remoteService = new MockRemoteService();
+        server = InProcessServerBuilder.forName(serverName).addService(remoteService).build().start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+
+        streamDataClassGetter = Mockito.mock(StreamDataClassGetter.class);
+        Mockito.when(streamDataClassGetter.findIdByClass(Mockito.any())).thenReturn(1);
+    }
+
+    @After
+    public void shutdown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test(timeout = 20000)
+    public void testOrderingAndBatching() throws InterruptedException {
+        GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, channel, 1, 3000, true);
+
+        // Less than the carrier buffer, the carrier doesn't keep the order once its ring buffer wraps around.
+        int messageNum = 2500;
+        for (int i = 0; i < messageNum; i++) {
+            client.push(i, new MockStreamData());
+        }
+        while (remoteService.received.size() < messageNum) {
+            Thread.sleep(10);
+        }
+
+        for (int i = 0; i < messageNum; i++) {
+            Assert.assertEquals(i, remoteService.received.get(i).intValue());
+        }
+        Assert.assertEquals(1, remoteService.streams.get());
+        Assert.assertTrue(remoteService.batches.get() < messageNum);
+        Assert.assertEquals(messageNum, client.getSentCount());
+        Assert.assertEquals(0, client.getDroppedCount());
+        Assert.assertEquals(RemoteCodec.PROTOBUF, client.getCodec());
+    }
+
+    @Test(timeout = 20000)
+    public void testCompactCodec() throws InterruptedException {
+        remoteService.compactSupported = true;
+        GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, channel, 1, 3000, false);
+
+        int messageNum = 2500;
+        for (int i = 0; i < messageNum; i++) {
+            client.push(i, new MockStreamData());
+        }
+        while (remoteService.received.size() < messageNum) {
+            Thread.sleep(10);
+        }
+
+        for (int i = 0; i < messageNum; i++) {
+            Assert.assertEquals(i, remoteService.received.get(i).intValue());
+        }
+        Assert.assertEquals(RemoteCodec.COMPACT, client.getCodec());
+        Assert.assertEquals(messageNum, client.getSentCount());
+    }
+
+    @Test(timeout = 20000)
+    public void testReconnect() throws InterruptedException {
+        GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, channel, 1, 3000, false);
+
+        client.push(0, new MockStreamData());
+        while (remoteService.received.size() < 1) {
+            Thread.sleep(10);
+        }
+
+        remoteService.failNextBatch = true;
+        int nextWorkerId = 1;
+        while (remoteService.streams.get() < 2 || remoteService.received.get(remoteService.received.size() - 1) < nextWorkerId - 1) {
+            client.push(nextWorkerId++, new MockStreamData());
+            Thread.sleep(20);
+        }
+
+        List<Integer> received = new ArrayList<>(remoteService.received);
+        for (int i = 1; i < received.size(); i++) {
+            Assert.assertTrue(received.get(i) > received.get(i - 1));
+        }
+        Assert.assertEquals(2, remoteService.streams.get());
+        Assert.assertEquals(nextWorkerId, client.getSentCount());
+        Assert.assertEquals(0, client.getDroppedCount());
+        Assert.assertEquals("the protocol is reused while the channel is connected", 1, remoteService.negotiations.get());
+    }
+
+    /**
+     * The messages pushed while the peer is down wait in the carrier until it is up.
+     */
+    @Test(timeout = 20000)
+    public void testPeerDown() throws IOException, InterruptedException {
+        String downServerName = UUID.randomUUID().toString();
+        ManagedChannel downChannel = InProcessChannelBuilder.forName(downServerName).build();
+        GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, downChannel, 1, 3000, false);
+
+        int messageNum = 2000;
+        for (int i = 0; i < messageNum / 2; i++) {
+            client.push(i, new MockStreamData());
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(0, client.getSentCount());
+
+        MockRemoteService upService = new MockRemoteService();
+        Server upServer = InProcessServerBuilder.forName(downServerName).addService(upService).build().start();
+        try {
+            for (int i = messageNum / 2; i < messageNum; i++) {
+                client.push(i, new MockStreamData());
+            }
+            while (upService.received.size() < messageNum) {
+                Thread.sleep(10);
+            }
+
+            for (int i = 0; i < messageNum; i++) {
+                Assert.assertEquals(i, upService.received.get(i).intValue());
+            }
+            Assert.assertEquals(messageNum, client.getSentCount());
+            Assert.assertEquals(0, client.getDroppedCount());
+        } finally {
+            client.close();
+            downChannel.shutdownNow();
+            upServer.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testPeerWithoutBatchCall() throws IOException, InterruptedException {
+        String serverName = UUID.randomUUID().toString();
+        LegacyRemoteService legacyService = new LegacyRemoteService();
+        Server legacyServer = InProcessServerBuilder.forName(serverName).addService(legacyService).build().start();
+        ManagedChannel legacyChannel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, legacyChannel, 1, 3000, false);
+
+            int messageNum = 2500;
+            for (int i = 0; i < messageNum; i++) {
+                client.push(i, new MockStreamData());
+            }
+            while (legacyService.received.size() < messageNum) {
+                Thread.sleep(10);
+            }
+
+            for (int i = 0; i < messageNum; i++) {
+                Assert.assertEquals(i, legacyService.received.get(i).intValue());
+            }
+            Assert.assertEquals(RemoteCodec.PROTOBUF, client.getCodec());
+            Assert.assertEquals(messageNum, client.getSentCount());
+            Assert.assertEquals(0, client.getDroppedCount());
+        } finally {
+            legacyChannel.shutdownNow();
+            legacyServer.shutdownNow();
+        }
+    }
+
+    /**
+     * The client of a peer joining again spills into the same directory, the closed client must have released it.
+     */
+    @Test(timeout = 20000)
+    public void testCloseReleasesSpillFiles() throws IOException {
+        String spillPath = folder.newFolder().getAbsolutePath();
+        GRPCRemoteClient client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, InProcessChannelBuilder.forName(serverName).build(), 1, 1, false, OverflowPolicy.SPILL, spillPath);
+        client.close();
+
+        client = new GRPCRemoteClient(streamDataClassGetter, "127.0.0.1", 11800, InProcessChannelBuilder.forName(serverName).build(), 1, 1, false, OverflowPolicy.SPILL, spillPath);
+        for (int i = 0; i < 10000 && client.getSpilledCount() == 0; i++) {
+            client.push(i, new MockStreamData());
+        }
+        Assert.assertTrue(client.getSpilledCount() > 0);
+        client.close();
+    }
+
+    private static class MockStreamData extends StreamData {
+
+        @Override public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder().addDataStrings("mock");
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+    }
+
+    private static class MockRemoteService extends RemoteServiceGrpc.RemoteServiceImplBase {
+
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger streams = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger negotiations = new AtomicInteger();
+        private volatile boolean failNextBatch = false;
+        private volatile boolean compactSupported = false;
+
+        @Override public void negotiate(CodecNegotiation request, StreamObserver<CodecNegotiation> responseObserver) {
+            negotiations.incrementAndGet();
+            if (!compactSupported) {
+                super.negotiate(request, responseObserver);
+                return;
+            }
+            responseObserver.onNext(CodecNegotiation.newBuilder().addCodecs(RemoteCodec.COMPACT).build());
+            responseObserver.onCompleted();
+        }
+
+        @Override public StreamObserver<RemoteMessageBatch> batchCall(StreamObserver<Empty> responseObserver) {
+            streams.incrementAndGet();
+            return new StreamObserver<RemoteMessageBatch>() {
+                @Override public void onNext(RemoteMessageBatch batch) {
+                    if (failNextBatch) {
+                        failNextBatch = false;
+                        responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                        return;
+                    }
+                    batches.incrementAndGet();
+                    batch.getMessagesList().forEach(message -> received.add(message.getNextWorkerId()));
+                    StreamDataReader reader = new StreamDataReader(batch.getCompactMessages().toByteArray());
+                    while (!reader.isAtEnd()) {
+                        received.add(reader.readUInt());
+                        reader.readUInt();
+                        reader.readBytes();
+                    }
+                    responseObserver.onNext(Empty.newBuilder().build());
+                }
+
+                @Override public void onError(Throwable throwable) {
+                }
+
+                @Override public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+
+    /**
+     * The peer of the previous version, only implements the call rpc.
+     */
+    private static class LegacyRemoteService extends RemoteServiceGrpc.RemoteServiceImplBase {
+
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+        @Override public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
+            return new StreamObserver<RemoteMessage>() {
+                @Override public void onNext(RemoteMessage message) {
+                    received.add(message.getNextWorkerId());
+                }
+
+                @Override public void onError(Throwable throwable) {
+                }
+
+                @Override public void onCompleted() {
+                    responseObserver.onNext(Empty.newBuilder().build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+}
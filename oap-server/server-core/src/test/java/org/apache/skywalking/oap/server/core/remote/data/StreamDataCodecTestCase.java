@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Histogram;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.remote.annotation.*;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class StreamDataCodecTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamDataCodecTestCase.class);
+
+    private final Random random = new Random(20181017);
+
+    @Test
+    public void testRoundTripEveryStreamData() throws Exception {
+        List<Class> streamClasses = streamClasses();
+        Assert.assertFalse(streamClasses.isEmpty());
+
+        for (Class streamClass : streamClasses) {
+            StreamDataFactory factory = StreamDataFactories.get(streamClass);
+            for (int i = 0; i < 10; i++) {
+                StreamData original = factory.newInstance();
+                populate(original);
+                RemoteData expected = original.serialize().build();
+
+                StreamData protobufCopy = factory.newInstance();
+                protobufCopy.deserialize(RemoteData.parseFrom(expected.toByteArray()));
+                Assert.assertEquals(streamClass.getName(), expected, protobufCopy.serialize().build());
+
+                StreamDataWriter writer = new StreamDataWriter(16);
+                original.serialize(writer);
+                original.serialize(writer);
+                StreamDataReader reader = new StreamDataReader(writer.toByteString().toByteArray());
+                for (int j = 0; j < 2; j++) {
+                    StreamData compactCopy = factory.newInstance();
+                    compactCopy.deserialize(reader);
+                    Assert.assertEquals(streamClass.getName(), expected, compactCopy.serialize().build());
+                }
+                Assert.assertTrue(reader.isAtEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitives() {
+        StreamDataWriter writer = new StreamDataWriter(16);
+        long[] longs = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, 201810171200L};
+        int[] ints = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        double[] doubles = {0, -0.5, Double.NaN, Double.MAX_VALUE};
+        String[] strings = {null, "", "service", "\u670d\u52a1", "service", null, ""};
+        for (long value : longs) {
+            writer.writeLong(value);
+        }
+        for (int value : ints) {
+            writer.writeInt(value);
+            writer.writeUInt(value);
+        }
+        for (double value : doubles) {
+            writer.writeDouble(value);
+        }
+        for (String value : strings) {
+            writer.writeString(value);
+        }
+
+        StreamDataReader reader = new StreamDataReader(writer.toByteString().toByteArray());
+        for (long value : longs) {
+            Assert.assertEquals(value, reader.readLong());
+        }
+        for (int value : ints) {
+            Assert.assertEquals(value, reader.readInt());
+            Assert.assertEquals(value, reader.readUInt());
+        }
+        for (double value : doubles) {
+            Assert.assertEquals(Double.doubleToLongBits(value), Double.doubleToLongBits(reader.readDouble()));
+        }
+        for (String value : strings) {
+            Assert.assertEquals(value, reader.readString());
+        }
+        Assert.assertTrue(reader.isAtEnd());
+    }
+
+    @Test
+    public void testRepeatedStringsWrittenOnce() {
+        String entityId = "1_ZW5kcG9pbnQtb2YtdGhlLXNlcnZpY2U=";
+        StreamDataWriter writer = new StreamDataWriter();
+        writer.writeString(entityId);
+        int first = writer.size();
+        for (int i = 0; i < 99; i++) {
+            writer.writeString(entityId);
+        }
+        Assert.assertEquals(first + 99, writer.size());
+
+        writer.reset();
+        Assert.assertEquals(0, writer.size());
+        writer.writeString(entityId);
+        Assert.assertEquals(first, writer.size());
+    }
+
+    /**
+     * Not a strict benchmark, only to compare the bytes and the best time of both codecs on the same messages.
+     */
+    @Test
+    public void testCompareCodecs() throws Exception {
+        List<StreamData> messages = new ArrayList<>();
+        for (Class streamClass : streamClasses()) {
+            StreamDataFactory factory = StreamDataFactories.get(streamClass);
+            for (int i = 0; i < 100; i++) {
+                StreamData streamData = factory.newInstance();
+                populate(streamData);
+                messages.add(streamData);
+            }
+        }
+
+        StreamDataWriter writer = new StreamDataWriter();
+        long protobufBytes = 0;
+        long compactBytes = 0;
+        long protobufNanos = Long.MAX_VALUE;
+        long compactNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 200; round++) {
+            long start = System.nanoTime();
+            protobufBytes = 0;
+            for (StreamData message : messages) {
+                protobufBytes += message.serialize().build().toByteString().size();
+            }
+            protobufNanos = Math.min(protobufNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            writer.reset();
+            for (StreamData message : messages) {
+                message.serialize(writer);
+            }
+            compactBytes = writer.toByteString().size();
+            compactNanos = Math.min(compactNanos, System.nanoTime() - start);
+        }
+
+        logger.info("protobuf codec: {} bytes/message, {} ns/message", protobufBytes / messages.size(), protobufNanos / messages.size());
+        logger.info("compact codec: {} bytes/message, {} ns/message", compactBytes / messages.size(), compactNanos / messages.size());
+        Assert.assertTrue(compactBytes < protobufBytes);
+    }
+
+    private List<Class> streamClasses() throws IOException {
+        StreamAnnotationListener listener = new StreamAnnotationListener();
+        AnnotationScan annotationScan = new AnnotationScan();
+        annotationScan.registerListener(listener);
+        annotationScan.scan(() -> {
+        });
+        return new ArrayList<>(listener.getStreamClasses());
+    }
+
+    private void populate(Object streamData) throws IllegalAccessException {
+        for (Class<?> type = streamData.getClass(); type != StreamData.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                Class<?> fieldType = field.getType();
+                if (fieldType == int.class) {
+                    field.setInt(streamData, random.nextInt(2000) - 1000);
+                } else if (fieldType == long.class) {
+                    field.setLong(streamData, random.nextBoolean() ? 201810171200L + random.nextInt(60) : random.nextLong());
+                } else if (fieldType == double.class) {
+                    field.setDouble(streamData, random.nextDouble());
+                } else if (fieldType == String.class) {
+                    field.set(streamData, random.nextInt(10) == 0 ? "" : "value-" + random.nextInt(5));
+                } else if (fieldType == Histogram.class) {
+                    Histogram histogram = new Histogram();
+                    for (int i = random.nextInt(20); i > 0; i--) {
+                        histogram.increment(random.nextInt(100), random.nextInt(1000));
+                    }
+                    field.set(streamData, histogram);
+                } else {
+                    Assert.fail("Unsupported field " + type.getName() + "." + field.getName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.remote.client.*;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class ConsistentHashSelectorTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsistentHashSelectorTestCase.class);
+
+    private static final int KEY_NUM = 20000;
+
+    private List<ServiceRespTimeIndicator> keys;
+
+    @Before
+    public void init() {
+        keys = new ArrayList<>(KEY_NUM);
+        for (int i = 0; i < KEY_NUM; i++) {
+            ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+            indicator.setTimeBucket(201810171200L + i % 60);
+            indicator.setEntityId(String.valueOf(i));
+            keys.add(indicator);
+        }
+    }
+
+    @Test
+    public void testAddNode() {
+        for (int nodeNum = 3; nodeNum < 10; nodeNum++) {
+            List<RemoteClient> clients = clients(nodeNum);
+            ConsistentHashSelector selector = new ConsistentHashSelector(160);
+            List<RemoteClient> before = select(selector, clients);
+
+            RemoteClient newClient = new SelfRemoteClient("10.0.0." + nodeNum, 11800);
+            clients.add(newClient);
+            List<RemoteClient> after = select(selector, clients);
+
+            int moved = 0;
+            for (int i = 0; i < KEY_NUM; i++) {
+                if (before.get(i) != after.get(i)) {
+                    Assert.assertSame(newClient, after.get(i));
+                    moved++;
+                }
+            }
+            assertCloseTo(moved, nodeNum + 1);
+        }
+    }
+
+    @Test
+    public void testRemoveNode() {
+        for (int nodeNum = 4; nodeNum <= 10; nodeNum++) {
+            List<RemoteClient> clients = clients(nodeNum);
+            ConsistentHashSelector selector = new ConsistentHashSelector(160);
+            List<RemoteClient> before = select(selector, clients);
+
+            RemoteClient removedClient = clients.remove(nodeNum / 2);
+            List<RemoteClient> after = select(selector, clients);
+
+            int moved = 0;
+            for (int i = 0; i < KEY_NUM; i++) {
+                if (before.get(i) != after.get(i)) {
+                    Assert.assertSame(removedClient, before.get(i));
+                    moved++;
+                }
+            }
+            assertCloseTo(moved, nodeNum);
+        }
+    }
+
+    @Test
+    public void testSameMembersKeepRouting() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(160);
+        List<RemoteClient> clients = clients(5);
+        List<RemoteClient> first = select(selector, clients);
+        List<RemoteClient> second = select(selector, new LinkedList<>(clients));
+        Assert.assertEquals(first, second);
+    }
+
+    private void assertCloseTo(int moved, int nodeNum) {
+        double expected = (double)KEY_NUM / nodeNum;
+        logger.info("node num: {}, moved keys: {}, expected: {}", nodeNum, moved, (int)expected);
+        Assert.assertTrue("moved " + moved + " keys, expected about " + (int)expected, moved > expected * 0.6 && moved < expected * 1.4);
+    }
+
+    private List<RemoteClient> select(ConsistentHashSelector selector, List<RemoteClient> clients) {
+        List<RemoteClient> selected = new ArrayList<>(KEY_NUM);
+        keys.forEach(key -> selected.add(selector.select(clients, key)));
+        return selected;
+    }
+
+    private List<RemoteClient> clients(int nodeNum) {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (int i = 0; i < nodeNum; i++) {
+            clients.add(new SelfRemoteClient("10.0.0." + i, 11800));
+        }
+        return clients;
+    }
+}
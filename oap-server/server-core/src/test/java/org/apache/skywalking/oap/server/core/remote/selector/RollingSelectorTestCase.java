@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.ServiceRespTimeIndicator;
+import org.apache.skywalking.oap.server.core.remote.client.*;
+import org.junit.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RollingSelectorTestCase {
+
+    private static final int THREAD_NUM = 8;
+    private static final int SELECT_NUM_PER_THREAD = 30000;
+
+    @Test
+    public void testFairUnderConcurrency() throws InterruptedException {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clients.add(new SelfRemoteClient("10.0.0." + i, 11800));
+        }
+        RollingSelector selector = new RollingSelector();
+        ServiceRespTimeIndicator indicator = new ServiceRespTimeIndicator();
+
+        Map<RemoteClient, LongAdder> selected = new ConcurrentHashMap<>();
+        clients.forEach(client -> selected.put(client, new LongAdder()));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUM);
+        for (int t = 0; t < THREAD_NUM; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SELECT_NUM_PER_THREAD; i++) {
+                    selected.get(selector.select(clients, indicator)).increment();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (RemoteClient client : clients) {
+            Assert.assertEquals(THREAD_NUM * SELECT_NUM_PER_THREAD / clients.size(), selected.get(client).sum());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.analysis.data.NonMergeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.worker.PersistenceWorker;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * @author peng-yongsheng
+ */
+public class PersistencePipelineTestCase {
+
+    private ModuleManager moduleManager;
+
+    @Before
+    public void init() throws ServiceNotProvidedException {
+        StorageModule moduleDefine = Mockito.spy(StorageModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        moduleManager = Mockito.mock(ModuleManager.class);
+
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+
+        Mockito.when(moduleManager.find(StorageModule.NAME)).thenReturn(moduleDefine);
+        Mockito.when(moduleProvider.getService(IBatchDAO.class)).thenReturn(batchCollection -> {
+        });
+    }
+
+    @Test
+    public void testFlushAllWorkers() throws InterruptedException {
+        RecordingBatchDAO batchDAO = new RecordingBatchDAO();
+        PersistencePipeline pipeline = new PersistencePipeline(batchDAO, 4);
+
+        List<List<TestPersistenceWorker>> groups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<TestPersistenceWorker> group = new ArrayList<>();
+            for (String step : new String[] {"", "_hour", "_day", "_month"}) {
+                TestPersistenceWorker worker = new TestPersistenceWorker("model_" + i + step, null);
+                for (int j = 0; j < 100; j++) {
+                    worker.in(new TestData(worker.getModelName() + "_" + j));
+                }
+                group.add(worker);
+            }
+            groups.add(group);
+        }
+        groups.add(Collections.singletonList(new TestPersistenceWorker("empty", null)));
+
+        pipeline.flush(groups);
+
+        Assert.assertEquals(4000, batchDAO.items.size());
+        Assert.assertEquals(4000, new HashSet<>(batchDAO.items).size());
+        Assert.assertEquals(41, pipeline.getBuildDurations().size());
+        Assert.assertEquals(40, pipeline.getPersistDurations().size());
+
+        batchDAO.items.clear();
+        pipeline.flush(groups);
+        Assert.assertEquals(0, batchDAO.items.size());
+    }
+
+    @Test
+    public void testSlowWorkerNotBlockOthers() throws InterruptedException {
+        CountDownLatch othersPersisted = new CountDownLatch(1);
+        RecordingBatchDAO batchDAO = new RecordingBatchDAO() {
+            @Override public synchronized void batchPersistence(List<?> batchCollection) {
+                super.batchPersistence(batchCollection);
+                if (items.size() == 300) {
+                    othersPersisted.countDown();
+                }
+            }
+        };
+        PersistencePipeline pipeline = new PersistencePipeline(batchDAO, 2);
+
+        List<List<TestPersistenceWorker>> groups = new ArrayList<>();
+        TestPersistenceWorker slowWorker = new TestPersistenceWorker("slow", othersPersisted);
+        slowWorker.in(new TestData("slow_0"));
+        groups.add(Collections.singletonList(slowWorker));
+        for (int i = 0; i < 3; i++) {
+            TestPersistenceWorker worker = new TestPersistenceWorker("fast_" + i, null);
+            for (int j = 0; j < 100; j++) {
+                worker.in(new TestData(worker.getModelName() + "_" + j));
+            }
+            groups.add(Collections.singletonList(worker));
+        }
+
+        pipeline.flush(groups);
+
+        Assert.assertTrue(slowWorker.notBlocked);
+        Assert.assertEquals(301, batchDAO.items.size());
+        Assert.assertEquals("slow_0", batchDAO.items.get(300));
+    }
+
+    private static class RecordingBatchDAO implements IBatchDAO {
+        final List<Object> items = Collections.synchronizedList(new ArrayList<>());
+
+        @Override public synchronized void batchPersistence(List<?> batchCollection) {
+            items.addAll(batchCollection);
+        }
+    }
+
+    private class TestPersistenceWorker extends PersistenceWorker<TestData, NonMergeDataCache<TestData>> {
+        private final String modelName;
+        private final CountDownLatch waitFor;
+        private final NonMergeDataCache<TestData> cache = new NonMergeDataCache<>();
+        private volatile boolean notBlocked;
+
+        TestPersistenceWorker(String modelName, CountDownLatch waitFor) {
+            super(moduleManager, 0, Integer.MAX_VALUE);
+            this.modelName = modelName;
+            this.waitFor = waitFor;
+        }
+
+        @Override public String getModelName() {
+            return modelName;
+        }
+
+        @Override public void cacheData(TestData input) {
+            cache.writing();
+            try {
+                cache.add(input);
+            } finally {
+                cache.finishWriting();
+            }
+        }
+
+        @Override public NonMergeDataCache<TestData> getCache() {
+            return cache;
+        }
+
+        @Override public List<Object> prepareBatch(NonMergeDataCache<TestData> cache) {
+            if (waitFor != null) {
+                try {
+                    notBlocked = waitFor.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<Object> batchCollection = new ArrayList<>();
+            cache.getLast().collection().forEach(data -> batchCollection.add(data.id()));
+            return batchCollection;
+        }
+    }
+
+    private static class TestData implements StorageData {
+        private final String id;
+
+        TestData(String id) {
+            this.id = id;
+        }
+
+        @Override public String id() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.ttl;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.cluster.*;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.junit.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class DataTTLKeeperTimerTestCase {
+
+    private final DataTTL dataTTL = new DataTTL(90, 90, 36, 45, 18);
+    private long currentTime;
+
+    @Before
+    public void before() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.NOVEMBER, 15, 10, 30, 45);
+        currentTime = calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void testTimeBucketBefore() {
+        DataTTLKeeperTimer timer = DataTTLKeeperTimer.INSTANCE;
+
+        Assert.assertEquals(20181115090045L, timer.timeBucketBefore(TimePyramid.Second, dataTTL, currentTime));
+        Assert.assertEquals(201811150900L, timer.timeBucketBefore(TimePyramid.Minute, dataTTL, currentTime));
+        Assert.assertEquals(2018111322L, timer.timeBucketBefore(TimePyramid.Hour, dataTTL, currentTime));
+        Assert.assertEquals(20181001L, timer.timeBucketBefore(TimePyramid.Day, dataTTL, currentTime));
+        Assert.assertEquals(201705L, timer.timeBucketBefore(TimePyramid.Month, dataTTL, currentTime));
+    }
+
+    @Test
+    public void testDeleteOnFirstNode() {
+        MockHistoryDeleteDAO historyDeleteDAO = new MockHistoryDeleteDAO();
+        ClusterNodesQuery clusterNodesQuery = () -> Arrays.asList(new RemoteInstance("10.0.0.2", 11800, false), new RemoteInstance("10.0.0.1", 11800, true));
+
+        DataTTLKeeperTimer.INSTANCE.delete(clusterNodesQuery, this::models, historyDeleteDAO, dataTTL, currentTime);
+
+        Assert.assertEquals(5, historyDeleteDAO.deleted.size());
+        Assert.assertEquals(201811150900L, historyDeleteDAO.deleted.get("service_resp_time").longValue());
+        Assert.assertEquals(2018111322L, historyDeleteDAO.deleted.get("service_resp_time_hour").longValue());
+        Assert.assertEquals(20181001L, historyDeleteDAO.deleted.get("service_resp_time_day").longValue());
+        Assert.assertEquals(201705L, historyDeleteDAO.deleted.get("service_resp_time_month").longValue());
+        Assert.assertEquals(20181115090045L, historyDeleteDAO.deleted.get("segment").longValue());
+        Assert.assertFalse(historyDeleteDAO.deleted.containsKey("service_inventory"));
+    }
+
+    @Test
+    public void testSkipOnOtherNodes() {
+        MockHistoryDeleteDAO historyDeleteDAO = new MockHistoryDeleteDAO();
+        ClusterNodesQuery clusterNodesQuery = () -> Arrays.asList(new RemoteInstance("10.0.0.2", 11800, true), new RemoteInstance("10.0.0.1", 11800, false));
+
+        DataTTLKeeperTimer.INSTANCE.delete(clusterNodesQuery, this::models, historyDeleteDAO, dataTTL, currentTime);
+        Assert.assertTrue(historyDeleteDAO.deleted.isEmpty());
+
+        DataTTLKeeperTimer.INSTANCE.delete(Collections::emptyList, this::models, historyDeleteDAO, dataTTL, currentTime);
+        Assert.assertTrue(historyDeleteDAO.deleted.isEmpty());
+    }
+
+    private List<Model> models() {
+        List<Model> models = new LinkedList<>();
+        models.add(new Model("service_resp_time", Collections.emptyList(), true, TimePyramid.Minute));
+        models.add(new Model("service_resp_time_hour", Collections.emptyList(), true, TimePyramid.Hour));
+        models.add(new Model("service_resp_time_day", Collections.emptyList(), true, TimePyramid.Day));
+        models.add(new Model("service_resp_time_month", Collections.emptyList(), true, TimePyramid.Month));
+        models.add(new Model("segment", Collections.emptyList(), true, TimePyramid.Second));
+        models.add(new Model("service_inventory", Collections.emptyList(), false, null));
+        return models;
+    }
+
+    private class MockHistoryDeleteDAO implements IHistoryDeleteDAO {
+        private final Map<String, Long> deleted = new HashMap<>();
+
+        @Override public void deleteHistory(String modelName, String timeBucketColumnName, Long timeBucketBefore) {
+            deleted.put(modelName, timeBucketBefore);
+        }
+    }
+}
@@ -31,6 +31,7 @@ class BufferFileUtils {
     static final String CHARSET = "UTF-8";
     static final String DATA_FILE_PREFIX = "data";
     static final String OFFSET_FILE_PREFIX = "offset";
+    static final String DEAD_LETTER_FILE_PREFIX = "dead_letter";
     private static final String SEPARATOR = "-";
     private static final String SUFFIX = ".sw";
 
@@ -20,7 +20,8 @@ package org.apache.skywalking.oap.server.library.buffer;
 
 import com.google.protobuf.*;
 import java.io.*;
-import java.nio.channels.FileLock;
+import java.nio.channels.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.*;
 
@@ -37,16 +38,24 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
     private final int offsetFileMaxSize;
     private final Parser<MESSAGE_TYPE> parser;
     private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
+    private final boolean memoryMapped;
     private DataStream<MESSAGE_TYPE> dataStream;
+    private SegmentedLog<MESSAGE_TYPE> segmentedLog;
+    private RetryScheduler<MESSAGE_TYPE> retryScheduler;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
 
     private BufferStream(String absolutePath, boolean cleanWhenRestart, int dataFileMaxSize, int offsetFileMaxSize,
-        Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack, boolean memoryMapped) {
         this.absolutePath = absolutePath;
         this.cleanWhenRestart = cleanWhenRestart;
         this.dataFileMaxSize = dataFileMaxSize;
         this.offsetFileMaxSize = offsetFileMaxSize;
         this.parser = parser;
         this.callBack = callBack;
+        this.memoryMapped = memoryMapped;
     }
 
     public synchronized void initialize() throws IOException {
@@ -54,7 +63,22 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         FileUtils.forceMkdir(directory);
         tryLock(directory);
 
-        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+        retryScheduler = new RetryScheduler<>(directory, callBack);
+        retryScheduler.start();
+
+        if (memoryMapped) {
+            int segmentSize = (int)Math.min(Integer.MAX_VALUE, (long)dataFileMaxSize * FileUtils.ONE_MB);
+            segmentedLog = new SegmentedLog<>(directory, segmentSize, parser, retryScheduler);
+
+            if (cleanWhenRestart) {
+                segmentedLog.clean();
+            }
+
+            segmentedLog.initialize();
+            return;
+        }
+
+        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, parser, retryScheduler);
 
         if (cleanWhenRestart) {
             dataStream.clean();
@@ -63,23 +87,79 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         dataStream.initialize();
     }
 
-    public synchronized void write(AbstractMessageLite messageLite) {
-        dataStream.getWriter().write(messageLite);
+    /**
+     * The data stream writer is synchronized by itself, the segmented log commits the concurrent writes in groups.
+     *
+     * @return false if the stream is closed, the message is not written.
+     */
+    public boolean write(AbstractMessageLite messageLite) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (segmentedLog != null) {
+                segmentedLog.append(messageLite);
+            } else {
+                dataStream.getWriter().write(messageLite);
+            }
+            return true;
+        } finally {
+            closeLock.readLock().unlock();
+        }
     }
 
-    private void tryLock(File directory) {
+    /**
+     * Stop reading and the retries, unmap the files and release the lock of the directory, so the directory can be
+     * buffered by another stream. The written but unread data is read again after the next initialization.
+     */
+    public synchronized void close() throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        if (segmentedLog != null) {
+            segmentedLog.close();
+            segmentedLog = null;
+        }
+        if (dataStream != null) {
+            dataStream.close();
+            dataStream = null;
+        }
+        if (retryScheduler != null) {
+            retryScheduler.stop();
+            retryScheduler = null;
+        }
+        if (lockChannel != null) {
+            try {
+                lock.release();
+                lockChannel.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            lockChannel = null;
+            lock = null;
+        }
+    }
+
+    private void tryLock(File directory) throws IOException {
         logger.info("Try to lock buffer directory, directory is: " + absolutePath);
-        FileLock lock = null;
+        FileChannel channel = new FileOutputStream(new File(directory, "lock")).getChannel();
 
         try {
-            lock = new FileOutputStream(new File(directory, "lock")).getChannel().tryLock();
-        } catch (IOException e) {
+            lock = channel.tryLock();
+        } catch (IOException | OverlappingFileLockException e) {
             logger.error(e.getMessage(), e);
         }
 
         if (lock == null) {
+            channel.close();
             throw new RuntimeException("The buffer directory is reading or writing by another thread, directory is: " + absolutePath);
         }
+        lockChannel = channel;
 
         logger.info("Lock buffer directory successfully, directory is: " + absolutePath);
     }
@@ -92,13 +172,14 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         private int offsetFileMaxSize;
         private Parser<MESSAGE_TYPE> parser;
         private DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
+        private boolean memoryMapped;
 
         public Builder(String absolutePath) {
             this.absolutePath = absolutePath;
         }
 
         public BufferStream<MESSAGE_TYPE> build() {
-            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, parser, callBack, memoryMapped);
         }
 
         public Builder<MESSAGE_TYPE> cleanWhenRestart(boolean cleanWhenRestart) {
@@ -125,5 +206,13 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
             this.callBack = callBack;
             return this;
         }
+
+        /**
+         * Buffer the data by the memory mapped segment files, the data file max size is the size of each segment.
+         */
+        public Builder<MESSAGE_TYPE> memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
     }
 }
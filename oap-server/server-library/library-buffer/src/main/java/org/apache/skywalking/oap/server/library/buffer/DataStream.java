@@ -39,11 +39,11 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
     private boolean initialized = false;
 
     DataStream(File directory, int dataFileMaxSize, int offsetFileMaxSize, Parser<MESSAGE_TYPE> parser,
-        DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        RetryScheduler<MESSAGE_TYPE> retryScheduler) {
         this.directory = directory;
         this.offsetStream = new OffsetStream(directory, offsetFileMaxSize);
         this.writer = new DataStreamWriter<>(directory, offsetStream.getOffset().getWriteOffset(), dataFileMaxSize);
-        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, callBack);
+        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, retryScheduler);
     }
 
     void clean() throws IOException {
@@ -69,4 +69,16 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
             initialized = true;
         }
     }
+
+    /**
+     * Stop reading and flush the offsets, the written but unread data is read again after the next initialization.
+     */
+    synchronized void close() throws InterruptedException {
+        if (initialized) {
+            reader.close();
+            writer.close();
+            offsetStream.close();
+            initialized = false;
+        }
+    }
 }
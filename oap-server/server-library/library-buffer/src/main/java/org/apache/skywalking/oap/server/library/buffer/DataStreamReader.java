@@ -36,22 +36,24 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
     private final File directory;
     private final Offset.ReadOffset readOffset;
     private final Parser<MESSAGE_TYPE> parser;
-    private final CallBack<MESSAGE_TYPE> callBack;
+    private final RetryScheduler<MESSAGE_TYPE> retryScheduler;
     private File readingFile;
     private InputStream inputStream;
+    private ScheduledExecutorService readExecutor;
 
     DataStreamReader(File directory, Offset.ReadOffset readOffset, Parser<MESSAGE_TYPE> parser,
-        CallBack<MESSAGE_TYPE> callBack) {
+        RetryScheduler<MESSAGE_TYPE> retryScheduler) {
         this.directory = directory;
         this.readOffset = readOffset;
         this.parser = parser;
-        this.callBack = callBack;
+        this.retryScheduler = retryScheduler;
     }
 
     void initialize() {
         preRead();
 
-        Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
+        readExecutor = Executors.newSingleThreadScheduledExecutor();
+        readExecutor.scheduleWithFixedDelay(
             new RunnableWithExceptionProtection(this::read,
                 t -> logger.error("Buffer data pre read failure.", t)), 3, 1, TimeUnit.SECONDS);
     }
@@ -112,19 +114,7 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
 
                 MESSAGE_TYPE messageType = parser.parseDelimitedFrom(inputStream);
                 if (messageType != null) {
-                    int i = 0;
-                    while (!callBack.call(messageType)) {
-                        try {
-                            TimeUnit.MILLISECONDS.sleep(500);
-                        } catch (InterruptedException e) {
-                            logger.error(e.getMessage());
-                        }
-
-                        i++;
-                        if (i == 10) {
-                            break;
-                        }
-                    }
+                    retryScheduler.deliver(messageType);
                     final int serialized = messageType.getSerializedSize();
                     final int offset = CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
                     readOffset.setOffset(readOffset.getOffset() + offset);
@@ -135,6 +125,18 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
     }
 
+    void close() throws InterruptedException {
+        readExecutor.shutdown();
+        readExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
     public interface CallBack<MESSAGE_TYPE extends GeneratedMessageV3> {
         boolean call(MESSAGE_TYPE message);
     }
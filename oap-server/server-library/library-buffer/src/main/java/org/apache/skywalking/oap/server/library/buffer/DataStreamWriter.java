@@ -94,4 +94,15 @@ class DataStreamWriter<MESSAGE_TYPE extends GeneratedMessageV3> {
             logger.error(e.getMessage(), e);
         }
     }
+
+    synchronized void close() {
+        if (initialized) {
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            initialized = false;
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import org.slf4j.*;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * A fixed size file of the {@link SegmentedLog}, mapped into memory. Every record is written as a 4 bytes length, a 4
+ * bytes CRC32 of the data and the data. The length is written last, so a record torn by a crash is either empty or
+ * fails the CRC check, and the recovery stops in front of it.
+ *
+ * @author peng-yongsheng
+ */
+class LogSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSegment.class);
+
+    static final int HEADER_SIZE = 8;
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".log";
+
+    @Getter private final long sequence;
+    @Getter private final File file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private volatile int committedPosition;
+
+    private LogSegment(File file, long sequence, int size) throws IOException {
+        this.file = file;
+        this.sequence = sequence;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            this.capacity = (int)Math.max(randomAccessFile.length(), size);
+            this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    static LogSegment create(File directory, long sequence, int size) throws IOException {
+        File file = new File(directory, String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX));
+        logger.info("Create a new buffer log segment: {}", file.getAbsolutePath());
+        return new LogSegment(file, sequence, size);
+    }
+
+    static LogSegment open(File file, int size) throws IOException {
+        String name = file.getName();
+        long sequence = Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        LogSegment segment = new LogSegment(file, sequence, size);
+        segment.recover();
+        return segment;
+    }
+
+    static boolean isSegmentFile(String fileName) {
+        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+    }
+
+    /**
+     * Scan the records from the beginning, the first empty, incomplete or broken record is the end of the segment. The
+     * header of the broken record is cleared, so the stale bytes won't be taken as a record after the next append.
+     */
+    private void recover() {
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - HEADER_SIZE || buffer.getInt(position + 4) != crc(position + HEADER_SIZE, length)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+
+        if (position + HEADER_SIZE <= capacity && buffer.getInt(position) != 0) {
+            logger.warn("Truncate the broken record at position {} of buffer log segment {}", position, file.getName());
+            buffer.putInt(position, 0);
+            buffer.putInt(position + 4, 0);
+        }
+        committedPosition = position;
+    }
+
+    /**
+     * Only called by the append thread.
+     *
+     * @return false when the segment has no room for the data.
+     */
+    boolean append(byte[] data) {
+        int position = committedPosition;
+        if (data.length > capacity - position - HEADER_SIZE) {
+            return false;
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + HEADER_SIZE);
+        view.put(data);
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        buffer.putInt(position + 4, (int)crc32.getValue());
+        buffer.putInt(position, data.length);
+
+        committedPosition = position + HEADER_SIZE + data.length;
+        return true;
+    }
+
+    /**
+     * @return the data of the record at the position, null when no record is appended there yet.
+     */
+    byte[] read(int position) {
+        if (position >= committedPosition) {
+            return null;
+        }
+
+        byte[] data = new byte[buffer.getInt(position)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + HEADER_SIZE);
+        view.get(data);
+        return data;
+    }
+
+    int committedPosition() {
+        return committedPosition;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Flush and unmap the segment, it can't be read or appended any more.
+     */
+    void close() {
+        buffer.force();
+        if (buffer instanceof DirectBuffer) {
+            Cleaner cleaner = ((DirectBuffer)buffer).cleaner();
+            if (cleaner != null) {
+                cleaner.clean();
+            }
+        }
+    }
+
+    void delete() {
+        logger.info("Delete the consumed buffer log segment: {}", file.getAbsolutePath());
+        if (!file.delete()) {
+            logger.warn("Buffer log segment {} delete failure.", file.getAbsolutePath());
+        }
+    }
+
+    private int crc(int position, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(view);
+        return (int)crc32.getValue();
+    }
+}
@@ -42,6 +42,7 @@ class OffsetStream {
     private File offsetFile;
     private boolean initialized = false;
     private String lastOffsetRecord = "";
+    private ScheduledExecutorService flushExecutor;
 
     OffsetStream(File directory, int offsetFileMaxSize) {
         this.directory = directory;
@@ -74,7 +75,8 @@ class OffsetStream {
             offset.deserialize(readLastLine());
             initialized = true;
 
-            Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
+            flushExecutor = Executors.newSingleThreadScheduledExecutor();
+            flushExecutor.scheduleAtFixedRate(
                 new RunnableWithExceptionProtection(this::flush,
                     t -> logger.error("Flush offset file in background failure.", t)
                 ), 2, 1, TimeUnit.SECONDS);
@@ -101,6 +103,18 @@ class OffsetStream {
         }
     }
 
+    /**
+     * Stop the background flush and flush the last offset.
+     */
+    synchronized void close() throws InterruptedException {
+        if (initialized) {
+            flushExecutor.shutdown();
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+            initialized = false;
+        }
+    }
+
     private void nextFile() throws IOException {
         File newOffsetFile = newFile();
         if (!offsetFile.delete()) {
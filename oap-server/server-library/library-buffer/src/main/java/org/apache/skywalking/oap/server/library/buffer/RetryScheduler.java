@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.GeneratedMessageV3;
+import java.io.*;
+import java.util.concurrent.*;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.*;
+
+/**
+ * Retry the messages which the call back refuses, without blocking the buffer reader. A refused message waits in a
+ * delay queue with exponential backoff, and goes to the dead letter file after the attempts run out, or when too many
+ * messages are waiting already.
+ *
+ * @author peng-yongsheng
+ */
+class RetryScheduler<MESSAGE_TYPE extends GeneratedMessageV3> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    static final int DEFAULT_MAX_ATTEMPTS = 10;
+    static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 30000;
+    static final int DEFAULT_MAX_PENDING = 10000;
+
+    private final File directory;
+    private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final DelayQueue<RetryRecord<MESSAGE_TYPE>> delayQueue = new DelayQueue<>();
+    private volatile boolean running;
+    private Thread retryThread;
+    private OutputStream deadLetterStream;
+
+    RetryScheduler(File directory, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        this(directory, callBack, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    RetryScheduler(File directory, DataStreamReader.CallBack<MESSAGE_TYPE> callBack, int maxAttempts,
+        long baseDelayMillis, long maxDelayMillis, int maxPending) {
+        this.directory = directory;
+        this.callBack = callBack;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPending = maxPending;
+    }
+
+    synchronized void start() {
+        if (!running) {
+            running = true;
+            retryThread = new Thread(this::retry, "BufferRetry-" + directory.getName());
+            retryThread.setDaemon(true);
+            retryThread.start();
+        }
+    }
+
+    /**
+     * Called by the buffer reader, returns at once whether the call back accepts the message or not.
+     */
+    void deliver(MESSAGE_TYPE message) {
+        if (!callBack.call(message)) {
+            schedule(new RetryRecord<>(message), 1);
+        }
+    }
+
+    private void schedule(RetryRecord<MESSAGE_TYPE> record, int attempts) {
+        if (attempts >= maxAttempts) {
+            logger.warn("The buffer message is refused {} times, move it to the dead letter file.", attempts);
+            deadLetter(record.message);
+        } else if (delayQueue.size() >= maxPending) {
+            logger.warn("More than {} buffer messages are waiting for retry, move it to the dead letter file.", maxPending);
+            deadLetter(record.message);
+        } else {
+            long delay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempts - 1, 30));
+            delayQueue.offer(record.next(attempts, System.currentTimeMillis() + delay));
+        }
+    }
+
+    private void retry() {
+        while (running) {
+            try {
+                RetryRecord<MESSAGE_TYPE> record = delayQueue.poll(1, TimeUnit.SECONDS);
+                if (record != null && !callBack.call(record.message)) {
+                    schedule(record, record.attempts + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                logger.error("Buffer message retry failure.", t);
+            }
+        }
+    }
+
+    private synchronized void deadLetter(MESSAGE_TYPE message) {
+        try {
+            if (deadLetterStream == null) {
+                File deadLetterFile = new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.DEAD_LETTER_FILE_PREFIX));
+                logger.info("Create a new buffer dead letter file: {}", deadLetterFile.getAbsolutePath());
+                deadLetterStream = FileUtils.openOutputStream(deadLetterFile, true);
+            }
+            message.writeDelimitedTo(deadLetterStream);
+            deadLetterStream.flush();
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    int pendingCount() {
+        return delayQueue.size();
+    }
+
+    /**
+     * The messages still waiting are dropped, same as the pending messages of the reader.
+     */
+    synchronized void stop() throws InterruptedException {
+        if (running) {
+            running = false;
+            retryThread.interrupt();
+            retryThread.join();
+        }
+        if (deadLetterStream != null) {
+            try {
+                deadLetterStream.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            deadLetterStream = null;
+        }
+    }
+
+    private static class RetryRecord<MESSAGE_TYPE> implements Delayed {
+        private final MESSAGE_TYPE message;
+        private final int attempts;
+        private final long retryTime;
+
+        private RetryRecord(MESSAGE_TYPE message) {
+            this(message, 0, 0);
+        }
+
+        private RetryRecord(MESSAGE_TYPE message, int attempts, long retryTime) {
+            this.message = message;
+            this.attempts = attempts;
+            this.retryTime = retryTime;
+        }
+
+        private RetryRecord<MESSAGE_TYPE> next(int attempts, long retryTime) {
+            return new RetryRecord<>(message, attempts, retryTime);
+        }
+
+        @Override public long getDelay(TimeUnit unit) {
+            return unit.convert(retryTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override public int compareTo(Delayed other) {
+            return Long.compare(retryTime, ((RetryRecord)other).retryTime);
+        }
+    }
+}
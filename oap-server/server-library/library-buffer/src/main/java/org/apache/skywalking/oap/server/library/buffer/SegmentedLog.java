@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.zip.CRC32;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.slf4j.*;
+
+/**
+ * A log made of fixed size memory mapped {@link LogSegment}s, an alternative of the {@link DataStream}.
+ *
+ * <p>The producers only put the serialized data into a pending queue, whoever gets the append lock writes all the
+ * pending records in one go and wakes the reader up once, so the concurrent producers share the lock and the signal.
+ * The reader consumes the records by a dedicated thread, deletes the segments which are read out, and the read position
+ * is checkpointed every second by a binary file, which is written aside and moved over the old one atomically.
+ *
+ * @author peng-yongsheng
+ */
+class SegmentedLog<MESSAGE_TYPE extends GeneratedMessageV3> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedLog.class);
+
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+    private static final String CHECKPOINT_TEMP_FILE_NAME = "checkpoint.tmp";
+
+    private final File directory;
+    private final int segmentSize;
+    private final Parser<MESSAGE_TYPE> parser;
+    private final RetryScheduler<MESSAGE_TYPE> retryScheduler;
+    private final ConcurrentNavigableMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+    private final ConcurrentLinkedQueue<byte[]> pendingRecords = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final Condition appended = readLock.newCondition();
+    private volatile LogSegment writingSegment;
+    private volatile ReadPosition readPosition;
+    private volatile boolean running;
+    private Thread readThread;
+    private ScheduledExecutorService checkpointExecutor;
+
+    SegmentedLog(File directory, int segmentSize, Parser<MESSAGE_TYPE> parser,
+        RetryScheduler<MESSAGE_TYPE> retryScheduler) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.parser = parser;
+        this.retryScheduler = retryScheduler;
+    }
+
+    void clean() {
+        String[] fileNames = directory.list((dir, name) -> LogSegment.isSegmentFile(name) || name.startsWith(CHECKPOINT_FILE_NAME));
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                File file = new File(directory, fileName);
+                if (!file.delete()) {
+                    logger.warn("Buffer file {} delete failure.", file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    void initialize() throws IOException {
+        String[] fileNames = directory.list((dir, name) -> LogSegment.isSegmentFile(name));
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                LogSegment segment = LogSegment.open(new File(directory, fileName), segmentSize);
+                segments.put(segment.getSequence(), segment);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            LogSegment segment = LogSegment.create(directory, 0, segmentSize);
+            segments.put(segment.getSequence(), segment);
+        }
+        writingSegment = segments.lastEntry().getValue();
+        readPosition = loadCheckpoint();
+
+        for (Long sequence : segments.headMap(readPosition.sequence).keySet()) {
+            LogSegment segment = segments.remove(sequence);
+            segment.close();
+            segment.delete();
+        }
+
+        running = true;
+        readThread = new Thread(this::consume, "BufferLogReader-" + directory.getName());
+        readThread.setDaemon(true);
+        readThread.start();
+
+        checkpointExecutor = Executors.newSingleThreadScheduledExecutor();
+        checkpointExecutor.scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(this::checkpoint,
+                t -> logger.error("Buffer log checkpoint failure.", t)), 1, 1, TimeUnit.SECONDS);
+    }
+
+    void append(AbstractMessageLite messageLite) {
+        byte[] data = messageLite.toByteArray();
+        if (data.length > segmentSize - LogSegment.HEADER_SIZE) {
+            logger.error("The message of {} bytes is larger than the buffer log segment, discard it.", data.length);
+            return;
+        }
+        pendingRecords.offer(data);
+
+        /*
+         * The lock holder drains the records of the other producers as well. Check the queue again after unlock,
+         * otherwise a record offered while the holder is leaving would wait for the next append.
+         */
+        do {
+            if (!appendLock.tryLock()) {
+                return;
+            }
+            try {
+                drain();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            } finally {
+                appendLock.unlock();
+            }
+        }
+        while (!pendingRecords.isEmpty());
+    }
+
+    private void drain() throws IOException {
+        int count = 0;
+        byte[] data;
+        while ((data = pendingRecords.poll()) != null) {
+            if (!writingSegment.append(data)) {
+                LogSegment segment = LogSegment.create(directory, writingSegment.getSequence() + 1, segmentSize);
+                segments.put(segment.getSequence(), segment);
+                writingSegment = segment;
+                writingSegment.append(data);
+            }
+            count++;
+        }
+
+        if (count > 0) {
+            readLock.lock();
+            try {
+                appended.signal();
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                ReadPosition position = readPosition;
+                LogSegment segment = segments.get(position.sequence);
+
+                byte[] data = segment.read(position.position);
+                if (data != null) {
+                    deliver(data);
+                    readPosition = new ReadPosition(position.sequence, position.position + LogSegment.HEADER_SIZE + data.length);
+                } else if (segment != writingSegment) {
+                    /*
+                     * The segment may be filled up and rolled between the read above and the check of the writing
+                     * segment, the records appended in between are read before moving on. A rolled segment is never
+                     * appended again, so the committed position checked after the roll is final.
+                     */
+                    if (segment.committedPosition() > position.position) {
+                        continue;
+                    }
+                    readPosition = new ReadPosition(segments.higherKey(position.sequence), 0);
+                    segments.remove(position.sequence);
+                    segment.close();
+                    segment.delete();
+                } else {
+                    awaitAppended(segment, position);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                logger.error("Buffer log read failure.", t);
+            }
+        }
+    }
+
+    private void awaitAppended(LogSegment segment, ReadPosition position) throws InterruptedException {
+        readLock.lock();
+        try {
+            if (running && segment == writingSegment && segment.committedPosition() <= position.position) {
+                appended.await(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void deliver(byte[] data) {
+        try {
+            retryScheduler.deliver(parser.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void checkpoint() {
+        ReadPosition position = readPosition;
+        writingSegment.force();
+
+        Path tempFile = new File(directory, CHECKPOINT_TEMP_FILE_NAME).toPath();
+        try {
+            try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                output.writeLong(position.sequence);
+                output.writeInt(position.position);
+                output.writeInt(checkpointCrc(position.sequence, position.position));
+            }
+            Files.move(tempFile, new File(directory, CHECKPOINT_FILE_NAME).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The checkpoint may point to a deleted segment when the process stops between the deletion and the next
+     * checkpoint, the earliest segment left is the one to read in this case.
+     */
+    private ReadPosition loadCheckpoint() throws IOException {
+        Map.Entry<Long, LogSegment> earliest = segments.firstEntry();
+        ReadPosition defaultPosition = new ReadPosition(earliest.getKey(), 0);
+
+        File checkpointFile = new File(directory, CHECKPOINT_FILE_NAME);
+        if (!checkpointFile.exists()) {
+            return defaultPosition;
+        }
+
+        long sequence;
+        int position;
+        int crc;
+        try (DataInputStream input = new DataInputStream(new FileInputStream(checkpointFile))) {
+            sequence = input.readLong();
+            position = input.readInt();
+            crc = input.readInt();
+        } catch (EOFException e) {
+            logger.warn("Buffer log checkpoint is incomplete, read from the earliest segment.");
+            return defaultPosition;
+        }
+
+        if (checkpointCrc(sequence, position) != crc) {
+            logger.warn("Buffer log checkpoint is broken, read from the earliest segment.");
+            return defaultPosition;
+        }
+
+        LogSegment segment = segments.get(sequence);
+        if (segment == null) {
+            return defaultPosition;
+        }
+        return new ReadPosition(sequence, Math.min(position, segment.committedPosition()));
+    }
+
+    private static int checkpointCrc(long sequence, int position) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(ByteBuffer.allocate(12).putLong(sequence).putInt(position).array());
+        return (int)crc32.getValue();
+    }
+
+    /**
+     * Stop reading and save the read position, the appended but unread records are read again after the next
+     * initialization.
+     */
+    void close() throws InterruptedException {
+        running = false;
+        checkpointExecutor.shutdown();
+        checkpointExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        readLock.lock();
+        try {
+            appended.signal();
+        } finally {
+            readLock.unlock();
+        }
+        readThread.join();
+        checkpoint();
+        segments.values().forEach(LogSegment::close);
+    }
+
+    private static class ReadPosition {
+        private final long sequence;
+        private final int position;
+
+        private ReadPosition(long sequence, int position) {
+            this.sequence = sequence;
+            this.position = position;
+        }
+    }
+}
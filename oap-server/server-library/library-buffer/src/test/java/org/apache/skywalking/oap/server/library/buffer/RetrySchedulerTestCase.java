@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RetrySchedulerTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRetryUntilAccepted() throws Exception {
+        File directory = folder.newFolder();
+        FailingCallBack callBack = new FailingCallBack(3);
+        RetryScheduler<TraceSegmentObject> retryScheduler = new RetryScheduler<>(directory, callBack, 5, 10, 100, 100);
+        retryScheduler.start();
+
+        retryScheduler.deliver(segment(1));
+        retryScheduler.deliver(segment(2));
+
+        // The refused message doesn't block the one behind it.
+        Assert.assertEquals(Collections.singletonList(2), callBack.accepted);
+        Assert.assertEquals(1, retryScheduler.pendingCount());
+
+        callBack.await(2);
+        Assert.assertEquals(Arrays.asList(2, 1), callBack.accepted);
+        Assert.assertEquals(4, callBack.attempts(1));
+        Assert.assertEquals(0, retryScheduler.pendingCount());
+        retryScheduler.stop();
+
+        Assert.assertEquals(0, deadLetterFiles(directory).length);
+    }
+
+    @Test
+    public void testDeadLetterAfterAttemptsRunOut() throws Exception {
+        File directory = folder.newFolder();
+        FailingCallBack callBack = new FailingCallBack(Integer.MAX_VALUE);
+        RetryScheduler<TraceSegmentObject> retryScheduler = new RetryScheduler<>(directory, callBack, 3, 10, 100, 100);
+        retryScheduler.start();
+
+        retryScheduler.deliver(segment(1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (deadLetterFiles(directory).length == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        retryScheduler.stop();
+
+        Assert.assertEquals(3, callBack.attempts(1));
+        Assert.assertEquals(0, retryScheduler.pendingCount());
+
+        File[] deadLetterFiles = deadLetterFiles(directory);
+        Assert.assertEquals(1, deadLetterFiles.length);
+        try (InputStream input = new FileInputStream(deadLetterFiles[0])) {
+            Assert.assertEquals(1, TraceSegmentObject.parseDelimitedFrom(input).getSpans(0).getSpanId());
+            Assert.assertNull(TraceSegmentObject.parseDelimitedFrom(input));
+        }
+    }
+
+    @Test
+    public void testDeadLetterWhenTooManyPending() throws Exception {
+        File directory = folder.newFolder();
+        FailingCallBack callBack = new FailingCallBack(Integer.MAX_VALUE);
+        RetryScheduler<TraceSegmentObject> retryScheduler = new RetryScheduler<>(directory, callBack, 3, 60000, 60000, 2);
+
+        for (int i = 0; i < 5; i++) {
+            retryScheduler.deliver(segment(1));
+        }
+        Assert.assertEquals(2, retryScheduler.pendingCount());
+        retryScheduler.stop();
+
+        int deadLetters = 0;
+        try (InputStream input = new FileInputStream(deadLetterFiles(directory)[0])) {
+            while (TraceSegmentObject.parseDelimitedFrom(input) != null) {
+                deadLetters++;
+            }
+        }
+        Assert.assertEquals(3, deadLetters);
+    }
+
+    private static File[] deadLetterFiles(File directory) {
+        return directory.listFiles((dir, name) -> name.startsWith(BufferFileUtils.DEAD_LETTER_FILE_PREFIX));
+    }
+
+    private static TraceSegmentObject segment(int spanId) {
+        return TraceSegmentObject.newBuilder().addSpans(SpanObject.newBuilder().setSpanId(spanId)).build();
+    }
+
+    /**
+     * Refuses the message of span id 1 for the given times, accepts the others at once.
+     */
+    private static class FailingCallBack implements DataStreamReader.CallBack<TraceSegmentObject> {
+
+        private final int failures;
+        private final Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final List<Integer> accepted = new CopyOnWriteArrayList<>();
+
+        private FailingCallBack(int failures) {
+            this.failures = failures;
+        }
+
+        @Override public boolean call(TraceSegmentObject message) {
+            int spanId = message.getSpans(0).getSpanId();
+            int attempt = attempts.computeIfAbsent(spanId, id -> new AtomicInteger()).incrementAndGet();
+            if (spanId == 1 && attempt <= failures) {
+                return false;
+            }
+            accepted.add(spanId);
+            return true;
+        }
+
+        private int attempts(int spanId) {
+            return attempts.get(spanId).get();
+        }
+
+        private void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (accepted.size() < count && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+    }
+}
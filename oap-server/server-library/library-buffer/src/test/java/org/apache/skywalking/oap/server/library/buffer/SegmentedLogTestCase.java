@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class SegmentedLogTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedLogTestCase.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecoverTruncatedLastRecord() throws Exception {
+        File directory = folder.newFolder();
+        CollectCallBack callBack = new CollectCallBack();
+
+        SegmentedLog<TraceSegmentObject> log = new SegmentedLog<>(directory, 64 * 1024, TraceSegmentObject.parser(), retryScheduler(directory, callBack));
+        log.initialize();
+        int end = 0;
+        for (int i = 0; i < 3; i++) {
+            TraceSegmentObject segment = segment(i, 10);
+            log.append(segment);
+            end += LogSegment.HEADER_SIZE + segment.getSerializedSize();
+        }
+        callBack.await(3);
+        log.close();
+
+        // The process crashes in the middle of an append, before the read position is checkpointed.
+        Assert.assertTrue(new File(directory, "checkpoint").delete());
+        File segmentFile = directory.listFiles((dir, name) -> LogSegment.isSegmentFile(name))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(end);
+            file.writeInt(100);
+            file.writeInt(12345);
+            file.write(new byte[10]);
+        }
+
+        callBack = new CollectCallBack();
+        log = new SegmentedLog<>(directory, 64 * 1024, TraceSegmentObject.parser(), retryScheduler(directory, callBack));
+        log.initialize();
+        log.append(segment(3, 10));
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), callBack.await(4));
+        TimeUnit.MILLISECONDS.sleep(200);
+        Assert.assertEquals(4, callBack.spanIds.size());
+        log.close();
+
+        // The recovered records are not delivered again after a clean restart.
+        callBack = new CollectCallBack();
+        log = new SegmentedLog<>(directory, 64 * 1024, TraceSegmentObject.parser(), retryScheduler(directory, callBack));
+        log.initialize();
+        log.append(segment(4, 10));
+        Assert.assertEquals(Collections.singletonList(4), callBack.await(1));
+        log.close();
+    }
+
+    @Test
+    public void testSegmentRollAndDelete() throws Exception {
+        File directory = folder.newFolder();
+        CountDownLatch gate = new CountDownLatch(1);
+        CollectCallBack callBack = new CollectCallBack() {
+            @Override public boolean call(TraceSegmentObject message) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.call(message);
+            }
+        };
+
+        SegmentedLog<TraceSegmentObject> log = new SegmentedLog<>(directory, 1024, TraceSegmentObject.parser(), retryScheduler(directory, callBack));
+        log.initialize();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            log.append(segment(i, 5));
+            expected.add(i);
+        }
+        Assert.assertTrue(segmentFiles(directory) > 1);
+
+        gate.countDown();
+        Assert.assertEquals(expected, callBack.await(100));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (segmentFiles(directory) > 1 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        Assert.assertEquals(1, segmentFiles(directory));
+        log.close();
+    }
+
+    /**
+     * The reader keeps waiting at the end of the writing segment, while every second append fills the segment up and
+     * the next one rolls to a new segment. The records appended between the reader seeing the end and the roll must be
+     * read before the segment is deleted.
+     */
+    @Test(timeout = 60000)
+    public void testRollWhileReaderWaitsAtEnd() throws Exception {
+        File directory = folder.newFolder();
+        CollectCallBack callBack = new CollectCallBack();
+        int recordSize = LogSegment.HEADER_SIZE + segment(1, 1).getSerializedSize();
+
+        SegmentedLog<TraceSegmentObject> log = new SegmentedLog<>(directory, recordSize * 2, TraceSegmentObject.parser(), retryScheduler(directory, callBack));
+        log.initialize();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            log.append(segment(i % 100 + 1, 1));
+            expected.add(i % 100 + 1);
+        }
+
+        Assert.assertEquals(expected, callBack.await(expected.size()));
+        log.close();
+    }
+
+    /**
+     * A closed stream releases the lock of the directory, another stream opens it in the same process.
+     */
+    @Test(timeout = 60000)
+    public void testCloseAndReopenDirectory() throws Exception {
+        String directory = folder.newFolder().getAbsolutePath();
+        CollectCallBack callBack = new CollectCallBack();
+        BufferStream<TraceSegmentObject> stream = memoryMappedStream(directory, callBack);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(stream.write(segment(i, 10)));
+        }
+        callBack.await(3);
+        stream.close();
+        Assert.assertFalse(stream.write(segment(3, 10)));
+
+        callBack = new CollectCallBack();
+        stream = memoryMappedStream(directory, callBack);
+        Assert.assertTrue(stream.write(segment(4, 10)));
+        Assert.assertEquals(Collections.singletonList(4), callBack.await(1));
+        stream.close();
+    }
+
+    /**
+     * Not a strict benchmark, only to compare the concurrent producers writing through the memory mapped segmented log
+     * and through the data stream, from the first write until every message is read back.
+     */
+    @Test(timeout = 120000)
+    public void testThroughputAgainstDataStream() throws Exception {
+        int producers = 4;
+        int messages = 5000;
+
+        long dataStreamCost = Long.MAX_VALUE;
+        long segmentedLogCost = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            dataStreamCost = Math.min(dataStreamCost, throughput(false, producers, messages));
+            segmentedLogCost = Math.min(segmentedLogCost, throughput(true, producers, messages));
+        }
+        logger.info("{} messages from {} producers, data stream cost: {}ms, memory mapped segmented log cost: {}ms",
+            producers * messages, producers, dataStreamCost, segmentedLogCost);
+        Assert.assertTrue("the segmented log is expected to be no slower than the data stream",
+            segmentedLogCost <= dataStreamCost * 2 + 100);
+    }
+
+    private long throughput(boolean memoryMapped, int producers, int messages) throws Exception {
+        CollectCallBack callBack = new CollectCallBack();
+        BufferStream.Builder<TraceSegmentObject> builder = new BufferStream.Builder<>(folder.newFolder().getAbsolutePath());
+        builder.dataFileMaxSize(50);
+        builder.offsetFileMaxSize(10);
+        builder.parser(TraceSegmentObject.parser());
+        builder.callBack(callBack);
+        builder.memoryMapped(memoryMapped);
+
+        BufferStream<TraceSegmentObject> stream = builder.build();
+        stream.initialize();
+
+        long startTime = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.submit(() -> {
+                for (int i = 0; i < messages; i++) {
+                    stream.write(segment(i, 100));
+                }
+            });
+        }
+        executor.shutdown();
+
+        callBack.await(producers * messages);
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        stream.close();
+        return cost;
+    }
+
+    private static BufferStream<TraceSegmentObject> memoryMappedStream(String directory,
+        CollectCallBack callBack) throws IOException {
+        BufferStream.Builder<TraceSegmentObject> builder = new BufferStream.Builder<>(directory);
+        builder.dataFileMaxSize(1);
+        builder.parser(TraceSegmentObject.parser());
+        builder.callBack(callBack);
+        builder.memoryMapped(true);
+
+        BufferStream<TraceSegmentObject> stream = builder.build();
+        stream.initialize();
+        return stream;
+    }
+
+    private static RetryScheduler<TraceSegmentObject> retryScheduler(File directory, CollectCallBack callBack) {
+        RetryScheduler<TraceSegmentObject> retryScheduler = new RetryScheduler<>(directory, callBack);
+        retryScheduler.start();
+        return retryScheduler;
+    }
+
+    private static int segmentFiles(File directory) {
+        return directory.list((dir, name) -> LogSegment.isSegmentFile(name)).length;
+    }
+
+    private static TraceSegmentObject segment(int spanId, int operationNameRepeat) {
+        StringBuilder operationName = new StringBuilder();
+        for (int i = 0; i < operationNameRepeat; i++) {
+            operationName.append("/segmented/log/operation");
+        }
+
+        SpanObject.Builder span = SpanObject.newBuilder();
+        span.setSpanId(spanId);
+        span.setOperationName(operationName.toString());
+        return TraceSegmentObject.newBuilder().addSpans(span).build();
+    }
+
+    private static class CollectCallBack implements DataStreamReader.CallBack<TraceSegmentObject> {
+
+        private final List<Integer> spanIds = new CopyOnWriteArrayList<>();
+
+        @Override public boolean call(TraceSegmentObject message) {
+            spanIds.add(message.getSpans(0).getSpanId());
+            return true;
+        }
+
+        private List<Integer> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 30000;
+            while (spanIds.size() < count && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            Assert.assertEquals(count, spanIds.size());
+            return new ArrayList<>(spanIds);
+        }
+    }
+}
@@ -33,12 +33,13 @@ import org.elasticsearch.action.bulk.*;
 import org.elasticsearch.action.get.*;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.*;
-import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.support.*;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.*;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.*;
-import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.*;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.slf4j.*;
 
@@ -114,6 +115,73 @@ public class ElasticSearchClient implements Client {
         return client.indices().exists(request);
     }
 
+    /**
+     * Create an index template, the indices named by the given index name with a suffix are created by this template
+     * automatically at the first write, and all of them join the alias of the given index name.
+     */
+    public boolean createTemplate(String indexName, Settings settings, XContentBuilder mappingBuilder) throws IOException {
+        indexName = formatIndexName(indexName);
+
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+            .array("index_patterns", indexName + "-*")
+            .startObject("aliases")
+            .startObject(indexName).endObject()
+            .endObject()
+            .startObject("settings");
+        for (String key : settings.keySet()) {
+            builder.field(key, settings.get(key));
+        }
+        builder.endObject()
+            .startObject("mappings")
+            .field(TYPE, XContentHelper.convertToMap(XContentType.JSON.xContent(), Strings.toString(mappingBuilder), false))
+            .endObject()
+            .endObject();
+
+        HttpEntity entity = new NStringEntity(Strings.toString(builder), ContentType.APPLICATION_JSON);
+        Response response = client.getLowLevelClient().performRequest("PUT", "/_template/" + indexName, Collections.emptyMap(), entity);
+        logger.info("create {} template finished, status code: {}", indexName, response.getStatusLine().getStatusCode());
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    }
+
+    public boolean deleteTemplate(String indexName) throws IOException {
+        indexName = formatIndexName(indexName);
+        Response response = client.getLowLevelClient().performRequest("DELETE", "/_template/" + indexName);
+        logger.info("delete {} template finished, status code: {}", indexName, response.getStatusLine().getStatusCode());
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    }
+
+    public boolean isExistsTemplate(String indexName) throws IOException {
+        indexName = formatIndexName(indexName);
+        Response response = client.getLowLevelClient().performRequest("HEAD", "/_template/" + indexName);
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    }
+
+    /**
+     * @return the names of the indices which joined the given alias, without the namespace.
+     */
+    public List<String> retrievalIndexByAliases(String aliases) throws IOException {
+        aliases = formatIndexName(aliases);
+        Response response;
+        try {
+            response = client.getLowLevelClient().performRequest("GET", "/_alias/" + aliases);
+        } catch (ResponseException e) {
+            if (e.getResponse().getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                return Collections.emptyList();
+            }
+            throw e;
+        }
+
+        Map<String, Object> indices = XContentHelper.convertToMap(XContentType.JSON.xContent(), response.getEntity().getContent(), false);
+        List<String> indexNames = new ArrayList<>(indices.size());
+        indices.keySet().forEach(indexName -> {
+            if (Objects.nonNull(namespace) && StringUtils.isNotEmpty(namespace.getNameSpace())) {
+                indexName = indexName.substring(namespace.getNameSpace().length() + 1);
+            }
+            indexNames.add(indexName);
+        });
+        return indexNames;
+    }
+
     public SearchResponse search(String indexName, SearchSourceBuilder searchSourceBuilder) throws IOException {
         indexName = formatIndexName(indexName);
         SearchRequest searchRequest = new SearchRequest(indexName);
@@ -122,6 +190,21 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Search the given indices, the indices which don't exist are ignored.
+     */
+    public SearchResponse search(List<String> indexNames, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        String[] formattedIndexNames = new String[indexNames.size()];
+        for (int i = 0; i < indexNames.size(); i++) {
+            formattedIndexNames[i] = formatIndexName(indexNames.get(i));
+        }
+        SearchRequest searchRequest = new SearchRequest(formattedIndexNames);
+        searchRequest.types(TYPE);
+        searchRequest.indicesOptions(IndicesOptions.fromOptions(true, true, true, false));
+        searchRequest.source(searchSourceBuilder);
+        return client.search(searchRequest);
+    }
+
     public GetResponse get(String indexName, String id) throws IOException {
         indexName = formatIndexName(indexName);
         GetRequest request = new GetRequest(indexName, TYPE, id);
@@ -135,6 +218,17 @@ public class ElasticSearchClient implements Client {
         return client.multiGet(request);
     }
 
+    /**
+     * Get the documents each from its own index, the index name of the same position as the id.
+     */
+    public MultiGetResponse multiGet(List<String> indexNames, List<String> ids) throws IOException {
+        MultiGetRequest request = new MultiGetRequest();
+        for (int i = 0; i < ids.size(); i++) {
+            request.add(formatIndexName(indexNames.get(i)), TYPE, ids.get(i));
+        }
+        return client.multiGet(request);
+    }
+
     public void forceInsert(String indexName, String id, XContentBuilder source) throws IOException {
         IndexRequest request = prepareInsert(indexName, id, source);
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
@@ -166,22 +260,30 @@ public class ElasticSearchClient implements Client {
         return new UpdateRequest(indexName, TYPE, id).doc(source);
     }
 
-    public void delete(String indexName, String timeBucketColumnName, long startTimeBucket,
-        long endTimeBucket) throws IOException {
+    /**
+     * Delete the documents whose time bucket is less than the given one. The delete by query runs with sliced scrolls
+     * and throttled by the requests per second, so a large delete doesn't hold up the bulk ingestion.
+     */
+    public int delete(String indexName, String timeBucketColumnName, long endTimeBucket,
+        int requestsPerSecond) throws IOException {
         indexName = formatIndexName(indexName);
-        Map<String, String> params = Collections.singletonMap("pretty", "true");
+        Map<String, String> params = new HashMap<>();
+        params.put("slices", "auto");
+        params.put("conflicts", "proceed");
+        params.put("requests_per_second", String.valueOf(requestsPerSecond));
         String jsonString = "{" +
             "  \"query\": {" +
             "    \"range\": {" +
             "      \"" + timeBucketColumnName + "\": {" +
-            "        \"gte\": " + startTimeBucket + "," +
-            "        \"lte\": " + endTimeBucket + "" +
+            "        \"lt\": " + endTimeBucket +
             "      }" +
             "    }" +
             "  }" +
             "}";
         HttpEntity entity = new NStringEntity(jsonString, ContentType.APPLICATION_JSON);
-        client.getLowLevelClient().performRequest("POST", "/" + indexName + "/_delete_by_query", params, entity);
+        Response response = client.getLowLevelClient().performRequest("POST", "/" + indexName + "/_delete_by_query", params, entity);
+        logger.debug("delete indexName: {}, jsonString : {}", indexName, jsonString);
+        return response.getStatusLine().getStatusCode();
     }
 
     private String formatIndexName(String indexName) {
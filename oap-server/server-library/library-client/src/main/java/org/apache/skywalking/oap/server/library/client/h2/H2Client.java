@@ -19,95 +19,106 @@
 package org.apache.skywalking.oap.server.library.client.h2;
 
 import java.sql.*;
-import org.apache.skywalking.oap.server.library.client.Client;
-import org.h2.util.IOUtils;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.h2.jdbcx.JdbcConnectionPool;
 import org.slf4j.*;
 
 /**
+ * The connections are borrowed from a small pool, every caller closes its connection to give it back. The in memory
+ * database is kept by DB_CLOSE_DELAY=-1 even when all the connections are back in the pool.
+ *
  * @author peng-yongsheng
  */
-public class H2Client implements Client {
+public class H2Client implements JDBCClient {
 
     private final Logger logger = LoggerFactory.getLogger(H2Client.class);
 
-    private Connection conn;
-    private String url;
-    private String userName;
-    private String password;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+
+    private final String url;
+    private final String userName;
+    private final String password;
+    private final int maxConnections;
+    private JdbcConnectionPool connectionPool;
 
     public H2Client() {
-        this.url = "jdbc:h2:mem:collector";
-        this.userName = "";
-        this.password = "";
+        this("jdbc:h2:mem:collector;DB_CLOSE_DELAY=-1", "", "");
     }
 
     public H2Client(String url, String userName, String password) {
+        this(url, userName, password, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public H2Client(String url, String userName, String password, int maxConnections) {
         this.url = url;
         this.userName = userName;
         this.password = password;
+        this.maxConnections = maxConnections;
     }
 
     @Override public void initialize() throws H2ClientException {
         try {
-            Class.forName("org.h2.Driver");
-            conn = DriverManager.
-                getConnection(this.url, this.userName, this.password);
+            connectionPool = JdbcConnectionPool.create(url, userName, password);
+            connectionPool.setMaxConnections(maxConnections);
         } catch (Exception e) {
             throw new H2ClientException(e.getMessage(), e);
         }
     }
 
     @Override public void shutdown() {
-        IOUtils.closeSilently(conn);
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
     }
 
-    public Connection getConnection() {
-        return conn;
+    /**
+     * @return a connection of the pool, close it to give it back.
+     */
+    @Override public Connection getConnection() throws H2ClientException {
+        try {
+            return connectionPool.getConnection();
+        } catch (SQLException e) {
+            throw new H2ClientException(e.getMessage(), e);
+        }
     }
 
-    public void execute(String sql) throws H2ClientException {
-        try (Statement statement = getConnection().createStatement()) {
+    @Override public void execute(String sql) throws H2ClientException {
+        logger.debug("execute sql: {}", sql);
+        try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
             statement.execute(sql);
-            statement.closeOnCompletion();
         } catch (SQLException e) {
             throw new H2ClientException(e.getMessage(), e);
         }
     }
 
-    public ResultSet executeQuery(String sql, Object[] params) throws H2ClientException {
+    @Override public ResultSet executeQuery(Connection connection, String sql, Object... params) throws H2ClientException {
         logger.debug("execute query with result: {}", sql);
-        ResultSet rs;
-        PreparedStatement statement;
         try {
-            statement = getConnection().prepareStatement(sql);
-            if (params != null) {
-                for (int i = 0; i < params.length; i++) {
-                    statement.setObject(i + 1, params[i]);
-                }
-            }
-            rs = statement.executeQuery();
+            PreparedStatement statement = connection.prepareStatement(sql);
+            setParameters(statement, params);
+            ResultSet rs = statement.executeQuery();
             statement.closeOnCompletion();
+            return rs;
         } catch (SQLException e) {
             throw new H2ClientException(e.getMessage(), e);
         }
-        return rs;
     }
 
-    public boolean execute(String sql, Object[] params) throws H2ClientException {
+    @Override public int executeUpdate(String sql, Object... params) throws H2ClientException {
         logger.debug("execute insert/update/delete: {}", sql);
-        boolean flag;
-        Connection conn = getConnection();
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            conn.setAutoCommit(true);
-            if (params != null) {
-                for (int i = 0; i < params.length; i++) {
-                    statement.setObject(i + 1, params[i]);
-                }
-            }
-            flag = statement.execute();
+        try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            setParameters(statement, params);
+            return statement.executeUpdate();
         } catch (SQLException e) {
             throw new H2ClientException(e.getMessage(), e);
         }
-        return flag;
+    }
+
+    private void setParameters(PreparedStatement statement, Object[] params) throws SQLException {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+        }
     }
 }
@@ -18,12 +18,12 @@
 
 package org.apache.skywalking.oap.server.library.client.h2;
 
-import org.apache.skywalking.oap.server.library.client.ClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 
 /**
  * @author peng-yongsheng
  */
-public class H2ClientException extends ClientException {
+public class H2ClientException extends JDBCClientException {
 
     public H2ClientException(String message) {
         super(message);
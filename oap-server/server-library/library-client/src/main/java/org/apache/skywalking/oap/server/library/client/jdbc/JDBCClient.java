@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.client.jdbc;
+
+import java.sql.*;
+import org.apache.skywalking.oap.server.library.client.Client;
+
+/**
+ * The client of a JDBC data source, the storage plugins run the same sql on every implementation.
+ *
+ * @author peng-yongsheng
+ */
+public interface JDBCClient extends Client {
+
+    /**
+     * @return a connection, close it when finished.
+     */
+    Connection getConnection() throws JDBCClientException;
+
+    void execute(String sql) throws JDBCClientException;
+
+    /**
+     * The result set is closed with the statement when the given connection is closed.
+     */
+    ResultSet executeQuery(Connection connection, String sql, Object... params) throws JDBCClientException;
+
+    /**
+     * @return the number of the updated rows.
+     */
+    int executeUpdate(String sql, Object... params) throws JDBCClientException;
+}
@@ -24,21 +24,25 @@ import java.sql.*;
 import java.util.*;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
-import org.apache.skywalking.oap.server.library.client.Client;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
 import org.slf4j.*;
 
 /**
+ * The sql on the logic tables goes through the sharding data source, which routes it by the sharding rule and merges
+ * the results. The statements already routed to an actual table go to the data source of the table directly, see
+ * {@link #getConnection(String)}.
+ *
  * @author linjiaqi
  */
-public class ShardingjdbcClient implements Client {
+public class ShardingjdbcClient implements JDBCClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ShardingjdbcClient.class);
 
-    private Map<String, ShardingjdbcClientConfig> shardingjdbcClientConfig;
+    private final Map<String, ShardingjdbcClientConfig> shardingjdbcClientConfig;
 
-    private ShardingRuleConfiguration shardingRuleConfiguration;
+    private final ShardingRuleConfiguration shardingRuleConfiguration;
 
-    private Map<String, DataSource> shardingDataSource = new HashMap<String, DataSource>();
+    private final Map<String, DataSource> shardingDataSource = new HashMap<>();
 
     private DataSource dataSource;
 
@@ -68,83 +72,76 @@ public class ShardingjdbcClient implements Client {
     }
 
     @Override public void shutdown() {
-
+        shardingDataSource.forEach((key, value) -> {
+            try {
+                ((BasicDataSource)value).close();
+            } catch (SQLException e) {
+                logger.error("close sharding datasource: {} failure, {}", key, e.getMessage());
+            }
+        });
     }
 
-    public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+    /**
+     * @return a connection of the sharding data source, which accepts the sql on the logic tables.
+     */
+    @Override public Connection getConnection() throws ShardingjdbcClientException {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new ShardingjdbcClientException(e.getMessage(), e);
+        }
     }
 
-    public void execute(String sql) throws ShardingjdbcClientException {
-        Connection conn = null;
-        Statement statement = null;
+    /**
+     * @return a connection of the given actual data source, which only accepts the sql on the actual tables.
+     */
+    public Connection getConnection(String dataSourceName) throws ShardingjdbcClientException {
         try {
-            conn = getConnection();
-            statement = conn.createStatement();
+            return shardingDataSource.get(dataSourceName).getConnection();
+        } catch (SQLException e) {
+            throw new ShardingjdbcClientException(e.getMessage(), e);
+        }
+    }
+
+    @Override public void execute(String sql) throws ShardingjdbcClientException {
+        logger.debug("execute sql: {}", sql);
+        try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
             statement.execute(sql);
         } catch (SQLException e) {
             throw new ShardingjdbcClientException(e.getMessage(), e);
-        } finally {
-            try {
-                if (statement != null) {
-                    statement.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new ShardingjdbcClientException(e.getMessage(), e);
-            }
         }
     }
 
-    public ResultSet executeQuery(String sql, Object[] params) throws ShardingjdbcClientException {
+    /**
+     * The statement is closed with the given connection, the sharding statements don't support close on completion.
+     */
+    @Override public ResultSet executeQuery(Connection connection, String sql,
+        Object... params) throws ShardingjdbcClientException {
         logger.debug("execute query with result: {}", sql);
-        ResultSet rs;
-        PreparedStatement statement;
         try {
-            statement = getConnection().prepareStatement(sql);
-            if (params != null) {
-                for (int i = 0; i < params.length; i++) {
-                    statement.setObject(i + 1, params[i]);
-                }
-            }
-            rs = statement.executeQuery();
+            PreparedStatement statement = connection.prepareStatement(sql);
+            setParameters(statement, params);
+            return statement.executeQuery();
         } catch (SQLException e) {
             throw new ShardingjdbcClientException(e.getMessage(), e);
         }
-        return rs;
     }
 
-    public boolean execute(String sql, Object[] params) throws ShardingjdbcClientException {
+    @Override public int executeUpdate(String sql, Object... params) throws ShardingjdbcClientException {
         logger.debug("execute insert/update/delete: {}", sql);
-        boolean flag;
-        Connection conn = null;
-        PreparedStatement statement = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(true);
-            statement = conn.prepareStatement(sql);
-            if (params != null) {
-                for (int i = 0; i < params.length; i++) {
-                    statement.setObject(i + 1, params[i]);
-                }
-            }
-            flag = statement.execute();
+        try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            setParameters(statement, params);
+            return statement.executeUpdate();
         } catch (SQLException e) {
             throw new ShardingjdbcClientException(e.getMessage(), e);
-        } finally {
-            try {
-                if (statement != null) {
-                    statement.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new ShardingjdbcClientException(e.getMessage(), e);
+        }
+    }
+
+    private void setParameters(PreparedStatement statement, Object[] params) throws SQLException {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
             }
         }
-        return flag;
     }
 }
@@ -18,12 +18,12 @@
 
 package org.apache.skywalking.oap.server.library.client.shardingjdbc;
 
-import org.apache.skywalking.oap.server.library.client.ClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 
 /**
  * @author linjiaqi
  */
-public class ShardingjdbcClientException extends ClientException {
+public class ShardingjdbcClientException extends JDBCClientException {
 
     public ShardingjdbcClientException(String message) {
         super(message);
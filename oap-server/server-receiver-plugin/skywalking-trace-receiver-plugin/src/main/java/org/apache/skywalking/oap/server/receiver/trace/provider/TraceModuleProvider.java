@@ -18,7 +18,9 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.util.concurrent.*;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.library.module.*;
@@ -66,15 +68,25 @@ public class TraceModuleProvider extends ModuleProvider {
         GRPCHandlerRegister grpcHandlerRegister = getManager().find(CoreModule.NAME).getService(GRPCHandlerRegister.class);
         try {
             SegmentParse segmentParse = new SegmentParse(getManager(), listenerManager);
-            grpcHandlerRegister.addHandler(new TraceSegmentServiceHandler(segmentParse));
+            grpcHandlerRegister.addHandler(new TraceSegmentServiceHandler(segmentParse, parseExecutor()));
 
-            SegmentStandardizationWorker standardizationWorker = new SegmentStandardizationWorker(segmentParse, moduleConfig.getBufferPath(), moduleConfig.getBufferOffsetMaxFileSize(), moduleConfig.getBufferDataMaxFileSize(), moduleConfig.isBufferFileCleanWhenRestart());
+            SegmentStandardizationWorker standardizationWorker = new SegmentStandardizationWorker(segmentParse, moduleConfig.getBufferPath(), moduleConfig.getBufferOffsetMaxFileSize(), moduleConfig.getBufferDataMaxFileSize(), moduleConfig.isBufferFileCleanWhenRestart(), moduleConfig.isBufferMemoryMapped());
             segmentParse.setStandardizationWorker(standardizationWorker);
         } catch (IOException e) {
             throw new ModuleStartException(e.getMessage(), e);
         }
     }
 
+    /**
+     * The segments are parsed in parallel, the agent stream parses the segment by itself when the queue is full, so
+     * the receiving slows down instead of buffering without limit.
+     */
+    private ExecutorService parseExecutor() {
+        int threads = moduleConfig.getParseThreads() > 0 ? moduleConfig.getParseThreads() : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(moduleConfig.getParseQueueSize()),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SegmentParse-%s").build(), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     @Override public void notifyAfterCompleted() {
 
     }
@@ -29,4 +29,13 @@ public class TraceServiceModuleConfig extends ModuleConfig {
     @Setter @Getter private int bufferOffsetMaxFileSize;
     @Setter @Getter private int bufferDataMaxFileSize;
     @Setter @Getter private boolean bufferFileCleanWhenRestart;
+    /**
+     * Buffer the segments by the memory mapped segment files instead of the data and offset files.
+     */
+    @Setter @Getter private boolean bufferMemoryMapped = false;
+    /**
+     * The threads which parse the segments from all the agent streams, 0 means the number of processors.
+     */
+    @Setter @Getter private int parseThreads = 0;
+    @Setter @Getter private int parseQueueSize = 10000;
 }
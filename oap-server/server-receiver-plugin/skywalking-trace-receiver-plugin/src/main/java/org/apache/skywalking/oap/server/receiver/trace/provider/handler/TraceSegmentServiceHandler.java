@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.receiver.trace.provider.handler;
 
 import io.grpc.stub.StreamObserver;
+import java.util.concurrent.Executor;
 import org.apache.skywalking.apm.network.language.agent.*;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCHandler;
 import org.apache.skywalking.oap.server.receiver.trace.provider.parser.SegmentParse;
@@ -33,10 +34,12 @@ public class TraceSegmentServiceHandler extends TraceSegmentServiceGrpc.TraceSeg
 
     private final Boolean debug;
     private final SegmentParse segmentParse;
+    private final Executor parseExecutor;
 
-    public TraceSegmentServiceHandler(SegmentParse segmentParse) {
+    public TraceSegmentServiceHandler(SegmentParse segmentParse, Executor parseExecutor) {
         this.debug = System.getProperty("debug") != null;
         this.segmentParse = segmentParse;
+        this.parseExecutor = parseExecutor;
     }
 
     @Override public StreamObserver<UpstreamSegment> collect(StreamObserver<Downstream> responseObserver) {
@@ -46,7 +49,7 @@ public class TraceSegmentServiceHandler extends TraceSegmentServiceGrpc.TraceSeg
                     logger.debug("receive segment");
                 }
 
-                segmentParse.parse(segment, SegmentParse.Source.Agent);
+                parseExecutor.execute(() -> segmentParse.parse(segment, SegmentParse.Source.Agent));
 
                 if (debug) {
                     long count = SegmentCounter.INSTANCE.incrementAndGet();
@@ -31,6 +31,9 @@ import org.apache.skywalking.oap.server.receiver.trace.provider.parser.standardi
 import org.slf4j.*;
 
 /**
+ * Shared by all the agent streams and the buffer reader, so it keeps no state of a segment. Every parse creates a
+ * {@link ParseContext} with its own span listeners and segment core info.
+ *
  * @author peng-yongsheng
  */
 public class SegmentParse implements DataStreamReader.CallBack<UpstreamSegment> {
@@ -38,18 +41,12 @@ public class SegmentParse implements DataStreamReader.CallBack<UpstreamSegment>
     private static final Logger logger = LoggerFactory.getLogger(SegmentParse.class);
 
     private final ModuleManager moduleManager;
-    private final List<SpanListener> spanListeners;
     private final SegmentParserListenerManager listenerManager;
-    private final SegmentCoreInfo segmentCoreInfo;
     @Setter private SegmentStandardizationWorker standardizationWorker;
 
     public SegmentParse(ModuleManager moduleManager, SegmentParserListenerManager listenerManager) {
         this.moduleManager = moduleManager;
         this.listenerManager = listenerManager;
-        this.spanListeners = new LinkedList<>();
-        this.segmentCoreInfo = new SegmentCoreInfo();
-        this.segmentCoreInfo.setStartTime(Long.MAX_VALUE);
-        this.segmentCoreInfo.setEndTime(Long.MIN_VALUE);
     }
 
     @Override public boolean call(UpstreamSegment segment) {
@@ -57,164 +54,183 @@ public class SegmentParse implements DataStreamReader.CallBack<UpstreamSegment>
     }
 
     public boolean parse(UpstreamSegment segment, Source source) {
-        createSpanListeners();
+        return new ParseContext(createSpanListeners()).parse(segment, source);
+    }
 
-        try {
-            List<UniqueId> traceIds = segment.getGlobalTraceIdsList();
-            TraceSegmentObject segmentObject = parseBinarySegment(segment);
+    private List<SpanListener> createSpanListeners() {
+        List<SpanListener> spanListeners = new ArrayList<>(listenerManager.getSpanListenerFactories().size());
+        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> spanListeners.add(spanListenerFactory.create(moduleManager)));
+        return spanListeners;
+    }
 
-            SegmentDecorator segmentDecorator = new SegmentDecorator(segmentObject);
+    private void writeToBufferFile(String id, UpstreamSegment upstreamSegment) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("push to segment buffer write worker, id: {}", id);
+        }
 
-            if (!preBuild(traceIds, segmentDecorator)) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("This segment id exchange not success, write to buffer file, id: {}", segmentCoreInfo.getSegmentId());
-                }
+        SegmentStandardization standardization = new SegmentStandardization(id);
+        standardization.setUpstreamSegment(upstreamSegment);
 
-                if (source.equals(Source.Agent)) {
-                    writeToBufferFile(segmentCoreInfo.getSegmentId(), segment);
-                }
-                return false;
-            } else {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("This segment id exchange success, id: {}", segmentCoreInfo.getSegmentId());
-                }
-                notifyListenerToBuild();
-                return true;
-            }
-        } catch (Throwable e) {
-            logger.error(e.getMessage(), e);
-            return true;
-        }
+        standardizationWorker.in(standardization);
     }
 
-    private TraceSegmentObject parseBinarySegment(UpstreamSegment segment) throws InvalidProtocolBufferException {
-        return TraceSegmentObject.parseFrom(segment.getSegment());
-    }
+    private class ParseContext {
 
-    private boolean preBuild(List<UniqueId> traceIds, SegmentDecorator segmentDecorator) {
-        StringBuilder segmentIdBuilder = new StringBuilder();
+        private final List<SpanListener> spanListeners;
+        private final SegmentCoreInfo segmentCoreInfo;
 
-        for (int i = 0; i < segmentDecorator.getTraceSegmentId().getIdPartsList().size(); i++) {
-            if (i == 0) {
-                segmentIdBuilder.append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
-            } else {
-                segmentIdBuilder.append(".").append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
-            }
+        private ParseContext(List<SpanListener> spanListeners) {
+            this.spanListeners = spanListeners;
+            this.segmentCoreInfo = new SegmentCoreInfo();
+            this.segmentCoreInfo.setStartTime(Long.MAX_VALUE);
+            this.segmentCoreInfo.setEndTime(Long.MIN_VALUE);
         }
 
-        for (UniqueId uniqueId : traceIds) {
-            notifyGlobalsListener(uniqueId);
-        }
+        private boolean parse(UpstreamSegment segment, Source source) {
+            try {
+                List<UniqueId> traceIds = segment.getGlobalTraceIdsList();
+                TraceSegmentObject segmentObject = parseBinarySegment(segment);
+
+                SegmentDecorator segmentDecorator = new SegmentDecorator(segmentObject, segment.getSegment());
 
-        segmentCoreInfo.setSegmentId(segmentIdBuilder.toString());
-        segmentCoreInfo.setApplicationId(segmentDecorator.getApplicationId());
-        segmentCoreInfo.setApplicationInstanceId(segmentDecorator.getApplicationInstanceId());
-        segmentCoreInfo.setDataBinary(segmentDecorator.toByteArray());
-
-        for (int i = 0; i < segmentDecorator.getSpansCount(); i++) {
-            SpanDecorator spanDecorator = segmentDecorator.getSpans(i);
-
-            if (!SpanIdExchanger.getInstance(moduleManager).exchange(spanDecorator, segmentCoreInfo.getApplicationId())) {
-                return false;
-            } else {
-                for (int j = 0; j < spanDecorator.getRefsCount(); j++) {
-                    ReferenceDecorator referenceDecorator = spanDecorator.getRefs(j);
-                    if (!ReferenceIdExchanger.getInstance(moduleManager).exchange(referenceDecorator, segmentCoreInfo.getApplicationId())) {
-                        return false;
+                if (!preBuild(traceIds, segmentDecorator)) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("This segment id exchange not success, write to buffer file, id: {}", segmentCoreInfo.getSegmentId());
                     }
-                }
-            }
 
-            if (segmentCoreInfo.getStartTime() > spanDecorator.getStartTime()) {
-                segmentCoreInfo.setStartTime(spanDecorator.getStartTime());
-            }
-            if (segmentCoreInfo.getEndTime() < spanDecorator.getEndTime()) {
-                segmentCoreInfo.setEndTime(spanDecorator.getEndTime());
+                    if (source.equals(Source.Agent)) {
+                        writeToBufferFile(segmentCoreInfo.getSegmentId(), segment);
+                    }
+                    return false;
+                } else {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("This segment id exchange success, id: {}", segmentCoreInfo.getSegmentId());
+                    }
+                    notifyListenerToBuild();
+                    return true;
+                }
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+                return true;
             }
-            segmentCoreInfo.setError(spanDecorator.getIsError() || segmentCoreInfo.isError());
         }
 
-        long minuteTimeBucket = TimeBucketUtils.INSTANCE.getMinuteTimeBucket(segmentCoreInfo.getStartTime());
-        segmentCoreInfo.setMinuteTimeBucket(minuteTimeBucket);
+        private TraceSegmentObject parseBinarySegment(UpstreamSegment segment) throws InvalidProtocolBufferException {
+            return TraceSegmentObject.parseFrom(segment.getSegment());
+        }
 
-        for (int i = 0; i < segmentDecorator.getSpansCount(); i++) {
-            SpanDecorator spanDecorator = segmentDecorator.getSpans(i);
+        private boolean preBuild(List<UniqueId> traceIds, SegmentDecorator segmentDecorator) {
+            StringBuilder segmentIdBuilder = new StringBuilder();
 
-            if (spanDecorator.getSpanId() == 0) {
-                notifyFirstListener(spanDecorator);
+            for (int i = 0; i < segmentDecorator.getTraceSegmentId().getIdPartsList().size(); i++) {
+                if (i == 0) {
+                    segmentIdBuilder.append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
+                } else {
+                    segmentIdBuilder.append(".").append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
+                }
             }
 
-            if (SpanType.Exit.equals(spanDecorator.getSpanType())) {
-                notifyExitListener(spanDecorator);
-            } else if (SpanType.Entry.equals(spanDecorator.getSpanType())) {
-                notifyEntryListener(spanDecorator);
-            } else if (SpanType.Local.equals(spanDecorator.getSpanType())) {
-                notifyLocalListener(spanDecorator);
-            } else {
-                logger.error("span type value was unexpected, span type name: {}", spanDecorator.getSpanType().name());
+            for (UniqueId uniqueId : traceIds) {
+                notifyGlobalsListener(uniqueId);
             }
-        }
 
-        return true;
-    }
+            segmentCoreInfo.setSegmentId(segmentIdBuilder.toString());
+            segmentCoreInfo.setApplicationId(segmentDecorator.getApplicationId());
+            segmentCoreInfo.setApplicationInstanceId(segmentDecorator.getApplicationInstanceId());
+
+            for (int i = 0; i < segmentDecorator.getSpansCount(); i++) {
+                SpanDecorator spanDecorator = segmentDecorator.getSpans(i);
+
+                if (!SpanIdExchanger.getInstance(moduleManager).exchange(spanDecorator, segmentCoreInfo.getApplicationId())) {
+                    return false;
+                } else {
+                    for (int j = 0; j < spanDecorator.getRefsCount(); j++) {
+                        ReferenceDecorator referenceDecorator = spanDecorator.getRefs(j);
+                        if (!ReferenceIdExchanger.getInstance(moduleManager).exchange(referenceDecorator, segmentCoreInfo.getApplicationId())) {
+                            return false;
+                        }
+                    }
+                }
 
-    private void writeToBufferFile(String id, UpstreamSegment upstreamSegment) {
-        if (logger.isDebugEnabled()) {
-            logger.debug("push to segment buffer write worker, id: {}", id);
-        }
+                if (segmentCoreInfo.getStartTime() > spanDecorator.getStartTime()) {
+                    segmentCoreInfo.setStartTime(spanDecorator.getStartTime());
+                }
+                if (segmentCoreInfo.getEndTime() < spanDecorator.getEndTime()) {
+                    segmentCoreInfo.setEndTime(spanDecorator.getEndTime());
+                }
+                segmentCoreInfo.setError(spanDecorator.getIsError() || segmentCoreInfo.isError());
+            }
 
-        SegmentStandardization standardization = new SegmentStandardization(id);
-        standardization.setUpstreamSegment(upstreamSegment);
+            // After the id exchanges, so the stored segment carries the exchanged ids.
+            segmentCoreInfo.setDataBinary(segmentDecorator.toByteArray());
 
-        standardizationWorker.in(standardization);
-    }
+            long minuteTimeBucket = TimeBucketUtils.INSTANCE.getMinuteTimeBucket(segmentCoreInfo.getStartTime());
+            segmentCoreInfo.setMinuteTimeBucket(minuteTimeBucket);
 
-    private void notifyListenerToBuild() {
-        spanListeners.forEach(SpanListener::build);
-    }
+            for (int i = 0; i < segmentDecorator.getSpansCount(); i++) {
+                SpanDecorator spanDecorator = segmentDecorator.getSpans(i);
 
-    private void notifyExitListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Exit)) {
-                ((ExitSpanListener)listener).parseExit(spanDecorator, segmentCoreInfo);
-            }
-        });
-    }
+                if (spanDecorator.getSpanId() == 0) {
+                    notifyFirstListener(spanDecorator);
+                }
 
-    private void notifyEntryListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Entry)) {
-                ((EntrySpanListener)listener).parseEntry(spanDecorator, segmentCoreInfo);
+                if (SpanType.Exit.equals(spanDecorator.getSpanType())) {
+                    notifyExitListener(spanDecorator);
+                } else if (SpanType.Entry.equals(spanDecorator.getSpanType())) {
+                    notifyEntryListener(spanDecorator);
+                } else if (SpanType.Local.equals(spanDecorator.getSpanType())) {
+                    notifyLocalListener(spanDecorator);
+                } else {
+                    logger.error("span type value was unexpected, span type name: {}", spanDecorator.getSpanType().name());
+                }
             }
-        });
-    }
 
-    private void notifyLocalListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Local)) {
-                ((LocalSpanListener)listener).parseLocal(spanDecorator, segmentCoreInfo);
-            }
-        });
-    }
+            return true;
+        }
 
-    private void notifyFirstListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.First)) {
-                ((FirstSpanListener)listener).parseFirst(spanDecorator, segmentCoreInfo);
-            }
-        });
-    }
+        private void notifyListenerToBuild() {
+            spanListeners.forEach(SpanListener::build);
+        }
 
-    private void notifyGlobalsListener(UniqueId uniqueId) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.TraceIds)) {
-                ((GlobalTraceIdsListener)listener).parseGlobalTraceId(uniqueId, segmentCoreInfo);
-            }
-        });
-    }
+        private void notifyExitListener(SpanDecorator spanDecorator) {
+            spanListeners.forEach(listener -> {
+                if (listener.containsPoint(SpanListener.Point.Exit)) {
+                    ((ExitSpanListener)listener).parseExit(spanDecorator, segmentCoreInfo);
+                }
+            });
+        }
 
-    private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> spanListeners.add(spanListenerFactory.create(moduleManager)));
+        private void notifyEntryListener(SpanDecorator spanDecorator) {
+            spanListeners.forEach(listener -> {
+                if (listener.containsPoint(SpanListener.Point.Entry)) {
+                    ((EntrySpanListener)listener).parseEntry(spanDecorator, segmentCoreInfo);
+                }
+            });
+        }
+
+        private void notifyLocalListener(SpanDecorator spanDecorator) {
+            spanListeners.forEach(listener -> {
+                if (listener.containsPoint(SpanListener.Point.Local)) {
+                    ((LocalSpanListener)listener).parseLocal(spanDecorator, segmentCoreInfo);
+                }
+            });
+        }
+
+        private void notifyFirstListener(SpanDecorator spanDecorator) {
+            spanListeners.forEach(listener -> {
+                if (listener.containsPoint(SpanListener.Point.First)) {
+                    ((FirstSpanListener)listener).parseFirst(spanDecorator, segmentCoreInfo);
+                }
+            });
+        }
+
+        private void notifyGlobalsListener(UniqueId uniqueId) {
+            spanListeners.forEach(listener -> {
+                if (listener.containsPoint(SpanListener.Point.TraceIds)) {
+                    ((GlobalTraceIdsListener)listener).parseGlobalTraceId(uniqueId, segmentCoreInfo);
+                }
+            });
+        }
     }
 
     public enum Source {
@@ -35,12 +35,6 @@ public class ReferenceDecorator implements StandardBuilder {
         this.standardBuilder = standardBuilder;
     }
 
-    public ReferenceDecorator(TraceSegmentReference.Builder referenceBuilder, StandardBuilder standardBuilder) {
-        this.referenceBuilder = referenceBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
-    }
-
     public RefType getRefType() {
         if (isOrigin) {
             return referenceObject.getRefType();
@@ -179,6 +173,14 @@ public class ReferenceDecorator implements StandardBuilder {
         referenceBuilder.setNetworkAddress(value);
     }
 
+    boolean isOrigin() {
+        return isOrigin;
+    }
+
+    TraceSegmentReference build() {
+        return referenceBuilder.build();
+    }
+
     @Override public void toBuilder() {
         if (this.isOrigin) {
             this.isOrigin = false;
@@ -18,21 +18,28 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator;
 
+import com.google.protobuf.ByteString;
 import org.apache.skywalking.apm.network.language.agent.*;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
+ * The segment is decoded once from the received binary. The id exchanges rewrite the spans and references by copy on
+ * write, and only the rewritten ones are patched into the segment when it is serialized. Without any rewrite, the
+ * received binary is stored as it is.
+ *
  * @author peng-yongsheng
  */
 public class SegmentDecorator implements StandardBuilder {
     private boolean isOrigin = true;
     private final TraceSegmentObject segmentObject;
-    private TraceSegmentObject.Builder segmentBuilder;
+    private final ByteString originBinary;
     private final SpanDecorator[] spanDecorators;
 
-    public SegmentDecorator(TraceSegmentObject segmentObject) {
+    public SegmentDecorator(TraceSegmentObject segmentObject, ByteString originBinary) {
         this.segmentObject = segmentObject;
+        this.originBinary = originBinary;
         this.spanDecorators = new SpanDecorator[segmentObject.getSpansCount()];
     }
 
@@ -54,27 +61,26 @@ public class SegmentDecorator implements StandardBuilder {
 
     public SpanDecorator getSpans(int index) {
         if (isNull(spanDecorators[index])) {
-            if (isOrigin) {
-                spanDecorators[index] = new SpanDecorator(segmentObject.getSpans(index), this);
-            } else {
-                spanDecorators[index] = new SpanDecorator(segmentBuilder.getSpansBuilder(index), this);
-            }
+            spanDecorators[index] = new SpanDecorator(segmentObject.getSpans(index), this);
         }
         return spanDecorators[index];
     }
 
     public byte[] toByteArray() {
         if (isOrigin) {
-            return segmentObject.toByteArray();
+            return originBinary.toByteArray();
         } else {
+            TraceSegmentObject.Builder segmentBuilder = segmentObject.toBuilder();
+            for (int i = 0; i < spanDecorators.length; i++) {
+                if (nonNull(spanDecorators[i]) && !spanDecorators[i].isOrigin()) {
+                    segmentBuilder.setSpans(i, spanDecorators[i].build());
+                }
+            }
             return segmentBuilder.build().toByteArray();
         }
     }
 
     @Override public void toBuilder() {
-        if (isOrigin) {
-            this.isOrigin = false;
-            this.segmentBuilder = segmentObject.toBuilder();
-        }
+        this.isOrigin = false;
     }
 }
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorato
 import org.apache.skywalking.apm.network.language.agent.*;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * @author peng-yongsheng
@@ -38,13 +39,6 @@ public class SpanDecorator implements StandardBuilder {
         this.referenceDecorators = new ReferenceDecorator[spanObject.getRefsCount()];
     }
 
-    public SpanDecorator(SpanObject.Builder spanBuilder, StandardBuilder standardBuilder) {
-        this.spanBuilder = spanBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
-        this.referenceDecorators = new ReferenceDecorator[spanBuilder.getRefsCount()];
-    }
-
     public int getSpanId() {
         if (isOrigin) {
             return spanObject.getSpanId();
@@ -217,15 +211,27 @@ public class SpanDecorator implements StandardBuilder {
 
     public ReferenceDecorator getRefs(int index) {
         if (isNull(referenceDecorators[index])) {
-            if (isOrigin) {
-                referenceDecorators[index] = new ReferenceDecorator(spanObject.getRefs(index), this);
-            } else {
-                referenceDecorators[index] = new ReferenceDecorator(spanBuilder.getRefsBuilder(index), this);
-            }
+            referenceDecorators[index] = new ReferenceDecorator(spanObject.getRefs(index), this);
         }
         return referenceDecorators[index];
     }
 
+    boolean isOrigin() {
+        return isOrigin;
+    }
+
+    /**
+     * @return the rewritten span, the rewritten references are patched into it.
+     */
+    SpanObject build() {
+        for (int i = 0; i < referenceDecorators.length; i++) {
+            if (nonNull(referenceDecorators[i]) && !referenceDecorators[i].isOrigin()) {
+                spanBuilder.setRefs(i, referenceDecorators[i].build());
+            }
+        }
+        return spanBuilder.build();
+    }
+
     @Override public void toBuilder() {
         if (this.isOrigin) {
             this.isOrigin = false;
@@ -33,14 +33,18 @@ public class ReferenceIdExchanger implements IdExchanger<ReferenceDecorator> {
 
     private static final Logger logger = LoggerFactory.getLogger(ReferenceIdExchanger.class);
 
-    private static ReferenceIdExchanger EXCHANGER;
+    private static volatile ReferenceIdExchanger EXCHANGER;
     private final IEndpointInventoryRegister endpointInventoryRegister;
     private final ServiceInstanceInventoryCache serviceInstanceInventoryCache;
     private final INetworkAddressInventoryRegister networkAddressInventoryRegister;
 
     public static ReferenceIdExchanger getInstance(ModuleManager moduleManager) {
         if (EXCHANGER == null) {
-            EXCHANGER = new ReferenceIdExchanger(moduleManager);
+            synchronized (ReferenceIdExchanger.class) {
+                if (EXCHANGER == null) {
+                    EXCHANGER = new ReferenceIdExchanger(moduleManager);
+                }
+            }
         }
         return EXCHANGER;
     }
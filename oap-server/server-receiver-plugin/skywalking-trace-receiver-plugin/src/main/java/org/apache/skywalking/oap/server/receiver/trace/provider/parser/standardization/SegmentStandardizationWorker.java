@@ -38,7 +38,7 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
     private final BufferStream<UpstreamSegment> stream;
 
     public SegmentStandardizationWorker(SegmentParse segmentParse, String path,
-        int offsetFileMaxSize, int dataFileMaxSize, boolean cleanWhenRestart) throws IOException {
+        int offsetFileMaxSize, int dataFileMaxSize, boolean cleanWhenRestart, boolean memoryMapped) throws IOException {
         super(Integer.MAX_VALUE);
         DataCarrier<SegmentStandardization> dataCarrier = new DataCarrier<>(1, 1024);
         dataCarrier.consume(new Consumer(this), 1);
@@ -49,6 +49,7 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
         builder.offsetFileMaxSize(offsetFileMaxSize);
         builder.parser(UpstreamSegment.parser());
         builder.callBack(segmentParse);
+        builder.memoryMapped(memoryMapped);
 
         stream = builder.build();
         stream.initialize();
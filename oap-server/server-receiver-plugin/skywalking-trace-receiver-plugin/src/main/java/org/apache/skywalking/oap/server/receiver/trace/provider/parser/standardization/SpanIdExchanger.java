@@ -34,14 +34,18 @@ public class SpanIdExchanger implements IdExchanger<SpanDecorator> {
 
     private static final Logger logger = LoggerFactory.getLogger(SpanIdExchanger.class);
 
-    private static SpanIdExchanger EXCHANGER;
+    private static volatile SpanIdExchanger EXCHANGER;
     private final IEndpointInventoryRegister endpointInventoryRegister;
     private final INetworkAddressInventoryRegister networkAddressInventoryRegister;
     private final IComponentLibraryCatalogService componentLibraryCatalogService;
 
     public static SpanIdExchanger getInstance(ModuleManager moduleManager) {
         if (EXCHANGER == null) {
-            EXCHANGER = new SpanIdExchanger(moduleManager);
+            synchronized (SpanIdExchanger.class) {
+                if (EXCHANGER == null) {
+                    EXCHANGER = new SpanIdExchanger(moduleManager);
+                }
+            }
         }
         return EXCHANGER;
     }
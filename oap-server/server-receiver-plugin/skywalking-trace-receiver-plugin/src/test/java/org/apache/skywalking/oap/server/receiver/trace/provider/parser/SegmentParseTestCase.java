@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator.*;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * @author peng-yongsheng
+ */
+public class SegmentParseTestCase {
+
+    private static final int SEGMENT_NUM = 5000;
+    private static final long START_TIME = 1539748800000L;
+
+    private ModuleManager moduleManager;
+
+    @Before
+    public void init() {
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        LinkedList<ModuleProvider> moduleProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        moduleProviders.add(moduleProvider);
+
+        moduleManager = Mockito.mock(ModuleManager.class);
+        Mockito.when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentParse() throws InterruptedException {
+        Map<String, SegmentResult> results = new ConcurrentHashMap<>();
+        List<String> duplicates = Collections.synchronizedList(new ArrayList<>());
+
+        SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+        listenerManager.add(moduleManager -> new RecordSpanListener(results, duplicates));
+        SegmentParse segmentParse = new SegmentParse(moduleManager, listenerManager);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < SEGMENT_NUM; i++) {
+            UpstreamSegment segment = segment(i);
+            executor.execute(() -> segmentParse.parse(segment, SegmentParse.Source.Agent));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(50, TimeUnit.SECONDS));
+
+        Assert.assertTrue(duplicates.isEmpty());
+        Assert.assertEquals(SEGMENT_NUM, results.size());
+        for (int i = 0; i < SEGMENT_NUM; i++) {
+            SegmentResult result = results.get("1." + i + ".0");
+            Assert.assertEquals(i % 7 + 1, result.applicationId);
+            Assert.assertEquals(1, result.entryCount);
+            Assert.assertEquals(i % 5 + 1, result.exitCount);
+            Assert.assertEquals(1, result.firstCount);
+            Assert.assertEquals(1, result.traceIdCount);
+            Assert.assertEquals(START_TIME + i, result.startTime);
+            Assert.assertEquals(START_TIME + i + 100, result.endTime);
+            Assert.assertArrayEquals(segment(i).getSegment().toByteArray(), result.dataBinary);
+        }
+    }
+
+    private UpstreamSegment segment(int index) {
+        TraceSegmentObject.Builder segment = TraceSegmentObject.newBuilder();
+        segment.setTraceSegmentId(UniqueId.newBuilder().addIdParts(1).addIdParts(index).addIdParts(0));
+        segment.setApplicationId(index % 7 + 1);
+        segment.setApplicationInstanceId(index % 7 + 1);
+
+        long startTime = START_TIME + index;
+        segment.addSpans(span(0, -1, SpanType.Entry, startTime, startTime + 100));
+        for (int i = 1; i <= index % 5 + 1; i++) {
+            segment.addSpans(span(i, 0, SpanType.Exit, startTime + i, startTime + i + 10).setPeerId(1));
+        }
+
+        UpstreamSegment.Builder upstreamSegment = UpstreamSegment.newBuilder();
+        upstreamSegment.addGlobalTraceIds(UniqueId.newBuilder().addIdParts(2).addIdParts(index).addIdParts(0));
+        upstreamSegment.setSegment(segment.build().toByteString());
+        return upstreamSegment.build();
+    }
+
+    private SpanObject.Builder span(int spanId, int parentSpanId, SpanType spanType, long startTime, long endTime) {
+        SpanObject.Builder span = SpanObject.newBuilder();
+        span.setSpanId(spanId);
+        span.setParentSpanId(parentSpanId);
+        span.setSpanType(spanType);
+        span.setSpanLayer(SpanLayer.Http);
+        span.setComponentId(1);
+        span.setOperationNameId(1);
+        span.setStartTime(startTime);
+        span.setEndTime(endTime);
+        return span;
+    }
+
+    private static class SegmentResult {
+        private int applicationId;
+        private int entryCount;
+        private int exitCount;
+        private int firstCount;
+        private int traceIdCount;
+        private long startTime;
+        private long endTime;
+        private byte[] dataBinary;
+    }
+
+    private static class RecordSpanListener implements EntrySpanListener, ExitSpanListener, FirstSpanListener, GlobalTraceIdsListener {
+
+        private final Map<String, SegmentResult> results;
+        private final List<String> duplicates;
+        private final SegmentResult result = new SegmentResult();
+        private SegmentCoreInfo segmentCoreInfo;
+
+        private RecordSpanListener(Map<String, SegmentResult> results, List<String> duplicates) {
+            this.results = results;
+            this.duplicates = duplicates;
+        }
+
+        @Override public void parseEntry(SpanDecorator spanDecorator, SegmentCoreInfo segmentCoreInfo) {
+            this.segmentCoreInfo = segmentCoreInfo;
+            result.entryCount++;
+        }
+
+        @Override public void parseExit(SpanDecorator spanDecorator, SegmentCoreInfo segmentCoreInfo) {
+            this.segmentCoreInfo = segmentCoreInfo;
+            result.exitCount++;
+        }
+
+        @Override public void parseFirst(SpanDecorator spanDecorator, SegmentCoreInfo segmentCoreInfo) {
+            this.segmentCoreInfo = segmentCoreInfo;
+            result.firstCount++;
+        }
+
+        @Override public void parseGlobalTraceId(UniqueId uniqueId, SegmentCoreInfo segmentCoreInfo) {
+            result.traceIdCount++;
+        }
+
+        @Override public void build() {
+            result.applicationId = segmentCoreInfo.getApplicationId();
+            result.startTime = segmentCoreInfo.getStartTime();
+            result.endTime = segmentCoreInfo.getEndTime();
+            result.dataBinary = segmentCoreInfo.getDataBinary();
+            if (results.putIfAbsent(segmentCoreInfo.getSegmentId(), result) != null) {
+                duplicates.add(segmentCoreInfo.getSegmentId());
+            }
+        }
+
+        @Override public boolean containsPoint(Point point) {
+            return Point.Entry.equals(point) || Point.Exit.equals(point) || Point.First.equals(point) || Point.TraceIds.equals(point);
+        }
+    }
+}
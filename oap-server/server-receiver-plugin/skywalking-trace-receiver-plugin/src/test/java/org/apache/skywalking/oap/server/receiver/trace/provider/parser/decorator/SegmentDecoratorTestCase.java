@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator;
+
+import com.google.protobuf.*;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class SegmentDecoratorTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentDecoratorTestCase.class);
+
+    private TraceSegmentObject segmentObject;
+    private ByteString binary;
+
+    @Before
+    public void init() {
+        TraceSegmentObject.Builder segment = TraceSegmentObject.newBuilder();
+        segment.setTraceSegmentId(UniqueId.newBuilder().addIdParts(1).addIdParts(2).addIdParts(3));
+        segment.setApplicationId(1);
+        segment.setApplicationInstanceId(1);
+
+        SpanObject.Builder entrySpan = SpanObject.newBuilder();
+        entrySpan.setSpanId(0);
+        entrySpan.setParentSpanId(-1);
+        entrySpan.setSpanType(SpanType.Entry);
+        entrySpan.setOperationName("/dubbox-case/case/dubbox-rest");
+        entrySpan.setStartTime(1539748800000L);
+        entrySpan.setEndTime(1539748800100L);
+
+        TraceSegmentReference.Builder reference = TraceSegmentReference.newBuilder();
+        reference.setParentTraceSegmentId(UniqueId.newBuilder().addIdParts(4).addIdParts(5).addIdParts(6));
+        reference.setParentApplicationInstanceId(2);
+        reference.setEntryServiceName("/dubbox-case/case/dubbox-rest");
+        reference.setNetworkAddress("172.25.0.4:20880");
+        entrySpan.addRefs(reference);
+        segment.addSpans(entrySpan);
+
+        SpanObject.Builder exitSpan = SpanObject.newBuilder();
+        exitSpan.setSpanId(1);
+        exitSpan.setParentSpanId(0);
+        exitSpan.setSpanType(SpanType.Exit);
+        exitSpan.setOperationName("mongodb/find");
+        exitSpan.setPeer("localhost:27017");
+        exitSpan.setStartTime(1539748800010L);
+        exitSpan.setEndTime(1539748800090L);
+        segment.addSpans(exitSpan);
+
+        segmentObject = segment.build();
+        binary = segmentObject.toByteString();
+    }
+
+    @Test
+    public void testOriginBinary() throws InvalidProtocolBufferException {
+        SegmentDecorator segmentDecorator = new SegmentDecorator(TraceSegmentObject.parseFrom(binary), binary);
+        for (int i = 0; i < segmentDecorator.getSpansCount(); i++) {
+            segmentDecorator.getSpans(i).getOperationName();
+        }
+
+        Assert.assertArrayEquals(binary.toByteArray(), segmentDecorator.toByteArray());
+    }
+
+    @Test
+    public void testRewriteRoundTrip() throws InvalidProtocolBufferException {
+        SegmentDecorator segmentDecorator = new SegmentDecorator(TraceSegmentObject.parseFrom(binary), binary);
+
+        SpanDecorator entrySpan = segmentDecorator.getSpans(0);
+        ReferenceDecorator reference = entrySpan.getRefs(0);
+        reference.setEntryServiceId(10);
+        reference.setEntryServiceName("");
+        reference.setNetworkAddressId(11);
+        reference.setNetworkAddress("");
+
+        SpanDecorator exitSpan = segmentDecorator.getSpans(1);
+        exitSpan.setOperationNameId(12);
+        exitSpan.setOperationName("");
+        exitSpan.setPeerId(13);
+        exitSpan.setPeer("");
+
+        TraceSegmentObject stored = TraceSegmentObject.parseFrom(segmentDecorator.toByteArray());
+
+        TraceSegmentObject.Builder expected = segmentObject.toBuilder();
+        expected.getSpansBuilder(0).getRefsBuilder(0).setEntryServiceId(10).setEntryServiceName("").setNetworkAddressId(11).setNetworkAddress("");
+        expected.getSpansBuilder(1).setOperationNameId(12).setOperationName("").setPeerId(13).setPeer("");
+        Assert.assertEquals(expected.build(), stored);
+
+        Assert.assertEquals("/dubbox-case/case/dubbox-rest", stored.getSpans(0).getOperationName());
+        Assert.assertEquals(10, stored.getSpans(0).getRefs(0).getEntryServiceId());
+        Assert.assertEquals(13, stored.getSpans(1).getPeerId());
+    }
+
+    @Test
+    public void testSerializeCost() throws InvalidProtocolBufferException {
+        int times = 100000;
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            TraceSegmentObject.parseFrom(binary).toByteArray();
+        }
+        long reserializeCost = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            new SegmentDecorator(TraceSegmentObject.parseFrom(binary), binary).toByteArray();
+        }
+        long originCost = System.nanoTime() - startTime;
+
+        logger.info("decode and store {} segments, re-serialize: {} ms, origin binary: {} ms", times, reserializeCost / 1000000, originCost / 1000000);
+    }
+}
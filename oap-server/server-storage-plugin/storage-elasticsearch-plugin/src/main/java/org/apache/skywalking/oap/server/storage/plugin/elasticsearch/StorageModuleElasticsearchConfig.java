@@ -31,6 +31,7 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int indexShardsNumber;
     private int indexReplicasNumber;
     private boolean highPerformanceMode;
+    private boolean partitionIndexByDay;
     private int traceDataTTL = 90;
     private int minuteMetricDataTTL = 90;
     private int hourMetricDataTTL = 36;
@@ -40,6 +41,8 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int bulkSize = 20;
     private int flushInterval = 10;
     private int concurrentRequests = 2;
+    private int deleteRequestsPerSecond = 1000;
+    private int dataKeeperExecutePeriod = 5;
 
     int getIndexShardsNumber() {
         return indexShardsNumber;
@@ -65,6 +68,14 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
         this.highPerformanceMode = highPerformanceMode;
     }
 
+    boolean isPartitionIndexByDay() {
+        return partitionIndexByDay;
+    }
+
+    void setPartitionIndexByDay(boolean partitionIndexByDay) {
+        this.partitionIndexByDay = partitionIndexByDay;
+    }
+
     public int getTraceDataTTL() {
         return traceDataTTL;
     }
@@ -136,4 +147,20 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     public void setConcurrentRequests(int concurrentRequests) {
         this.concurrentRequests = concurrentRequests == 0 ? 2 : concurrentRequests;
     }
+
+    public int getDeleteRequestsPerSecond() {
+        return deleteRequestsPerSecond;
+    }
+
+    public void setDeleteRequestsPerSecond(int deleteRequestsPerSecond) {
+        this.deleteRequestsPerSecond = deleteRequestsPerSecond == 0 ? 1000 : deleteRequestsPerSecond;
+    }
+
+    public int getDataKeeperExecutePeriod() {
+        return dataKeeperExecutePeriod;
+    }
+
+    public void setDataKeeperExecutePeriod(int dataKeeperExecutePeriod) {
+        this.dataKeeperExecutePeriod = dataKeeperExecutePeriod == 0 ? 5 : dataKeeperExecutePeriod;
+    }
 }
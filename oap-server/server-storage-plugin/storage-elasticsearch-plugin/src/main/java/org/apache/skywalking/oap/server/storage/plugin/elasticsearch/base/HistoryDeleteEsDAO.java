@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.storage.IHistoryDeleteDAO;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class HistoryDeleteEsDAO extends EsDAO implements IHistoryDeleteDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryDeleteEsDAO.class);
+
+    private final int requestsPerSecond;
+    private final boolean partitionIndexByDay;
+
+    public HistoryDeleteEsDAO(ElasticSearchClient client, int requestsPerSecond, boolean partitionIndexByDay) {
+        super(client);
+        this.requestsPerSecond = requestsPerSecond;
+        this.partitionIndexByDay = partitionIndexByDay;
+    }
+
+    @Override
+    public void deleteHistory(String modelName, String timeBucketColumnName, Long timeBucketBefore) throws IOException {
+        ElasticSearchClient client = getClient();
+        if (partitionIndexByDay) {
+            deleteIndices(client, modelName, timeBucketBefore);
+            return;
+        }
+
+        if (!client.isExistsIndex(modelName)) {
+            return;
+        }
+
+        int statusCode = client.delete(modelName, timeBucketColumnName, timeBucketBefore, requestsPerSecond);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Delete history from {} index, time bucket before {}, status code {}", modelName, timeBucketBefore, statusCode);
+        }
+    }
+
+    /**
+     * Drop the whole indices of the days before the day of the given time bucket, the day holding the time bucket is
+     * kept until the next day.
+     */
+    private void deleteIndices(ElasticSearchClient client, String modelName, long timeBucketBefore) throws IOException {
+        long dayBefore = TimeSeriesUtils.INSTANCE.indexDay(timeBucketBefore);
+        for (String indexName : client.retrievalIndexByAliases(modelName)) {
+            long indexDay = TimeSeriesUtils.INSTANCE.indexDay(modelName, indexName);
+            if (indexDay > 0 && indexDay < dayBefore) {
+                client.deleteIndex(indexName);
+            }
+        }
+    }
+}
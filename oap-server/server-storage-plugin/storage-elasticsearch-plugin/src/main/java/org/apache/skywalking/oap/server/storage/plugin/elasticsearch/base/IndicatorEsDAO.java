@@ -19,30 +19,50 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.io.IOException;
-import java.util.Map;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
-import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.get.*;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.xcontent.*;
+import org.elasticsearch.rest.RestStatus;
 
 /**
  * @author peng-yongsheng
  */
 public class IndicatorEsDAO extends EsDAO implements IIndicatorDAO<IndexRequest, UpdateRequest> {
 
+    private static final int MULTI_GET_BATCH_SIZE = 1000;
+
     private final StorageBuilder<Indicator> storageBuilder;
+    private final boolean partitionIndexByDay;
 
-    public IndicatorEsDAO(ElasticSearchClient client, StorageBuilder<Indicator> storageBuilder) {
+    public IndicatorEsDAO(ElasticSearchClient client, StorageBuilder<Indicator> storageBuilder,
+        boolean partitionIndexByDay) {
         super(client);
         this.storageBuilder = storageBuilder;
+        this.partitionIndexByDay = partitionIndexByDay;
     }
 
     @Override public Indicator get(String modelName, Indicator indicator) throws IOException {
-        GetResponse response = getClient().get(modelName, indicator.id());
+        GetResponse response;
+        if (partitionIndexByDay) {
+            try {
+                response = getClient().get(indexName(modelName, indicator), indicator.id());
+            } catch (ElasticsearchStatusException e) {
+                // The index of a new day is created by the first insert.
+                if (e.status() == RestStatus.NOT_FOUND) {
+                    return null;
+                }
+                throw e;
+            }
+        } else {
+            response = getClient().get(modelName, indicator.id());
+        }
         if (response.isExists()) {
             return storageBuilder.map2Data(response.getSource());
         } else {
@@ -50,6 +70,29 @@ public class IndicatorEsDAO extends EsDAO implements IIndicatorDAO<IndexRequest,
         }
     }
 
+    @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) throws IOException {
+        List<Indicator> dbIndicators = new ArrayList<>(indicators.size());
+        for (int from = 0; from < indicators.size(); from += MULTI_GET_BATCH_SIZE) {
+            List<Indicator> subIndicators = indicators.subList(from, Math.min(from + MULTI_GET_BATCH_SIZE, indicators.size()));
+
+            List<String> indexNames = new ArrayList<>(subIndicators.size());
+            List<String> ids = new ArrayList<>(subIndicators.size());
+            subIndicators.forEach(indicator -> {
+                indexNames.add(indexName(modelName, indicator));
+                ids.add(indicator.id());
+            });
+
+            MultiGetResponse response = getClient().multiGet(indexNames, ids);
+            for (MultiGetItemResponse itemResponse : response.getResponses()) {
+                // The item fails when the index of a new day is not created yet.
+                if (!itemResponse.isFailed() && itemResponse.getResponse().isExists()) {
+                    dbIndicators.add(storageBuilder.map2Data(itemResponse.getResponse().getSource()));
+                }
+            }
+        }
+        return dbIndicators;
+    }
+
     @Override public IndexRequest prepareBatchInsert(String modelName, Indicator indicator) throws IOException {
         Map<String, Object> objectMap = storageBuilder.data2Map(indicator);
 
@@ -63,7 +106,7 @@ public class IndicatorEsDAO extends EsDAO implements IIndicatorDAO<IndexRequest,
             }
         }
         builder.endObject();
-        return getClient().prepareInsert(modelName, indicator.id(), builder);
+        return getClient().prepareInsert(indexName(modelName, indicator), indicator.id(), builder);
     }
 
     @Override public UpdateRequest prepareBatchUpdate(String modelName, Indicator indicator) throws IOException {
@@ -79,9 +122,10 @@ public class IndicatorEsDAO extends EsDAO implements IIndicatorDAO<IndexRequest,
             }
         }
         builder.endObject();
-        return getClient().prepareUpdate(modelName, indicator.id(), builder);
+        return getClient().prepareUpdate(indexName(modelName, indicator), indicator.id(), builder);
     }
 
-    @Override public void deleteHistory(String modelName, Long timeBucketBefore) {
+    private String indexName(String modelName, Indicator indicator) {
+        return partitionIndexByDay ? TimeSeriesUtils.INSTANCE.timeSeries(modelName, indicator.getTimeBucket()) : modelName;
     }
 }
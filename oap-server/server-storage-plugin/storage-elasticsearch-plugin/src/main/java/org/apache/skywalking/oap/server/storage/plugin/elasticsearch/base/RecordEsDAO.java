@@ -33,10 +33,12 @@ import org.elasticsearch.common.xcontent.*;
 public class RecordEsDAO extends EsDAO implements IRecordDAO<IndexRequest> {
 
     private final StorageBuilder<Record> storageBuilder;
+    private final boolean partitionIndexByDay;
 
-    public RecordEsDAO(ElasticSearchClient client, StorageBuilder<Record> storageBuilder) {
+    public RecordEsDAO(ElasticSearchClient client, StorageBuilder<Record> storageBuilder, boolean partitionIndexByDay) {
         super(client);
         this.storageBuilder = storageBuilder;
+        this.partitionIndexByDay = partitionIndexByDay;
     }
 
     @Override public IndexRequest prepareBatchInsert(String modelName, Record record) throws IOException {
@@ -52,9 +54,7 @@ public class RecordEsDAO extends EsDAO implements IRecordDAO<IndexRequest> {
             }
         }
         builder.endObject();
-        return getClient().prepareInsert(modelName, record.id(), builder);
-    }
-
-    @Override public void deleteHistory(String modelName, Long timeBucketBefore) {
+        String indexName = partitionIndexByDay ? TimeSeriesUtils.INSTANCE.timeSeries(modelName, record.getTimeBucket()) : modelName;
+        return getClient().prepareInsert(indexName, record.id(), builder);
     }
 }
@@ -29,12 +29,15 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSear
  */
 public class StorageEsDAO extends EsDAO implements StorageDAO {
 
-    public StorageEsDAO(ElasticSearchClient client) {
+    private final boolean partitionIndexByDay;
+
+    public StorageEsDAO(ElasticSearchClient client, boolean partitionIndexByDay) {
         super(client);
+        this.partitionIndexByDay = partitionIndexByDay;
     }
 
     @Override public IIndicatorDAO newIndicatorDao(StorageBuilder<Indicator> storageBuilder) {
-        return new IndicatorEsDAO(getClient(), storageBuilder);
+        return new IndicatorEsDAO(getClient(), storageBuilder, partitionIndexByDay);
     }
 
     @Override public IRegisterDAO newRegisterDao(StorageBuilder<RegisterSource> storageBuilder) {
@@ -42,6 +45,6 @@ public class StorageEsDAO extends EsDAO implements StorageDAO {
     }
 
     @Override public IRecordDAO newRecordDao(StorageBuilder<Record> storageBuilder) {
-        return new RecordEsDAO(getClient(), storageBuilder);
+        return new RecordEsDAO(getClient(), storageBuilder, partitionIndexByDay);
     }
 }
@@ -38,18 +38,32 @@ public class StorageEsInstaller extends ModelInstaller {
 
     private final int indexShardsNumber;
     private final int indexReplicasNumber;
+    private final boolean partitionIndexByDay;
     private final ColumnTypeEsMapping mapping;
 
-    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber) {
+    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber,
+        boolean partitionIndexByDay) {
         super(moduleManager);
         this.indexShardsNumber = indexShardsNumber;
         this.indexReplicasNumber = indexReplicasNumber;
+        this.partitionIndexByDay = partitionIndexByDay;
         this.mapping = new ColumnTypeEsMapping();
     }
 
+    /**
+     * The models which have history to delete are time series, they are installed as templates when the indices are
+     * partitioned by day.
+     */
+    private boolean isTimeSeries(Model tableDefine) {
+        return partitionIndexByDay && tableDefine.isDeleteHistory();
+    }
+
     @Override protected boolean isExists(Client client, Model tableDefine) throws StorageException {
         ElasticSearchClient esClient = (ElasticSearchClient)client;
         try {
+            if (isTimeSeries(tableDefine)) {
+                return esClient.isExistsTemplate(tableDefine.getName());
+            }
             return esClient.isExistsIndex(tableDefine.getName());
         } catch (IOException e) {
             throw new StorageException(e.getMessage());
@@ -64,7 +78,14 @@ public class StorageEsInstaller extends ModelInstaller {
         ElasticSearchClient esClient = (ElasticSearchClient)client;
 
         try {
-            if (!esClient.deleteIndex(tableDefine.getName())) {
+            if (isTimeSeries(tableDefine)) {
+                for (String indexName : esClient.retrievalIndexByAliases(tableDefine.getName())) {
+                    esClient.deleteIndex(indexName);
+                }
+                if (!esClient.deleteTemplate(tableDefine.getName())) {
+                    throw new StorageException(tableDefine.getName() + " template delete failure.");
+                }
+            } else if (!esClient.deleteIndex(tableDefine.getName())) {
                 throw new StorageException(tableDefine.getName() + " index delete failure.");
             }
         } catch (IOException e) {
@@ -88,7 +109,11 @@ public class StorageEsInstaller extends ModelInstaller {
 
         boolean isAcknowledged;
         try {
-            isAcknowledged = esClient.createIndex(tableDefine.getName(), settings, mappingBuilder);
+            if (isTimeSeries(tableDefine)) {
+                isAcknowledged = esClient.createTemplate(tableDefine.getName(), settings, mappingBuilder);
+            } else {
+                isAcknowledged = esClient.createIndex(tableDefine.getName(), settings, mappingBuilder);
+            }
         } catch (IOException e) {
             throw new StorageException(e.getMessage());
         }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.joda.time.DateTime;
+import org.joda.time.format.*;
+
+/**
+ * Maps the time bucket to the day partitioned index, the index is named as the model name with the day suffix, such
+ * as service_p99-20181115. The month time bucket is routed to the index of the first day of that month.
+ *
+ * @author peng-yongsheng
+ */
+public enum TimeSeriesUtils {
+    INSTANCE;
+
+    private static final String SPLIT = "-";
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormat.forPattern("yyyyMMdd");
+
+    public String timeSeries(String modelName, long timeBucket) {
+        return modelName + SPLIT + indexDay(timeBucket);
+    }
+
+    /**
+     * @return the indices covering the given time bucket range, both ends included.
+     */
+    public List<String> timeSeries(String modelName, long startTimeBucket, long endTimeBucket) {
+        boolean isMonth = String.valueOf(startTimeBucket).length() == 6;
+        DateTime startDay = DAY_FORMATTER.parseDateTime(String.valueOf(indexDay(startTimeBucket)));
+        DateTime endDay = DAY_FORMATTER.parseDateTime(String.valueOf(indexDay(endTimeBucket)));
+
+        List<String> indexNames = new ArrayList<>();
+        for (DateTime day = startDay; !day.isAfter(endDay); day = isMonth ? day.plusMonths(1) : day.plusDays(1)) {
+            indexNames.add(modelName + SPLIT + DAY_FORMATTER.print(day));
+        }
+        return indexNames;
+    }
+
+    public long indexDay(long timeBucket) {
+        switch (String.valueOf(timeBucket).length()) {
+            case 14:
+                return timeBucket / 1000000;
+            case 12:
+                return timeBucket / 10000;
+            case 10:
+                return timeBucket / 100;
+            case 8:
+                return timeBucket;
+            case 6:
+                return timeBucket * 100 + 1;
+            default:
+                throw new UnexpectedException("Unexpected time bucket: " + timeBucket);
+        }
+    }
+
+    /**
+     * @return the day of the given time series index, or -1 when the index isn't one of the given model.
+     */
+    public long indexDay(String modelName, String indexName) {
+        String suffix = indexName.substring(indexName.lastIndexOf(SPLIT) + 1);
+        if (!indexName.equals(modelName + SPLIT + suffix) || suffix.length() != 8) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.lock;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.IRegisterLockDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
@@ -30,6 +31,9 @@ import org.elasticsearch.common.xcontent.*;
 import org.slf4j.*;
 
 /**
+ * The sequences are leased by the update with the version of the read lock document, which fails when another node
+ * leased after the read.
+ *
  * @author peng-yongsheng
  */
 public class RegisterLockDAOImpl extends EsDAO implements IRegisterLockDAO {
@@ -92,4 +96,27 @@ public class RegisterLockDAOImpl extends EsDAO implements IRegisterLockDAO {
             logger.error("Release lock failure.");
         }
     }
+
+    @Override public int leaseSequences(Scope scope, int floor, int blockSize) {
+        String id = String.valueOf(scope.ordinal());
+        try {
+            GetResponse response = getClient().get(RegisterLockIndex.NAME, id);
+            if (!response.isExists()) {
+                return Const.NONE;
+            }
+
+            Object leased = response.getSource().get(RegisterLockIndex.COLUMN_SEQUENCE);
+            int first = Math.max(leased == null ? Const.NONE : ((Number)leased).intValue(), floor) + 1;
+
+            XContentBuilder source = XContentFactory.jsonBuilder().startObject();
+            source.field(RegisterLockIndex.COLUMN_SEQUENCE, first + blockSize - 1);
+            source.endObject();
+
+            getClient().forceUpdate(RegisterLockIndex.NAME, id, source, response.getVersion());
+            return first;
+        } catch (Throwable t) {
+            logger.warn("Lease the sequences of the row with the id {} failure, error message: {}", id, t.getMessage());
+            return Const.NONE;
+        }
+    }
 }
@@ -26,4 +26,5 @@ public class RegisterLockIndex {
     public static final String NAME = "register_lock";
     public static final String COLUMN_EXPIRE = "expire";
     public static final String COLUMN_LOCKABLE = "lockable";
+    public static final String COLUMN_SEQUENCE = "sequence";
 }
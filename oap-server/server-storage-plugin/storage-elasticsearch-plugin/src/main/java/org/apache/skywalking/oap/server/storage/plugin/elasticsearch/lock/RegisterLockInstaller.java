@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.lock;
 
 import java.io.IOException;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.source.Scope;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
@@ -70,6 +71,9 @@ public class RegisterLockInstaller {
             .startObject(RegisterLockIndex.COLUMN_LOCKABLE)
             .field("type", "boolean")
             .endObject()
+            .startObject(RegisterLockIndex.COLUMN_SEQUENCE)
+            .field("type", "integer")
+            .endObject()
             .endObject()
             .endObject();
 
@@ -82,6 +86,7 @@ public class RegisterLockInstaller {
             XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
             builder.field(RegisterLockIndex.COLUMN_EXPIRE, Long.MIN_VALUE);
             builder.field(RegisterLockIndex.COLUMN_LOCKABLE, true);
+            builder.field(RegisterLockIndex.COLUMN_SEQUENCE, Const.NONE);
             builder.endObject();
 
             client.forceInsert(RegisterLockIndex.NAME, String.valueOf(scopeId), builder);
@@ -20,13 +20,14 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 
 import java.io.IOException;
 import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.indicator.*;
 import org.apache.skywalking.oap.server.core.query.entity.*;
 import org.apache.skywalking.oap.server.core.query.sql.*;
 import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
 import org.apache.skywalking.oap.server.core.storage.query.IMetricQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
-import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.*;
 import org.elasticsearch.action.get.*;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
@@ -38,8 +39,11 @@ import org.elasticsearch.search.builder.SearchSourceBuilder;
  */
 public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
 
-    public MetricQueryEsDAO(ElasticSearchClient client) {
+    private final boolean partitionIndexByDay;
+
+    public MetricQueryEsDAO(ElasticSearchClient client, boolean partitionIndexByDay) {
         super(client);
+        this.partitionIndexByDay = partitionIndexByDay;
     }
 
     public IntValues getValues(String indName, Step step, long startTB, long endTB, Where where, String valueCName,
@@ -54,7 +58,12 @@ public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
 
         sourceBuilder.aggregation(entityIdAggregation);
 
-        SearchResponse response = getClient().search(indexName, sourceBuilder);
+        SearchResponse response;
+        if (partitionIndexByDay) {
+            response = getClient().search(TimeSeriesUtils.INSTANCE.timeSeries(indexName, startTB, endTB), sourceBuilder);
+        } else {
+            response = getClient().search(indexName, sourceBuilder);
+        }
 
         IntValues intValues = new IntValues();
         Terms idTerms = response.getAggregations().get(Indicator.ENTITY_ID);
@@ -85,11 +94,14 @@ public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
         String valueCName) throws IOException {
         String indexName = TimePyramidTableNameBuilder.build(step, indName);
 
-        MultiGetResponse response = getClient().multiGet(indexName, ids);
+        MultiGetResponse response = multiGet(indexName, ids);
 
         IntValues intValues = new IntValues();
         for (MultiGetItemResponse itemResponse : response.getResponses()) {
-            int value = ((Number)itemResponse.getResponse().getSource().getOrDefault(valueCName, 0)).intValue();
+            int value = 0;
+            if (!itemResponse.isFailed() && itemResponse.getResponse().isExists()) {
+                value = ((Number)itemResponse.getResponse().getSource().getOrDefault(valueCName, 0)).intValue();
+            }
 
             KVInt kvInt = new KVInt();
             kvInt.setId(itemResponse.getId());
@@ -103,14 +115,14 @@ public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
         String valueCName) throws IOException {
         String indexName = TimePyramidTableNameBuilder.build(step, indName);
 
-        MultiGetResponse response = getClient().multiGet(indexName, ids);
+        MultiGetResponse response = multiGet(indexName, ids);
 
         Thermodynamic thermodynamic = new Thermodynamic();
         List<List<Long>> thermodynamicValueMatrix = new ArrayList<>();
 
         int numOfSteps = 0;
         for (MultiGetItemResponse itemResponse : response.getResponses()) {
-            Map<String, Object> source = itemResponse.getResponse().getSource();
+            Map<String, Object> source = itemResponse.isFailed() ? null : itemResponse.getResponse().getSource();
             if (source == null) {
                 // add empty list to represent no data exist for this time bucket
                 thermodynamicValueMatrix.add(new ArrayList<>());
@@ -120,17 +132,14 @@ public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
                 numOfSteps = ((Number)source.get(ThermodynamicIndicator.NUM_OF_STEPS)).intValue();
 
                 String value = (String)source.get(ThermodynamicIndicator.DETAIL_GROUP);
-                IntKeyLongValueArray intKeyLongValues = new IntKeyLongValueArray(5);
-                intKeyLongValues.toObject(value);
+                Histogram histogram = new Histogram(value);
 
                 List<Long> axisYValues = new ArrayList<>();
                 for (int i = 0; i < numOfSteps; i++) {
                     axisYValues.add(0L);
                 }
 
-                for (IntKeyLongValue intKeyLongValue : intKeyLongValues) {
-                    axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
-                }
+                histogram.forEach(axisYValues::set);
 
                 thermodynamicValueMatrix.add(axisYValues);
             }
@@ -159,4 +168,21 @@ public class MetricQueryEsDAO extends EsDAO implements IMetricQueryDAO {
 
         return thermodynamic;
     }
+
+    /**
+     * The id starts with the time bucket, which routes the id to its day index when the indices are partitioned.
+     */
+    private MultiGetResponse multiGet(String indexName, List<String> ids) throws IOException {
+        if (!partitionIndexByDay) {
+            return getClient().multiGet(indexName, ids);
+        }
+
+        List<String> indexNames = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            int splitIndex = id.indexOf(Const.ID_SPLIT);
+            long timeBucket = Long.valueOf(splitIndex < 0 ? id : id.substring(0, splitIndex));
+            indexNames.add(TimeSeriesUtils.INSTANCE.timeSeries(indexName, timeBucket));
+        });
+        return getClient().multiGet(indexNames, ids);
+    }
 }
@@ -25,7 +25,7 @@ import org.apache.skywalking.oap.server.core.query.entity.*;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.util.*;
-import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.*;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.*;
 import org.elasticsearch.search.SearchHit;
@@ -37,8 +37,11 @@ import org.elasticsearch.search.sort.SortOrder;
  */
 public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
 
-    public TraceQueryEsDAO(ElasticSearchClient client) {
+    private final boolean partitionIndexByDay;
+
+    public TraceQueryEsDAO(ElasticSearchClient client, boolean partitionIndexByDay) {
         super(client);
+        this.partitionIndexByDay = partitionIndexByDay;
     }
 
     @Override
@@ -96,7 +99,12 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         sourceBuilder.size(limit);
         sourceBuilder.from(from);
 
-        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        SearchResponse response;
+        if (partitionIndexByDay && startSecondTB != 0 && endSecondTB != 0) {
+            response = getClient().search(TimeSeriesUtils.INSTANCE.timeSeries(SegmentRecord.INDEX_NAME, startSecondTB, endSecondTB), sourceBuilder);
+        } else {
+            response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        }
 
         TraceBrief traceBrief = new TraceBrief();
         traceBrief.setTotal((int)response.getHits().totalHits);
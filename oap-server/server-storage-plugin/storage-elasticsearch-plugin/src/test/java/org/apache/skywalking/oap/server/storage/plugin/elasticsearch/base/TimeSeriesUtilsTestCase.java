@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import org.junit.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class TimeSeriesUtilsTestCase {
+
+    @Test
+    public void testTimeSeries() {
+        TimeSeriesUtils utils = TimeSeriesUtils.INSTANCE;
+
+        Assert.assertEquals("segment-20181115", utils.timeSeries("segment", 20181115103045L));
+        Assert.assertEquals("service_p99-20181115", utils.timeSeries("service_p99", 201811151030L));
+        Assert.assertEquals("service_p99_hour-20181115", utils.timeSeries("service_p99_hour", 2018111510L));
+        Assert.assertEquals("service_p99_day-20181115", utils.timeSeries("service_p99_day", 20181115L));
+        Assert.assertEquals("service_p99_month-20181101", utils.timeSeries("service_p99_month", 201811L));
+    }
+
+    @Test
+    public void testRangeTimeSeries() {
+        TimeSeriesUtils utils = TimeSeriesUtils.INSTANCE;
+
+        Assert.assertEquals(Collections.singletonList("service_p99-20181115"), utils.timeSeries("service_p99", 201811151000L, 201811151030L));
+        Assert.assertEquals(Arrays.asList("segment-20181130", "segment-20181201", "segment-20181202"), utils.timeSeries("segment", 20181130235959L, 20181202000000L));
+        Assert.assertEquals(Arrays.asList("service_p99_month-20181101", "service_p99_month-20181201", "service_p99_month-20190101"), utils.timeSeries("service_p99_month", 201811L, 201901L));
+    }
+
+    @Test
+    public void testIndexDay() {
+        TimeSeriesUtils utils = TimeSeriesUtils.INSTANCE;
+
+        Assert.assertEquals(20181115L, utils.indexDay("service_p99", "service_p99-20181115"));
+        Assert.assertEquals(-1L, utils.indexDay("service_p99", "service_p99_hour-20181115"));
+        Assert.assertEquals(-1L, utils.indexDay("service_p99", "service_p99"));
+        Assert.assertEquals(-1L, utils.indexDay("service_p99", "service_p99-2018"));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.cache.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.core.storage.query.*;
+import org.apache.skywalking.oap.server.core.storage.ttl.*;
+import org.apache.skywalking.oap.server.library.client.h2.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.cache.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.lock.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.query.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.query.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.ColumnStore;
+
+/**
+ * The indicators are stored in the column store, the inventories, the records and the register lock stay in the
+ * embedded h2 database and share the DAOs of the h2 storage.
+ *
+ * @author peng-yongsheng
+ */
+public class StorageModuleTSDBProvider extends ModuleProvider {
+
+    private final StorageModuleTSDBConfig config;
+    private H2Client h2Client;
+    private ColumnStore columnStore;
+
+    public StorageModuleTSDBProvider() {
+        super();
+        this.config = new StorageModuleTSDBConfig();
+    }
+
+    @Override
+    public String name() {
+        return "tsdb";
+    }
+
+    @Override
+    public Class<? extends ModuleDefine> module() {
+        return StorageModule.class;
+    }
+
+    @Override
+    public ModuleConfig createConfigBeanIfAbsent() {
+        return config;
+    }
+
+    @Override
+    public void prepare() throws ServiceNotProvidedException {
+        h2Client = new H2Client(config.getUrl(), config.getUserName(), config.getPassword(), config.getMaxConnections());
+        columnStore = new ColumnStore(new File(config.getPath()));
+
+        this.registerServiceImplementation(IBatchDAO.class, new BatchProcessTSDBDAO(h2Client, columnStore));
+        this.registerServiceImplementation(StorageDAO.class, new StorageTSDBDAO(h2Client, columnStore));
+        this.registerServiceImplementation(IRegisterLockDAO.class, new RegisterLockH2DAO(h2Client, 1000));
+        this.registerServiceImplementation(IHistoryDeleteDAO.class, new HistoryDeleteTSDBDAO(h2Client, columnStore));
+
+        this.registerServiceImplementation(IServiceInventoryCacheDAO.class, new ServiceInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(IServiceInstanceInventoryCacheDAO.class, new ServiceInstanceInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(IEndpointInventoryCacheDAO.class, new EndpointInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(INetworkAddressInventoryCacheDAO.class, new NetworkAddressInventoryCacheH2DAO(h2Client));
+
+        this.registerServiceImplementation(ITopologyQueryDAO.class, new TopologyQueryTSDBDAO(columnStore));
+        this.registerServiceImplementation(IMetricQueryDAO.class, new MetricQueryTSDBDAO(columnStore));
+        this.registerServiceImplementation(ITraceQueryDAO.class, new TraceQueryH2DAO(h2Client));
+        this.registerServiceImplementation(IMetadataQueryDAO.class, new MetadataQueryH2DAO(h2Client));
+        this.registerServiceImplementation(IAggregationQueryDAO.class, new AggregationQueryTSDBDAO(columnStore));
+    }
+
+    @Override
+    public void start() throws ModuleStartException {
+        try {
+            h2Client.initialize();
+
+            IModelGetter modelGetter = getManager().find(CoreModule.NAME).getService(IModelGetter.class);
+            List<String> modelNames = new ArrayList<>();
+            for (Model model : modelGetter.getModels()) {
+                if (StorageTSDBInstaller.isTimeSeries(model)) {
+                    modelNames.add(model.getName());
+                }
+            }
+            columnStore.open(modelNames);
+
+            StorageTSDBInstaller installer = new StorageTSDBInstaller(getManager());
+            installer.install(h2Client);
+
+            RegisterLockH2Installer lockInstaller = new RegisterLockH2Installer(h2Client);
+            lockInstaller.install();
+        } catch (H2ClientException | StorageException | IOException e) {
+            throw new ModuleStartException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void notifyAfterCompleted() {
+        DataTTL dataTTL = new DataTTL(config.getTraceDataTTL(), config.getMinuteMetricDataTTL(), config.getHourMetricDataTTL(), config.getDayMetricDataTTL(), config.getMonthMetricDataTTL());
+        DataTTLKeeperTimer.INSTANCE.start(getManager(), dataTTL, config.getDataKeeperExecutePeriod());
+        columnStore.startCompaction(config.getCompactPeriod(), TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String[] requiredModules() {
+        return new String[0];
+    }
+}
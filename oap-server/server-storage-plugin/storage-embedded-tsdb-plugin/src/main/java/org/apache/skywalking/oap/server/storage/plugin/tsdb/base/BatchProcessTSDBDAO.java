@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.BatchProcessH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.*;
+import org.slf4j.*;
+
+/**
+ * The indicator rows are appended into the logs of their models, one append per model. The other statements go to the
+ * embedded h2.
+ *
+ * @author peng-yongsheng
+ */
+public class BatchProcessTSDBDAO extends BatchProcessH2DAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchProcessTSDBDAO.class);
+
+    private final ColumnStore columnStore;
+
+    public BatchProcessTSDBDAO(JDBCClient client, ColumnStore columnStore) {
+        super(client);
+        this.columnStore = columnStore;
+    }
+
+    @Override public void batchPersistence(List<?> batchCollection) {
+        if (CollectionUtils.isEmpty(batchCollection)) {
+            return;
+        }
+
+        Map<String, List<MemRow>> models = new LinkedHashMap<>();
+        List<Object> executors = new ArrayList<>();
+        batchCollection.forEach(item -> {
+            if (item instanceof ModelRow) {
+                models.computeIfAbsent(((ModelRow)item).getModelName(), name -> new ArrayList<>()).add(((ModelRow)item).getRow());
+            } else {
+                executors.add(item);
+            }
+        });
+
+        models.forEach((modelName, rows) -> {
+            try {
+                columnStore.store(modelName).write(rows);
+            } catch (IOException e) {
+                logger.error("Write " + rows.size() + " rows of model " + modelName + " failure.", e);
+            }
+        });
+        super.batchPersistence(executors);
+    }
+}
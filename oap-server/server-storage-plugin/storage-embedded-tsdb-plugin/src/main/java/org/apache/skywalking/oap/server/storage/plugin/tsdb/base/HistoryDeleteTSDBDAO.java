@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.HistoryDeleteH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.ColumnStore;
+
+/**
+ * The indicators are deleted by the whole blocks, so the data a little older than the TTL may stay until its block
+ * expires entirely.
+ *
+ * @author peng-yongsheng
+ */
+public class HistoryDeleteTSDBDAO extends HistoryDeleteH2DAO {
+
+    private final ColumnStore columnStore;
+
+    public HistoryDeleteTSDBDAO(JDBCClient client, ColumnStore columnStore) {
+        super(client);
+        this.columnStore = columnStore;
+    }
+
+    @Override
+    public void deleteHistory(String modelName, String timeBucketColumnName, Long timeBucketBefore) throws IOException {
+        if (columnStore.contains(modelName)) {
+            columnStore.store(modelName).deleteHistory(timeBucketBefore);
+        } else {
+            super.deleteHistory(modelName, timeBucketColumnName, timeBucketBefore);
+        }
+    }
+}
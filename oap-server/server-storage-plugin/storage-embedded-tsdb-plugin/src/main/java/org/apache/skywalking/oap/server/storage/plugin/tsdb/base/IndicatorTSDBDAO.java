@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class IndicatorTSDBDAO extends TSDBDAO implements IIndicatorDAO<ModelRow, ModelRow> {
+
+    private final StorageBuilder<Indicator> storageBuilder;
+
+    public IndicatorTSDBDAO(ColumnStore columnStore, StorageBuilder<Indicator> storageBuilder) {
+        super(columnStore);
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override public Indicator get(String modelName, Indicator indicator) throws IOException {
+        Row row = store(modelName).get(indicator.id(), indicator.getTimeBucket());
+        return row == null ? null : storageBuilder.map2Data(row.toMap());
+    }
+
+    @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) throws IOException {
+        ModelStore store = store(modelName);
+        List<Indicator> storedIndicators = new ArrayList<>(indicators.size());
+        for (Indicator indicator : indicators) {
+            Row row = store.get(indicator.id(), indicator.getTimeBucket());
+            if (row != null) {
+                storedIndicators.add(storageBuilder.map2Data(row.toMap()));
+            }
+        }
+        return storedIndicators;
+    }
+
+    @Override public ModelRow prepareBatchInsert(String modelName, Indicator indicator) throws IOException {
+        return new ModelRow(modelName, buildRow(indicator));
+    }
+
+    @Override public ModelRow prepareBatchUpdate(String modelName, Indicator indicator) throws IOException {
+        return new ModelRow(modelName, buildRow(indicator));
+    }
+
+    private MemRow buildRow(Indicator indicator) {
+        Map<String, Object> columns = new HashMap<>();
+        storageBuilder.data2Map(indicator).forEach((column, value) -> {
+            columns.put(column, value instanceof StorageDataType ? ((StorageDataType)value).toStorageData() : value);
+        });
+        return new MemRow(indicator.id(), columns);
+    }
+}
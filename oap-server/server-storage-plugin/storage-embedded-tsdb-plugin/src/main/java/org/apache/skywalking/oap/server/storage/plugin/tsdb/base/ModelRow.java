@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import lombok.Getter;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.MemRow;
+
+/**
+ * An indicator row to write into the column store, the insert and the update are the same row.
+ *
+ * @author peng-yongsheng
+ */
+@Getter
+public class ModelRow {
+
+    private final String modelName;
+    private final MemRow row;
+
+    public ModelRow(String modelName, MemRow row) {
+        this.modelName = modelName;
+        this.row = row;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.Client;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.StorageH2Installer;
+
+/**
+ * Creates the tables of the models out of the column store in the embedded h2.
+ *
+ * @author peng-yongsheng
+ */
+public class StorageTSDBInstaller extends StorageH2Installer {
+
+    public StorageTSDBInstaller(ModuleManager moduleManager) {
+        super(moduleManager);
+    }
+
+    @Override protected boolean isExists(Client client, Model tableDefine) throws StorageException {
+        return isTimeSeries(tableDefine) || super.isExists(client, tableDefine);
+    }
+
+    @Override protected void deleteTable(Client client, Model tableDefine) throws StorageException {
+        if (!isTimeSeries(tableDefine)) {
+            super.deleteTable(client, tableDefine);
+        }
+    }
+
+    @Override protected void createTable(Client client, Model tableDefine) throws StorageException {
+        if (!isTimeSeries(tableDefine)) {
+            super.createTable(client, tableDefine);
+        }
+    }
+
+    /**
+     * @return true for the models of the indicators, which are in the column store.
+     */
+    public static boolean isTimeSeries(Model model) {
+        return model.getTimePyramid() != null && model.getTimePyramid() != TimePyramid.Second;
+    }
+}
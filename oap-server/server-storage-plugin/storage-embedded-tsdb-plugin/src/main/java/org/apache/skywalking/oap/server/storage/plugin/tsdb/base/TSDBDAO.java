@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.storage.DAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public abstract class TSDBDAO implements DAO {
+
+    private final ColumnStore columnStore;
+
+    public TSDBDAO(ColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    protected final ModelStore store(String modelName) throws IOException {
+        return columnStore.store(modelName);
+    }
+
+    /**
+     * @return the rows of the indicator ids, which start with the time bucket, the ids not exist are absent.
+     */
+    protected final Map<String, Row> getRows(String modelName, List<String> ids) throws IOException {
+        ModelStore store = store(modelName);
+        Map<String, Row> rows = new HashMap<>();
+        for (String id : ids) {
+            int split = id.indexOf(Const.ID_SPLIT);
+            Row row = split > 0 ? store.get(id, Long.parseLong(id.substring(0, split))) : null;
+            if (row != null) {
+                rows.put(id, row);
+            }
+        }
+        return rows;
+    }
+
+    protected static long longValue(Row row, String column) {
+        Object value = row.get(column);
+        return value instanceof Number ? ((Number)value).longValue() : 0;
+    }
+
+    protected static String stringValue(Row row, String column) {
+        Object value = row.get(column);
+        return value == null ? null : String.valueOf(value);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.register.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.base.TSDBDAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.ColumnStore;
+
+/**
+ * @author peng-yongsheng
+ */
+public class AggregationQueryTSDBDAO extends TSDBDAO implements IAggregationQueryDAO {
+
+    private static final String VALUE = "value";
+
+    public AggregationQueryTSDBDAO(ColumnStore columnStore) {
+        super(columnStore);
+    }
+
+    @Override
+    public List<TopNEntity> getServiceTopN(String name, int topN, Step step, long startTB,
+        long endTB, Order order) throws IOException {
+        return aggregation(TimePyramidTableNameBuilder.build(step, name), null, 0, startTB, endTB, topN, order);
+    }
+
+    @Override public List<TopNEntity> getAllServiceInstanceTopN(String name, int topN, Step step,
+        long startTB, long endTB, Order order) throws IOException {
+        return aggregation(TimePyramidTableNameBuilder.build(step, name), null, 0, startTB, endTB, topN, order);
+    }
+
+    @Override public List<TopNEntity> getServiceInstanceTopN(int serviceId, String name, int topN,
+        Step step, long startTB, long endTB, Order order) throws IOException {
+        return aggregation(TimePyramidTableNameBuilder.build(step, name), ServiceInstanceInventory.SERVICE_ID, serviceId, startTB, endTB, topN, order);
+    }
+
+    @Override
+    public List<TopNEntity> getAllEndpointTopN(String name, int topN, Step step, long startTB,
+        long endTB, Order order) throws IOException {
+        return aggregation(TimePyramidTableNameBuilder.build(step, name), null, 0, startTB, endTB, topN, order);
+    }
+
+    @Override
+    public List<TopNEntity> getEndpointTopN(int serviceId, String name, int topN, Step step,
+        long startTB, long endTB, Order order) throws IOException {
+        return aggregation(TimePyramidTableNameBuilder.build(step, name), EndpointInventory.SERVICE_ID, serviceId, startTB, endTB, topN, order);
+    }
+
+    /**
+     * Averages the value of every entity, the rows are filtered by the equality of the given column when it is not
+     * null.
+     */
+    private List<TopNEntity> aggregation(String tableName, String conditionCName, long conditionValue, long startTB,
+        long endTB, int topN, Order order) throws IOException {
+        Map<String, long[]> sumAndCounts = new HashMap<>();
+        store(tableName).scan(startTB, endTB, row -> {
+            if (conditionCName == null || longValue(row, conditionCName) == conditionValue) {
+                long[] sumAndCount = sumAndCounts.computeIfAbsent(stringValue(row, Indicator.ENTITY_ID), id -> new long[2]);
+                sumAndCount[0] += longValue(row, VALUE);
+                sumAndCount[1]++;
+            }
+        });
+
+        List<TopNEntity> topNEntities = new ArrayList<>(sumAndCounts.size());
+        sumAndCounts.forEach((id, sumAndCount) -> {
+            TopNEntity topNEntity = new TopNEntity();
+            topNEntity.setId(id);
+            topNEntity.setValue((int)(sumAndCount[0] / sumAndCount[1]));
+            topNEntities.add(topNEntity);
+        });
+
+        Comparator<TopNEntity> comparator = Comparator.comparingInt(TopNEntity::getValue);
+        topNEntities.sort(Order.ASC.equals(order) ? comparator : comparator.reversed());
+        return topNEntities.size() > topN ? new ArrayList<>(topNEntities.subList(0, topN)) : topNEntities;
+    }
+}
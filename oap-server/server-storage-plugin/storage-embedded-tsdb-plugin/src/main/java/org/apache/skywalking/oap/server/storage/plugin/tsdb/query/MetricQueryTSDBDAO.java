@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.query.sql.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.base.TSDBDAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class MetricQueryTSDBDAO extends TSDBDAO implements IMetricQueryDAO {
+
+    public MetricQueryTSDBDAO(ColumnStore columnStore) {
+        super(columnStore);
+    }
+
+    @Override public IntValues getValues(String indName, Step step, long startTB, long endTB, Where where,
+        String valueCName, Function function) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        Map<String, long[]> sumAndCounts = new LinkedHashMap<>();
+        store(tableName).scan(startTB, endTB, row -> {
+            for (KeyValues keyValues : where.getKeyValues()) {
+                if (!keyValues.getValues().contains(stringValue(row, keyValues.getKey()))) {
+                    return;
+                }
+            }
+            long[] sumAndCount = sumAndCounts.computeIfAbsent(stringValue(row, Indicator.ENTITY_ID), id -> new long[2]);
+            sumAndCount[0] += longValue(row, valueCName);
+            sumAndCount[1]++;
+        });
+
+        IntValues intValues = new IntValues();
+        sumAndCounts.forEach((id, sumAndCount) -> {
+            KVInt value = new KVInt();
+            value.setId(id);
+            value.setValue((int)(Function.Sum.equals(function) ? sumAndCount[0] : sumAndCount[0] / sumAndCount[1]));
+            intValues.getValues().add(value);
+        });
+        return intValues;
+    }
+
+    @Override public IntValues getLinearIntValues(String indName, Step step, List<String> ids,
+        String valueCName) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        Map<String, Row> rows = getRows(tableName, ids);
+
+        IntValues intValues = new IntValues();
+        for (String id : ids) {
+            Row row = rows.get(id);
+            KVInt kvInt = new KVInt();
+            kvInt.setId(id);
+            kvInt.setValue(row == null ? 0 : (int)longValue(row, valueCName));
+            intValues.getValues().add(kvInt);
+        }
+        return intValues;
+    }
+
+    @Override public Thermodynamic getThermodynamic(String indName, Step step, List<String> ids,
+        String valueCName) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        Map<String, Row> rows = getRows(tableName, ids);
+
+        Thermodynamic thermodynamic = new Thermodynamic();
+        List<List<Long>> thermodynamicValueMatrix = new ArrayList<>();
+
+        int numOfSteps = 0;
+        for (String id : ids) {
+            Row row = rows.get(id);
+            if (row == null) {
+                // add empty list to represent no data exist for this time bucket
+                thermodynamicValueMatrix.add(new ArrayList<>());
+            } else {
+                thermodynamic.setAxisYStep((int)longValue(row, ThermodynamicIndicator.STEP));
+                numOfSteps = (int)longValue(row, ThermodynamicIndicator.NUM_OF_STEPS);
+
+                Histogram histogram = new Histogram(stringValue(row, ThermodynamicIndicator.DETAIL_GROUP));
+
+                List<Long> axisYValues = new ArrayList<>();
+                for (int i = 0; i < numOfSteps; i++) {
+                    axisYValues.add(0L);
+                }
+
+                histogram.forEach(axisYValues::set);
+
+                thermodynamicValueMatrix.add(axisYValues);
+            }
+        }
+
+        int defaultNumOfSteps = numOfSteps;
+
+        thermodynamicValueMatrix.forEach(columnOfThermodynamic -> {
+                if (columnOfThermodynamic.size() == 0) {
+                    for (int i = 0; i < defaultNumOfSteps; i++) {
+                        columnOfThermodynamic.add(0L);
+                    }
+                }
+            }
+        );
+
+        for (int colNum = 0; colNum < thermodynamicValueMatrix.size(); colNum++) {
+            List<Long> column = thermodynamicValueMatrix.get(colNum);
+            for (int rowNum = 0; rowNum < column.size(); rowNum++) {
+                thermodynamic.setNodeValue(colNum, rowNum, column.get(rowNum));
+            }
+        }
+
+        return thermodynamic;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.query;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.manual.endpointrelation.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.service.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.source.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.base.TSDBDAO;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class TopologyQueryTSDBDAO extends TSDBDAO implements ITopologyQueryDAO {
+
+    public TopologyQueryTSDBDAO(ColumnStore columnStore) {
+        super(columnStore);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedServerSideServiceRelations(Step step, long startTB, long endTB,
+        List<Integer> serviceIds) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationServerSideIndicator.INDEX_NAME);
+        return loadSpecifiedServiceRelations(tableName, startTB, endTB, serviceIds, ServiceRelationServerSideIndicator.SOURCE_SERVICE_ID, ServiceRelationServerSideIndicator.DEST_SERVICE_ID);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedClientSideServiceRelations(Step step, long startTB, long endTB,
+        List<Integer> serviceIds) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationClientSideIndicator.INDEX_NAME);
+        return loadSpecifiedServiceRelations(tableName, startTB, endTB, serviceIds, ServiceRelationClientSideIndicator.SOURCE_SERVICE_ID, ServiceRelationClientSideIndicator.DEST_SERVICE_ID);
+    }
+
+    private List<Call> loadSpecifiedServiceRelations(String tableName, long startTB, long endTB,
+        List<Integer> serviceIds, String sourceCName, String destCName) throws IOException {
+        if (CollectionUtils.isEmpty(serviceIds)) {
+            throw new UnexpectedException("Service id is null");
+        }
+
+        Set<Long> ids = new HashSet<>();
+        serviceIds.forEach(serviceId -> ids.add(serviceId.longValue()));
+        return load(tableName, startTB, endTB, row -> ids.contains(longValue(row, sourceCName)) || ids.contains(longValue(row, destCName)), sourceCName, destCName, Source.Service);
+    }
+
+    @Override public List<Call> loadServerSideServiceRelations(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationServerSideIndicator.INDEX_NAME);
+        return load(tableName, startTB, endTB, row -> true, ServiceRelationServerSideIndicator.SOURCE_SERVICE_ID, ServiceRelationServerSideIndicator.DEST_SERVICE_ID, Source.Service);
+    }
+
+    @Override public List<Call> loadClientSideServiceRelations(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationClientSideIndicator.INDEX_NAME);
+        return load(tableName, startTB, endTB, row -> true, ServiceRelationClientSideIndicator.SOURCE_SERVICE_ID, ServiceRelationClientSideIndicator.DEST_SERVICE_ID, Source.Service);
+    }
+
+    @Override public List<ServiceMapping> loadServiceMappings(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceMappingIndicator.INDEX_NAME);
+
+        List<ServiceMapping> serviceMappings = new ArrayList<>();
+        for (long[] pair : groupBy(tableName, startTB, endTB, row -> true, ServiceMappingIndicator.SERVICE_ID, ServiceMappingIndicator.MAPPING_SERVICE_ID)) {
+            ServiceMapping serviceMapping = new ServiceMapping();
+            serviceMapping.setServiceId((int)pair[0]);
+            serviceMapping.setMappingServiceId((int)pair[1]);
+            serviceMappings.add(serviceMapping);
+        }
+        return serviceMappings;
+    }
+
+    @Override
+    public List<ServiceComponent> loadServiceComponents(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceComponentIndicator.INDEX_NAME);
+
+        List<ServiceComponent> serviceComponents = new ArrayList<>();
+        for (long[] pair : groupBy(tableName, startTB, endTB, row -> true, ServiceComponentIndicator.SERVICE_ID, ServiceComponentIndicator.COMPONENT_ID)) {
+            ServiceComponent serviceComponent = new ServiceComponent();
+            serviceComponent.setServiceId((int)pair[0]);
+            serviceComponent.setComponentId((int)pair[1]);
+            serviceComponents.add(serviceComponent);
+        }
+        return serviceComponents;
+    }
+
+    @Override
+    public List<Call> loadSpecifiedDestOfServerSideEndpointRelations(Step step, long startTB, long endTB,
+        int destEndpointId) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, EndpointRelationServerSideIndicator.INDEX_NAME);
+        return load(tableName, startTB, endTB, row -> longValue(row, EndpointRelationServerSideIndicator.DEST_ENDPOINT_ID) == destEndpointId, EndpointRelationServerSideIndicator.SOURCE_ENDPOINT_ID, EndpointRelationServerSideIndicator.DEST_ENDPOINT_ID, Source.Endpoint);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedSourceOfClientSideEndpointRelations(Step step, long startTB, long endTB,
+        int sourceEndpointId) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, EndpointRelationClientSideIndicator.INDEX_NAME);
+        return load(tableName, startTB, endTB, row -> longValue(row, EndpointRelationClientSideIndicator.SOURCE_ENDPOINT_ID) == sourceEndpointId, EndpointRelationClientSideIndicator.SOURCE_ENDPOINT_ID, EndpointRelationClientSideIndicator.DEST_ENDPOINT_ID, Source.Endpoint);
+    }
+
+    private List<Call> load(String tableName, long startTB, long endTB, Predicate<Row> condition, String sourceCName,
+        String destCName, Source source) throws IOException {
+        List<Call> calls = new ArrayList<>();
+        for (long[] pair : groupBy(tableName, startTB, endTB, condition, sourceCName, destCName)) {
+            Call value = new Call();
+            value.setSource((int)pair[0]);
+            value.setTarget((int)pair[1]);
+            switch (source) {
+                case Service:
+                    value.setId(ServiceRelation.buildEntityId(value.getSource(), value.getTarget()));
+                    break;
+                case Endpoint:
+                    value.setId(EndpointRelation.buildEntityId(value.getSource(), value.getTarget()));
+                    break;
+            }
+            calls.add(value);
+        }
+        return calls;
+    }
+
+    /**
+     * @return the distinct pairs of the two columns in the time range, in the order of the first appearance.
+     */
+    private Collection<long[]> groupBy(String tableName, long startTB, long endTB, Predicate<Row> condition,
+        String firstCName, String secondCName) throws IOException {
+        Map<String, long[]> pairs = new LinkedHashMap<>();
+        store(tableName).scan(startTB, endTB, row -> {
+            if (condition.test(row)) {
+                long first = longValue(row, firstCName);
+                long second = longValue(row, secondCName);
+                pairs.putIfAbsent(first + "_" + second, new long[] {first, second});
+            }
+        });
+        return pairs.values();
+    }
+
+    enum Source {
+        Service, Endpoint
+    }
+}
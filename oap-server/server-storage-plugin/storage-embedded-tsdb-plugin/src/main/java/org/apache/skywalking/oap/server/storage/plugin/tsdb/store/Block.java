@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * An immutable file of the rows in one time range, such as the minutes of an hour, stored column by column. The rows
+ * are sorted by the time bucket and the id. The integer columns are delta and zigzag varint encoded, the string
+ * columns are dictionary encoded, the decimal columns are stored as they are.
+ *
+ * The file is memory mapped, the decoded columns are kept by a soft reference, so the memory could reclaim them. The
+ * decoded columns are copied out of the mapping, only the decoding reads the mapped file.
+ *
+ * @author peng-yongsheng
+ */
+class Block {
+
+    private static final int MAGIC = 0x54534442;
+    private static final byte VERSION = 1;
+    static final String SUFFIX = ".blk";
+
+    private final long key;
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private SoftReference<Columns> columnsReference = new SoftReference<>(null);
+    private volatile boolean closed;
+
+    private Block(long key, File file, MappedByteBuffer buffer) {
+        this.key = key;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    long getKey() {
+        return key;
+    }
+
+    /**
+     * @return the block of the time bucket, which is the time bucket of the upper level of the time pyramid, such as
+     * the hour of a minute.
+     */
+    static long key(long timeBucket) {
+        return timeBucket / 100;
+    }
+
+    /**
+     * @return true when all the time buckets of the block are before the given one.
+     */
+    boolean isBefore(long timeBucket) {
+        return (key + 1) * 100 <= timeBucket;
+    }
+
+    static Block open(File file) throws IOException {
+        String name = file.getName();
+        long key = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new Block(key, file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the rows into a temporary file first, then replaces the file of the block by it, so the readers and the
+     * crash never see a partial block.
+     */
+    static Block write(File directory, long key, Collection<? extends Row> rows) throws IOException {
+        List<Row> sortedRows = new ArrayList<>(rows);
+        sortedRows.sort(Comparator.comparingLong(Row::timeBucket).thenComparing(Row::id));
+
+        SortedMap<String, Byte> types = new TreeMap<>();
+        for (Row row : sortedRows) {
+            row.toMap().forEach((column, value) -> {
+                byte type = Codec.typeOf(value);
+                Byte existing = types.get(column);
+                if (existing == null || existing == Codec.TYPE_NULL) {
+                    types.put(column, type);
+                }
+            });
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        Codec.writeVarInt(output, sortedRows.size());
+        Codec.writeVarInt(output, types.size() + 1);
+
+        List<String> ids = new ArrayList<>(sortedRows.size());
+        sortedRows.forEach(row -> ids.add(row.id()));
+        writeColumn(output, null, Codec.TYPE_STRING, ids);
+        for (Map.Entry<String, Byte> type : types.entrySet()) {
+            List<Object> values = new ArrayList<>(sortedRows.size());
+            sortedRows.forEach(row -> values.add(row.get(type.getKey())));
+            writeColumn(output, type.getKey(), type.getValue(), values);
+        }
+        output.flush();
+
+        File file = new File(directory, key + SUFFIX);
+        File temporary = new File(directory, key + SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    private static void writeColumn(DataOutputStream output, String name, byte type,
+        List<?> values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream column = new DataOutputStream(bytes);
+        switch (type) {
+            case Codec.TYPE_LONG:
+                long previous = 0;
+                for (Object value : values) {
+                    long current = value instanceof Number ? ((Number)value).longValue() : 0;
+                    Codec.writeVarLong(column, Codec.zigzag(current - previous));
+                    previous = current;
+                }
+                break;
+            case Codec.TYPE_DOUBLE:
+                for (Object value : values) {
+                    column.writeDouble(value instanceof Number ? ((Number)value).doubleValue() : 0);
+                }
+                break;
+            default:
+                Map<String, Integer> dictionary = new LinkedHashMap<>();
+                int[] indexes = new int[values.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    String value = values.get(i) == null ? null : String.valueOf(values.get(i));
+                    Integer index = dictionary.get(value);
+                    if (index == null) {
+                        index = dictionary.size();
+                        dictionary.put(value, index);
+                    }
+                    indexes[i] = index;
+                }
+                Codec.writeVarInt(column, dictionary.size());
+                for (String value : dictionary.keySet()) {
+                    Codec.writeString(column, value);
+                }
+                for (int index : indexes) {
+                    Codec.writeVarInt(column, index);
+                }
+        }
+        column.flush();
+
+        Codec.writeString(output, name);
+        output.writeByte(type);
+        Codec.writeVarInt(output, bytes.size());
+        bytes.writeTo(output);
+    }
+
+    Columns columns() {
+        Columns columns = columnsReference.get();
+        if (columns == null) {
+            synchronized (this) {
+                columns = columnsReference.get();
+                if (columns == null) {
+                    columns = decode();
+                    columnsReference = new SoftReference<>(columns);
+                }
+            }
+        }
+        return columns;
+    }
+
+    private Columns decode() {
+        if (closed) {
+            throw new IllegalStateException("The block is closed: " + file.getAbsolutePath());
+        }
+        ByteBuffer input = buffer.duplicate();
+        if (input.getInt() != MAGIC || input.get() != VERSION) {
+            throw new IllegalStateException("Not a block file: " + file.getAbsolutePath());
+        }
+        int rowCount = Codec.readVarInt(input);
+        int columnCount = Codec.readVarInt(input);
+
+        String[] ids = null;
+        Map<String, Object> values = new HashMap<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            String name = Codec.readString(input);
+            byte type = input.get();
+            int length = Codec.readVarInt(input);
+            ByteBuffer column = (ByteBuffer)input.slice().limit(length);
+            input.position(input.position() + length);
+
+            Object array = decodeColumn(column, type, rowCount);
+            if (name == null) {
+                ids = (String[])array;
+            } else {
+                values.put(name, array);
+            }
+        }
+        return new Columns(ids, values);
+    }
+
+    private static Object decodeColumn(ByteBuffer column, byte type, int rowCount) {
+        switch (type) {
+            case Codec.TYPE_LONG:
+                long[] longs = new long[rowCount];
+                long previous = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    previous += Codec.unzigzag(Codec.readVarLong(column));
+                    longs[i] = previous;
+                }
+                return longs;
+            case Codec.TYPE_DOUBLE:
+                double[] doubles = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    doubles[i] = column.getDouble();
+                }
+                return doubles;
+            default:
+                String[] dictionary = new String[Codec.readVarInt(column)];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = Codec.readString(column);
+                }
+                String[] strings = new String[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    strings[i] = dictionary[Codec.readVarInt(column)];
+                }
+                return strings;
+        }
+    }
+
+    /**
+     * Unmaps the file, the block can't be decoded any more. The caller makes sure no reader is decoding it.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Cleaner cleaner = ((DirectBuffer)buffer).cleaner();
+        if (cleaner != null) {
+            cleaner.clean();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean delete() {
+        return file.delete();
+    }
+
+    /**
+     * The decoded columns of a block.
+     */
+    static class Columns {
+        private final String[] ids;
+        private final Map<String, Object> values;
+        private final long[] timeBuckets;
+        private final Map<String, Integer> idIndex;
+
+        private Columns(String[] ids, Map<String, Object> values) {
+            this.ids = ids;
+            this.values = values;
+            this.timeBuckets = (long[])values.get(Row.TIME_BUCKET);
+            this.idIndex = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                idIndex.put(ids[i], i);
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        long timeBucket(int index) {
+            return timeBuckets[index];
+        }
+
+        String id(int index) {
+            return ids[index];
+        }
+
+        /**
+         * @return the row of the id, or null if the block doesn't have it.
+         */
+        Row row(String id) {
+            Integer index = idIndex.get(id);
+            return index == null ? null : row(index);
+        }
+
+        Row row(int index) {
+            return new BlockRow(this, index);
+        }
+
+        private Object value(String column, int index) {
+            Object array = values.get(column);
+            if (array instanceof long[]) {
+                return ((long[])array)[index];
+            } else if (array instanceof double[]) {
+                return ((double[])array)[index];
+            } else if (array instanceof String[]) {
+                return ((String[])array)[index];
+            }
+            return null;
+        }
+    }
+
+    private static class BlockRow implements Row {
+        private final Columns columns;
+        private final int index;
+
+        private BlockRow(Columns columns, int index) {
+            this.columns = columns;
+            this.index = index;
+        }
+
+        @Override public String id() {
+            return columns.ids[index];
+        }
+
+        @Override public long timeBucket() {
+            return columns.timeBuckets[index];
+        }
+
+        @Override public Object get(String column) {
+            return columns.value(column, index);
+        }
+
+        @Override public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>(columns.values.size() * 2);
+            for (String column : columns.values.keySet()) {
+                map.put(column, columns.value(column, index));
+            }
+            return map;
+        }
+    }
+}
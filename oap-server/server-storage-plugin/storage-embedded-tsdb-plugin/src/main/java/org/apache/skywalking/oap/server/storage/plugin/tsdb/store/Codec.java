@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The varint, zigzag and typed value encoding shared by the minute log and the blocks. The integers take 1 byte per 7
+ * bits, the zigzag keeps the small negative deltas small too.
+ *
+ * @author peng-yongsheng
+ */
+final class Codec {
+
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_STRING = 3;
+
+    private Codec() {
+    }
+
+    static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int)value);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        writeVarLong(output, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        return (int)readVarLong(buffer);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * The length is written plus one, 0 means null.
+     */
+    static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length + 1);
+        output.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static byte typeOf(Object value) {
+        if (value == null) {
+            return TYPE_NULL;
+        } else if (value instanceof Double || value instanceof Float) {
+            return TYPE_DOUBLE;
+        } else if (value instanceof Number) {
+            return TYPE_LONG;
+        } else {
+            return TYPE_STRING;
+        }
+    }
+
+    static void writeValue(DataOutput output, Object value) throws IOException {
+        byte type = typeOf(value);
+        output.writeByte(type);
+        switch (type) {
+            case TYPE_LONG:
+                writeVarLong(output, zigzag(((Number)value).longValue()));
+                break;
+            case TYPE_DOUBLE:
+                output.writeDouble(((Number)value).doubleValue());
+                break;
+            case TYPE_STRING:
+                writeString(output, String.valueOf(value));
+                break;
+        }
+    }
+
+    static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_LONG:
+                return unzigzag(readVarLong(buffer));
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_STRING:
+                return readString(buffer);
+            case TYPE_NULL:
+                return null;
+            default:
+                throw new IllegalStateException("Unknown value type: " + type);
+        }
+    }
+}
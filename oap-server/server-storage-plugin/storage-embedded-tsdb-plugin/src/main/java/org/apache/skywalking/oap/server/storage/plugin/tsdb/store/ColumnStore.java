@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.slf4j.*;
+
+/**
+ * The stores of the models, each one in a directory named by the model under the root path.
+ *
+ * @author peng-yongsheng
+ */
+public class ColumnStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnStore.class);
+
+    private final File root;
+    private final Map<String, ModelStore> stores = new ConcurrentHashMap<>();
+    private ScheduledExecutorService compactExecutor;
+
+    public ColumnStore(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Opens the stores of the models, the rows in the logs of the last run are recovered.
+     */
+    public void open(Collection<String> modelNames) throws IOException {
+        for (String modelName : modelNames) {
+            ModelStore store = new ModelStore(modelName, new File(root, modelName));
+            store.open();
+            stores.put(modelName, store);
+        }
+        logger.info("column store opened at {}, {} models", root.getAbsolutePath(), stores.size());
+    }
+
+    public boolean contains(String modelName) {
+        return stores.containsKey(modelName);
+    }
+
+    public ModelStore store(String modelName) throws IOException {
+        ModelStore store = stores.get(modelName);
+        if (store == null) {
+            throw new IOException("Model " + modelName + " isn't in the column store.");
+        }
+        return store;
+    }
+
+    public void compact() {
+        for (ModelStore store : stores.values()) {
+            try {
+                store.compact();
+            } catch (IOException e) {
+                logger.error("Compact model " + store.getModelName() + " failure.", e);
+            }
+        }
+    }
+
+    public void startCompaction(long period, TimeUnit unit) {
+        compactExecutor = Executors.newSingleThreadScheduledExecutor();
+        compactExecutor.scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(this::compact,
+                t -> logger.error("Compact the column store failure.", t)), period, period, unit);
+    }
+
+    @Override public void close() throws IOException {
+        if (compactExecutor != null) {
+            compactExecutor.shutdownNow();
+        }
+        for (ModelStore store : stores.values()) {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.util.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class MemRow implements Row {
+
+    private final String id;
+    private final long timeBucket;
+    private final SortedMap<String, Object> columns;
+
+    /**
+     * @param columns the columns of the storage builders, which must have the time bucket.
+     */
+    public MemRow(String id, Map<String, Object> columns) {
+        this.id = id;
+        this.columns = new TreeMap<>();
+        columns.forEach((column, value) -> this.columns.put(column, normalize(value)));
+        this.timeBucket = ((Number)columns.get(TIME_BUCKET)).longValue();
+    }
+
+    private static Object normalize(Object value) {
+        switch (Codec.typeOf(value)) {
+            case Codec.TYPE_LONG:
+                return ((Number)value).longValue();
+            case Codec.TYPE_DOUBLE:
+                return ((Number)value).doubleValue();
+            case Codec.TYPE_STRING:
+                return String.valueOf(value);
+            default:
+                return null;
+        }
+    }
+
+    @Override public String id() {
+        return id;
+    }
+
+    @Override public long timeBucket() {
+        return timeBucket;
+    }
+
+    @Override public Object get(String column) {
+        return columns.get(column);
+    }
+
+    @Override public Map<String, Object> toMap() {
+        return new HashMap<>(columns);
+    }
+
+    SortedMap<String, Object> columns() {
+        return columns;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import org.slf4j.*;
+
+/**
+ * The append-only log of the rows not compacted into the blocks yet. Every record is the length, the crc32 and the
+ * row, the records after a torn or corrupted one are dropped when the log is replayed.
+ *
+ * @author peng-yongsheng
+ */
+class MinuteLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinuteLog.class);
+
+    private static final int RECORD_HEAD_SIZE = 8;
+
+    private final File file;
+    private final FileChannel channel;
+
+    MinuteLog(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the rows and forces them to the disk, one call per batch.
+     */
+    void append(Collection<MemRow> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOutput = new DataOutputStream(record);
+        CRC32 crc32 = new CRC32();
+        for (MemRow row : rows) {
+            record.reset();
+            Codec.writeString(recordOutput, row.id());
+            Codec.writeVarInt(recordOutput, row.columns().size());
+            for (Map.Entry<String, Object> column : row.columns().entrySet()) {
+                Codec.writeString(recordOutput, column.getKey());
+                Codec.writeValue(recordOutput, column.getValue());
+            }
+
+            crc32.reset();
+            crc32.update(record.toByteArray());
+            output.writeInt(record.size());
+            output.writeInt((int)crc32.getValue());
+            record.writeTo(output);
+        }
+        output.flush();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override public void close() throws IOException {
+        channel.close();
+    }
+
+    static List<MemRow> replay(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        List<MemRow> rows = new ArrayList<>();
+        CRC32 crc32 = new CRC32();
+        while (buffer.remaining() >= RECORD_HEAD_SIZE) {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            crc32.reset();
+            crc32.update(buffer.array(), buffer.position(), length);
+            if ((int)crc32.getValue() != crc) {
+                break;
+            }
+
+            ByteBuffer record = (ByteBuffer)buffer.slice().limit(length);
+            buffer.position(buffer.position() + length);
+            String id = Codec.readString(record);
+            int columnCount = Codec.readVarInt(record);
+            Map<String, Object> columns = new HashMap<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                columns.put(Codec.readString(record), Codec.readValue(record));
+            }
+            rows.add(new MemRow(id, columns));
+        }
+        if (buffer.hasRemaining()) {
+            logger.warn("The tail of the log {} is torn or corrupted, {} bytes are dropped.", file.getName(), buffer.remaining());
+        }
+        return rows;
+    }
+}
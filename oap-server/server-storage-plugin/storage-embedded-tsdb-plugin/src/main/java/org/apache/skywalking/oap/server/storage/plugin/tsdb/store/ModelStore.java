@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.*;
+import java.util.function.Consumer;
+import org.slf4j.*;
+
+/**
+ * The rows of one model. The written rows are appended into the minute log and kept in memory, the compaction moves
+ * them into the blocks of the upper time level, merging with the rows already in the block, then drops the logs.
+ *
+ * The rows in memory are newer than the same rows in the blocks, so the reads look up the memory first. The compacted
+ * rows leave the memory at the same time as their blocks are published, so the readers never miss them.
+ *
+ * The readers only decode the blocks under the read lock, so the blocks replaced or removed under the write lock have
+ * no reader left once it is released, and they are closed then.
+ *
+ * @author peng-yongsheng
+ */
+public class ModelStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelStore.class);
+
+    private static final String LOG_PREFIX = "minute-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final String modelName;
+    private final File directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object compactLock = new Object();
+    private final Map<String, MemRow> memTable = new HashMap<>();
+    private final ConcurrentSkipListMap<Long, Block> blocks = new ConcurrentSkipListMap<>();
+    private MinuteLog log;
+    private long logSequence;
+
+    ModelStore(String modelName, File directory) {
+        this.modelName = modelName;
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the blocks, then replays the logs left by the last run, the rows of the logs are compacted later.
+     */
+    void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Create the directory " + directory.getAbsolutePath() + " failure.");
+        }
+
+        File[] files = directory.listFiles();
+        SortedMap<Long, File> logs = new TreeMap<>();
+        for (File file : files == null ? new File[0] : files) {
+            String name = file.getName();
+            if (name.endsWith(Block.SUFFIX)) {
+                Block block = Block.open(file);
+                blocks.put(block.getKey(), block);
+            } else if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                logs.put(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())), file);
+            } else if (name.endsWith(".tmp") && !file.delete()) {
+                logger.warn("Delete the temporary file {} failure.", file.getAbsolutePath());
+            }
+        }
+
+        for (File logFile : logs.values()) {
+            for (MemRow row : MinuteLog.replay(logFile)) {
+                memTable.put(row.id(), row);
+            }
+        }
+        logSequence = logs.isEmpty() ? 0 : logs.lastKey() + 1;
+        log = new MinuteLog(logFile(logSequence));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Model {} opened, {} blocks, {} rows replayed from {} logs.", modelName, blocks.size(), memTable.size(), logs.size());
+        }
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    /**
+     * The rows replace the ones with the same ids.
+     */
+    public void write(List<MemRow> rows) throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.append(rows);
+            rows.forEach(row -> memTable.put(row.id(), row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the row of the id, or null if not exists.
+     */
+    public Row get(String id, long timeBucket) {
+        lock.readLock().lock();
+        try {
+            Row row = memTable.get(id);
+            if (row == null) {
+                Block block = blocks.get(Block.key(timeBucket));
+                row = block == null ? null : block.columns().row(id);
+            }
+            return row;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits the rows of the time buckets between the start and the end, both inclusive.
+     */
+    public void scan(long startTimeBucket, long endTimeBucket, Consumer<Row> consumer) {
+        lock.readLock().lock();
+        try {
+            for (Block block : blocks.subMap(Block.key(startTimeBucket), true, Block.key(endTimeBucket), true).values()) {
+                Block.Columns columns = block.columns();
+                for (int i = 0; i < columns.size(); i++) {
+                    long timeBucket = columns.timeBucket(i);
+                    if (timeBucket >= startTimeBucket && timeBucket <= endTimeBucket && !memTable.containsKey(columns.id(i))) {
+                        consumer.accept(columns.row(i));
+                    }
+                }
+            }
+            for (MemRow row : memTable.values()) {
+                if (row.timeBucket() >= startTimeBucket && row.timeBucket() <= endTimeBucket) {
+                    consumer.accept(row);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the rows in memory into the blocks. The writes go on into a new log during the compaction, the sealed logs
+     * are deleted after the blocks are published, a crash before that replays them again.
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            List<MemRow> rows;
+            long sealedSequence;
+            lock.writeLock().lock();
+            try {
+                if (memTable.isEmpty()) {
+                    return;
+                }
+                rows = new ArrayList<>(memTable.values());
+                sealedSequence = logSequence;
+                log.close();
+                log = new MinuteLog(logFile(++logSequence));
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Long, Map<String, Row>> groups = new TreeMap<>();
+            for (MemRow row : rows) {
+                groups.computeIfAbsent(Block.key(row.timeBucket()), key -> new HashMap<>()).put(row.id(), row);
+            }
+
+            List<Block> compacted = new ArrayList<>(groups.size());
+            for (Map.Entry<Long, Map<String, Row>> group : groups.entrySet()) {
+                Map<String, Row> merged = new HashMap<>();
+                Block existing = blocks.get(group.getKey());
+                if (existing != null) {
+                    Block.Columns columns = existing.columns();
+                    for (int i = 0; i < columns.size(); i++) {
+                        merged.put(columns.id(i), columns.row(i));
+                    }
+                }
+                merged.putAll(group.getValue());
+                compacted.add(Block.write(directory, group.getKey(), merged.values()));
+            }
+
+            List<Block> replaced = new ArrayList<>(compacted.size());
+            lock.writeLock().lock();
+            try {
+                for (Block block : compacted) {
+                    Block previous = blocks.put(block.getKey(), block);
+                    if (previous != null) {
+                        replaced.add(previous);
+                    }
+                }
+                rows.forEach(row -> memTable.remove(row.id(), row));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            replaced.forEach(Block::close);
+
+            deleteLogs(sealedSequence);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Model {} compacted {} rows into {} blocks.", modelName, rows.size(), compacted.size());
+            }
+        }
+    }
+
+    private void deleteLogs(long sealedSequence) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX));
+        for (File file : files == null ? new File[0] : files) {
+            String name = file.getName();
+            long sequence = Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+            if (sequence <= sealedSequence && !file.delete()) {
+                logger.warn("Delete the compacted log {} failure.", file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Deletes the whole blocks which all the time buckets are before the given one, the rows of them still in memory
+     * are dropped too.
+     */
+    public void deleteHistory(long timeBucketBefore) {
+        synchronized (compactLock) {
+            List<Block> expired = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                for (Block block : blocks.values()) {
+                    if (block.isBefore(timeBucketBefore)) {
+                        expired.add(block);
+                    }
+                }
+                expired.forEach(block -> blocks.remove(block.getKey()));
+                memTable.values().removeIf(row -> (Block.key(row.timeBucket()) + 1) * 100 <= timeBucketBefore);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            for (Block block : expired) {
+                block.close();
+                if (!block.delete()) {
+                    logger.warn("Delete the block {} of model {} failure.", block.getKey(), modelName);
+                }
+            }
+        }
+    }
+
+    Block block(long key) {
+        return blocks.get(key);
+    }
+
+    int blockCount() {
+        return blocks.size();
+    }
+
+    int memTableSize() {
+        lock.readLock().lock();
+        try {
+            return memTable.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+            blocks.values().forEach(Block::close);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private File logFile(long sequence) {
+        return new File(directory, LOG_PREFIX + sequence + LOG_SUFFIX);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.util.Map;
+
+/**
+ * A row of a model, either written recently and kept in memory, or read from a block.
+ *
+ * @author peng-yongsheng
+ */
+public interface Row {
+
+    String TIME_BUCKET = "time_bucket";
+
+    String id();
+
+    long timeBucket();
+
+    /**
+     * @return the value of the column, the integers are {@link Long}, the decimals are {@link Double}.
+     */
+    Object get(String column);
+
+    /**
+     * @return all the columns except the id, which is the map expected by the storage builders.
+     */
+    Map<String, Object> toMap();
+}
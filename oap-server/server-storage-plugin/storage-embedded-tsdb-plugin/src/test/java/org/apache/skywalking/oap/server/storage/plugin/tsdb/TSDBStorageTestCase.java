@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb;
+
+import java.io.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideIndicator;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.query.sql.*;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.StorageAnnotationListener;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.h2.H2Client;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.query.*;
+import org.apache.skywalking.oap.server.storage.plugin.tsdb.store.ColumnStore;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the path from the persistence to the queries, the indicators go to the column store, the others go to an
+ * in-memory h2 database.
+ *
+ * @author peng-yongsheng
+ */
+public class TSDBStorageTestCase {
+
+    private static final long MINUTE = 201810171200L;
+    private static final long NEXT_HOUR_MINUTE = 201810171300L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private H2Client client;
+    private File root;
+    private List<String> modelNames;
+    private ColumnStore columnStore;
+    private StorageTSDBDAO storageDAO;
+    private BatchProcessTSDBDAO batchDAO;
+
+    @Before
+    public void before() throws Exception {
+        client = new H2Client("jdbc:h2:mem:" + UUID.randomUUID().toString() + ";DB_CLOSE_DELAY=-1", "sa", "", 2);
+        client.initialize();
+
+        StorageAnnotationListener listener = new StorageAnnotationListener();
+        listener.notify(ServiceInventory.class);
+        listener.notify(SegmentRecord.class);
+        listener.notify(ServiceRelationServerSideIndicator.class);
+        listener.notify(ServicePercentileIndicator.class);
+        listener.notify(ServiceCpmIndicator.class);
+
+        modelNames = new ArrayList<>();
+        for (Model model : listener.getModels()) {
+            if (StorageTSDBInstaller.isTimeSeries(model)) {
+                modelNames.add(model.getName());
+            }
+        }
+        Assert.assertEquals(12, modelNames.size());
+
+        root = folder.newFolder();
+        columnStore = new ColumnStore(root);
+        columnStore.open(modelNames);
+
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        LinkedList<ModuleProvider> loadedProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        loadedProviders.add(moduleProvider);
+
+        ModuleManager moduleManager = Mockito.mock(ModuleManager.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+        when(moduleProvider.getService(IModelGetter.class)).thenReturn(listener);
+
+        new StorageTSDBInstaller(moduleManager).install(client);
+
+        storageDAO = new StorageTSDBDAO(client, columnStore);
+        batchDAO = new BatchProcessTSDBDAO(client, columnStore);
+    }
+
+    @After
+    public void after() throws IOException {
+        columnStore.close();
+        client.shutdown();
+    }
+
+    @Test
+    public void indicator() throws Exception {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServicePercentileIndicator.Builder()));
+        String modelName = "service_percentile";
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("1", MINUTE, 100)));
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("1", NEXT_HOUR_MINUTE, 300)));
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("2", MINUTE, 50)));
+        batchDAO.batchPersistence(batch);
+        columnStore.compact();
+
+        ServicePercentileIndicator updated = p99("2", MINUTE, 70);
+        batchDAO.batchPersistence(Collections.singletonList(indicatorDAO.prepareBatchUpdate(modelName, updated)));
+
+        List<Indicator> indicators = indicatorDAO.multiGet(modelName, Arrays.asList(updated, p99("1", NEXT_HOUR_MINUTE, 0), p99("3", MINUTE, 0)));
+        Assert.assertEquals(2, indicators.size());
+        for (Indicator indicator : indicators) {
+            ServicePercentileIndicator p99 = (ServicePercentileIndicator)indicator;
+            Assert.assertEquals(p99.getEntityId().equals("2") ? 70 : 300, p99.getP99());
+            Assert.assertEquals(10, p99.getPrecision());
+            Assert.assertEquals(1, p99.getDetailGroup().size());
+        }
+
+        MetricQueryTSDBDAO metricQueryDAO = new MetricQueryTSDBDAO(columnStore);
+        Where where = new Where();
+        KeyValues keyValues = new KeyValues();
+        keyValues.setKey(Indicator.ENTITY_ID);
+        keyValues.getValues().add("1");
+        where.getKeyValues().add(keyValues);
+        IntValues values = metricQueryDAO.getValues(modelName, Step.MINUTE, MINUTE, NEXT_HOUR_MINUTE, where, "p99", Function.Avg);
+        Assert.assertEquals(1, values.getValues().size());
+        Assert.assertEquals(200, values.getValues().get(0).getValue());
+
+        IntValues linearValues = metricQueryDAO.getLinearIntValues(modelName, Step.MINUTE, Arrays.asList(MINUTE + "_1", NEXT_HOUR_MINUTE + "_1", (MINUTE + 1) + "_1"), "p99");
+        Assert.assertEquals(100, linearValues.getValues().get(0).getValue());
+        Assert.assertEquals(300, linearValues.getValues().get(1).getValue());
+        Assert.assertEquals(0, linearValues.getValues().get(2).getValue());
+
+        IIndicatorDAO cpmDAO = storageDAO.newIndicatorDao(builder(new ServiceCpmIndicator.Builder()));
+        batch.clear();
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("1", MINUTE, 100)));
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("1", NEXT_HOUR_MINUTE, 300)));
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("2", MINUTE, 50)));
+        batchDAO.batchPersistence(batch);
+        List<TopNEntity> topN = new AggregationQueryTSDBDAO(columnStore).getServiceTopN("service_cpm", 1, Step.MINUTE, MINUTE, NEXT_HOUR_MINUTE, Order.DES);
+        Assert.assertEquals(1, topN.size());
+        Assert.assertEquals("1", topN.get(0).getId());
+        Assert.assertEquals(200, topN.get(0).getValue());
+
+        new HistoryDeleteTSDBDAO(client, columnStore).deleteHistory(modelName, Indicator.TIME_BUCKET, NEXT_HOUR_MINUTE);
+        Assert.assertNull(indicatorDAO.get(modelName, p99("1", MINUTE, 0)));
+        Assert.assertNull(indicatorDAO.get(modelName, updated));
+        Assert.assertNotNull(indicatorDAO.get(modelName, p99("1", NEXT_HOUR_MINUTE, 0)));
+    }
+
+    @Test
+    public void recover() throws Exception {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServicePercentileIndicator.Builder()));
+        String modelName = "service_percentile";
+
+        batchDAO.batchPersistence(Collections.singletonList(indicatorDAO.prepareBatchInsert(modelName, p99("1", MINUTE, 100))));
+        columnStore.compact();
+        batchDAO.batchPersistence(Collections.singletonList(indicatorDAO.prepareBatchInsert(modelName, p99("1", MINUTE + 1, 200))));
+        columnStore.close();
+
+        columnStore = new ColumnStore(root);
+        columnStore.open(modelNames);
+        indicatorDAO = new StorageTSDBDAO(client, columnStore).newIndicatorDao(builder(new ServicePercentileIndicator.Builder()));
+        Assert.assertEquals(100, ((ServicePercentileIndicator)indicatorDAO.get(modelName, p99("1", MINUTE, 0))).getP99());
+        Assert.assertEquals(200, ((ServicePercentileIndicator)indicatorDAO.get(modelName, p99("1", MINUTE + 1, 0))).getP99());
+    }
+
+    @Test
+    public void topology() throws IOException {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServiceRelationServerSideIndicator.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(NEXT_HOUR_MINUTE, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 3, 4)));
+        batchDAO.batchPersistence(batch);
+
+        TopologyQueryTSDBDAO topologyQueryDAO = new TopologyQueryTSDBDAO(columnStore);
+        Assert.assertEquals(2, topologyQueryDAO.loadServerSideServiceRelations(Step.MINUTE, MINUTE, NEXT_HOUR_MINUTE).size());
+
+        columnStore.compact();
+        List<Call> calls = topologyQueryDAO.loadSpecifiedServerSideServiceRelations(Step.MINUTE, MINUTE, MINUTE, Collections.singletonList(2));
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(1, calls.get(0).getSource());
+        Assert.assertEquals(2, calls.get(0).getTarget());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends StorageData> StorageBuilder<T> builder(StorageBuilder builder) {
+        return builder;
+    }
+
+    private ServicePercentileIndicator p99(String entityId, long timeBucket, int value) {
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
+        indicator.setEntityId(entityId);
+        indicator.setTimeBucket(timeBucket);
+        indicator.setP99(value);
+        indicator.setPrecision(10);
+        Histogram detailGroup = new Histogram();
+        detailGroup.increment(value / 10);
+        indicator.setDetailGroup(detailGroup);
+        return indicator;
+    }
+
+    private ServiceCpmIndicator cpm(String entityId, long timeBucket, long value) {
+        ServiceCpmIndicator indicator = new ServiceCpmIndicator();
+        indicator.setEntityId(entityId);
+        indicator.setTimeBucket(timeBucket);
+        indicator.setValue(value);
+        indicator.setTotal(value);
+        return indicator;
+    }
+
+    private ServiceRelationServerSideIndicator relation(long timeBucket, int sourceServiceId, int destServiceId) {
+        ServiceRelationServerSideIndicator indicator = new ServiceRelationServerSideIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setSourceServiceId(sourceServiceId);
+        indicator.setDestServiceId(destServiceId);
+        return indicator;
+    }
+}
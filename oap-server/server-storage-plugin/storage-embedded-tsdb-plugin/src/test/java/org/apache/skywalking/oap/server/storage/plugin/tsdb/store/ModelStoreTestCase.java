@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.tsdb.store;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class ModelStoreTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelStoreTestCase.class);
+
+    private static final long MINUTE = 201810171200L;
+    private static final long NEXT_HOUR_MINUTE = 201810171300L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private ModelStore store;
+
+    @Before
+    public void before() throws IOException {
+        directory = folder.newFolder("service_p99");
+        store = open();
+    }
+
+    @After
+    public void after() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void recoverFromLog() throws IOException {
+        store.write(Arrays.asList(row("1", MINUTE, 100), row("2", MINUTE, 200)));
+        store.write(Collections.singletonList(row("1", MINUTE, 150)));
+        store.close();
+
+        store = open();
+        Assert.assertEquals(2, store.memTableSize());
+        Assert.assertEquals(0, store.blockCount());
+        Assert.assertEquals(150L, store.get(MINUTE + "_1", MINUTE).get("value"));
+        Assert.assertEquals("2", store.get(MINUTE + "_2", MINUTE).get("entity_id"));
+    }
+
+    @Test
+    public void ignoreTornLogTail() throws IOException {
+        store.write(Collections.singletonList(row("1", MINUTE, 100)));
+        store.write(Collections.singletonList(row("2", MINUTE, 200)));
+        store.close();
+
+        File log = new File(directory, "minute-0.log");
+        try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        store = open();
+        Assert.assertEquals(1, store.memTableSize());
+        Assert.assertNotNull(store.get(MINUTE + "_1", MINUTE));
+        Assert.assertNull(store.get(MINUTE + "_2", MINUTE));
+    }
+
+    @Test
+    public void recoverFromBlocks() throws IOException {
+        store.write(Arrays.asList(row("1", MINUTE, 100), row("1", MINUTE + 1, -20), row("1", NEXT_HOUR_MINUTE, 300)));
+        store.compact();
+        Assert.assertEquals(0, store.memTableSize());
+        Assert.assertEquals(2, store.blockCount());
+        store.close();
+
+        String[] logs = directory.list((dir, name) -> name.endsWith(".log"));
+        Assert.assertEquals(1, logs.length);
+
+        store = open();
+        Assert.assertEquals(0, store.memTableSize());
+        Assert.assertEquals(2, store.blockCount());
+        Assert.assertEquals(-20L, store.get((MINUTE + 1) + "_1", MINUTE + 1).get("value"));
+        Assert.assertEquals(1.5D, store.get(NEXT_HOUR_MINUTE + "_1", NEXT_HOUR_MINUTE).get("rate"));
+        Assert.assertNull(store.get(MINUTE + "_2", MINUTE));
+
+        List<Row> rows = new ArrayList<>();
+        store.scan(MINUTE, MINUTE + 1, rows::add);
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals(MINUTE, rows.get(0).timeBucket());
+        Assert.assertEquals(MINUTE + 1, rows.get(1).timeBucket());
+    }
+
+    @Test
+    public void mergeIntoExistingBlock() throws IOException {
+        store.write(Arrays.asList(row("1", MINUTE, 100), row("2", MINUTE, 200)));
+        store.compact();
+
+        store.write(Arrays.asList(row("2", MINUTE, 250), row("3", MINUTE + 1, 300)));
+        List<Row> rows = new ArrayList<>();
+        store.scan(MINUTE, MINUTE + 1, rows::add);
+        Assert.assertEquals(3, rows.size());
+        Assert.assertEquals(250L, store.get(MINUTE + "_2", MINUTE).get("value"));
+
+        Block replaced = store.block(MINUTE / 100);
+        store.compact();
+        Assert.assertTrue(replaced.isClosed());
+        Assert.assertFalse(store.block(MINUTE / 100).isClosed());
+        Assert.assertEquals(1, store.blockCount());
+        Assert.assertEquals(0, store.memTableSize());
+
+        rows.clear();
+        store.scan(MINUTE, MINUTE + 1, rows::add);
+        Assert.assertEquals(3, rows.size());
+        Assert.assertEquals(100L, store.get(MINUTE + "_1", MINUTE).get("value"));
+        Assert.assertEquals(250L, store.get(MINUTE + "_2", MINUTE).get("value"));
+        Assert.assertEquals(300L, store.get((MINUTE + 1) + "_3", MINUTE + 1).get("value"));
+    }
+
+    @Test
+    public void deleteWholeBlocks() throws IOException {
+        store.write(Arrays.asList(row("1", MINUTE, 100), row("1", NEXT_HOUR_MINUTE, 300)));
+        store.compact();
+        store.write(Collections.singletonList(row("2", MINUTE + 1, 200)));
+
+        store.deleteHistory(MINUTE + 30);
+        Assert.assertEquals(2, store.blockCount());
+
+        Block expired = store.block(MINUTE / 100);
+        store.deleteHistory(NEXT_HOUR_MINUTE);
+        Assert.assertTrue(expired.isClosed());
+        Assert.assertEquals(1, store.blockCount());
+        Assert.assertEquals(0, store.memTableSize());
+        Assert.assertNull(store.get(MINUTE + "_1", MINUTE));
+        Assert.assertNull(store.get((MINUTE + 1) + "_2", MINUTE + 1));
+        Assert.assertNotNull(store.get(NEXT_HOUR_MINUTE + "_1", NEXT_HOUR_MINUTE));
+        Assert.assertFalse(new File(directory, (MINUTE / 100) + ".blk").exists());
+    }
+
+    /**
+     * Not a strict benchmark, only to compare the best time of the point reads and the range scans on the compacted
+     * blocks with a hash map holding the same rows.
+     */
+    @Test
+    public void compareQueryLatencyWithMap() throws IOException {
+        int entities = 200;
+        int minutes = 60;
+        Map<String, Row> baseline = new HashMap<>();
+        List<MemRow> rows = new ArrayList<>(entities * minutes);
+        for (int minute = 0; minute < minutes; minute++) {
+            for (int entity = 0; entity < entities; entity++) {
+                MemRow row = row(String.valueOf(entity), MINUTE + minute, entity * minute);
+                rows.add(row);
+                baseline.put(row.id(), row);
+            }
+        }
+        store.write(rows);
+        store.compact();
+        Assert.assertEquals(0, store.memTableSize());
+
+        long storeGetNanos = Long.MAX_VALUE;
+        long mapGetNanos = Long.MAX_VALUE;
+        long storeScanNanos = Long.MAX_VALUE;
+        long mapScanNanos = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < 50; round++) {
+            long start = System.nanoTime();
+            for (MemRow row : rows) {
+                checksum += ((Number)store.get(row.id(), row.timeBucket()).get("value")).longValue();
+            }
+            storeGetNanos = Math.min(storeGetNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (MemRow row : rows) {
+                checksum -= ((Number)baseline.get(row.id()).get("value")).longValue();
+            }
+            mapGetNanos = Math.min(mapGetNanos, System.nanoTime() - start);
+
+            long[] scanned = new long[1];
+            start = System.nanoTime();
+            store.scan(MINUTE + 10, MINUTE + 19, row -> scanned[0]++);
+            storeScanNanos = Math.min(storeScanNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (Row row : baseline.values()) {
+                if (row.timeBucket() >= MINUTE + 10 && row.timeBucket() <= MINUTE + 19) {
+                    scanned[0]--;
+                }
+            }
+            mapScanNanos = Math.min(mapScanNanos, System.nanoTime() - start);
+            Assert.assertEquals(0, scanned[0]);
+        }
+        Assert.assertEquals(0, checksum);
+
+        logger.info("point read of {} rows, blocks: {} ns/row, map: {} ns/row", rows.size(), storeGetNanos / rows.size(), mapGetNanos / rows.size());
+        logger.info("scan of 10 minutes, blocks: {} us, map: {} us", storeScanNanos / 1000, mapScanNanos / 1000);
+        Assert.assertTrue("the point reads of the decoded blocks are expected to be close to the map", storeGetNanos < mapGetNanos * 20);
+    }
+
+    private ModelStore open() throws IOException {
+        ModelStore modelStore = new ModelStore("service_p99", directory);
+        modelStore.open();
+        return modelStore;
+    }
+
+    private static MemRow row(String entityId, long timeBucket, int value) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("entity_id", entityId);
+        columns.put(Row.TIME_BUCKET, timeBucket);
+        columns.put("value", value);
+        columns.put("rate", 1.5D);
+        columns.put("detail_group", value / 10 + ",1");
+        return new MemRow(timeBucket + "_" + entityId, columns);
+    }
+}
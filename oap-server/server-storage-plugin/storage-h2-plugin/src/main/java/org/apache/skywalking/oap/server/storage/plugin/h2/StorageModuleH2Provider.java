@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2;
+
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.cache.*;
+import org.apache.skywalking.oap.server.core.storage.query.*;
+import org.apache.skywalking.oap.server.core.storage.ttl.*;
+import org.apache.skywalking.oap.server.library.client.h2.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.cache.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.lock.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.query.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class StorageModuleH2Provider extends ModuleProvider {
+
+    private final StorageModuleH2Config config;
+    private H2Client h2Client;
+
+    public StorageModuleH2Provider() {
+        super();
+        this.config = new StorageModuleH2Config();
+    }
+
+    @Override
+    public String name() {
+        return "h2";
+    }
+
+    @Override
+    public Class<? extends ModuleDefine> module() {
+        return StorageModule.class;
+    }
+
+    @Override
+    public ModuleConfig createConfigBeanIfAbsent() {
+        return config;
+    }
+
+    @Override
+    public void prepare() throws ServiceNotProvidedException {
+        h2Client = new H2Client(config.getUrl(), config.getUserName(), config.getPassword(), config.getMaxConnections());
+
+        this.registerServiceImplementation(IBatchDAO.class, new BatchProcessH2DAO(h2Client));
+        this.registerServiceImplementation(StorageDAO.class, new StorageH2DAO(h2Client));
+        this.registerServiceImplementation(IRegisterLockDAO.class, new RegisterLockH2DAO(h2Client, 1000));
+        this.registerServiceImplementation(IHistoryDeleteDAO.class, new HistoryDeleteH2DAO(h2Client));
+
+        this.registerServiceImplementation(IServiceInventoryCacheDAO.class, new ServiceInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(IServiceInstanceInventoryCacheDAO.class, new ServiceInstanceInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(IEndpointInventoryCacheDAO.class, new EndpointInventoryCacheH2DAO(h2Client));
+        this.registerServiceImplementation(INetworkAddressInventoryCacheDAO.class, new NetworkAddressInventoryCacheH2DAO(h2Client));
+
+        this.registerServiceImplementation(ITopologyQueryDAO.class, new TopologyQueryH2DAO(h2Client));
+        this.registerServiceImplementation(IMetricQueryDAO.class, new MetricQueryH2DAO(h2Client));
+        this.registerServiceImplementation(ITraceQueryDAO.class, new TraceQueryH2DAO(h2Client));
+        this.registerServiceImplementation(IMetadataQueryDAO.class, new MetadataQueryH2DAO(h2Client));
+        this.registerServiceImplementation(IAggregationQueryDAO.class, new AggregationQueryH2DAO(h2Client));
+    }
+
+    @Override
+    public void start() throws ModuleStartException {
+        try {
+            h2Client.initialize();
+
+            StorageH2Installer installer = new StorageH2Installer(getManager());
+            installer.install(h2Client);
+
+            RegisterLockH2Installer lockInstaller = new RegisterLockH2Installer(h2Client);
+            lockInstaller.install();
+        } catch (H2ClientException | StorageException e) {
+            throw new ModuleStartException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void notifyAfterCompleted() {
+        DataTTL dataTTL = new DataTTL(config.getTraceDataTTL(), config.getMinuteMetricDataTTL(), config.getHourMetricDataTTL(), config.getDayMetricDataTTL(), config.getMonthMetricDataTTL());
+        DataTTLKeeperTimer.INSTANCE.start(getManager(), dataTTL, config.getDataKeeperExecutePeriod());
+    }
+
+    @Override
+    public String[] requiredModules() {
+        return new String[0];
+    }
+}
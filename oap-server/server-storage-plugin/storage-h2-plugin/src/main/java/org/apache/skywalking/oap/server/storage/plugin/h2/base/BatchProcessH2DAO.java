@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.*;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.slf4j.*;
+
+/**
+ * Executes the collection in one transaction, the statements sharing the same sql are sent as one JDBC batch.
+ *
+ * @author peng-yongsheng
+ */
+public class BatchProcessH2DAO extends H2DAO implements IBatchDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchProcessH2DAO.class);
+
+    public BatchProcessH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override public void batchPersistence(List<?> batchCollection) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("batch data size: {}", batchCollection.size());
+        }
+
+        if (CollectionUtils.isEmpty(batchCollection)) {
+            return;
+        }
+
+        Map<String, List<SQLExecutor>> batches = new LinkedHashMap<>();
+        batchCollection.forEach(executor -> {
+            if (executor instanceof SQLExecutor) {
+                batches.computeIfAbsent(((SQLExecutor)executor).getSql(), sql -> new ArrayList<>()).add((SQLExecutor)executor);
+            }
+        });
+
+        try (Connection connection = getClient().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, List<SQLExecutor>> batch : batches.entrySet()) {
+                    try (PreparedStatement statement = connection.prepareStatement(batch.getKey())) {
+                        for (SQLExecutor executor : batch.getValue()) {
+                            Object[] params = executor.getParams();
+                            for (int i = 0; i < params.length; i++) {
+                                statement.setObject(i + 1, params[i]);
+                            }
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException | JDBCClientException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+}
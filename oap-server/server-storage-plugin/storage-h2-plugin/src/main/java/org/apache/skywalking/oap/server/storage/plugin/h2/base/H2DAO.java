@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.apache.skywalking.oap.server.library.client.jdbc.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public abstract class H2DAO extends AbstractDAO<JDBCClient> {
+
+    public static final String ID = "id";
+
+    public H2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    /**
+     * @return the rows of the query, the column names are in lower case as the column names of the models.
+     */
+    protected final List<Map<String, Object>> query(String sql, Object... params) throws IOException {
+        try (Connection connection = getClient().getConnection()) {
+            ResultSet rs = getClient().executeQuery(connection, sql, params);
+            ResultSetMetaData metaData = rs.getMetaData();
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            while (rs.next()) {
+                Map<String, Object> row = new HashMap<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    row.put(metaData.getColumnLabel(i).toLowerCase(), columnValue(rs.getObject(i)));
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (SQLException | JDBCClientException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    protected final <T extends StorageData> T getByID(String modelName, String id,
+        StorageBuilder<T> storageBuilder) throws IOException {
+        List<Map<String, Object>> rows = query("SELECT * FROM " + modelName + " WHERE " + ID + " = ?", id);
+        return rows.isEmpty() ? null : storageBuilder.map2Data(rows.get(0));
+    }
+
+    /**
+     * @return the sequence of the inventory with the given id, or {@link Const#NONE} if not registered yet.
+     */
+    protected final int getSequence(String modelName, String id) throws IOException {
+        List<Map<String, Object>> rows = query("SELECT " + RegisterSource.SEQUENCE + " FROM " + modelName + " WHERE " + ID + " = ?", id);
+        return rows.isEmpty() ? Const.NONE : ((Number)rows.get(0).get(RegisterSource.SEQUENCE)).intValue();
+    }
+
+    protected final <T extends StorageData> T getBySequence(String modelName, int sequence,
+        StorageBuilder<T> storageBuilder) throws IOException {
+        List<Map<String, Object>> rows = query("SELECT * FROM " + modelName + " WHERE " + RegisterSource.SEQUENCE + " = ?", sequence);
+        return rows.size() == 1 ? storageBuilder.map2Data(rows.get(0)) : null;
+    }
+
+    /**
+     * The columns are sorted by name, so the statements of one model share the same sql and go into one batch.
+     */
+    protected final SQLExecutor buildInsert(String modelName, String id, Map<String, Object> objectMap) {
+        SortedMap<String, Object> columns = new TreeMap<>(objectMap);
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(modelName).append(" (").append(ID);
+        List<Object> params = new ArrayList<>(columns.size() + 1);
+        params.add(id);
+        columns.forEach((column, value) -> {
+            sql.append(", ").append(column);
+            params.add(storageValue(value));
+        });
+        sql.append(") VALUES (?");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
+        return new SQLExecutor(sql.toString(), params.toArray());
+    }
+
+    protected final SQLExecutor buildUpdate(String modelName, String id, Map<String, Object> objectMap) {
+        SortedMap<String, Object> columns = new TreeMap<>(objectMap);
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(modelName).append(" SET ");
+        List<Object> params = new ArrayList<>(columns.size() + 1);
+        columns.forEach((column, value) -> {
+            if (!params.isEmpty()) {
+                sql.append(", ");
+            }
+            sql.append(column).append(" = ?");
+            params.add(storageValue(value));
+        });
+        sql.append(" WHERE ").append(ID).append(" = ?");
+        params.add(id);
+        return new SQLExecutor(sql.toString(), params.toArray());
+    }
+
+    protected final void execute(SQLExecutor executor) throws IOException {
+        try {
+            getClient().executeUpdate(executor.getSql(), executor.getParams());
+        } catch (JDBCClientException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the sql of the given number of parameters joined by comma, such as "?, ?, ?".
+     */
+    protected static String placeholders(int size) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * The text columns of some databases are read as clob, the storage builders expect a string.
+     */
+    private static Object columnValue(Object value) throws SQLException {
+        if (value instanceof Clob) {
+            Clob clob = (Clob)value;
+            return clob.getSubString(1, (int)clob.length());
+        }
+        return value;
+    }
+
+    protected static Object storageValue(Object value) {
+        if (value instanceof StorageDataType) {
+            return ((StorageDataType)value).toStorageData();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+
+/**
+ * @author peng-yongsheng
+ */
+public class IndicatorH2DAO extends H2DAO implements IIndicatorDAO<SQLExecutor, SQLExecutor> {
+
+    private static final int MULTI_GET_BATCH_SIZE = 1000;
+
+    private final StorageBuilder<Indicator> storageBuilder;
+
+    public IndicatorH2DAO(JDBCClient client, StorageBuilder<Indicator> storageBuilder) {
+        super(client);
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override public Indicator get(String modelName, Indicator indicator) throws IOException {
+        return getByID(modelName, indicator.id(), storageBuilder);
+    }
+
+    @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) throws IOException {
+        List<Indicator> dbIndicators = new ArrayList<>(indicators.size());
+        for (int from = 0; from < indicators.size(); from += MULTI_GET_BATCH_SIZE) {
+            List<Indicator> subIndicators = indicators.subList(from, Math.min(from + MULTI_GET_BATCH_SIZE, indicators.size()));
+
+            Object[] ids = new Object[subIndicators.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = subIndicators.get(i).id();
+            }
+
+            String sql = "SELECT * FROM " + modelName + " WHERE " + ID + " IN (" + placeholders(ids.length) + ")";
+            for (Map<String, Object> row : query(sql, ids)) {
+                dbIndicators.add(storageBuilder.map2Data(row));
+            }
+        }
+        return dbIndicators;
+    }
+
+    @Override public SQLExecutor prepareBatchInsert(String modelName, Indicator indicator) throws IOException {
+        return buildInsert(modelName, indicator.id(), storageBuilder.data2Map(indicator));
+    }
+
+    @Override public SQLExecutor prepareBatchUpdate(String modelName, Indicator indicator) throws IOException {
+        return buildUpdate(modelName, indicator.id(), storageBuilder.data2Map(indicator));
+    }
+}
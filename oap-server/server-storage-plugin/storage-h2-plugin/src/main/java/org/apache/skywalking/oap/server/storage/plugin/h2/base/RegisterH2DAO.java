@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RegisterH2DAO extends H2DAO implements IRegisterDAO {
+
+    private final StorageBuilder<RegisterSource> storageBuilder;
+
+    public RegisterH2DAO(JDBCClient client, StorageBuilder<RegisterSource> storageBuilder) {
+        super(client);
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override public RegisterSource get(String modelName, String id) throws IOException {
+        return getByID(modelName, id, storageBuilder);
+    }
+
+    @Override public void forceInsert(String modelName, RegisterSource source) throws IOException {
+        execute(buildInsert(modelName, source.id(), storageBuilder.data2Map(source)));
+    }
+
+    @Override public void forceUpdate(String modelName, RegisterSource source) throws IOException {
+        execute(buildUpdate(modelName, source.id(), storageBuilder.data2Map(source)));
+    }
+
+    @Override public int max(String modelName) throws IOException {
+        List<Map<String, Object>> rows = query("SELECT MAX(" + RegisterSource.SEQUENCE + ") AS " + RegisterSource.SEQUENCE + " FROM " + modelName);
+        Object max = rows.get(0).get(RegisterSource.SEQUENCE);
+        return max == null ? 0 : ((Number)max).intValue();
+    }
+}
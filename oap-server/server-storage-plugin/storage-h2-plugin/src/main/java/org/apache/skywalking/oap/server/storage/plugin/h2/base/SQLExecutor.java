@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import lombok.Getter;
+
+/**
+ * A prepared insert or update, the H2 counterpart of the elasticsearch index and update requests.
+ *
+ * @author peng-yongsheng
+ */
+@Getter
+public class SQLExecutor {
+
+    private final String sql;
+    private final Object[] params;
+
+    public SQLExecutor(String sql, Object[] params) {
+        this.sql = sql;
+        this.params = params;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.base;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.Client;
+import org.apache.skywalking.oap.server.library.client.jdbc.*;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.slf4j.*;
+
+/**
+ * Creates a table for every model, the id is the primary key, and the columns filtered by range or equality in the
+ * queries are indexed.
+ *
+ * @author peng-yongsheng
+ */
+public class StorageH2Installer extends ModelInstaller {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageH2Installer.class);
+
+    private static final Set<String> INDEXED_COLUMNS = new HashSet<>(Arrays.asList(Indicator.TIME_BUCKET, RegisterSource.SEQUENCE, SegmentRecord.TRACE_ID));
+
+    private final ColumnTypeH2Mapping mapping;
+
+    public StorageH2Installer(ModuleManager moduleManager) {
+        super(moduleManager);
+        this.mapping = new ColumnTypeH2Mapping();
+    }
+
+    @Override protected boolean isExists(Client client, Model tableDefine) throws StorageException {
+        JDBCClient h2Client = (JDBCClient)client;
+        try (Connection connection = h2Client.getConnection()) {
+            try (ResultSet rs = connection.getMetaData().getTables(null, null, tableDefine.getName().toUpperCase(), null)) {
+                return rs.next();
+            }
+        } catch (SQLException | JDBCClientException e) {
+            throw new StorageException(e.getMessage());
+        }
+    }
+
+    @Override protected void columnCheck(Client client, Model tableDefine) {
+
+    }
+
+    @Override protected void deleteTable(Client client, Model tableDefine) throws StorageException {
+        JDBCClient h2Client = (JDBCClient)client;
+        try {
+            h2Client.execute("DROP TABLE IF EXISTS " + tableDefine.getName());
+        } catch (JDBCClientException e) {
+            throw new StorageException(tableDefine.getName() + " table delete failure.");
+        }
+    }
+
+    @Override protected void createTable(Client client, Model tableDefine) throws StorageException {
+        JDBCClient h2Client = (JDBCClient)client;
+
+        Set<String> columnNames = new LinkedHashSet<>();
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(tableDefine.getName())
+            .append(" (").append(H2DAO.ID).append(" VARCHAR(512) PRIMARY KEY");
+        for (ModelColumn columnDefine : tableDefine.getColumns()) {
+            String columnName = columnDefine.getColumnName().getName();
+            if (columnNames.add(columnName)) {
+                sql.append(", ").append(columnName).append(" ").append(mapping.transform(columnDefine.getType()));
+            }
+        }
+        sql.append(")");
+        logger.info("create {} table: {}", tableDefine.getName(), sql);
+
+        try {
+            h2Client.execute(sql.toString());
+            for (String columnName : columnNames) {
+                if (INDEXED_COLUMNS.contains(columnName)) {
+                    h2Client.execute("CREATE INDEX IF NOT EXISTS " + tableDefine.getName() + "_" + columnName + " ON " + tableDefine.getName() + " (" + columnName + ")");
+                }
+            }
+        } catch (JDBCClientException e) {
+            throw new StorageException("create " + tableDefine.getName() + " table failure, " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.cache;
+
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.register.NetworkAddressInventory;
+import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressInventoryCacheDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class NetworkAddressInventoryCacheH2DAO extends H2DAO implements INetworkAddressInventoryCacheDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkAddressInventoryCacheH2DAO.class);
+
+    private final NetworkAddressInventory.Builder builder = new NetworkAddressInventory.Builder();
+
+    public NetworkAddressInventoryCacheH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override public int getAddressId(String networkAddress) {
+        return get(NetworkAddressInventory.buildId(networkAddress));
+    }
+
+    private int get(String id) {
+        try {
+            return getSequence(NetworkAddressInventory.MODEL_NAME, id);
+        } catch (Throwable e) {
+            logger.error(e.getMessage());
+            return Const.NONE;
+        }
+    }
+
+    @Override public NetworkAddressInventory get(int addressId) {
+        try {
+            return getBySequence(NetworkAddressInventory.MODEL_NAME, addressId, builder);
+        } catch (Throwable e) {
+            logger.error(e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.cache;
+
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.storage.cache.IServiceInstanceInventoryCacheDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+import org.slf4j.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class ServiceInstanceInventoryCacheH2DAO extends H2DAO implements IServiceInstanceInventoryCacheDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceInstanceInventoryCacheH2DAO.class);
+
+    private final ServiceInstanceInventory.Builder builder = new ServiceInstanceInventory.Builder();
+
+    public ServiceInstanceInventoryCacheH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override public int getServiceInstanceId(int serviceId, String serviceInstanceName) {
+        return get(ServiceInstanceInventory.buildId(serviceId, serviceInstanceName));
+    }
+
+    @Override public int getServiceInstanceId(int serviceId, int addressId) {
+        return get(ServiceInstanceInventory.buildId(serviceId, addressId));
+    }
+
+    private int get(String id) {
+        try {
+            return getSequence(ServiceInstanceInventory.MODEL_NAME, id);
+        } catch (Throwable e) {
+            logger.error(e.getMessage());
+            return Const.NONE;
+        }
+    }
+
+    @Override public ServiceInstanceInventory get(int serviceInstanceId) {
+        try {
+            return getBySequence(ServiceInstanceInventory.MODEL_NAME, serviceInstanceId, builder);
+        } catch (Throwable e) {
+            logger.error(e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.lock;
+
+import java.sql.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.IRegisterLockDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+import org.slf4j.*;
+
+/**
+ * The lock is taken by one conditional update, the row is only updated when it is lockable or expired, so no version
+ * check is needed.
+ *
+ * The sequences are leased by a compare and set of the leased sequence, the update fails when another node leased
+ * after the read.
+ *
+ * @author peng-yongsheng
+ */
+public class RegisterLockH2DAO extends H2DAO implements IRegisterLockDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisterLockH2DAO.class);
+
+    /**
+     * The released lock has the minimum expire, so one range condition covers both the released and the expired lock.
+     */
+    private static final String LOCK_SQL = "UPDATE " + RegisterLockTable.NAME + " SET "
+        + RegisterLockTable.COLUMN_EXPIRE + " = ?, " + RegisterLockTable.COLUMN_LOCKABLE + " = FALSE WHERE "
+        + RegisterLockTable.COLUMN_ID + " = ? AND " + RegisterLockTable.COLUMN_EXPIRE + " < ?";
+
+    private static final String RELEASE_SQL = "UPDATE " + RegisterLockTable.NAME + " SET "
+        + RegisterLockTable.COLUMN_EXPIRE + " = ?, " + RegisterLockTable.COLUMN_LOCKABLE + " = TRUE WHERE " + RegisterLockTable.COLUMN_ID + " = ?";
+
+    private static final String LEASED_SQL = "SELECT " + RegisterLockTable.COLUMN_SEQUENCE + " FROM " + RegisterLockTable.NAME
+        + " WHERE " + RegisterLockTable.COLUMN_ID + " = ?";
+
+    private static final String LEASE_SQL = "UPDATE " + RegisterLockTable.NAME + " SET "
+        + RegisterLockTable.COLUMN_SEQUENCE + " = ? WHERE " + RegisterLockTable.COLUMN_ID + " = ? AND "
+        + RegisterLockTable.COLUMN_SEQUENCE + " = ?";
+
+    private final int timeout;
+
+    public RegisterLockH2DAO(JDBCClient client, int timeout) {
+        super(client);
+        this.timeout = timeout;
+    }
+
+    @Override public boolean tryLock(Scope scope) {
+        long now = System.currentTimeMillis();
+        try {
+            return getClient().executeUpdate(LOCK_SQL, now + timeout, scope.ordinal(), now) == 1;
+        } catch (Throwable t) {
+            logger.warn("Try to lock the row with the id {} failure, error message: {}", scope.ordinal(), t.getMessage());
+            return false;
+        }
+    }
+
+    @Override public void releaseLock(Scope scope) {
+        try {
+            getClient().executeUpdate(RELEASE_SQL, Long.MIN_VALUE, scope.ordinal());
+        } catch (Throwable t) {
+            logger.error("Release lock failure.");
+        }
+    }
+
+    @Override public int leaseSequences(Scope scope, int floor, int blockSize) {
+        try {
+            int leased;
+            try (Connection connection = getClient().getConnection()) {
+                ResultSet rs = getClient().executeQuery(connection, LEASED_SQL, scope.ordinal());
+                if (!rs.next()) {
+                    return Const.NONE;
+                }
+                leased = rs.getInt(1);
+            }
+
+            int first = Math.max(leased, floor) + 1;
+            if (getClient().executeUpdate(LEASE_SQL, first + blockSize - 1, scope.ordinal(), leased) == 1) {
+                return first;
+            }
+        } catch (Throwable t) {
+            logger.warn("Lease the sequences of the row with the id {} failure, error message: {}", scope.ordinal(), t.getMessage());
+        }
+        return Const.NONE;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.lock;
+
+import java.sql.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.apache.skywalking.oap.server.library.client.jdbc.*;
+
+/**
+ * @author peng-yongsheng
+ */
+public class RegisterLockH2Installer {
+
+    private final JDBCClient client;
+
+    public RegisterLockH2Installer(JDBCClient client) {
+        this.client = client;
+    }
+
+    public void install() throws StorageException {
+        try {
+            client.execute("CREATE TABLE IF NOT EXISTS " + RegisterLockTable.NAME + " ("
+                + RegisterLockTable.COLUMN_ID + " INT PRIMARY KEY, "
+                + RegisterLockTable.COLUMN_EXPIRE + " BIGINT, "
+                + RegisterLockTable.COLUMN_LOCKABLE + " BOOLEAN, "
+                + RegisterLockTable.COLUMN_SEQUENCE + " INT)");
+
+            putIfAbsent(Scope.Endpoint.ordinal());
+            putIfAbsent(Scope.ServiceInstance.ordinal());
+            putIfAbsent(Scope.Service.ordinal());
+            putIfAbsent(Scope.NetworkAddress.ordinal());
+        } catch (JDBCClientException | SQLException e) {
+            throw new StorageException(e.getMessage());
+        }
+    }
+
+    private void putIfAbsent(int scopeId) throws JDBCClientException, SQLException {
+        try (Connection connection = client.getConnection()) {
+            ResultSet rs = client.executeQuery(connection, "SELECT " + RegisterLockTable.COLUMN_ID + " FROM " + RegisterLockTable.NAME + " WHERE " + RegisterLockTable.COLUMN_ID + " = ?", scopeId);
+            if (rs.next()) {
+                return;
+            }
+        }
+        client.executeUpdate("INSERT INTO " + RegisterLockTable.NAME + " ("
+            + RegisterLockTable.COLUMN_ID + ", " + RegisterLockTable.COLUMN_EXPIRE + ", " + RegisterLockTable.COLUMN_LOCKABLE
+            + ", " + RegisterLockTable.COLUMN_SEQUENCE + ") VALUES (?, ?, TRUE, ?)", scopeId, Long.MIN_VALUE, Const.NONE);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.register.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public class AggregationQueryH2DAO extends H2DAO implements IAggregationQueryDAO {
+
+    private static final String VALUE_AVG = "value_avg";
+
+    public AggregationQueryH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override
+    public List<TopNEntity> getServiceTopN(String name, int topN, Step step, long startTB,
+        long endTB, Order order) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, name);
+        return aggregation(tableName, "", Arrays.asList(startTB, endTB), topN, order);
+    }
+
+    @Override public List<TopNEntity> getAllServiceInstanceTopN(String name, int topN, Step step,
+        long startTB, long endTB, Order order) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, name);
+        return aggregation(tableName, "", Arrays.asList(startTB, endTB), topN, order);
+    }
+
+    @Override public List<TopNEntity> getServiceInstanceTopN(int serviceId, String name, int topN,
+        Step step, long startTB, long endTB, Order order) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, name);
+        String condition = " AND " + ServiceInstanceInventory.SERVICE_ID + " = ?";
+        return aggregation(tableName, condition, Arrays.asList(startTB, endTB, serviceId), topN, order);
+    }
+
+    @Override
+    public List<TopNEntity> getAllEndpointTopN(String name, int topN, Step step, long startTB,
+        long endTB, Order order) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, name);
+        return aggregation(tableName, "", Arrays.asList(startTB, endTB), topN, order);
+    }
+
+    @Override
+    public List<TopNEntity> getEndpointTopN(int serviceId, String name, int topN, Step step,
+        long startTB, long endTB, Order order) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, name);
+        String condition = " AND " + EndpointInventory.SERVICE_ID + " = ?";
+        return aggregation(tableName, condition, Arrays.asList(startTB, endTB, serviceId), topN, order);
+    }
+
+    /**
+     * The first two parameters are the start and end time bucket, the others belong to the extra condition.
+     */
+    private List<TopNEntity> aggregation(String tableName, String condition, List<Object> params, int topN,
+        Order order) throws IOException {
+        String sql = "SELECT " + Indicator.ENTITY_ID + ", AVG(value) AS " + VALUE_AVG + " FROM " + tableName
+            + " WHERE " + Indicator.TIME_BUCKET + " BETWEEN ? AND ?" + condition
+            + " GROUP BY " + Indicator.ENTITY_ID
+            + " ORDER BY " + VALUE_AVG + (Order.ASC.equals(order) ? " ASC" : " DESC") + " LIMIT ?";
+
+        List<Object> allParams = new ArrayList<>(params);
+        allParams.add(topN);
+
+        List<TopNEntity> topNEntities = new ArrayList<>();
+        for (Map<String, Object> row : query(sql, allParams.toArray())) {
+            TopNEntity topNEntity = new TopNEntity();
+            topNEntity.setId((String)row.get(Indicator.ENTITY_ID));
+            topNEntity.setValue(((Number)row.get(VALUE_AVG)).intValue());
+            topNEntities.add(topNEntity);
+        }
+        return topNEntities;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.register.*;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.query.IMetadataQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.library.util.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public class MetadataQueryH2DAO extends H2DAO implements IMetadataQueryDAO {
+
+    private static final String TIME_RANGE_CONDITION = RegisterSource.REGISTER_TIME + " <= ? AND " + RegisterSource.HEARTBEAT_TIME + " >= ?";
+
+    public MetadataQueryH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override public int numOfService(long startTimestamp, long endTimestamp) throws IOException {
+        return count(ServiceInventory.MODEL_NAME, ServiceInventory.IS_ADDRESS, BooleanUtils.FALSE, startTimestamp, endTimestamp);
+    }
+
+    @Override public int numOfEndpoint(long startTimestamp, long endTimestamp) throws IOException {
+        return count(EndpointInventory.MODEL_NAME, EndpointInventory.DETECT_POINT, DetectPoint.SERVER.ordinal(), startTimestamp, endTimestamp);
+    }
+
+    @Override public int numOfConjectural(long startTimestamp, long endTimestamp, int srcLayer) throws IOException {
+        return count(NetworkAddressInventory.MODEL_NAME, NetworkAddressInventory.SRC_LAYER, srcLayer, startTimestamp, endTimestamp);
+    }
+
+    private int count(String modelName, String columnName, Object value, long startTimestamp,
+        long endTimestamp) throws IOException {
+        String sql = "SELECT COUNT(*) AS total FROM " + modelName + " WHERE " + TIME_RANGE_CONDITION + " AND " + columnName + " = ?";
+        List<Map<String, Object>> rows = query(sql, endTimestamp, startTimestamp, value);
+        return ((Number)rows.get(0).get("total")).intValue();
+    }
+
+    @Override
+    public List<Service> getAllServices(long startTimestamp, long endTimestamp) throws IOException {
+        String sql = "SELECT " + ServiceInventory.SEQUENCE + ", " + ServiceInventory.NAME + " FROM " + ServiceInventory.MODEL_NAME
+            + " WHERE " + TIME_RANGE_CONDITION + " AND " + ServiceInventory.IS_ADDRESS + " = ? LIMIT 100";
+        return buildServices(query(sql, endTimestamp, startTimestamp, BooleanUtils.FALSE));
+    }
+
+    @Override public List<Service> searchServices(long startTimestamp, long endTimestamp,
+        String keyword) throws IOException {
+        String sql = "SELECT " + ServiceInventory.SEQUENCE + ", " + ServiceInventory.NAME + " FROM " + ServiceInventory.MODEL_NAME
+            + " WHERE " + TIME_RANGE_CONDITION + " AND " + ServiceInventory.NAME + " LIKE ? LIMIT 100";
+        return buildServices(query(sql, endTimestamp, startTimestamp, "%" + keyword + "%"));
+    }
+
+    @Override
+    public Service searchService(String serviceCode) throws IOException {
+        String sql = "SELECT " + ServiceInventory.SEQUENCE + ", " + ServiceInventory.NAME + " FROM " + ServiceInventory.MODEL_NAME
+            + " WHERE " + ID + " = ?";
+        List<Service> services = buildServices(query(sql, ServiceInventory.buildId(serviceCode)));
+        return services.isEmpty() ? null : services.get(0);
+    }
+
+    @Override public List<Endpoint> searchEndpoint(String keyword, String serviceId,
+        int limit) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(EndpointInventory.SEQUENCE).append(", ").append(EndpointInventory.NAME)
+            .append(" FROM ").append(EndpointInventory.MODEL_NAME).append(" WHERE ").append(EndpointInventory.SERVICE_ID).append(" = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(serviceId);
+        if (StringUtils.isNotEmpty(keyword)) {
+            sql.append(" AND ").append(EndpointInventory.NAME).append(" LIKE ?");
+            params.add("%" + keyword + "%");
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit);
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (Map<String, Object> row : query(sql.toString(), params.toArray())) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setId(String.valueOf(row.get(EndpointInventory.SEQUENCE)));
+            endpoint.setName((String)row.get(EndpointInventory.NAME));
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+
+    @Override public List<ServiceInstance> getServiceInstances(long startTimestamp, long endTimestamp,
+        String serviceId) throws IOException {
+        String sql = "SELECT " + ServiceInstanceInventory.SEQUENCE + ", " + ServiceInstanceInventory.NAME + ", " + ServiceInstanceInventory.LANGUAGE
+            + " FROM " + ServiceInstanceInventory.MODEL_NAME
+            + " WHERE " + TIME_RANGE_CONDITION + " AND " + ServiceInstanceInventory.SERVICE_ID + " = ? LIMIT 100";
+
+        List<ServiceInstance> serviceInstances = new ArrayList<>();
+        for (Map<String, Object> row : query(sql, endTimestamp, startTimestamp, serviceId)) {
+            ServiceInstance serviceInstance = new ServiceInstance();
+            serviceInstance.setId(String.valueOf(row.get(ServiceInstanceInventory.SEQUENCE)));
+            serviceInstance.setName((String)row.get(ServiceInstanceInventory.NAME));
+            int languageId = ((Number)row.get(ServiceInstanceInventory.LANGUAGE)).intValue();
+            serviceInstance.setLanguage(LanguageTrans.INSTANCE.value(languageId));
+            serviceInstances.add(serviceInstance);
+        }
+        return serviceInstances;
+    }
+
+    private List<Service> buildServices(List<Map<String, Object>> rows) {
+        List<Service> services = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            Service service = new Service();
+            service.setId(String.valueOf(row.get(ServiceInventory.SEQUENCE)));
+            service.setName((String)row.get(ServiceInventory.NAME));
+            services.add(service);
+        }
+        return services;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.query.sql.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public class MetricQueryH2DAO extends H2DAO implements IMetricQueryDAO {
+
+    public MetricQueryH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override public IntValues getValues(String indName, Step step, long startTB, long endTB, Where where,
+        String valueCName, Function function) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        List<Object> params = new ArrayList<>();
+        params.add(startTB);
+        params.add(endTB);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(Indicator.ENTITY_ID).append(", ")
+            .append(functionAggregation(function, valueCName)).append(" AS ").append(valueCName)
+            .append(" FROM ").append(tableName)
+            .append(" WHERE ").append(Indicator.TIME_BUCKET).append(" BETWEEN ? AND ?");
+        where.getKeyValues().forEach(keyValues -> {
+            sql.append(" AND ").append(keyValues.getKey()).append(" IN (").append(placeholders(keyValues.getValues().size())).append(")");
+            params.addAll(keyValues.getValues());
+        });
+        sql.append(" GROUP BY ").append(Indicator.ENTITY_ID);
+
+        IntValues intValues = new IntValues();
+        for (Map<String, Object> row : query(sql.toString(), params.toArray())) {
+            KVInt value = new KVInt();
+            value.setId((String)row.get(Indicator.ENTITY_ID));
+            value.setValue(((Number)row.get(valueCName)).intValue());
+            intValues.getValues().add(value);
+        }
+        return intValues;
+    }
+
+    private String functionAggregation(Function function, String valueCName) {
+        switch (function) {
+            case Sum:
+                return "SUM(" + valueCName + ")";
+            default:
+                return "AVG(" + valueCName + ")";
+        }
+    }
+
+    @Override public IntValues getLinearIntValues(String indName, Step step, List<String> ids,
+        String valueCName) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        Map<String, Map<String, Object>> rows = multiGet(tableName, ids, valueCName);
+
+        IntValues intValues = new IntValues();
+        for (String id : ids) {
+            int value = 0;
+            Map<String, Object> row = rows.get(id);
+            if (row != null && row.get(valueCName) != null) {
+                value = ((Number)row.get(valueCName)).intValue();
+            }
+
+            KVInt kvInt = new KVInt();
+            kvInt.setId(id);
+            kvInt.setValue(value);
+            intValues.getValues().add(kvInt);
+        }
+        return intValues;
+    }
+
+    @Override public Thermodynamic getThermodynamic(String indName, Step step, List<String> ids,
+        String valueCName) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, indName);
+
+        Map<String, Map<String, Object>> rows = multiGet(tableName, ids, ThermodynamicIndicator.STEP, ThermodynamicIndicator.NUM_OF_STEPS, ThermodynamicIndicator.DETAIL_GROUP);
+
+        Thermodynamic thermodynamic = new Thermodynamic();
+        List<List<Long>> thermodynamicValueMatrix = new ArrayList<>();
+
+        int numOfSteps = 0;
+        for (String id : ids) {
+            Map<String, Object> row = rows.get(id);
+            if (row == null) {
+                // add empty list to represent no data exist for this time bucket
+                thermodynamicValueMatrix.add(new ArrayList<>());
+            } else {
+                int axisYStep = ((Number)row.get(ThermodynamicIndicator.STEP)).intValue();
+                thermodynamic.setAxisYStep(axisYStep);
+                numOfSteps = ((Number)row.get(ThermodynamicIndicator.NUM_OF_STEPS)).intValue();
+
+                String value = (String)row.get(ThermodynamicIndicator.DETAIL_GROUP);
+                Histogram histogram = new Histogram(value);
+
+                List<Long> axisYValues = new ArrayList<>();
+                for (int i = 0; i < numOfSteps; i++) {
+                    axisYValues.add(0L);
+                }
+
+                histogram.forEach(axisYValues::set);
+
+                thermodynamicValueMatrix.add(axisYValues);
+            }
+        }
+
+        int defaultNumOfSteps = numOfSteps;
+
+        thermodynamicValueMatrix.forEach(columnOfThermodynamic -> {
+                if (columnOfThermodynamic.size() == 0) {
+                    for (int i = 0; i < defaultNumOfSteps; i++) {
+                        columnOfThermodynamic.add(0L);
+                    }
+                }
+            }
+        );
+
+        for (int colNum = 0; colNum < thermodynamicValueMatrix.size(); colNum++) {
+            List<Long> column = thermodynamicValueMatrix.get(colNum);
+            for (int rowNum = 0; rowNum < column.size(); rowNum++) {
+                thermodynamic.setNodeValue(colNum, rowNum, column.get(rowNum));
+            }
+        }
+
+        return thermodynamic;
+    }
+
+    private Map<String, Map<String, Object>> multiGet(String tableName, List<String> ids,
+        String... columns) throws IOException {
+        Map<String, Map<String, Object>> rows = new HashMap<>();
+        if (ids.isEmpty()) {
+            return rows;
+        }
+
+        String sql = "SELECT " + ID + ", " + String.join(", ", columns) + " FROM " + tableName
+            + " WHERE " + ID + " IN (" + placeholders(ids.size()) + ")";
+        query(sql, ids.toArray()).forEach(row -> rows.put((String)row.get(ID), row));
+        return rows;
+    }
+}
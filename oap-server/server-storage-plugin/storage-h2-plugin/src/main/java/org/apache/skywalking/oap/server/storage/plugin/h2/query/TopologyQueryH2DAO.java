@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.endpointrelation.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.service.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.source.*;
+import org.apache.skywalking.oap.server.core.storage.TimePyramidTableNameBuilder;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public class TopologyQueryH2DAO extends H2DAO implements ITopologyQueryDAO {
+
+    public TopologyQueryH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedServerSideServiceRelations(Step step, long startTB, long endTB,
+        List<Integer> serviceIds) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationServerSideIndicator.INDEX_NAME);
+        return loadSpecifiedServiceRelations(tableName, startTB, endTB, serviceIds, ServiceRelationServerSideIndicator.SOURCE_SERVICE_ID, ServiceRelationServerSideIndicator.DEST_SERVICE_ID);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedClientSideServiceRelations(Step step, long startTB, long endTB,
+        List<Integer> serviceIds) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationClientSideIndicator.INDEX_NAME);
+        return loadSpecifiedServiceRelations(tableName, startTB, endTB, serviceIds, ServiceRelationClientSideIndicator.SOURCE_SERVICE_ID, ServiceRelationClientSideIndicator.DEST_SERVICE_ID);
+    }
+
+    private List<Call> loadSpecifiedServiceRelations(String tableName, long startTB, long endTB,
+        List<Integer> serviceIds, String sourceCName, String destCName) throws IOException {
+        if (CollectionUtils.isEmpty(serviceIds)) {
+            throw new UnexpectedException("Service id is null");
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(startTB);
+        params.add(endTB);
+        params.addAll(serviceIds);
+
+        Map<String, Call> calls = new LinkedHashMap<>();
+        for (String cName : new String[] {sourceCName, destCName}) {
+            String condition = " AND " + cName + " IN (" + placeholders(serviceIds.size()) + ")";
+            load(tableName, condition, params, sourceCName, destCName, Source.Service).forEach(call -> calls.putIfAbsent(call.getId(), call));
+        }
+        return new ArrayList<>(calls.values());
+    }
+
+    @Override public List<Call> loadServerSideServiceRelations(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationServerSideIndicator.INDEX_NAME);
+        return load(tableName, "", Arrays.asList(startTB, endTB), ServiceRelationServerSideIndicator.SOURCE_SERVICE_ID, ServiceRelationServerSideIndicator.DEST_SERVICE_ID, Source.Service);
+    }
+
+    @Override public List<Call> loadClientSideServiceRelations(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceRelationClientSideIndicator.INDEX_NAME);
+        return load(tableName, "", Arrays.asList(startTB, endTB), ServiceRelationClientSideIndicator.SOURCE_SERVICE_ID, ServiceRelationClientSideIndicator.DEST_SERVICE_ID, Source.Service);
+    }
+
+    @Override public List<ServiceMapping> loadServiceMappings(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceMappingIndicator.INDEX_NAME);
+
+        List<ServiceMapping> serviceMappings = new ArrayList<>();
+        for (Map<String, Object> row : groupBy(tableName, "", Arrays.asList(startTB, endTB), ServiceMappingIndicator.SERVICE_ID, ServiceMappingIndicator.MAPPING_SERVICE_ID)) {
+            ServiceMapping serviceMapping = new ServiceMapping();
+            serviceMapping.setServiceId(((Number)row.get(ServiceMappingIndicator.SERVICE_ID)).intValue());
+            serviceMapping.setMappingServiceId(((Number)row.get(ServiceMappingIndicator.MAPPING_SERVICE_ID)).intValue());
+            serviceMappings.add(serviceMapping);
+        }
+        return serviceMappings;
+    }
+
+    @Override
+    public List<ServiceComponent> loadServiceComponents(Step step, long startTB, long endTB) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, ServiceComponentIndicator.INDEX_NAME);
+
+        List<ServiceComponent> serviceComponents = new ArrayList<>();
+        for (Map<String, Object> row : groupBy(tableName, "", Arrays.asList(startTB, endTB), ServiceComponentIndicator.SERVICE_ID, ServiceComponentIndicator.COMPONENT_ID)) {
+            ServiceComponent serviceComponent = new ServiceComponent();
+            serviceComponent.setServiceId(((Number)row.get(ServiceComponentIndicator.SERVICE_ID)).intValue());
+            serviceComponent.setComponentId(((Number)row.get(ServiceComponentIndicator.COMPONENT_ID)).intValue());
+            serviceComponents.add(serviceComponent);
+        }
+        return serviceComponents;
+    }
+
+    @Override
+    public List<Call> loadSpecifiedDestOfServerSideEndpointRelations(Step step, long startTB, long endTB,
+        int destEndpointId) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, EndpointRelationServerSideIndicator.INDEX_NAME);
+        String condition = " AND " + EndpointRelationServerSideIndicator.DEST_ENDPOINT_ID + " = ?";
+        return load(tableName, condition, Arrays.asList(startTB, endTB, destEndpointId), EndpointRelationServerSideIndicator.SOURCE_ENDPOINT_ID, EndpointRelationServerSideIndicator.DEST_ENDPOINT_ID, Source.Endpoint);
+    }
+
+    @Override
+    public List<Call> loadSpecifiedSourceOfClientSideEndpointRelations(Step step, long startTB, long endTB,
+        int sourceEndpointId) throws IOException {
+        String tableName = TimePyramidTableNameBuilder.build(step, EndpointRelationClientSideIndicator.INDEX_NAME);
+        String condition = " AND " + EndpointRelationClientSideIndicator.SOURCE_ENDPOINT_ID + " = ?";
+        return load(tableName, condition, Arrays.asList(startTB, endTB, sourceEndpointId), EndpointRelationClientSideIndicator.SOURCE_ENDPOINT_ID, EndpointRelationClientSideIndicator.DEST_ENDPOINT_ID, Source.Endpoint);
+    }
+
+    private List<Call> load(String tableName, String condition, List<Object> params, String sourceCName,
+        String destCName, Source source) throws IOException {
+        List<Call> calls = new ArrayList<>();
+        for (Map<String, Object> row : groupBy(tableName, condition, params, sourceCName, destCName)) {
+            Call value = new Call();
+            value.setSource(((Number)row.get(sourceCName)).intValue());
+            value.setTarget(((Number)row.get(destCName)).intValue());
+            switch (source) {
+                case Service:
+                    value.setId(ServiceRelation.buildEntityId(value.getSource(), value.getTarget()));
+                    break;
+                case Endpoint:
+                    value.setId(EndpointRelation.buildEntityId(value.getSource(), value.getTarget()));
+                    break;
+            }
+            calls.add(value);
+        }
+        return calls;
+    }
+
+    /**
+     * The first two parameters are the start and end time bucket, the others belong to the extra condition.
+     */
+    private List<Map<String, Object>> groupBy(String tableName, String condition, List<Object> params,
+        String firstCName, String secondCName) throws IOException {
+        String sql = "SELECT " + firstCName + ", " + secondCName + " FROM " + tableName
+            + " WHERE " + Indicator.TIME_BUCKET + " BETWEEN ? AND ?" + condition
+            + " GROUP BY " + firstCName + ", " + secondCName;
+        return query(sql, params.toArray());
+    }
+
+    enum Source {
+        Service, Endpoint
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2.query;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.library.util.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public class TraceQueryH2DAO extends H2DAO implements ITraceQueryDAO {
+
+    private final SegmentRecord.Builder builder = new SegmentRecord.Builder();
+
+    public TraceQueryH2DAO(JDBCClient client) {
+        super(client);
+    }
+
+    @Override
+    public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration,
+        long maxDuration, String endpointName, int serviceId, int endpointId, String traceId, int limit, int from,
+        TraceState traceState, QueryOrder queryOrder) throws IOException {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (startSecondTB != 0 && endSecondTB != 0) {
+            where.append(" AND ").append(SegmentRecord.TIME_BUCKET).append(" BETWEEN ? AND ?");
+            params.add(startSecondTB);
+            params.add(endSecondTB);
+        }
+        if (minDuration != 0) {
+            where.append(" AND ").append(SegmentRecord.LATENCY).append(" >= ?");
+            params.add(minDuration);
+        }
+        if (maxDuration != 0) {
+            where.append(" AND ").append(SegmentRecord.LATENCY).append(" <= ?");
+            params.add(maxDuration);
+        }
+        if (StringUtils.isNotEmpty(endpointName)) {
+            where.append(" AND ").append(SegmentRecord.ENDPOINT_NAME).append(" LIKE ?");
+            params.add("%" + endpointName + "%");
+        }
+        if (serviceId != 0) {
+            where.append(" AND ").append(SegmentRecord.SERVICE_ID).append(" = ?");
+            params.add(serviceId);
+        }
+        if (endpointId != 0) {
+            where.append(" AND ").append(SegmentRecord.ENDPOINT_ID).append(" = ?");
+            params.add(endpointId);
+        }
+        if (StringUtils.isNotEmpty(traceId)) {
+            where.append(" AND ").append(SegmentRecord.TRACE_ID).append(" = ?");
+            params.add(traceId);
+        }
+        switch (traceState) {
+            case ERROR:
+                where.append(" AND ").append(SegmentRecord.IS_ERROR).append(" = ?");
+                params.add(BooleanUtils.TRUE);
+                break;
+            case SUCCESS:
+                where.append(" AND ").append(SegmentRecord.IS_ERROR).append(" = ?");
+                params.add(BooleanUtils.FALSE);
+                break;
+        }
+
+        TraceBrief traceBrief = new TraceBrief();
+        List<Map<String, Object>> total = query("SELECT COUNT(*) AS total FROM " + SegmentRecord.INDEX_NAME + where, params.toArray());
+        traceBrief.setTotal(((Number)total.get(0).get("total")).intValue());
+
+        String orderBy = queryOrder == QueryOrder.BY_DURATION ? SegmentRecord.LATENCY : SegmentRecord.START_TIME;
+        String sql = "SELECT " + SegmentRecord.SEGMENT_ID + ", " + SegmentRecord.START_TIME + ", " + SegmentRecord.ENDPOINT_NAME + ", "
+            + SegmentRecord.LATENCY + ", " + SegmentRecord.IS_ERROR + " FROM " + SegmentRecord.INDEX_NAME + where
+            + " ORDER BY " + orderBy + " DESC LIMIT ? OFFSET ?";
+        params.add(limit);
+        params.add(from);
+
+        for (Map<String, Object> row : query(sql, params.toArray())) {
+            BasicTrace basicTrace = new BasicTrace();
+
+            basicTrace.setSegmentId((String)row.get(SegmentRecord.SEGMENT_ID));
+            basicTrace.setStart(String.valueOf(row.get(SegmentRecord.START_TIME)));
+            basicTrace.getEndpointNames().add((String)row.get(SegmentRecord.ENDPOINT_NAME));
+            basicTrace.setDuration(((Number)row.get(SegmentRecord.LATENCY)).intValue());
+            basicTrace.setError(BooleanUtils.valueToBoolean(((Number)row.get(SegmentRecord.IS_ERROR)).intValue()));
+            traceBrief.getTraces().add(basicTrace);
+        }
+
+        return traceBrief;
+    }
+
+    @Override public List<SegmentRecord> queryByTraceId(String traceId) throws IOException {
+        List<SegmentRecord> segmentRecords = new ArrayList<>();
+        for (Map<String, Object> row : query("SELECT * FROM " + SegmentRecord.INDEX_NAME + " WHERE " + SegmentRecord.TRACE_ID + " = ?", traceId)) {
+            segmentRecords.add(builder.map2Data(row));
+        }
+        return segmentRecords;
+    }
+}
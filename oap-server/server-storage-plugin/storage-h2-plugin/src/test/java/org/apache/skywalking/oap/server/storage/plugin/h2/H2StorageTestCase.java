@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.h2;
+
+import java.io.IOException;
+import java.util.*;
+import lombok.*;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideIndicator;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.query.sql.*;
+import org.apache.skywalking.oap.server.core.register.*;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.model.IModelGetter;
+import org.apache.skywalking.oap.server.library.client.h2.H2Client;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.cache.ServiceInventoryCacheH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.h2.lock.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.query.*;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the path from the persistence of the registers, indicators and records to the queries against an in-memory
+ * database.
+ *
+ * @author peng-yongsheng
+ */
+public class H2StorageTestCase {
+
+    private static final long MINUTE = 201810171200L;
+
+    private H2Client client;
+    private StorageH2DAO storageDAO;
+    private BatchProcessH2DAO batchDAO;
+
+    @Before
+    public void before() throws Exception {
+        client = new H2Client("jdbc:h2:mem:" + UUID.randomUUID().toString() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        client.initialize();
+
+        StorageAnnotationListener listener = new StorageAnnotationListener();
+        listener.notify(ServiceInventory.class);
+        listener.notify(EndpointInventory.class);
+        listener.notify(ServiceInstanceInventory.class);
+        listener.notify(NetworkAddressInventory.class);
+        listener.notify(SegmentRecord.class);
+        listener.notify(ServiceRelationServerSideIndicator.class);
+        listener.notify(ServiceLatencyIndicator.class);
+
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        LinkedList<ModuleProvider> loadedProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        loadedProviders.add(moduleProvider);
+
+        ModuleManager moduleManager = Mockito.mock(ModuleManager.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+        when(moduleProvider.getService(IModelGetter.class)).thenReturn(listener);
+
+        new StorageH2Installer(moduleManager).install(client);
+        new RegisterLockH2Installer(client).install();
+
+        storageDAO = new StorageH2DAO(client);
+        batchDAO = new BatchProcessH2DAO(client);
+    }
+
+    @After
+    public void after() {
+        client.shutdown();
+    }
+
+    @Test
+    public void register() throws IOException {
+        RegisterLockH2DAO lockDAO = new RegisterLockH2DAO(client, 1000);
+        Assert.assertTrue(lockDAO.tryLock(Scope.Service));
+        Assert.assertFalse(lockDAO.tryLock(Scope.Service));
+        Assert.assertTrue(lockDAO.tryLock(Scope.Endpoint));
+        lockDAO.releaseLock(Scope.Service);
+        Assert.assertTrue(lockDAO.tryLock(Scope.Service));
+
+        Assert.assertEquals(11, lockDAO.leaseSequences(Scope.Endpoint, 10, 100));
+        Assert.assertEquals(111, lockDAO.leaseSequences(Scope.Endpoint, 0, 100));
+        Assert.assertEquals(1, lockDAO.leaseSequences(Scope.NetworkAddress, 0, 5));
+
+        IRegisterDAO registerDAO = storageDAO.newRegisterDao(builder(new ServiceInventory.Builder()));
+        Assert.assertEquals(0, registerDAO.max(ServiceInventory.MODEL_NAME));
+
+        ServiceInventory serviceInventory = new ServiceInventory();
+        serviceInventory.setName("order-service");
+        serviceInventory.setIsAddress(BooleanUtils.FALSE);
+        serviceInventory.setRegisterTime(1000);
+        serviceInventory.setHeartbeatTime(1000);
+        serviceInventory.setSequence(registerDAO.max(ServiceInventory.MODEL_NAME) + 1);
+        registerDAO.forceInsert(ServiceInventory.MODEL_NAME, serviceInventory);
+
+        serviceInventory.setHeartbeatTime(5000);
+        registerDAO.forceUpdate(ServiceInventory.MODEL_NAME, serviceInventory);
+        Assert.assertEquals(1, registerDAO.max(ServiceInventory.MODEL_NAME));
+        Assert.assertEquals(5000, ((ServiceInventory)registerDAO.get(ServiceInventory.MODEL_NAME, serviceInventory.id())).getHeartbeatTime());
+
+        ServiceInventoryCacheH2DAO cacheDAO = new ServiceInventoryCacheH2DAO(client);
+        Assert.assertEquals(1, cacheDAO.getServiceId("order-service"));
+        Assert.assertEquals(Const.NONE, cacheDAO.getServiceId("user-service"));
+        Assert.assertEquals("order-service", cacheDAO.get(1).getName());
+        Assert.assertNull(cacheDAO.get(2));
+
+        MetadataQueryH2DAO metadataQueryDAO = new MetadataQueryH2DAO(client);
+        Assert.assertEquals(1, metadataQueryDAO.numOfService(2000, 3000));
+        Assert.assertEquals(0, metadataQueryDAO.numOfService(6000, 7000));
+        Assert.assertEquals(1, metadataQueryDAO.searchServices(2000, 3000, "order").size());
+        Assert.assertEquals("1", metadataQueryDAO.searchService("order-service").getId());
+    }
+
+    @Test
+    public void indicator() throws IOException {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServiceLatencyIndicator.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceLatencyIndicator.INDEX_NAME, latency("1", MINUTE, 100)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceLatencyIndicator.INDEX_NAME, latency("1", MINUTE + 1, 300)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceLatencyIndicator.INDEX_NAME, latency("2", MINUTE, 50)));
+        batchDAO.batchPersistence(batch);
+
+        ServiceLatencyIndicator updated = latency("2", MINUTE, 70);
+        batchDAO.batchPersistence(Collections.singletonList(indicatorDAO.prepareBatchUpdate(ServiceLatencyIndicator.INDEX_NAME, updated)));
+
+        List<Indicator> indicators = indicatorDAO.multiGet(ServiceLatencyIndicator.INDEX_NAME, Arrays.asList(updated, latency("3", MINUTE, 10)));
+        Assert.assertEquals(1, indicators.size());
+        Assert.assertEquals(70, ((ServiceLatencyIndicator)indicators.get(0)).getValue());
+
+        MetricQueryH2DAO metricQueryDAO = new MetricQueryH2DAO(client);
+        Where where = new Where();
+        KeyValues keyValues = new KeyValues();
+        keyValues.setKey(Indicator.ENTITY_ID);
+        keyValues.getValues().add("1");
+        where.getKeyValues().add(keyValues);
+        IntValues values = metricQueryDAO.getValues(ServiceLatencyIndicator.INDEX_NAME, Step.MINUTE, MINUTE, MINUTE + 1, where, "value", Function.Avg);
+        Assert.assertEquals(1, values.getValues().size());
+        Assert.assertEquals(200, values.getValues().get(0).getValue());
+
+        IntValues linearValues = metricQueryDAO.getLinearIntValues(ServiceLatencyIndicator.INDEX_NAME, Step.MINUTE, Arrays.asList(MINUTE + "_1", (MINUTE + 1) + "_1", (MINUTE + 2) + "_1"), "value");
+        Assert.assertEquals(100, linearValues.getValues().get(0).getValue());
+        Assert.assertEquals(300, linearValues.getValues().get(1).getValue());
+        Assert.assertEquals(0, linearValues.getValues().get(2).getValue());
+
+        List<TopNEntity> topN = new AggregationQueryH2DAO(client).getServiceTopN(ServiceLatencyIndicator.INDEX_NAME, 1, Step.MINUTE, MINUTE, MINUTE + 1, Order.DES);
+        Assert.assertEquals(1, topN.size());
+        Assert.assertEquals("1", topN.get(0).getId());
+
+        new HistoryDeleteH2DAO(client).deleteHistory(ServiceLatencyIndicator.INDEX_NAME, Indicator.TIME_BUCKET, MINUTE + 1);
+        Assert.assertEquals(1, indicatorDAO.multiGet(ServiceLatencyIndicator.INDEX_NAME, Arrays.asList(latency("1", MINUTE, 0), latency("1", MINUTE + 1, 0))).size());
+    }
+
+    @Test
+    public void topology() throws IOException {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServiceRelationServerSideIndicator.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE + 1, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 3, 4)));
+        batchDAO.batchPersistence(batch);
+
+        TopologyQueryH2DAO topologyQueryDAO = new TopologyQueryH2DAO(client);
+        Assert.assertEquals(2, topologyQueryDAO.loadServerSideServiceRelations(Step.MINUTE, MINUTE, MINUTE + 1).size());
+
+        List<Call> calls = topologyQueryDAO.loadSpecifiedServerSideServiceRelations(Step.MINUTE, MINUTE, MINUTE + 1, Collections.singletonList(2));
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(1, calls.get(0).getSource());
+        Assert.assertEquals(2, calls.get(0).getTarget());
+    }
+
+    @Test
+    public void trace() throws IOException {
+        IRecordDAO recordDAO = storageDAO.newRecordDao(builder(new SegmentRecord.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s1", "t1", "/order/create", 100, BooleanUtils.FALSE)));
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s2", "t1", "/order/pay", 300, BooleanUtils.TRUE)));
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s3", "t2", "/user/login", 200, BooleanUtils.FALSE)));
+        batchDAO.batchPersistence(batch);
+
+        TraceQueryH2DAO traceQueryDAO = new TraceQueryH2DAO(client);
+        TraceBrief traceBrief = traceQueryDAO.queryBasicTraces(0, 0, 0, 0, "order", 0, 0, null, 10, 0, TraceState.ALL, QueryOrder.BY_DURATION);
+        Assert.assertEquals(2, traceBrief.getTotal());
+        Assert.assertEquals("s2", traceBrief.getTraces().get(0).getSegmentId());
+        Assert.assertTrue(traceBrief.getTraces().get(0).isError());
+
+        traceBrief = traceQueryDAO.queryBasicTraces(0, 0, 150, 0, null, 0, 0, null, 1, 1, TraceState.SUCCESS, QueryOrder.BY_START_TIME);
+        Assert.assertEquals(1, traceBrief.getTotal());
+        Assert.assertEquals(0, traceBrief.getTraces().size());
+
+        List<SegmentRecord> segments = traceQueryDAO.queryByTraceId("t1");
+        Assert.assertEquals(2, segments.size());
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, segments.get(0).getDataBinary());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends StorageData> StorageBuilder<T> builder(StorageBuilder builder) {
+        return builder;
+    }
+
+    private ServiceLatencyIndicator latency(String entityId, long timeBucket, long value) {
+        ServiceLatencyIndicator indicator = new ServiceLatencyIndicator();
+        indicator.setEntityId(entityId);
+        indicator.setTimeBucket(timeBucket);
+        indicator.setSummation(value);
+        indicator.setCount(1);
+        indicator.setValue(value);
+        return indicator;
+    }
+
+    private ServiceRelationServerSideIndicator relation(long timeBucket, int sourceServiceId, int destServiceId) {
+        ServiceRelationServerSideIndicator indicator = new ServiceRelationServerSideIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setSourceServiceId(sourceServiceId);
+        indicator.setDestServiceId(destServiceId);
+        return indicator;
+    }
+
+    private Record segment(String segmentId, String traceId, String endpointName, int latency, int isError) {
+        SegmentRecord record = new SegmentRecord();
+        record.setSegmentId(segmentId);
+        record.setTraceId(traceId);
+        record.setServiceId(1);
+        record.setEndpointName(endpointName);
+        record.setStartTime(latency);
+        record.setEndTime(latency * 2);
+        record.setLatency(latency);
+        record.setIsError(isError);
+        record.setTimeBucket(MINUTE * 100);
+        record.setDataBinary(new byte[] {1, 2, 3});
+        return record;
+    }
+
+    @StorageEntity(name = ServiceLatencyIndicator.INDEX_NAME, builder = ServiceLatencyIndicator.Builder.class)
+    public static class ServiceLatencyIndicator extends LongAvgIndicator {
+
+        static final String INDEX_NAME = "service_latency";
+
+        @Setter @Getter @Column(columnName = ENTITY_ID) private String entityId;
+
+        @Override public String id() {
+            return getTimeBucket() + Const.ID_SPLIT + entityId;
+        }
+
+        @Override public Indicator toHour() {
+            return this;
+        }
+
+        @Override public Indicator toDay() {
+            return this;
+        }
+
+        @Override public Indicator toMonth() {
+            return this;
+        }
+
+        @Override public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder();
+        }
+
+        public static class Builder implements StorageBuilder<ServiceLatencyIndicator> {
+
+            @Override public ServiceLatencyIndicator map2Data(Map<String, Object> dbMap) {
+                ServiceLatencyIndicator indicator = new ServiceLatencyIndicator();
+                indicator.setEntityId((String)dbMap.get(ENTITY_ID));
+                indicator.setSummation(((Number)dbMap.get(SUMMATION)).longValue());
+                indicator.setCount(((Number)dbMap.get(COUNT)).intValue());
+                indicator.setValue(((Number)dbMap.get(VALUE)).longValue());
+                indicator.setTimeBucket(((Number)dbMap.get(TIME_BUCKET)).longValue());
+                return indicator;
+            }
+
+            @Override public Map<String, Object> data2Map(ServiceLatencyIndicator storageData) {
+                Map<String, Object> map = new HashMap<>();
+                map.put(ENTITY_ID, storageData.getEntityId());
+                map.put(SUMMATION, storageData.getSummation());
+                map.put(COUNT, storageData.getCount());
+                map.put(VALUE, storageData.getValue());
+                map.put(TIME_BUCKET, storageData.getTimeBucket());
+                return map;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.library.module.ModuleConfig;
+
+/**
+ * The urls of the data sources are separated by comma, the data sources are named ds_0, ds_1, ... in order, the first
+ * one also holds the tables without sharding.
+ *
+ * @author peng-yongsheng
+ */
+@Setter
+@Getter
+public class StorageModuleShardingConfig extends ModuleConfig {
+
+    private String driverClass = "com.mysql.jdbc.Driver";
+    private String urls = "jdbc:mysql://localhost:3306/skywalking?rewriteBatchedStatements=true";
+    private String userName = "root";
+    private String password = "";
+    private int tableShardingNumber = 2;
+    private int traceDataTTL = 90;
+    private int minuteMetricDataTTL = 90;
+    private int hourMetricDataTTL = 36;
+    private int dayMetricDataTTL = 45;
+    private int monthMetricDataTTL = 18;
+    private int dataKeeperExecutePeriod = 5;
+}
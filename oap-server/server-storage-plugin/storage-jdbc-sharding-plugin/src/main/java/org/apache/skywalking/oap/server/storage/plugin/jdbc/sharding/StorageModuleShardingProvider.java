@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding;
+
+import io.shardingjdbc.core.api.config.ShardingRuleConfiguration;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.cache.*;
+import org.apache.skywalking.oap.server.core.storage.model.IModelGetter;
+import org.apache.skywalking.oap.server.core.storage.query.*;
+import org.apache.skywalking.oap.server.core.storage.ttl.*;
+import org.apache.skywalking.oap.server.library.client.shardingjdbc.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.HistoryDeleteH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.h2.cache.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.lock.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.query.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule.ShardingTables;
+
+/**
+ * The queries, the inventories and the register lock share the DAOs of the h2 storage, the sql of them goes through
+ * the sharding data source.
+ *
+ * @author peng-yongsheng
+ */
+public class StorageModuleShardingProvider extends ModuleProvider {
+
+    private final StorageModuleShardingConfig config;
+    private ShardingjdbcClient shardingClient;
+    private ShardingRuleConfiguration ruleConfiguration;
+    private ShardingTables shardingTables;
+
+    public StorageModuleShardingProvider() {
+        super();
+        this.config = new StorageModuleShardingConfig();
+    }
+
+    @Override
+    public String name() {
+        return "shardingjdbc";
+    }
+
+    @Override
+    public Class<? extends ModuleDefine> module() {
+        return StorageModule.class;
+    }
+
+    @Override
+    public ModuleConfig createConfigBeanIfAbsent() {
+        return config;
+    }
+
+    @Override
+    public void prepare() throws ServiceNotProvidedException {
+        String[] urls = config.getUrls().split(",");
+        Map<String, ShardingjdbcClientConfig> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            dataSources.put(ShardingTables.dataSourceName(i), new ShardingjdbcClientConfig(config.getDriverClass(), urls[i].trim(), config.getUserName(), config.getPassword()));
+        }
+
+        shardingTables = new ShardingTables(urls.length, config.getTableShardingNumber());
+        ruleConfiguration = new ShardingRuleConfiguration();
+        shardingClient = new ShardingjdbcClient(dataSources, ruleConfiguration);
+
+        this.registerServiceImplementation(IBatchDAO.class, new BatchProcessShardingDAO(shardingClient, shardingTables));
+        this.registerServiceImplementation(StorageDAO.class, new StorageShardingDAO(shardingClient));
+        this.registerServiceImplementation(IRegisterLockDAO.class, new RegisterLockH2DAO(shardingClient, 1000));
+        this.registerServiceImplementation(IHistoryDeleteDAO.class, new HistoryDeleteH2DAO(shardingClient));
+
+        this.registerServiceImplementation(IServiceInventoryCacheDAO.class, new ServiceInventoryCacheH2DAO(shardingClient));
+        this.registerServiceImplementation(IServiceInstanceInventoryCacheDAO.class, new ServiceInstanceInventoryCacheH2DAO(shardingClient));
+        this.registerServiceImplementation(IEndpointInventoryCacheDAO.class, new EndpointInventoryCacheH2DAO(shardingClient));
+        this.registerServiceImplementation(INetworkAddressInventoryCacheDAO.class, new NetworkAddressInventoryCacheH2DAO(shardingClient));
+
+        this.registerServiceImplementation(ITopologyQueryDAO.class, new TopologyQueryH2DAO(shardingClient));
+        this.registerServiceImplementation(IMetricQueryDAO.class, new MetricQueryH2DAO(shardingClient));
+        this.registerServiceImplementation(ITraceQueryDAO.class, new TraceQueryH2DAO(shardingClient));
+        this.registerServiceImplementation(IMetadataQueryDAO.class, new MetadataQueryH2DAO(shardingClient));
+        this.registerServiceImplementation(IAggregationQueryDAO.class, new AggregationQueryH2DAO(shardingClient));
+    }
+
+    @Override
+    public void start() throws ModuleStartException {
+        try {
+            IModelGetter modelGetter = getManager().find(CoreModule.NAME).getService(IModelGetter.class);
+            shardingTables.fillRule(ruleConfiguration, modelGetter.getModels());
+            shardingClient.initialize();
+
+            StorageShardingInstaller installer = new StorageShardingInstaller(getManager(), shardingTables);
+            installer.install(shardingClient);
+
+            RegisterLockH2Installer lockInstaller = new RegisterLockH2Installer(shardingClient);
+            lockInstaller.install();
+        } catch (ShardingjdbcClientException | StorageException e) {
+            throw new ModuleStartException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void notifyAfterCompleted() {
+        DataTTL dataTTL = new DataTTL(config.getTraceDataTTL(), config.getMinuteMetricDataTTL(), config.getHourMetricDataTTL(), config.getDayMetricDataTTL(), config.getMonthMetricDataTTL());
+        DataTTLKeeperTimer.INSTANCE.start(getManager(), dataTTL, config.getDataKeeperExecutePeriod());
+    }
+
+    @Override
+    public String[] requiredModules() {
+        return new String[0];
+    }
+}
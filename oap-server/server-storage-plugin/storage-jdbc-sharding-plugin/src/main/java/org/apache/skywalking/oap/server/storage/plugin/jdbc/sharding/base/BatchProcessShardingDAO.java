@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.shardingjdbc.ShardingjdbcClient;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.BatchProcessH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule.ShardingTables;
+import org.slf4j.*;
+
+/**
+ * The rows are routed to the actual tables by the same algorithms as the sharding rule, and written into the data
+ * sources directly, one transaction per data source. The indicators of one table are upserted by the multi-row
+ * statements, the records of one table are inserted by one JDBC batch. The other statements, such as the inventories,
+ * go through the sharding data source.
+ *
+ * @author peng-yongsheng
+ */
+public class BatchProcessShardingDAO extends BatchProcessH2DAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchProcessShardingDAO.class);
+
+    private static final int MULTI_ROW_SIZE = 500;
+
+    private final ShardingjdbcClient client;
+    private final ShardingTables shardingTables;
+
+    public BatchProcessShardingDAO(ShardingjdbcClient client, ShardingTables shardingTables) {
+        super(client);
+        this.client = client;
+        this.shardingTables = shardingTables;
+    }
+
+    @Override public void batchPersistence(List<?> batchCollection) {
+        if (CollectionUtils.isEmpty(batchCollection)) {
+            return;
+        }
+
+        Map<String, Map<String, List<ShardingRow>>> dataSources = new LinkedHashMap<>();
+        List<Object> executors = new ArrayList<>();
+        batchCollection.forEach(item -> {
+            if (item instanceof ShardingRow) {
+                ShardingRow row = (ShardingRow)item;
+                String dataSourceName = shardingTables.routeDataSource(row.getModelName(), row.getId());
+                String tableName = shardingTables.routeTable(row.getModelName(), row.getTimeBucket());
+                dataSources.computeIfAbsent(dataSourceName, name -> new LinkedHashMap<>())
+                    .computeIfAbsent(tableName, name -> new ArrayList<>()).add(row);
+            } else {
+                executors.add(item);
+            }
+        });
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("batch data size: {}, routed rows to {} data sources", batchCollection.size(), dataSources.size());
+        }
+
+        dataSources.forEach(this::persistence);
+        super.batchPersistence(executors);
+    }
+
+    private void persistence(String dataSourceName, Map<String, List<ShardingRow>> tables) {
+        try (Connection connection = client.getConnection(dataSourceName)) {
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, List<ShardingRow>> table : tables.entrySet()) {
+                    List<ShardingRow> rows = table.getValue();
+                    if (rows.get(0).isUpsert()) {
+                        for (int from = 0; from < rows.size(); from += MULTI_ROW_SIZE) {
+                            upsert(connection, table.getKey(), rows.subList(from, Math.min(from + MULTI_ROW_SIZE, rows.size())));
+                        }
+                    } else {
+                        insert(connection, table.getKey(), rows);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException | JDBCClientException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void upsert(Connection connection, String tableName, List<ShardingRow> rows) throws SQLException {
+        Set<String> columns = rows.get(0).getColumns().keySet();
+
+        StringBuilder sql = new StringBuilder(insertHead(tableName, columns));
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? " " : ", ").append("(").append(placeholders(columns.size() + 1)).append(")");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        int i = 0;
+        for (String column : columns) {
+            sql.append(i++ == 0 ? "" : ", ").append(ShardingDAO.columnName(column)).append(" = VALUES(").append(ShardingDAO.columnName(column)).append(")");
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (ShardingRow row : rows) {
+                statement.setObject(index++, row.getId());
+                for (Object value : row.getColumns().values()) {
+                    statement.setObject(index++, value);
+                }
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private void insert(Connection connection, String tableName, List<ShardingRow> rows) throws SQLException {
+        Set<String> columns = rows.get(0).getColumns().keySet();
+
+        String sql = insertHead(tableName, columns) + " (" + placeholders(columns.size() + 1) + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (ShardingRow row : rows) {
+                int index = 1;
+                statement.setObject(index++, row.getId());
+                for (Object value : row.getColumns().values()) {
+                    statement.setObject(index++, value);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String insertHead(String tableName, Set<String> columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (").append(ID);
+        columns.forEach(column -> sql.append(", ").append(ShardingDAO.columnName(column)));
+        return sql.append(") VALUES").toString();
+    }
+}
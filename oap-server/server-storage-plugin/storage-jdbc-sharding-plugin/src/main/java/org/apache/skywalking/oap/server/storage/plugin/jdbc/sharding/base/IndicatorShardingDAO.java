@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.IndicatorH2DAO;
+
+/**
+ * The reads go through the sharding data source, the ids of one batch are read by one select.
+ *
+ * @author peng-yongsheng
+ */
+public class IndicatorShardingDAO extends ShardingDAO implements IIndicatorDAO<ShardingRow, ShardingRow> {
+
+    private final IndicatorH2DAO indicatorDAO;
+    private final StorageBuilder<Indicator> storageBuilder;
+
+    public IndicatorShardingDAO(JDBCClient client, StorageBuilder<Indicator> storageBuilder) {
+        super(client);
+        this.indicatorDAO = new IndicatorH2DAO(client, storageBuilder);
+        this.storageBuilder = storageBuilder;
+    }
+
+    @Override public Indicator get(String modelName, Indicator indicator) throws IOException {
+        return indicatorDAO.get(modelName, indicator);
+    }
+
+    @Override public List<Indicator> multiGet(String modelName, List<Indicator> indicators) throws IOException {
+        return indicatorDAO.multiGet(modelName, indicators);
+    }
+
+    @Override public ShardingRow prepareBatchInsert(String modelName, Indicator indicator) throws IOException {
+        return buildRow(modelName, indicator.id(), indicator.getTimeBucket(), storageBuilder.data2Map(indicator), true);
+    }
+
+    @Override public ShardingRow prepareBatchUpdate(String modelName, Indicator indicator) throws IOException {
+        return buildRow(modelName, indicator.id(), indicator.getTimeBucket(), storageBuilder.data2Map(indicator), true);
+    }
+}
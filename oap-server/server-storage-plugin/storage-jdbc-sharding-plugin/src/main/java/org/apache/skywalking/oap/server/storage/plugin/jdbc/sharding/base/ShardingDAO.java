@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * @author peng-yongsheng
+ */
+public abstract class ShardingDAO extends H2DAO {
+
+    /**
+     * The column names of the models which are reserved words of MySQL.
+     */
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList("match", "precision"));
+
+    public ShardingDAO(JDBCClient client) {
+        super(client);
+    }
+
+    /**
+     * The columns are sorted by name, so the rows of one model share the same column list in the multi-row statements.
+     */
+    protected final ShardingRow buildRow(String modelName, String id, long timeBucket, Map<String, Object> objectMap,
+        boolean upsert) {
+        SortedMap<String, Object> columns = new TreeMap<>();
+        objectMap.forEach((column, value) -> columns.put(column, storageValue(value)));
+        return new ShardingRow(modelName, id, timeBucket, columns, upsert);
+    }
+
+    static String columnName(String column) {
+        return RESERVED_WORDS.contains(column) ? "`" + column + "`" : column;
+    }
+}
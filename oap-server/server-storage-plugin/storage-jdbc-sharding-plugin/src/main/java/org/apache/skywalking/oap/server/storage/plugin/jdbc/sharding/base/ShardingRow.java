@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base;
+
+import java.util.SortedMap;
+import lombok.Getter;
+
+/**
+ * A row to persist, routed to the actual table by the id and the time bucket when the batch is executed. The indicator
+ * rows are upserted, so the insert and the update of an indicator are the same statement.
+ *
+ * @author peng-yongsheng
+ */
+@Getter
+public class ShardingRow {
+
+    private final String modelName;
+    private final String id;
+    private final long timeBucket;
+    private final SortedMap<String, Object> columns;
+    private final boolean upsert;
+
+    public ShardingRow(String modelName, String id, long timeBucket, SortedMap<String, Object> columns,
+        boolean upsert) {
+        this.modelName = modelName;
+        this.id = id;
+        this.timeBucket = timeBucket;
+        this.columns = columns;
+        this.upsert = upsert;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.register.RegisterSource;
+import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.Client;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.shardingjdbc.ShardingjdbcClient;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule.ShardingTables;
+import org.slf4j.*;
+
+/**
+ * The tables are created on the logic tables, the sharding data source broadcasts the statement to all the actual
+ * tables of the logic table.
+ *
+ * @author peng-yongsheng
+ */
+public class StorageShardingInstaller extends ModelInstaller {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageShardingInstaller.class);
+
+    private static final Set<String> INDEXED_COLUMNS = new HashSet<>(Arrays.asList(Indicator.TIME_BUCKET, RegisterSource.SEQUENCE, SegmentRecord.TRACE_ID));
+
+    private final ShardingTables shardingTables;
+    private final ColumnTypeShardingMapping mapping;
+
+    public StorageShardingInstaller(ModuleManager moduleManager, ShardingTables shardingTables) {
+        super(moduleManager);
+        this.shardingTables = shardingTables;
+        this.mapping = new ColumnTypeShardingMapping();
+    }
+
+    /**
+     * @return true when the last actual table exists in every data source which holds the model.
+     */
+    @Override protected boolean isExists(Client client, Model tableDefine) throws StorageException {
+        ShardingjdbcClient shardingClient = (ShardingjdbcClient)client;
+        List<String> tableNames = shardingTables.actualTableNames(tableDefine.getName());
+        String tableName = tableNames.get(tableNames.size() - 1);
+
+        int dataSourceNumber = shardingTables.isSharded(tableDefine.getName()) ? shardingTables.getDataSourceNumber() : 1;
+        for (int i = 0; i < dataSourceNumber; i++) {
+            try (Connection connection = shardingClient.getConnection(ShardingTables.dataSourceName(i))) {
+                if (!isExists(connection.getMetaData(), tableName)) {
+                    return false;
+                }
+            } catch (SQLException | JDBCClientException e) {
+                throw new StorageException(e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private boolean isExists(DatabaseMetaData metaData, String tableName) throws SQLException {
+        for (String name : new String[] {tableName, tableName.toUpperCase()}) {
+            try (ResultSet rs = metaData.getTables(null, null, name, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override protected void columnCheck(Client client, Model tableDefine) {
+
+    }
+
+    @Override protected void deleteTable(Client client, Model tableDefine) throws StorageException {
+        ShardingjdbcClient shardingClient = (ShardingjdbcClient)client;
+        try {
+            shardingClient.execute("DROP TABLE IF EXISTS " + tableDefine.getName());
+        } catch (JDBCClientException e) {
+            throw new StorageException(tableDefine.getName() + " table delete failure.");
+        }
+    }
+
+    @Override protected void createTable(Client client, Model tableDefine) throws StorageException {
+        ShardingjdbcClient shardingClient = (ShardingjdbcClient)client;
+
+        Set<String> columnNames = new LinkedHashSet<>();
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(tableDefine.getName())
+            .append(" (").append(H2DAO.ID).append(" VARCHAR(512) PRIMARY KEY");
+        for (ModelColumn columnDefine : tableDefine.getColumns()) {
+            String columnName = columnDefine.getColumnName().getName();
+            if (columnNames.add(columnName)) {
+                sql.append(", ").append(ShardingDAO.columnName(columnName)).append(" ").append(mapping.transform(columnDefine.getType()));
+            }
+        }
+        for (String columnName : columnNames) {
+            if (INDEXED_COLUMNS.contains(columnName)) {
+                sql.append(", KEY (").append(columnName).append(")");
+            }
+        }
+        sql.append(")");
+        logger.info("create {} table: {}", tableDefine.getName(), sql);
+
+        try {
+            shardingClient.execute(sql.toString());
+        } catch (JDBCClientException e) {
+            throw new StorageException("create " + tableDefine.getName() + " table failure, " + e.getMessage());
+        }
+    }
+}
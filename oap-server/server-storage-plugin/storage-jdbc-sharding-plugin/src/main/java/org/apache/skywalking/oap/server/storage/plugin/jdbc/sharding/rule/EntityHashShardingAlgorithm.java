@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule;
+
+import io.shardingjdbc.core.api.algorithm.sharding.PreciseShardingValue;
+import io.shardingjdbc.core.api.algorithm.sharding.standard.PreciseShardingAlgorithm;
+import java.util.Collection;
+import org.apache.skywalking.oap.server.core.Const;
+
+/**
+ * Routes the row to a data source by the hash of the entity, the time bucket prefix of the indicator id is ignored, so
+ * all the rows of one entity stay in one data source.
+ *
+ * @author peng-yongsheng
+ */
+public class EntityHashShardingAlgorithm implements PreciseShardingAlgorithm<Comparable<?>> {
+
+    @Override public String doSharding(Collection<String> availableTargetNames,
+        PreciseShardingValue<Comparable<?>> shardingValue) {
+        return ShardingTables.dataSourceName(index(String.valueOf(shardingValue.getValue()), availableTargetNames.size()));
+    }
+
+    public static int index(String id, int dataSourceNumber) {
+        return (entity(id).hashCode() & Integer.MAX_VALUE) % dataSourceNumber;
+    }
+
+    private static String entity(String id) {
+        int split = id.indexOf(Const.ID_SPLIT);
+        if (split <= 0) {
+            return id;
+        }
+        for (int i = 0; i < split; i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return id;
+            }
+        }
+        return id.substring(split + 1);
+    }
+}
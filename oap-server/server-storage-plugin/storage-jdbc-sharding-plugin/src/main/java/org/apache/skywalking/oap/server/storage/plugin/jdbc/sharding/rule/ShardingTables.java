@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule;
+
+import io.shardingjdbc.core.api.config.*;
+import io.shardingjdbc.core.api.config.strategy.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.H2DAO;
+
+/**
+ * The models which have the time bucket column, the indicators and the records, are sharded over the data sources by
+ * the entity and over the tables by the time bucket. The inventories and the register lock stay in the first data
+ * source without sharding.
+ *
+ * The same routing is used by the sharding rule for the sql on the logic tables, and by the batch persistence which
+ * writes the actual tables directly.
+ *
+ * @author peng-yongsheng
+ */
+public class ShardingTables {
+
+    private final int dataSourceNumber;
+    private final int tableNumber;
+    private final Set<String> shardedTables = new HashSet<>();
+
+    public ShardingTables(int dataSourceNumber, int tableNumber) {
+        this.dataSourceNumber = dataSourceNumber;
+        this.tableNumber = tableNumber;
+    }
+
+    /**
+     * Adds the sharded models into the rule, which is shared with the client created before the models are loaded.
+     */
+    public void fillRule(ShardingRuleConfiguration ruleConfiguration, List<Model> models) {
+        ruleConfiguration.setDefaultDataSourceName(dataSourceName(0));
+        for (Model model : models) {
+            if (!isTimeSeries(model)) {
+                continue;
+            }
+            shardedTables.add(model.getName());
+
+            TableRuleConfiguration tableRule = new TableRuleConfiguration();
+            tableRule.setLogicTable(model.getName());
+            tableRule.setActualDataNodes(actualDataNodes(model.getName()));
+            tableRule.setDatabaseShardingStrategyConfig(new StandardShardingStrategyConfiguration(H2DAO.ID, EntityHashShardingAlgorithm.class.getName()));
+            tableRule.setTableShardingStrategyConfig(new ComplexShardingStrategyConfiguration(H2DAO.ID + "," + Indicator.TIME_BUCKET, TimeBucketShardingAlgorithm.class.getName()));
+            ruleConfiguration.getTableRuleConfigs().add(tableRule);
+        }
+    }
+
+    public boolean isSharded(String logicTable) {
+        return shardedTables.contains(logicTable);
+    }
+
+    public int getDataSourceNumber() {
+        return dataSourceNumber;
+    }
+
+    /**
+     * @return the tables of the logic table in every data source.
+     */
+    public List<String> actualTableNames(String logicTable) {
+        if (!isSharded(logicTable)) {
+            return Collections.singletonList(logicTable);
+        }
+        List<String> tableNames = new ArrayList<>(tableNumber);
+        for (int i = 0; i < tableNumber; i++) {
+            tableNames.add(actualTableName(logicTable, i));
+        }
+        return tableNames;
+    }
+
+    public String routeDataSource(String logicTable, String id) {
+        return isSharded(logicTable) ? dataSourceName(EntityHashShardingAlgorithm.index(id, dataSourceNumber)) : dataSourceName(0);
+    }
+
+    public String routeTable(String logicTable, long timeBucket) {
+        return isSharded(logicTable) ? actualTableName(logicTable, TimeBucketShardingAlgorithm.index(timeBucket, tableNumber)) : logicTable;
+    }
+
+    private String actualDataNodes(String logicTable) {
+        StringBuilder nodes = new StringBuilder();
+        for (int i = 0; i < dataSourceNumber; i++) {
+            for (String tableName : actualTableNames(logicTable)) {
+                if (nodes.length() > 0) {
+                    nodes.append(",");
+                }
+                nodes.append(dataSourceName(i)).append(".").append(tableName);
+            }
+        }
+        return nodes.toString();
+    }
+
+    private static boolean isTimeSeries(Model model) {
+        for (ModelColumn column : model.getColumns()) {
+            if (Indicator.TIME_BUCKET.equals(column.getColumnName().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String dataSourceName(int index) {
+        return "ds_" + index;
+    }
+
+    public static String actualTableName(String logicTable, int index) {
+        return logicTable + "_" + index;
+    }
+}
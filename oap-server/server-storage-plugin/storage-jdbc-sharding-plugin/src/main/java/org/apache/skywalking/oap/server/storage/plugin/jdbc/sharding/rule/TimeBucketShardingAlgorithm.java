@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule;
+
+import com.google.common.collect.Range;
+import io.shardingjdbc.core.api.algorithm.sharding.*;
+import io.shardingjdbc.core.api.algorithm.sharding.complex.ComplexKeysShardingAlgorithm;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.indicator.Indicator;
+import org.joda.time.*;
+
+/**
+ * Routes the row to a table by the day of the time bucket, the days are spread over the tables of the logic table
+ * round robin. The time bucket column is used when the sql has it, otherwise the time bucket prefix of the indicator
+ * ids, the sql without both of them goes to all the tables.
+ *
+ * @author peng-yongsheng
+ */
+public class TimeBucketShardingAlgorithm implements ComplexKeysShardingAlgorithm {
+
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    @Override public Collection<String> doSharding(Collection<String> availableTargetNames,
+        Collection<ShardingValue> shardingValues) {
+        ShardingValue timeBucketValue = null;
+        ShardingValue idValue = null;
+        for (ShardingValue shardingValue : shardingValues) {
+            if (Indicator.TIME_BUCKET.equalsIgnoreCase(shardingValue.getColumnName())) {
+                timeBucketValue = shardingValue;
+            } else {
+                idValue = shardingValue;
+            }
+        }
+
+        int tableNumber = availableTargetNames.size();
+        Set<Integer> indexes;
+        if (timeBucketValue != null) {
+            indexes = indexes(timeBucketValue, tableNumber, false);
+        } else if (idValue != null) {
+            indexes = indexes(idValue, tableNumber, true);
+        } else {
+            return availableTargetNames;
+        }
+        if (indexes == null) {
+            return availableTargetNames;
+        }
+
+        String logicTable = shardingValues.iterator().next().getLogicTableName();
+        List<String> targets = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            targets.add(ShardingTables.actualTableName(logicTable, index));
+        }
+        return targets;
+    }
+
+    /**
+     * @return the indexes of the tables, or null when the value can't narrow the tables.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Integer> indexes(ShardingValue shardingValue, int tableNumber, boolean isId) {
+        Set<Integer> indexes = new TreeSet<>();
+        if (shardingValue instanceof PreciseShardingValue) {
+            Long timeBucket = timeBucket(((PreciseShardingValue)shardingValue).getValue(), isId);
+            if (timeBucket == null) {
+                return null;
+            }
+            indexes.add(index(timeBucket, tableNumber));
+        } else if (shardingValue instanceof ListShardingValue) {
+            for (Object value : ((ListShardingValue)shardingValue).getValues()) {
+                Long timeBucket = timeBucket(value, isId);
+                if (timeBucket == null) {
+                    return null;
+                }
+                indexes.add(index(timeBucket, tableNumber));
+            }
+        } else if (shardingValue instanceof RangeShardingValue) {
+            Range<?> range = ((RangeShardingValue)shardingValue).getValueRange();
+            if (isId || !range.hasLowerBound() || !range.hasUpperBound()) {
+                return null;
+            }
+            Long lower = timeBucket(range.lowerEndpoint(), false);
+            Long upper = timeBucket(range.upperEndpoint(), false);
+            if (lower == null || upper == null) {
+                return null;
+            }
+            int fromDay = epochDay(lower);
+            int toDay = epochDay(upper);
+            if (toDay - fromDay + 1 >= tableNumber) {
+                return null;
+            }
+            for (int day = fromDay; day <= toDay; day++) {
+                indexes.add(day % tableNumber);
+            }
+        } else {
+            return null;
+        }
+        return indexes;
+    }
+
+    private static Long timeBucket(Object value, boolean isId) {
+        if (value instanceof Number) {
+            return ((Number)value).longValue();
+        }
+        String text = String.valueOf(value);
+        if (isId) {
+            int split = text.indexOf(Const.ID_SPLIT);
+            text = split > 0 ? text.substring(0, split) : text;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static int index(long timeBucket, int tableNumber) {
+        return epochDay(timeBucket) % tableNumber;
+    }
+
+    /**
+     * The time buckets of all the downsampling start with the date, yyyyMM of the month buckets is taken as the first
+     * day of the month.
+     */
+    private static int epochDay(long timeBucket) {
+        String text = String.valueOf(timeBucket);
+        int date = text.length() >= 8 ? Integer.parseInt(text.substring(0, 8)) : Integer.parseInt(text) * 100 + 1;
+        LocalDate day = new LocalDate(date / 10000, date / 100 % 100, date % 100);
+        return Math.abs(Days.daysBetween(EPOCH, day).getDays());
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding;
+
+import io.shardingjdbc.core.api.config.ShardingRuleConfiguration;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.generated.service.*;
+import org.apache.skywalking.oap.server.core.analysis.indicator.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideIndicator;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.core.query.sql.*;
+import org.apache.skywalking.oap.server.core.register.*;
+import org.apache.skywalking.oap.server.core.source.Scope;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.StorageAnnotationListener;
+import org.apache.skywalking.oap.server.core.storage.model.IModelGetter;
+import org.apache.skywalking.oap.server.library.client.shardingjdbc.*;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.storage.plugin.h2.base.HistoryDeleteH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.h2.cache.ServiceInventoryCacheH2DAO;
+import org.apache.skywalking.oap.server.storage.plugin.h2.lock.*;
+import org.apache.skywalking.oap.server.storage.plugin.h2.query.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.base.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.sharding.rule.ShardingTables;
+import org.junit.*;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the path from the persistence to the queries against two in-memory databases in the MySQL compatibility mode,
+ * each of them holds two tables of every sharded model.
+ *
+ * @author peng-yongsheng
+ */
+public class ShardingStorageTestCase {
+
+    /**
+     * The day of {@link #MINUTE} goes to the second table, the next day goes to the first one.
+     */
+    private static final long MINUTE = 201810171200L;
+    private static final long NEXT_DAY_MINUTE = 201810181200L;
+
+    private ShardingjdbcClient client;
+    private StorageShardingDAO storageDAO;
+    private BatchProcessShardingDAO batchDAO;
+
+    @Before
+    public void before() throws Exception {
+        Map<String, ShardingjdbcClientConfig> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < 2; i++) {
+            String url = "jdbc:h2:mem:" + UUID.randomUUID().toString() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+            dataSources.put(ShardingTables.dataSourceName(i), new ShardingjdbcClientConfig("org.h2.Driver", url, "sa", ""));
+        }
+
+        StorageAnnotationListener listener = new StorageAnnotationListener();
+        listener.notify(ServiceInventory.class);
+        listener.notify(EndpointInventory.class);
+        listener.notify(ServiceInstanceInventory.class);
+        listener.notify(NetworkAddressInventory.class);
+        listener.notify(SegmentRecord.class);
+        listener.notify(ServiceRelationServerSideIndicator.class);
+        listener.notify(ServicePercentileIndicator.class);
+        listener.notify(ServiceCpmIndicator.class);
+
+        ShardingTables shardingTables = new ShardingTables(2, 2);
+        ShardingRuleConfiguration ruleConfiguration = new ShardingRuleConfiguration();
+        shardingTables.fillRule(ruleConfiguration, listener.getModels());
+        client = new ShardingjdbcClient(dataSources, ruleConfiguration);
+        client.initialize();
+
+        CoreModule moduleDefine = Mockito.spy(CoreModule.class);
+        ModuleProvider moduleProvider = Mockito.mock(ModuleProvider.class);
+        LinkedList<ModuleProvider> loadedProviders = Whitebox.getInternalState(moduleDefine, "loadedProviders");
+        loadedProviders.add(moduleProvider);
+
+        ModuleManager moduleManager = Mockito.mock(ModuleManager.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(moduleDefine);
+        when(moduleProvider.getService(IModelGetter.class)).thenReturn(listener);
+
+        new StorageShardingInstaller(moduleManager, shardingTables).install(client);
+        new RegisterLockH2Installer(client).install();
+
+        storageDAO = new StorageShardingDAO(client);
+        batchDAO = new BatchProcessShardingDAO(client, shardingTables);
+    }
+
+    @After
+    public void after() {
+        client.shutdown();
+    }
+
+    @Test
+    public void register() throws Exception {
+        RegisterLockH2DAO lockDAO = new RegisterLockH2DAO(client, 1000);
+        Assert.assertTrue(lockDAO.tryLock(Scope.Service));
+        Assert.assertFalse(lockDAO.tryLock(Scope.Service));
+        lockDAO.releaseLock(Scope.Service);
+        Assert.assertTrue(lockDAO.tryLock(Scope.Service));
+
+        IRegisterDAO registerDAO = storageDAO.newRegisterDao(builder(new ServiceInventory.Builder()));
+        Assert.assertEquals(0, registerDAO.max(ServiceInventory.MODEL_NAME));
+
+        ServiceInventory serviceInventory = new ServiceInventory();
+        serviceInventory.setName("order-service");
+        serviceInventory.setIsAddress(BooleanUtils.FALSE);
+        serviceInventory.setRegisterTime(1000);
+        serviceInventory.setHeartbeatTime(5000);
+        serviceInventory.setSequence(registerDAO.max(ServiceInventory.MODEL_NAME) + 1);
+        registerDAO.forceInsert(ServiceInventory.MODEL_NAME, serviceInventory);
+        Assert.assertEquals(1, count("ds_0", ServiceInventory.MODEL_NAME));
+
+        ServiceInventoryCacheH2DAO cacheDAO = new ServiceInventoryCacheH2DAO(client);
+        Assert.assertEquals(1, cacheDAO.getServiceId("order-service"));
+        Assert.assertEquals("order-service", cacheDAO.get(1).getName());
+
+        MetadataQueryH2DAO metadataQueryDAO = new MetadataQueryH2DAO(client);
+        Assert.assertEquals(1, metadataQueryDAO.numOfService(2000, 3000));
+        Assert.assertEquals("1", metadataQueryDAO.searchService("order-service").getId());
+    }
+
+    @Test
+    public void indicator() throws Exception {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServicePercentileIndicator.Builder()));
+        String modelName = "service_percentile";
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("1", MINUTE, 100)));
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("1", NEXT_DAY_MINUTE, 300)));
+        batch.add(indicatorDAO.prepareBatchInsert(modelName, p99("2", MINUTE, 50)));
+        batchDAO.batchPersistence(batch);
+
+        Assert.assertEquals(1, count("ds_1", modelName + "_1"));
+        Assert.assertEquals(1, count("ds_1", modelName + "_0"));
+        Assert.assertEquals(1, count("ds_0", modelName + "_1"));
+        Assert.assertEquals(0, count("ds_0", modelName + "_0"));
+
+        ServicePercentileIndicator updated = p99("2", MINUTE, 70);
+        batchDAO.batchPersistence(Collections.singletonList(indicatorDAO.prepareBatchUpdate(modelName, updated)));
+        Assert.assertEquals(1, count("ds_0", modelName + "_1"));
+
+        List<Indicator> indicators = indicatorDAO.multiGet(modelName, Arrays.asList(updated, p99("1", NEXT_DAY_MINUTE, 0), p99("3", MINUTE, 0)));
+        Assert.assertEquals(2, indicators.size());
+        for (Indicator indicator : indicators) {
+            ServicePercentileIndicator p99 = (ServicePercentileIndicator)indicator;
+            Assert.assertEquals(p99.getEntityId().equals("2") ? 70 : 300, p99.getP99());
+            Assert.assertEquals(10, p99.getPrecision());
+            Assert.assertEquals(1, p99.getDetailGroup().size());
+        }
+
+        MetricQueryH2DAO metricQueryDAO = new MetricQueryH2DAO(client);
+        Where where = new Where();
+        KeyValues keyValues = new KeyValues();
+        keyValues.setKey(Indicator.ENTITY_ID);
+        keyValues.getValues().add("1");
+        where.getKeyValues().add(keyValues);
+        IntValues values = metricQueryDAO.getValues(modelName, Step.MINUTE, MINUTE, NEXT_DAY_MINUTE, where, "p99", Function.Avg);
+        Assert.assertEquals(1, values.getValues().size());
+        Assert.assertEquals(200, values.getValues().get(0).getValue());
+
+        IntValues linearValues = metricQueryDAO.getLinearIntValues(modelName, Step.MINUTE, Arrays.asList(MINUTE + "_1", NEXT_DAY_MINUTE + "_1", (MINUTE + 1) + "_1"), "p99");
+        Assert.assertEquals(100, linearValues.getValues().get(0).getValue());
+        Assert.assertEquals(300, linearValues.getValues().get(1).getValue());
+        Assert.assertEquals(0, linearValues.getValues().get(2).getValue());
+
+        IIndicatorDAO cpmDAO = storageDAO.newIndicatorDao(builder(new ServiceCpmIndicator.Builder()));
+        batch.clear();
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("1", MINUTE, 100)));
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("1", NEXT_DAY_MINUTE, 300)));
+        batch.add(cpmDAO.prepareBatchInsert("service_cpm", cpm("2", MINUTE, 50)));
+        batchDAO.batchPersistence(batch);
+        List<TopNEntity> topN = new AggregationQueryH2DAO(client).getServiceTopN("service_cpm", 1, Step.MINUTE, MINUTE, NEXT_DAY_MINUTE, Order.DES);
+        Assert.assertEquals(1, topN.size());
+        Assert.assertEquals("1", topN.get(0).getId());
+
+        new HistoryDeleteH2DAO(client).deleteHistory(modelName, Indicator.TIME_BUCKET, NEXT_DAY_MINUTE);
+        Assert.assertEquals(0, count("ds_1", modelName + "_1"));
+        Assert.assertEquals(0, count("ds_0", modelName + "_1"));
+        Assert.assertEquals(1, count("ds_1", modelName + "_0"));
+    }
+
+    @Test
+    public void topology() throws IOException {
+        IIndicatorDAO indicatorDAO = storageDAO.newIndicatorDao(builder(new ServiceRelationServerSideIndicator.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(NEXT_DAY_MINUTE, 1, 2)));
+        batch.add(indicatorDAO.prepareBatchInsert(ServiceRelationServerSideIndicator.INDEX_NAME, relation(MINUTE, 3, 4)));
+        batchDAO.batchPersistence(batch);
+
+        TopologyQueryH2DAO topologyQueryDAO = new TopologyQueryH2DAO(client);
+        Assert.assertEquals(2, topologyQueryDAO.loadServerSideServiceRelations(Step.MINUTE, MINUTE, NEXT_DAY_MINUTE).size());
+
+        List<Call> calls = topologyQueryDAO.loadSpecifiedServerSideServiceRelations(Step.MINUTE, MINUTE, MINUTE, Collections.singletonList(2));
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(1, calls.get(0).getSource());
+        Assert.assertEquals(2, calls.get(0).getTarget());
+    }
+
+    @Test
+    public void trace() throws Exception {
+        IRecordDAO recordDAO = storageDAO.newRecordDao(builder(new SegmentRecord.Builder()));
+
+        List<Object> batch = new ArrayList<>();
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s1", "t1", "/order/create", 100, BooleanUtils.FALSE, MINUTE)));
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s2", "t1", "/order/pay", 300, BooleanUtils.TRUE, NEXT_DAY_MINUTE)));
+        batch.add(recordDAO.prepareBatchInsert(SegmentRecord.INDEX_NAME, segment("s3", "t2", "/user/login", 200, BooleanUtils.FALSE, MINUTE)));
+        batchDAO.batchPersistence(batch);
+
+        int total = 0;
+        for (String dataSourceName : Arrays.asList("ds_0", "ds_1")) {
+            Assert.assertEquals(0, count(dataSourceName, SegmentRecord.INDEX_NAME));
+            total += count(dataSourceName, SegmentRecord.INDEX_NAME + "_0") + count(dataSourceName, SegmentRecord.INDEX_NAME + "_1");
+        }
+        Assert.assertEquals(3, total);
+
+        TraceQueryH2DAO traceQueryDAO = new TraceQueryH2DAO(client);
+        TraceBrief traceBrief = traceQueryDAO.queryBasicTraces(0, 0, 0, 0, "order", 0, 0, null, 10, 0, TraceState.ALL, QueryOrder.BY_DURATION);
+        Assert.assertEquals(2, traceBrief.getTotal());
+        Assert.assertEquals("s2", traceBrief.getTraces().get(0).getSegmentId());
+        Assert.assertTrue(traceBrief.getTraces().get(0).isError());
+
+        traceBrief = traceQueryDAO.queryBasicTraces(0, 0, 0, 0, null, 0, 0, null, 1, 1, TraceState.ALL, QueryOrder.BY_DURATION);
+        Assert.assertEquals(3, traceBrief.getTotal());
+        Assert.assertEquals(1, traceBrief.getTraces().size());
+        Assert.assertEquals("s3", traceBrief.getTraces().get(0).getSegmentId());
+
+        List<SegmentRecord> segments = traceQueryDAO.queryByTraceId("t1");
+        Assert.assertEquals(2, segments.size());
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, segments.get(0).getDataBinary());
+    }
+
+    /**
+     * @return the number of the rows in the given actual table, or 0 when the table doesn't exist in the data source.
+     */
+    private int count(String dataSourceName, String tableName) throws Exception {
+        try (Connection connection = client.getConnection(dataSourceName)) {
+            try (ResultSet rs = connection.getMetaData().getTables(null, null, tableName.toUpperCase(), null)) {
+                if (!rs.next()) {
+                    return 0;
+                }
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends StorageData> StorageBuilder<T> builder(StorageBuilder builder) {
+        return builder;
+    }
+
+    private ServicePercentileIndicator p99(String entityId, long timeBucket, int value) {
+        ServicePercentileIndicator indicator = new ServicePercentileIndicator();
+        indicator.setEntityId(entityId);
+        indicator.setTimeBucket(timeBucket);
+        indicator.setP99(value);
+        indicator.setPrecision(10);
+        Histogram detailGroup = new Histogram();
+        detailGroup.increment(value / 10);
+        indicator.setDetailGroup(detailGroup);
+        return indicator;
+    }
+
+    private ServiceCpmIndicator cpm(String entityId, long timeBucket, long value) {
+        ServiceCpmIndicator indicator = new ServiceCpmIndicator();
+        indicator.setEntityId(entityId);
+        indicator.setTimeBucket(timeBucket);
+        indicator.setValue(value);
+        indicator.setTotal(value);
+        return indicator;
+    }
+
+    private ServiceRelationServerSideIndicator relation(long timeBucket, int sourceServiceId, int destServiceId) {
+        ServiceRelationServerSideIndicator indicator = new ServiceRelationServerSideIndicator();
+        indicator.setTimeBucket(timeBucket);
+        indicator.setSourceServiceId(sourceServiceId);
+        indicator.setDestServiceId(destServiceId);
+        return indicator;
+    }
+
+    private Record segment(String segmentId, String traceId, String endpointName, int latency, int isError,
+        long minute) {
+        SegmentRecord record = new SegmentRecord();
+        record.setSegmentId(segmentId);
+        record.setTraceId(traceId);
+        record.setServiceId(1);
+        record.setEndpointName(endpointName);
+        record.setStartTime(latency);
+        record.setEndTime(latency * 2);
+        record.setLatency(latency);
+        record.setIsError(isError);
+        record.setTimeBucket(minute * 100);
+        record.setDataBinary(new byte[] {1, 2, 3});
+        return record;
+    }
+}